@@ -0,0 +1,36 @@
+package mio.server.benchmark;
+
+import mio.server.data.CSVReader;
+import mio.server.model.LineStopData;
+import mio.server.model.StopData;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark (JMH) de la lectura de los CSV del plan con el lector mapeado
+ * en memoria: paradas (decimales y textos) y relaciones línea-parada (enteros)
+ *
+ * Ejecutar con: gradlew jmh -PjmhIncludes=CsvBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CsvBenchmark {
+
+    @Benchmark
+    public List<StopData> readStops() throws IOException {
+        return CSVReader.readStops("data/stops-241.csv");
+    }
+
+    @Benchmark
+    public List<LineStopData> readLineStops() throws IOException {
+        return CSVReader.readLineStops("data/linestops-241.csv");
+    }
+}
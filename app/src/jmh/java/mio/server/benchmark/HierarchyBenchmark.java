@@ -0,0 +1,46 @@
+package mio.server.benchmark;
+
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.GraphBuilder;
+import mio.server.repository.RepositoryFactory;
+import mio.server.util.ContractionHierarchy;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark (JMH) del preprocesamiento de la jerarquía de contracción
+ * con uno y varios hilos (el resultado es el mismo en ambos casos)
+ *
+ * Ejecutar con: gradlew jmh -PjmhIncludes=HierarchyBenchmark
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HierarchyBenchmark {
+
+    @Param({ "1", "0" }) // 0 = todos los núcleos disponibles
+    public int threads;
+
+    private AdjacencyIndex index;
+
+    @Setup(Level.Trial)
+    public void loadGraph() {
+        GraphBuilder graphBuilder = new GraphBuilder(
+            RepositoryFactory.createStopRepository("CSV", "data/stops-241.csv"),
+            RepositoryFactory.createLineRepository("CSV", "data/lines-241.csv"),
+            RepositoryFactory.createLineStopRepository("CSV", "data/linestops-241.csv")
+        );
+        graphBuilder.loadData();
+        index = graphBuilder.getAdjacencyIndex();
+    }
+
+    @Benchmark
+    public ContractionHierarchy contract() {
+        return ContractionHierarchy.build(index, threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+    }
+}
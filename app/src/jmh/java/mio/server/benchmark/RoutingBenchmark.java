@@ -0,0 +1,242 @@
+package mio.server.benchmark;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.GraphBuilder;
+import mio.server.data.PatternIndex;
+import mio.server.repository.RepositoryFactory;
+import mio.server.util.ContractionHierarchy;
+import mio.server.util.HopTable;
+import mio.server.util.LandmarkTable;
+import mio.server.util.PathFinder;
+import mio.server.util.ReachabilityIndex;
+import mio.server.util.SearchAlgorithm;
+import mio.server.util.ShortestPathTreeCache;
+import mio.server.util.StopGrid;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Microbenchmark (JMH) de los algoritmos de búsqueda de rutas
+ * Compara BFS (menos paradas), la búsqueda por transbordos y Dijkstra, A* o ALT (menos km),
+ * junto con sus variantes bidireccionales, la tabla de rutas de todos los pares,
+ * la jerarquía de contracción y el enrutador por rondas (viajes Pareto), sobre el
+ * grafo real (y las consultas de paradas cercanas del índice espacial),
+ * usando un conjunto fijo de pares origen-destino aleatorios y una consulta que
+ * cruza la ciudad (Universidades -> Terminal Menga). Al final de cada prueba se
+ * imprime el promedio de paradas expandidas por consulta.
+ *
+ * Ejecutar con: gradlew jmh
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RoutingBenchmark {
+
+    private static final int NUM_QUERIES = 1024;
+    private static final int UNIVERSIDADES = 602304;   // Universidades C1
+    private static final int TERMINAL_MENGA = 600101;  // Terminal Menga C2
+
+    private AdjacencyIndex index;
+    private PatternIndex patterns;
+    private ContractionHierarchy hierarchy;
+    private LandmarkTable landmarks;
+    private HopTable hopTable;
+    private ReachabilityIndex reachability;
+    private ShortestPathTreeCache trees;
+    private StopGrid grid;
+    private int[] origins;
+    private int[] destinations;
+    private double[] pointLats;  // puntos aleatorios dentro del área de la red
+    private double[] pointLons;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void loadGraph() {
+        GraphBuilder graphBuilder = new GraphBuilder(
+            RepositoryFactory.createStopRepository("CSV", "data/stops-241.csv"),
+            RepositoryFactory.createLineRepository("CSV", "data/lines-241.csv"),
+            RepositoryFactory.createLineStopRepository("CSV", "data/linestops-241.csv")
+        );
+        graphBuilder.loadData();
+        index = graphBuilder.getAdjacencyIndex();
+        patterns = graphBuilder.getPatternIndex();
+        reachability = graphBuilder.getReachabilityIndex();
+        hierarchy = ContractionHierarchy.build(index, Runtime.getRuntime().availableProcessors());
+        landmarks = LandmarkTable.build(index, 12, Runtime.getRuntime().availableProcessors());
+        hopTable = HopTable.build(index, Runtime.getRuntime().availableProcessors());
+        trees = new ShortestPathTreeCache(index, 64L * 1024 * 1024);
+        grid = graphBuilder.getStopGrid();
+
+        // Semilla fija para que todas las ejecuciones usen las mismas consultas
+        Random random = new Random(42);
+        origins = new int[NUM_QUERIES];
+        destinations = new int[NUM_QUERIES];
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            origins[i] = index.stopIdAt(random.nextInt(index.size()));
+            destinations[i] = index.stopIdAt(random.nextInt(index.size()));
+        }
+        pointLats = new double[NUM_QUERIES];
+        pointLons = new double[NUM_QUERIES];
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            // Entre dos paradas al azar: cae dentro del área cubierta por la red
+            int a = random.nextInt(index.size());
+            int b = random.nextInt(index.size());
+            double t = random.nextDouble();
+            pointLats[i] = index.latitudeAt(a) + t * (index.latitudeAt(b) - index.latitudeAt(a));
+            pointLons[i] = index.longitudeAt(a) + t * (index.longitudeAt(b) - index.longitudeAt(a));
+        }
+    }
+
+    /**
+     * Acumula las paradas expandidas por la búsqueda en cada hilo
+     */
+    @State(Scope.Thread)
+    public static class SettledNodes {
+        long settled;
+        long queries;
+
+        @TearDown(Level.Trial)
+        public void report() {
+            if (queries > 0) {
+                System.out.printf("%nParadas expandidas por consulta: %.1f%n", (double) settled / queries);
+            }
+        }
+    }
+
+    @Benchmark
+    public RouteResult bfsHops(SettledNodes counter) {
+        int i = nextQuery();
+        return count(counter, PathFinder.findRoute(origins[i], destinations[i], CostMode.HOPS, index));
+    }
+
+    @Benchmark
+    public RouteResult bidirectionalBfsHops(SettledNodes counter) {
+        int i = nextQuery();
+        return count(counter, PathFinder.findRoute(origins[i], destinations[i], CostMode.HOPS,
+                SearchAlgorithm.BIDIRECTIONAL_BFS, index));
+    }
+
+    @Benchmark
+    public RouteResult hopTableLookup() {
+        int i = nextQuery();
+        return PathFinder.findShortestRouteFromTable(origins[i], destinations[i], index, hopTable);
+    }
+
+    @Benchmark
+    public RouteResult shortestPathTreeDistance() {
+        // Las consultas se repiten cada NUM_QUERIES: tras la primera vuelta todos los árboles están guardados
+        int i = nextQuery();
+        return PathFinder.findShortestRouteFromTree(origins[i], destinations[i], CostMode.DISTANCE, index, trees);
+    }
+
+    @Benchmark
+    public RouteResult lineAwareTransfers(SettledNodes counter) {
+        int i = nextQuery();
+        return count(counter, PathFinder.findRoute(origins[i], destinations[i], CostMode.TRANSFERS, index));
+    }
+
+    @Benchmark
+    public RouteResult dijkstraDistance(SettledNodes counter) {
+        int i = nextQuery();
+        return count(counter, PathFinder.findRoute(origins[i], destinations[i], CostMode.DISTANCE,
+                SearchAlgorithm.DIJKSTRA, index));
+    }
+
+    @Benchmark
+    public RouteResult astarDistance(SettledNodes counter) {
+        int i = nextQuery();
+        return count(counter, PathFinder.findRoute(origins[i], destinations[i], CostMode.DISTANCE,
+                SearchAlgorithm.ASTAR, index));
+    }
+
+    @Benchmark
+    public RouteResult altDistance(SettledNodes counter) {
+        int i = nextQuery();
+        return count(counter, PathFinder.findShortestRouteALT(origins[i], destinations[i], index, landmarks));
+    }
+
+    @Benchmark
+    public RouteResult bidirectionalDijkstraDistance(SettledNodes counter) {
+        int i = nextQuery();
+        return count(counter, PathFinder.findRoute(origins[i], destinations[i], CostMode.DISTANCE,
+                SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA, index));
+    }
+
+    @Benchmark
+    public RouteResult hierarchyDistance(SettledNodes counter) {
+        int i = nextQuery();
+        return count(counter, PathFinder.findShortestRouteWithHierarchy(origins[i], destinations[i], index, hierarchy));
+    }
+
+    @Benchmark
+    public RouteResult[] raptorJourneys() {
+        int i = nextQuery();
+        return PathFinder.findJourneys(origins[i], destinations[i], 5, index, patterns);
+    }
+
+    @Benchmark
+    public RouteResult dijkstraCrossCity(SettledNodes counter) {
+        return count(counter, PathFinder.findRoute(UNIVERSIDADES, TERMINAL_MENGA, CostMode.DISTANCE,
+                SearchAlgorithm.DIJKSTRA, index));
+    }
+
+    @Benchmark
+    public RouteResult astarCrossCity(SettledNodes counter) {
+        return count(counter, PathFinder.findRoute(UNIVERSIDADES, TERMINAL_MENGA, CostMode.DISTANCE,
+                SearchAlgorithm.ASTAR, index));
+    }
+
+    @Benchmark
+    public RouteResult altCrossCity(SettledNodes counter) {
+        return count(counter, PathFinder.findShortestRouteALT(UNIVERSIDADES, TERMINAL_MENGA, index, landmarks));
+    }
+
+    @Benchmark
+    public RouteResult hierarchyCrossCity(SettledNodes counter) {
+        return count(counter, PathFinder.findShortestRouteWithHierarchy(UNIVERSIDADES, TERMINAL_MENGA, index, hierarchy));
+    }
+
+    @Benchmark
+    public void reachableStops(Blackhole blackhole) {
+        int i = nextQuery();
+        blackhole.consume(PathFinder.findReachableStops(origins[i], index));
+    }
+
+    @Benchmark
+    public void reachableStopsClosure(Blackhole blackhole) {
+        int i = nextQuery();
+        blackhole.consume(reachability.reachableStops(origins[i]));
+    }
+
+    @Benchmark
+    public NearbyStops nearestStops() {
+        int i = nextQuery();
+        return grid.nearest(pointLats[i], pointLons[i], 5);
+    }
+
+    @Benchmark
+    public NearbyStops stopsWithin() {
+        int i = nextQuery();
+        return grid.within(pointLats[i], pointLons[i], 300.0);
+    }
+
+    private static RouteResult count(SettledNodes counter, RouteResult result) {
+        counter.settled += PathFinder.lastSettledCount();
+        counter.queries++;
+        return result;
+    }
+
+    private int nextQuery() {
+        int i = next;
+        next = (i + 1) & (NUM_QUERIES - 1);
+        return i;
+    }
+}
@@ -2,12 +2,12 @@ package mio.client;
 
 import com.zeroc.Ice.Communicator;
 import com.zeroc.Ice.Util;
+import mioice.CostMode;
 import mioice.GraphServicePrx;
 import mioice.RouteResult;
 import mioice.Stop;
+import mio.server.data.MappedCsv;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.PrintWriter;
 import java.util.ArrayList;
@@ -20,14 +20,16 @@ public class BenchmarkClient {
         Communicator communicator = null;
 
         try {
-            // Args: <datagramFile> <outputFile>
+            // Args: <datagramFile> <outputFile> [batchSize]
             if (args.length < 2) {
-                System.err.println("Usage: java BenchmarkClient <datagramFile> <outputFile>");
+                System.err.println("Usage: java BenchmarkClient <datagramFile> <outputFile> [batchSize]");
                 System.exit(1);
             }
 
             String datagramFile = args[0];
             String outputFile = args[1];
+            // batchSize > 0: los pares se envían en lotes con findRoutes (una invocación por lote)
+            int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 0;
 
             communicator = Util.initialize(args, "config/config.client");
 
@@ -56,23 +58,19 @@ public class BenchmarkClient {
 
             // Leer archivo de datagramas y preparar requests
             System.out.println("Leyendo archivo de datos: " + datagramFile);
-            List<Integer> origins = new ArrayList<>();
-            try (BufferedReader br = new BufferedReader(new FileReader(datagramFile))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    try {
-                        String[] parts = line.split(",");
-                        if (parts.length > 2) {
-                            int originId = Integer.parseInt(parts[2].trim());
-                            if (originId > 0) {
-                                origins.add(originId);
-                            }
-                        }
-                    } catch (Exception e) {
-                        // Ignorar líneas mal formadas
-                    }
+            // Archivo mapeado en memoria y leído por bloques en paralelo (sin encabezado:
+            // las líneas que no tienen un entero en la tercera columna se ignoran)
+            List<Integer> origins = MappedCsv.open(datagramFile, false).parse(row -> {
+                if (row.fieldCount() <= 2) {
+                    return null;
                 }
-            }
+                try {
+                    int originId = row.getInt(2);
+                    return originId > 0 ? originId : null;
+                } catch (NumberFormatException e) {
+                    return null; // Ignorar líneas mal formadas
+                }
+            });
             System.out.println("Total requests cargados: " + origins.size());
 
             // Ejecutar Benchmark con Concurrencia
@@ -86,7 +84,30 @@ public class BenchmarkClient {
             Random rand = new Random();
             long startTime = System.currentTimeMillis();
 
-            for (int i = 0; i < origins.size(); i++) {
+            for (int i = 0; batchSize > 0 && i < origins.size(); i += batchSize) {
+                final int[] batchOrigins = new int[Math.min(batchSize, origins.size() - i)];
+                final int[] batchDests = new int[batchOrigins.length];
+                for (int k = 0; k < batchOrigins.length; k++) {
+                    batchOrigins[k] = origins.get(i + k);
+                    batchDests[k] = stopIds.get(rand.nextInt(stopIds.size()));
+                }
+                
+                executor.submit(() -> {
+                    try {
+                        master.findRoutes(batchOrigins, batchDests, CostMode.HOPS);
+                        successCount.addAndGet(batchOrigins.length);
+                    } catch (Exception e) {
+                        errorCount.addAndGet(batchOrigins.length);
+                    } finally {
+                        int current = completedCount.addAndGet(batchOrigins.length);
+                        if (current / 100 != (current - batchOrigins.length) / 100) {
+                            System.out.print(".");
+                        }
+                    }
+                });
+            }
+
+            for (int i = 0; batchSize <= 0 && i < origins.size(); i++) {
                 final int origin = origins.get(i);
                 final int dest = stopIds.get(rand.nextInt(stopIds.size()));
                 
@@ -125,6 +146,7 @@ public class BenchmarkClient {
             System.out.println("RESULTADOS DEL BENCHMARK (CONCURRENTE)");
             System.out.println("========================================");
             System.out.println("Hilos Concurrentes: " + numThreads);
+            System.out.println("Pares por invocación: " + (batchSize > 0 ? batchSize : 1));
             System.out.println("Total Requests: " + origins.size());
             System.out.println("Exitosos: " + successCount.get());
             System.out.println("Fallidos: " + errorCount.get());
@@ -5,6 +5,9 @@ import com.zeroc.Ice.Communicator;
 import com.zeroc.Ice.ObjectPrx;
 import com.zeroc.Ice.Util;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Cliente ICE del sistema MIO
  * Se conecta al servidor y proporciona acceso a los servicios remotos
@@ -147,7 +150,156 @@ public class MioGraphClient {
             throw new RuntimeException("Error al buscar ruta", e);
         }
     }
-    
+
+    /**
+     * Encuentra la ruta óptima entre dos paradas según el criterio de costo (HOPS o DISTANCE)
+     */
+    public RouteResult findRoute(int originStopId, int destStopId, CostMode mode) throws StopNotFoundException {
+        try {
+            return graphService.findRouteWithMode(originStopId, destStopId, mode);
+        } catch (StopNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Error buscando ruta: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al buscar ruta", e);
+        }
+    }
+
+    /**
+     * Igual que findRoute(origen, destino, modo), eligiendo el algoritmo de esta
+     * consulta (ej: "ALT", "ASTAR", "DIJKSTRA"); viaja en el contexto de la petición
+     */
+    public RouteResult findRoute(int originStopId, int destStopId, CostMode mode, String algorithm) 
+            throws StopNotFoundException {
+        try {
+            Map<String, String> context = new HashMap<>();
+            context.put("Mio.Search.Algorithm", algorithm);
+            return graphService.findRouteWithMode(originStopId, destStopId, mode, context);
+        } catch (StopNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Error buscando ruta: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al buscar ruta", e);
+        }
+    }
+
+    /**
+     * Obtiene los viajes Pareto óptimos (menos transbordos / menos km) entre dos paradas
+     */
+    public RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers) throws StopNotFoundException {
+        try {
+            return graphService.findJourneys(originStopId, destStopId, maxTransfers);
+        } catch (StopNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Error buscando viajes: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al buscar viajes", e);
+        }
+    }
+
+    /**
+     * Calcula en una sola invocación las rutas de los pares (origins[i], dests[i]),
+     * en el mismo orden
+     */
+    public RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode) {
+        try {
+            return graphService.findRoutes(origins, dests, mode);
+        } catch (Exception e) {
+            System.err.println("Error buscando lote de rutas: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al buscar lote de rutas", e);
+        }
+    }
+
+    /**
+     * Calcula la matriz de km, arcos y transbordos entre dos conjuntos de paradas
+     * (celda [i * targets.length + j], -1 si no hay ruta)
+     */
+    public RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode) {
+        try {
+            return graphService.computeMatrix(sources, targets, mode);
+        } catch (Exception e) {
+            System.err.println("Error calculando matriz de costos: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al calcular matriz de costos", e);
+        }
+    }
+
+    /**
+     * Busca hasta k rutas alternativas (sin ciclos, de menor a mayor distancia)
+     */
+    public RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k) 
+            throws StopNotFoundException {
+        try {
+            return graphService.findAlternativeRoutes(originStopId, destStopId, k);
+        } catch (StopNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Error buscando rutas alternativas: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al buscar rutas alternativas", e);
+        }
+    }
+
+    /**
+     * Obtiene las paradas alcanzables desde un origen sin superar un presupuesto
+     * (km con DISTANCE, arcos con HOPS, transbordos con TRANSFERS)
+     */
+    public Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull) 
+            throws StopNotFoundException {
+        try {
+            return graphService.findIsochrone(originStopId, mode, budget, withHull);
+        } catch (StopNotFoundException e) {
+            throw e;
+        } catch (Exception e) {
+            System.err.println("Error calculando isócrona: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al calcular isócrona", e);
+        }
+    }
+
+    /**
+     * Busca un viaje entre dos coordenadas, con caminata de acceso y de egreso
+     */
+    public CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong) {
+        try {
+            return graphService.findRouteByCoordinates(originLat, originLong, destLat, destLong);
+        } catch (Exception e) {
+            System.err.println("Error buscando viaje entre coordenadas: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al buscar viaje entre coordenadas", e);
+        }
+    }
+
+    /**
+     * Obtiene las k paradas más cercanas a una coordenada (ej: un clic en el mapa)
+     */
+    public NearbyStops findNearestStops(double lat, double lon, int k) {
+        try {
+            return graphService.findNearestStops(lat, lon, k);
+        } catch (Exception e) {
+            System.err.println("Error buscando paradas cercanas: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al buscar paradas cercanas", e);
+        }
+    }
+
+    /**
+     * Obtiene las paradas a radiusMeters o menos de una coordenada
+     */
+    public NearbyStops findStopsWithin(double lat, double lon, double radiusMeters) {
+        try {
+            return graphService.findStopsWithin(lat, lon, radiusMeters);
+        } catch (Exception e) {
+            System.err.println("Error buscando paradas en el radio: " + e.getMessage());
+            e.printStackTrace();
+            throw new RuntimeException("Error al buscar paradas en el radio", e);
+        }
+    }
+
     /**
      * Obtiene todas las paradas alcanzables desde una parada de origen
      */
@@ -36,16 +36,21 @@ public class MioServer {
             // Cargar datos y construir grafo
             System.out.println("Inicializando servidor...\n");
             GraphBuilder graphBuilder = new GraphBuilder(stopRepo, lineRepo, lineStopRepo);
+            graphBuilder.configureWalking(communicator.getProperties()); // Mio.Walk.* (antes de cargar)
             
             try {
-                // Cargar datos usando los repositorios inyectados
-                graphBuilder.loadData();
+                // Cargar datos usando los repositorios inyectados (o el snapshot binario, si corresponde)
+                graphBuilder.loadData(communicator.getProperties(),
+                    "data/stops-241.csv", "data/lines-241.csv", "data/linestops-241.csv");
             } catch (Exception e) {
                 System.err.println("Error cargando datos: " + e.getMessage());
                 status = 1;
                 return;
             }
             
+            // Algoritmos de búsqueda por criterio de costo (propiedades Mio.Search.*)
+            graphBuilder.configureSearch(communicator.getProperties());
+            
             // Imprimir el grafo en consola (cumple con el requerimiento A)
             graphBuilder.printGraphToConsole();
             
@@ -54,7 +59,9 @@ public class MioServer {
             
             // Crear e instalar servants
             RouteService routeService = new RouteServiceI(graphBuilder);
-            GraphService graphService = new GraphServiceI(graphBuilder);
+            GraphServiceI graphService = new GraphServiceI(graphBuilder);
+            graphService.configureCache(communicator.getProperties());
+            graphService.configureBatch(communicator.getProperties());
             
             adapter.add(routeService, Util.stringToIdentity("RouteService"));
             adapter.add(graphService, Util.stringToIdentity("GraphService"));
@@ -69,6 +76,7 @@ public class MioServer {
             
             // Esperar por shutdown
             communicator.waitForShutdown();
+            System.out.println("Caché de rutas: " + graphService.getCacheStats());
             
         } catch (Exception e) {
             System.err.println("Error en el servidor: " + e);
@@ -0,0 +1,342 @@
+package mio.server.data;
+
+import mioice.*;
+import mio.server.util.GeoUtils;
+
+import java.util.*;
+
+/**
+ * Índice de adyacencia del grafo en formato CSR (Compressed Sparse Row)
+ *
+ * Las paradas se numeran con índices densos 0..n-1 (ordenados por stopId) y los
+ * arcos salientes de cada parada quedan contiguos: los arcos de la parada v
+ * ocupan las posiciones [offsets[v], offsets[v + 1]) de los arreglos targets y arcs.
+ * Así, expandir una parada cuesta solo su grado de salida.
+ *
+ * También guarda la adyacencia inversa (arcos entrantes) en el mismo formato,
+ * usada por las búsquedas bidireccionales: los arcos que llegan a v ocupan las
+ * posiciones [inOffsets[v], inOffsets[v + 1]) de inSources e inEdges.
+ *
+ * Para las búsquedas que cuentan transbordos se numeran además los estados
+ * (parada, línea): cada arco lleva a un estado, el de su parada destino en su línea.
+ *
+ * Los transbordos a pie entre paradas cercanas son arcos con lineId WALK_LINE,
+ * al final del bloque de cada parada. Su peso (el costo que minimizan las
+ * búsquedas) es la distancia caminada por el factor de costo de caminar, y su
+ * distancia (la que se reporta en las rutas) es la caminada. Como WALK_LINE es
+ * también la "línea" de quien aún no ha abordado, bajarse a caminar cuenta como
+ * un transbordo y abordar después de caminar no suma otro.
+ *
+ * Sobre los arcos hay además una capa colapsada con un solo arco por par
+ * (origen, destino): los pares de la parada v ocupan [pairOffsets[v],
+ * pairOffsets[v + 1]), en el orden en que aparece su primer arco, con el menor
+ * costo de sus arcos paralelos y la lista de esos arcos (y con ella de las líneas
+ * que sirven el tramo). BFS y Dijkstra recorren los pares; el arco concreto de
+ * cada tramo se elige al reconstruir la ruta.
+ *
+ * Hay dos implementaciones con los mismos accesores: HeapAdjacencyIndex, con
+ * los arreglos en el heap (la que arman build y fromArrays), y
+ * MappedAdjacencyIndex, con vistas de solo lectura sobre las columnas de un
+ * snapshot mapeado en memoria, que los procesos de una misma máquina comparten
+ * a través del caché de páginas del sistema operativo.
+ */
+public abstract class AdjacencyIndex {
+
+    public static final int WALK_LINE = -1; // lineId de los arcos de transbordo a pie
+
+    AdjacencyIndex() {
+    }
+
+    /**
+     * Construye el índice a partir de las paradas y los arcos del grafo.
+     * Conserva el orden relativo de los arcos de cada parada (ordenamiento estable)
+     */
+    public static AdjacencyIndex build(Map<Integer, Stop> stopsMap, List<Arc> allArcs) {
+        return build(stopsMap, allArcs, Collections.emptyList(), 1.0);
+    }
+
+    /**
+     * Construye el índice con los arcos del grafo y los transbordos a pie (lineId
+     * WALK_LINE), que pesan walkCostFactor veces su distancia
+     */
+    public static AdjacencyIndex build(Map<Integer, Stop> stopsMap, List<Arc> transitArcs, List<Arc> walkArcs,
+            double walkCostFactor) {
+        int n = stopsMap.size();
+        List<Arc> allArcs = new ArrayList<>(transitArcs.size() + walkArcs.size());
+        allArcs.addAll(transitArcs);
+        allArcs.addAll(walkArcs);
+
+        int[] stopIds = new int[n];
+        int i = 0;
+        for (Integer stopId : stopsMap.keySet()) {
+            stopIds[i++] = stopId;
+        }
+        Arrays.sort(stopIds);
+
+        Stop[] stops = new Stop[n];
+        for (int v = 0; v < n; v++) {
+            stops[v] = stopsMap.get(stopIds[v]);
+        }
+
+        // Contar el grado de salida de cada parada
+        int[] offsets = new int[n + 1];
+        int[] sources = new int[allArcs.size()];
+        int[] dests = new int[allArcs.size()];
+        int m = 0;
+        for (Arc arc : allArcs) {
+            int from = Arrays.binarySearch(stopIds, arc.fromStop.stopId);
+            int to = Arrays.binarySearch(stopIds, arc.toStop.stopId);
+            if (from < 0 || to < 0) {
+                sources[m] = -1;
+            } else {
+                sources[m] = from;
+                dests[m] = to;
+                offsets[from + 1]++;
+            }
+            m++;
+        }
+
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+
+        // Ubicar cada arco en el bloque de su parada origen
+        int edgeCount = offsets[n];
+        int[] targets = new int[edgeCount];
+        double[] weights = new double[edgeCount];
+        Arc[] arcs = new Arc[edgeCount];
+        int[] next = Arrays.copyOf(offsets, n);
+        for (int k = 0; k < m; k++) {
+            int from = sources[k];
+            if (from < 0) continue;
+            int pos = next[from]++;
+            targets[pos] = dests[k];
+            arcs[pos] = allArcs.get(k);
+            weights[pos] = arcs[pos].lineId == WALK_LINE
+                ? walkCostFactor * arcs[pos].distance : arcs[pos].distance;
+        }
+
+        // Adyacencia inversa: agrupar las posiciones de los arcos por parada destino
+        int[] inOffsets = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            inOffsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++) {
+            inOffsets[v + 1] += inOffsets[v];
+        }
+
+        int[] inSources = new int[edgeCount];
+        int[] inEdges = new int[edgeCount];
+        int[] nextIn = Arrays.copyOf(inOffsets, n);
+        for (int v = 0; v < n; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int pos = nextIn[targets[e]]++;
+                inSources[pos] = v;
+                inEdges[pos] = e;
+            }
+        }
+
+        return new HeapAdjacencyIndex(stopIds, stops, offsets, targets, weights, arcs, inOffsets, inSources, inEdges);
+    }
+
+    /**
+     * Reconstruye el índice a partir de sus arreglos CSR (los de build, leídos de
+     * un snapshot); los estados y los pares se recalculan
+     */
+    static AdjacencyIndex fromArrays(int[] stopIds, Stop[] stops, int[] offsets, int[] targets, double[] weights,
+            Arc[] arcs, int[] inOffsets, int[] inSources, int[] inEdges) {
+        return new HeapAdjacencyIndex(stopIds, stops, offsets, targets, weights, arcs, inOffsets, inSources, inEdges);
+    }
+
+    /**
+     * Arco de transbordo a pie de from a to, con la distancia Haversine entre ellas
+     */
+    public static Arc walkArc(Stop from, Stop to) {
+        return walkArc(from, to,
+            GeoUtils.haversine(from.decimalLat, from.decimalLong, to.decimalLat, to.decimalLong));
+    }
+
+    /**
+     * Arco de transbordo a pie de from a to con una distancia ya calculada (km)
+     */
+    public static Arc walkArc(Stop from, Stop to, double distance) {
+        return new Arc(WALK_LINE, "A pie", 0, 0, from, to, distance, 0.0);
+    }
+
+    /**
+     * Número de paradas del índice
+     */
+    public abstract int size();
+
+    /**
+     * Número de arcos del índice
+     */
+    public abstract int edgeCount();
+
+    /**
+     * Número de pares (origen, destino) distintos de la capa colapsada
+     */
+    public abstract int pairCount();
+
+    /**
+     * Índice denso de una parada, o -1 si no existe
+     */
+    public abstract int indexOf(int stopId);
+
+    public abstract int stopIdAt(int index);
+
+    public abstract Stop stopAt(int index);
+
+    public abstract double latitudeAt(int index);
+
+    public abstract double longitudeAt(int index);
+
+    /**
+     * Distancia en línea recta (cuerda) en km entre las paradas u y v.
+     * Nunca supera la distancia Haversine (el arco de círculo máximo) y por lo
+     * tanto tampoco la de ningún camino del grafo: es una cota inferior válida
+     * para A*, y se calcula con una sola raíz cuadrada.
+     */
+    public abstract double straightLineDistance(int u, int v);
+
+    /**
+     * Primera posición de los arcos salientes de la parada v
+     */
+    public abstract int firstEdge(int v);
+
+    /**
+     * Posición siguiente al último arco saliente de la parada v (exclusiva)
+     */
+    public abstract int lastEdge(int v);
+
+    /**
+     * Índice denso de la parada destino del arco en la posición e
+     */
+    public abstract int target(int e);
+
+    /**
+     * Costo del arco en la posición e: su distancia en km, multiplicada por el
+     * factor de caminata si es un transbordo a pie
+     */
+    public abstract double weight(int e);
+
+    /**
+     * Distancia en km del arco en la posición e (la caminada, si es a pie)
+     */
+    public abstract double distance(int e);
+
+    /**
+     * Indica si el arco en la posición e es un transbordo a pie
+     */
+    public boolean isWalk(int e) {
+        return line(e) == WALK_LINE;
+    }
+
+    public abstract Arc arc(int e);
+
+    /**
+     * Primer par (origen, destino) de la parada v
+     */
+    public abstract int firstPair(int v);
+
+    /**
+     * Posición siguiente al último par de la parada v (exclusiva)
+     */
+    public abstract int lastPair(int v);
+
+    /**
+     * Índice denso de la parada destino del par
+     */
+    public abstract int pairTarget(int pair);
+
+    /**
+     * Menor costo entre los arcos paralelos del par
+     */
+    public abstract double pairWeight(int pair);
+
+    /**
+     * Par (origen, destino) al que pertenece el arco en la posición e
+     */
+    public abstract int edgePair(int e);
+
+    /**
+     * Primera posición de los arcos paralelos del par
+     */
+    public abstract int firstParallelEdge(int pair);
+
+    /**
+     * Posición siguiente al último arco paralelo del par (exclusiva)
+     */
+    public abstract int lastParallelEdge(int pair);
+
+    /**
+     * Arco (posición en los arreglos directos) en la posición k de los paralelos;
+     * line(parallelEdge(k)) es una de las líneas que sirven el tramo
+     */
+    public abstract int parallelEdge(int k);
+
+    /**
+     * Suma de los costos de todos los arcos: ningún camino simple la supera
+     */
+    public abstract double totalWeight();
+
+    /**
+     * lineId del arco en la posición e
+     */
+    public abstract int line(int e);
+
+    /**
+     * Número de estados (parada, línea)
+     */
+    public abstract int stateCount();
+
+    /**
+     * Estado (parada destino, línea) al que se llega usando el arco en la posición e
+     */
+    public abstract int edgeState(int e);
+
+    /**
+     * Índice denso de la parada de un estado
+     */
+    public abstract int stateStop(int state);
+
+    /**
+     * Primera posición de los arcos de continuación (misma línea) de un estado
+     */
+    public abstract int firstStateEdge(int state);
+
+    /**
+     * Posición siguiente al último arco de continuación de un estado (exclusiva)
+     */
+    public abstract int lastStateEdge(int state);
+
+    /**
+     * Arco (posición en los arreglos directos) en la posición k de las continuaciones
+     */
+    public abstract int stateEdge(int k);
+
+    /**
+     * lineId de un estado
+     */
+    public abstract int stateLine(int state);
+
+    /**
+     * Primera posición de los arcos entrantes a la parada v
+     */
+    public abstract int firstInEdge(int v);
+
+    /**
+     * Posición siguiente al último arco entrante a la parada v (exclusiva)
+     */
+    public abstract int lastInEdge(int v);
+
+    /**
+     * Índice denso de la parada origen del arco entrante en la posición r
+     */
+    public abstract int inSource(int r);
+
+    /**
+     * Posición en los arreglos directos (target, weight, arc) del arco entrante r
+     */
+    public abstract int inEdge(int r);
+}
@@ -3,13 +3,26 @@ package mio.server.data;
 import mioice.*;
 import mio.server.model.*;
 import mio.server.repository.*;
+import mio.server.util.ContractionHierarchy;
+import mio.server.util.GeoUtils;
+import mio.server.util.HopTable;
+import mio.server.util.LandmarkTable;
+import mio.server.util.ReachabilityIndex;
+import mio.server.util.SearchAlgorithm;
+import mio.server.util.ShortestPathTreeCache;
+import mio.server.util.StopGrid;
 import mio.server.data.CSVReader; // Explicit import if needed, though it's in same package? No, CSVReader is in mio.server.data, GraphBuilder is in mio.server.data. Wait.
 // GraphBuilder is in mio.server.data. CSVReader is in mio.server.data.
 // Repositories are in mio.server.repository.
 
 import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Constructor del grafo de rutas del sistema MIO
@@ -24,7 +37,31 @@ public class GraphBuilder {
     private Map<Integer, Stop> stopsMap;
     private Map<Integer, Line> linesMap;
     private List<Arc> allArcs;
+    private List<Arc> walkingArcs;                     // Transbordos a pie entre paradas cercanas
     private Map<String, List<Arc>> arcsByLineAndOrientation;
+    private Map<String, List<Arc>> arcsByPattern; // arcos por línea, variante y orientación
+    private AdjacencyIndex adjacencyIndex;
+    private GraphSnapshot pendingArcs;                 // Snapshot compartido cuyos arcos aún no se materializan
+    private PatternIndex patternIndex;
+    private ReachabilityIndex reachabilityIndex;       // Componentes fuertemente conexas y cierre
+    private StopGrid stopGrid;                         // Índice espacial de las paradas
+    private StationIndex stationIndex;                 // Estaciones (andenes agrupados por nombre y cercanía)
+    private ContractionHierarchy contractionHierarchy; // Solo con DistanceAlgorithm=CONTRACTION_HIERARCHY
+    private LandmarkTable landmarkTable;               // Cotas ALT (null si Mio.Search.Landmarks=0)
+    private HopTable hopTable;                         // Solo con HopsAlgorithm=HOP_TABLE
+    private ShortestPathTreeCache treeCache;           // Árboles por origen (null si Mio.Search.TreeCacheMB=0)
+    private SearchAlgorithm hopsAlgorithm = SearchAlgorithm.BFS;       // Algoritmo para CostMode.HOPS
+    private SearchAlgorithm distanceAlgorithm = SearchAlgorithm.ASTAR; // Algoritmo para CostMode.DISTANCE
+    private CostMode transferTieBreak = CostMode.HOPS; // Costo base de CostMode.TRANSFERS
+    private double transferPenalty = 0.0;              // <= 0: primero transbordos, luego costo base
+    private int maxJourneyTransfers = 5;               // Límite de transbordos de findJourneys
+    private int maxAlternatives = 5;                   // Límite de rutas de findAlternativeRoutes
+    private double maxWalkMeters = 800.0;              // Caminata máxima hasta/desde una parada
+    private double walkCostFactor = 4.0;               // Costo de un km a pie en km de bus
+    private double walkTransferMeters = 150.0;         // Radio de los transbordos a pie (0 = sin ellos)
+    private double stationClusterMeters = 100.0;       // Distancia máxima entre andenes de una estación
+    private boolean stationRouting = false;            // findRoute busca en el grafo de estaciones
+    private volatile long graphVersion = 0;            // Cambia al recargar datos o configuración
 
     public GraphBuilder(StopRepository stopRepository, LineRepository lineRepository, LineStopRepository lineStopRepository) {
         this.stopRepository = stopRepository;
@@ -34,7 +71,9 @@ public class GraphBuilder {
         this.stopsMap = new HashMap<>();
         this.linesMap = new HashMap<>();
         this.allArcs = new ArrayList<>();
+        this.walkingArcs = new ArrayList<>();
         this.arcsByLineAndOrientation = new HashMap<>();
+        this.arcsByPattern = new HashMap<>();
     }
     
     // Constructor vacío para compatibilidad temporal o tests
@@ -47,6 +86,7 @@ public class GraphBuilder {
      */
     public void loadData() {
         System.out.println("SISTEMA DE GRAFOS SITM-MIO - Cargando datos desde Repositorios...");
+        pendingArcs = null;
 
         if (stopRepository == null || lineRepository == null || lineStopRepository == null) {
             throw new IllegalStateException("Repositorios no inicializados en GraphBuilder");
@@ -68,10 +108,234 @@ public class GraphBuilder {
         List<LineStopData> lineStops = lineStopRepository.findAll();
         buildArcs(lineStops);
 
+        // 4. Generar los transbordos a pie entre paradas cercanas (en paralelo, con una grilla)
+        long walkStart = System.currentTimeMillis();
+        buildWalkingArcs();
+        long walkMillis = System.currentTimeMillis() - walkStart;
+
+        // 5. Construir el índice de adyacencia (CSR) usado por las búsquedas
+        adjacencyIndex = AdjacencyIndex.build(stopsMap, allArcs, walkingArcs, walkCostFactor);
+
+        // 6-9. Patrones, alcanzabilidad, grilla y estaciones
+        buildIndexes(null, null, walkMillis);
+    }
+
+    /**
+     * Carga el grafo según Mio.Graph.Snapshot: con un archivo, desde el snapshot
+     * binario (ver loadData(Path, long, boolean)), mapeado y compartido entre
+     * procesos si Mio.Graph.Shared=1; vacía, siempre desde los repositorios
+     * @param sourceFiles CSV de los repositorios, para verificar que el snapshot
+     *        corresponde a ellos (si no se pueden leer no se verifica)
+     */
+    public void loadData(com.zeroc.Ice.Properties properties, String... sourceFiles) {
+        String snapshot = properties.getPropertyWithDefault("Mio.Graph.Snapshot", "").trim();
+        if (snapshot.isEmpty()) {
+            long start = System.currentTimeMillis();
+            loadData();
+            System.out.println("Grafo listo en " + (System.currentTimeMillis() - start) + " ms (CSV)");
+            return;
+        }
+
+        long sourceChecksum = 0;
+        try {
+            sourceChecksum = GraphSnapshot.sourceChecksum(sourceFiles);
+        } catch (IOException e) {
+            System.err.println("No se pudieron leer los CSV de origen, el snapshot no se verifica: " + e.getMessage());
+        }
+        loadData(Paths.get(snapshot), sourceChecksum, properties.getPropertyAsIntWithDefault("Mio.Graph.Shared", 0) > 0);
+    }
+
+    /**
+     * Carga el grafo desde el snapshot si existe y corresponde a los CSV
+     * (sourceChecksum, 0 = no verificar) y a la configuración Mio.Walk.*; si no,
+     * lo carga desde los repositorios y guarda el snapshot para el siguiente
+     * arranque. Imprime el tiempo de carga por cualquiera de los dos caminos
+     */
+    public void loadData(Path snapshotFile, long sourceChecksum) {
+        loadData(snapshotFile, sourceChecksum, false);
+    }
+
+    /**
+     * Igual que loadData(Path, long); con shared, el índice de adyacencia queda
+     * sobre el archivo mapeado (ver loadSnapshot(Path, long, boolean)). Si hubo
+     * que construir el grafo desde los CSV, el snapshot recién guardado se abre
+     * de nuevo en modo compartido para que este proceso también lo comparta
+     */
+    public void loadData(Path snapshotFile, long sourceChecksum, boolean shared) {
+        String mode = shared ? "snapshot compartido" : "snapshot";
+        long start = System.currentTimeMillis();
+        if (loadSnapshot(snapshotFile, sourceChecksum, shared)) {
+            System.out.println("Grafo listo en " + (System.currentTimeMillis() - start) + " ms (" + mode + ")");
+            return;
+        }
+
+        loadData();
+        long loadMillis = System.currentTimeMillis() - start;
+        boolean saved = false;
+        try {
+            saveSnapshot(snapshotFile, sourceChecksum);
+            saved = true;
+            System.out.println("Snapshot del grafo guardado en " + snapshotFile);
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar el snapshot en " + snapshotFile + ": " + e.getMessage());
+        }
+        System.out.println("Grafo listo en " + loadMillis + " ms (CSV)");
+
+        if (shared && saved && loadSnapshot(snapshotFile, sourceChecksum, true)) {
+            System.out.println("Grafo listo en " + (System.currentTimeMillis() - start) + " ms (" + mode + ")");
+        }
+    }
+
+    /**
+     * Carga el grafo desde un snapshot binario (GraphSnapshot), con el índice de
+     * adyacencia copiado al heap
+     * @return false si el archivo no existe, está dañado o no corresponde a los
+     *         CSV o a la configuración de caminata (el grafo no cambia)
+     */
+    public boolean loadSnapshot(Path file, long sourceChecksum) {
+        return loadSnapshot(file, sourceChecksum, false);
+    }
+
+    /**
+     * Carga el grafo desde un snapshot binario (GraphSnapshot)
+     * @param shared true: el índice de adyacencia son vistas de solo lectura sobre
+     *        el archivo mapeado (MappedAdjacencyIndex), que comparten todos los
+     *        procesos de la máquina que lo mapean, y los arcos por línea, patrón
+     *        y a pie se arman solo si se piden; false: se copia al heap
+     * @return false si el archivo no existe, está dañado o no corresponde a los
+     *         CSV o a la configuración de caminata (el grafo no cambia)
+     */
+    public boolean loadSnapshot(Path file, long sourceChecksum, boolean shared) {
+        GraphSnapshot snapshot;
+        try {
+            snapshot = GraphSnapshot.read(file);
+            if (sourceChecksum != 0 && snapshot.sourceChecksum != sourceChecksum) {
+                throw new IOException("El snapshot " + file + " no corresponde a los CSV actuales");
+            }
+            if (snapshot.walkTransferMeters != walkTransferMeters || snapshot.walkCostFactor != walkCostFactor) {
+                throw new IOException("El snapshot " + file + " se generó con otra configuración Mio.Walk.*");
+            }
+        } catch (NoSuchFileException e) {
+            System.out.println("No existe " + file + ", cargando desde los CSV...");
+            return false;
+        } catch (IOException e) {
+            System.out.println(e.getMessage() + ", cargando desde los CSV...");
+            return false;
+        }
+
+        stopsMap = new HashMap<>();
+        for (int v : snapshot.mapOrder) {
+            stopsMap.put(snapshot.stops[v].stopId, snapshot.stops[v]);
+        }
+        linesMap = new HashMap<>();
+        for (Line line : snapshot.lines) {
+            linesMap.put(line.lineId, line);
+        }
+
+        if (shared) {
+            allArcs = new ArrayList<>();
+            walkingArcs = new ArrayList<>();
+            arcsByLineAndOrientation = new HashMap<>();
+            arcsByPattern = new HashMap<>();
+            pendingArcs = snapshot;
+            adjacencyIndex = snapshot.index;
+        } else {
+            Arc[] transit = snapshot.transitArcs();
+            Arc[] walks = snapshot.walkArcs();
+            pendingArcs = null;
+            restoreArcs(snapshot, transit, walks);
+            adjacencyIndex = snapshot.heapIndex(transit, walks);
+        }
+        stationClusterMeters = snapshot.stationClusterMeters;
+
+        System.out.println("Grafo leído desde el snapshot " + file + " (" + snapshot.sizeBytes() / 1024 + " KB"
+            + (shared ? ", mapeado de solo lectura" : "") + ")");
+        buildIndexes(snapshot.patternEdges(), snapshot.stationOf, -1);
+        return true;
+    }
+
+    /**
+     * Rearma las listas de arcos con los del snapshot, en el orden original de
+     * los arcos (mismo orden de iteración de los grupos)
+     */
+    private void restoreArcs(GraphSnapshot snapshot, Arc[] transit, Arc[] walks) {
+        allArcs = new ArrayList<>(Arrays.asList(transit));
+        arcsByLineAndOrientation = new HashMap<>();
+        arcsByPattern = new HashMap<>();
+        for (int k = 0; k < transit.length; k++) {
+            Arc arc = transit[k];
+            arcsByLineAndOrientation.computeIfAbsent(arc.lineId + "_" + arc.orientation, key -> new ArrayList<>())
+                .add(arc);
+            if (snapshot.arcPattern(k) >= 0) {
+                arcsByPattern.computeIfAbsent(snapshot.patternKeys[snapshot.arcPattern(k)], key -> new ArrayList<>())
+                    .add(arc);
+            }
+        }
+        walkingArcs = new ArrayList<>(Arrays.asList(walks));
+    }
+
+    /**
+     * Con un snapshot compartido, arma las listas de arcos la primera vez que se
+     * necesitan (las consultas de rutas no las usan)
+     */
+    private synchronized void materializeArcs() {
+        if (pendingArcs != null) {
+            restoreArcs(pendingArcs, pendingArcs.transitArcs(), pendingArcs.walkArcs());
+            pendingArcs = null;
+        }
+    }
+
+    /**
+     * Guarda el grafo cargado en un snapshot binario (GraphSnapshot)
+     * @param sourceChecksum huella de los CSV de origen (GraphSnapshot.sourceChecksum)
+     */
+    public void saveSnapshot(Path file, long sourceChecksum) throws IOException {
+        GraphSnapshot.write(file, this, sourceChecksum);
+    }
+
+    /**
+     * Construye los índices que dependen del índice de adyacencia e imprime el
+     * resumen de la carga
+     * @param patternEdges arcos del índice de cada patrón ya agrupados, o null para
+     *        agruparlos desde getArcsByPattern
+     * @param stationOf agrupación en estaciones ya calculada, o null para calcularla
+     * @param walkMillis tiempo de generar los transbordos a pie (-1 si se leyeron)
+     */
+    private void buildIndexes(List<int[]> patternEdges, int[] stationOf, long walkMillis) {
+        // 6. Construir el índice de patrones (línea, variante, orientación) para RAPTOR
+        patternIndex = patternEdges != null
+            ? PatternIndex.fromEdges(adjacencyIndex, patternEdges)
+            : PatternIndex.build(adjacencyIndex, arcsByPattern.values());
+
+        // 7. Calcular qué paradas alcanza cada una (componentes fuertemente conexas + bitsets)
+        long start = System.currentTimeMillis();
+        reachabilityIndex = ReachabilityIndex.build(adjacencyIndex);
+        long reachabilityMillis = System.currentTimeMillis() - start;
+
+        // 8. Ubicar las paradas en la grilla del índice espacial
+        stopGrid = StopGrid.build(adjacencyIndex, StopGrid.DEFAULT_CELL_METERS);
+
+        // 9. Agrupar los andenes en estaciones (mismo nombre y cercanos)
+        if (stationOf != null) {
+            stationIndex = StationIndex.build(adjacencyIndex, stationOf, walkCostFactor);
+        } else {
+            prepareStations(stationClusterMeters);
+        }
+
         System.out.println("Datos cargados exitosamente:");
         System.out.println("Rutas: " + String.format("%-51d", linesMap.size()));
         System.out.println("Paradas: " + String.format("%-49d", stopsMap.size()));
-        System.out.println("Arcos totales: " + String.format("%-44d", allArcs.size()));
+        int transitCount = pendingArcs != null ? pendingArcs.transitArcCount() : allArcs.size();
+        int walkCount = pendingArcs != null ? pendingArcs.walkArcCount() : walkingArcs.size();
+        System.out.println("Arcos totales: " + String.format("%-44d", transitCount));
+        System.out.println(String.format("Transbordos a pie: %d arcos (radio %.0f m)", walkCount,
+            walkTransferMeters) + (walkMillis >= 0 ? " en " + walkMillis + " ms" : ""));
+        System.out.println(String.format("Arcos únicos (origen, destino): %d de %d (reducción %.1f%%)",
+            adjacencyIndex.pairCount(), adjacencyIndex.edgeCount(),
+            100.0 * (1.0 - (double) adjacencyIndex.pairCount() / Math.max(1, adjacencyIndex.edgeCount()))));
+        System.out.println(String.format("Alcanzabilidad: %d componentes fuertemente conexas, %d KB en %d ms",
+            reachabilityIndex.componentCount(), reachabilityIndex.memoryBytes() / 1024, reachabilityMillis));
+        graphVersion++;
     }
     
     /**
@@ -130,38 +394,53 @@ public class GraphBuilder {
                     // Agrupar por línea y orientación
                     String key = arc.lineId + "_" + arc.orientation;
                     arcsByLineAndOrientation.computeIfAbsent(key, k -> new ArrayList<>()).add(arc);
+
+                    // Conservar también la secuencia de cada variante (patrón de paradas)
+                    arcsByPattern.computeIfAbsent(entry.getKey(), k -> new ArrayList<>()).add(arc);
                 }
             }
         }
     }
 
     /**
-     * Calcula la distancia entre dos paradas usando la fórmula de Haversine
+     * Crea un arco a pie (lineId WALK_LINE) en cada sentido entre cada par de
+     * paradas a walkTransferMeters o menos. Los vecinos de cada parada se buscan
+     * en paralelo en una grilla espacial (no se comparan todos los pares) y los
+     * arcos se agregan en orden de parada, así que el resultado es determinista
      */
-    private double calculateDistance(Stop from, Stop to) {
-        double lat1 = from.decimalLat;
-        double lon1 = from.decimalLong;
-        double lat2 = to.decimalLat;
-        double lon2 = to.decimalLong;
-
-        final double R = 6371.0; // Radio de la Tierra en km
-
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
+    private void buildWalkingArcs() {
+        walkingArcs = new ArrayList<>();
+        if (walkTransferMeters <= 0 || stopsMap.isEmpty()) {
+            return;
+        }
 
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        // Índice provisional solo con las paradas, para ubicarlas en la grilla
+        AdjacencyIndex stopsOnly = AdjacencyIndex.build(stopsMap, Collections.emptyList());
+        StopGrid grid = StopGrid.build(stopsOnly, StopGrid.DEFAULT_CELL_METERS);
+        int[][] neighbors = IntStream.range(0, stopsOnly.size()).parallel()
+            .mapToObj(v -> grid.neighbors(v, walkTransferMeters))
+            .toArray(int[][]::new);
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        for (int v = 0; v < neighbors.length; v++) {
+            Stop fromStop = stopsOnly.stopAt(v);
+            for (int w : neighbors[v]) {
+                walkingArcs.add(AdjacencyIndex.walkArc(fromStop, stopsOnly.stopAt(w)));
+            }
+        }
+    }
 
-        return R * c;
+    /**
+     * Calcula la distancia entre dos paradas usando la fórmula de Haversine
+     */
+    private double calculateDistance(Stop from, Stop to) {
+        return GeoUtils.haversine(from.decimalLat, from.decimalLong, to.decimalLat, to.decimalLong);
     }
 
     /**
      * Imprime el grafo completo en consola
      */
     public void printGraphToConsole() {
+        materializeArcs();
         System.out.println("LISTADO COMPLETO DE ARCOS POR RUTA Y ORIENTACIÓN");
 
         // Ordenar líneas por ID
@@ -242,17 +521,40 @@ public class GraphBuilder {
     }
 
     public List<Arc> getAllArcs() {
+        materializeArcs();
         return allArcs;
     }
 
     public Map<String, List<Arc>> getArcsByLineAndOrientation() {
+        materializeArcs();
         return arcsByLineAndOrientation;
     }
 
+    public AdjacencyIndex getAdjacencyIndex() {
+        return adjacencyIndex;
+    }
+
+    public PatternIndex getPatternIndex() {
+        return patternIndex;
+    }
+
+    public ContractionHierarchy getContractionHierarchy() {
+        return contractionHierarchy;
+    }
+
+    public LandmarkTable getLandmarkTable() {
+        return landmarkTable;
+    }
+
+    public HopTable getHopTable() {
+        return hopTable;
+    }
+
     /**
      * Obtiene las paradas de una línea específica
      */
     public List<Stop> getStopsByLine(int lineId, int orientation) {
+        materializeArcs();
         String key = lineId + "_" + orientation;
         List<Arc> arcs = arcsByLineAndOrientation.get(key);
 
@@ -278,6 +580,7 @@ public class GraphBuilder {
      * Obtiene los arcos de una línea específica
      */
     public List<Arc> getArcsByLine(int lineId, int orientation) {
+        materializeArcs();
         String key = lineId + "_" + orientation;
         List<Arc> arcs = arcsByLineAndOrientation.get(key);
 
@@ -295,30 +598,453 @@ public class GraphBuilder {
      * 
      * @param originStopId ID de la parada de origen
      * @param destStopId   ID de la parada de destino
-     * @return Mapa con información de la ruta encontrada
+     * @return RouteResult con la ruta encontrada
      */
     /**
      * Encuentra la ruta más corta entre dos paradas usando BFS
      * (Delegado a PathFinder)
      */
-    public Map<String, Object> findShortestRoute(int originStopId, int destStopId) {
+    public RouteResult findShortestRoute(int originStopId, int destStopId) {
         return mio.server.util.PathFinder.findShortestRoute(
             originStopId, 
             destStopId, 
-            stopsMap, 
-            allArcs
+            adjacencyIndex
         );
     }
     
+    /**
+     * Encuentra la ruta óptima entre dos paradas según el criterio de costo
+     * usando el algoritmo configurado para ese criterio
+     */
+    public RouteResult findRoute(int originStopId, int destStopId, CostMode mode) {
+        return findRoute(originStopId, destStopId, mode, null);
+    }
+    
+    /**
+     * Igual que findRoute, con el algoritmo elegido para esta consulta
+     * (null: el configurado para el criterio de costo)
+     */
+    public RouteResult findRoute(int originStopId, int destStopId, CostMode mode, SearchAlgorithm algorithm) {
+        if (stationRouting && algorithm == null) {
+            return findStationRoute(originStopId, destStopId, mode);
+        }
+        if (mode == CostMode.TRANSFERS) {
+            return mio.server.util.PathFinder.findRouteWithFewestTransfers(
+                originStopId, 
+                destStopId, 
+                transferTieBreak,
+                transferPenalty,
+                adjacencyIndex
+            );
+        }
+        if (algorithm == null) {
+            algorithm = mode == CostMode.DISTANCE ? distanceAlgorithm : hopsAlgorithm;
+        }
+        if (treeCache != null && ShortestPathTreeCache.supports(algorithm, mode)) {
+            return mio.server.util.PathFinder.findShortestRouteFromTree(
+                originStopId, 
+                destStopId, 
+                mode,
+                adjacencyIndex,
+                treeCache
+            );
+        }
+        return mio.server.util.PathFinder.findRoute(
+            originStopId, 
+            destStopId, 
+            mode,
+            algorithm,
+            adjacencyIndex,
+            contractionHierarchy,
+            landmarkTable,
+            hopTable
+        );
+    }
+    
+    /**
+     * Encuentra la ruta óptima buscando en el grafo de estaciones y la expande a
+     * andenes (los cambios de andén son arcos a pie)
+     */
+    public RouteResult findStationRoute(int originStopId, int destStopId, CostMode mode) {
+        return mio.server.util.PathFinder.findStationRoute(
+            originStopId, 
+            destStopId, 
+            mode,
+            transferTieBreak,
+            transferPenalty,
+            stationIndex
+        );
+    }
+    
+    /**
+     * Calcula las rutas de un lote de pares (origins[i], dests[i]) repartiendo
+     * los pares entre los hilos del pool; el resultado conserva el orden del lote
+     * y una parada inexistente da un RouteResult sin ruta
+     */
+    public RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode, SearchAlgorithm algorithm,
+            ForkJoinPool pool) {
+        int count = Math.min(origins.length, dests.length);
+        RouteResult[] results = new RouteResult[count];
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(i ->
+            results[i] = findRoute(origins[i], dests[i], mode, algorithm))).join();
+        return results;
+    }
+    
+    /**
+     * Encuentra las paradas alcanzables desde una parada sin superar el
+     * presupuesto (km con DISTANCE, arcos con HOPS, transbordos con TRANSFERS)
+     */
+    public Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull) {
+        return mio.server.util.PathFinder.findIsochrone(originStopId, mode, budget, withHull, adjacencyIndex);
+    }
+    
+    /**
+     * Calcula la matriz de costos entre dos conjuntos de paradas (una búsqueda de
+     * uno a muchos por origen, repartidas entre los hilos del pool); con
+     * CostMode.TRANSFERS usa el desempate y la penalización configurados
+     */
+    public RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode, ForkJoinPool pool) {
+        return mio.server.util.PathFinder.computeMatrix(
+            sources, 
+            targets, 
+            mode,
+            transferTieBreak,
+            transferPenalty,
+            adjacencyIndex,
+            pool
+        );
+    }
+    
+    /**
+     * Encuentra los viajes Pareto óptimos en (transbordos, distancia) con el
+     * enrutador por rondas (RAPTOR)
+     * @param maxTransfers máximo de transbordos; si es negativo o supera
+     *        Mio.Search.MaxTransfers se usa ese límite
+     */
+    public RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers) {
+        if (maxTransfers < 0 || maxTransfers > maxJourneyTransfers) {
+            maxTransfers = maxJourneyTransfers;
+        }
+        return mio.server.util.PathFinder.findJourneys(
+            originStopId, 
+            destStopId, 
+            maxTransfers,
+            adjacencyIndex,
+            patternIndex
+        );
+    }
+    
+    /**
+     * Encuentra hasta k rutas alternativas sin ciclos, de menor a mayor distancia
+     * (Yen; los desvíos de cada ruta se buscan en paralelo en el pool)
+     * @param k número de rutas; si es menor que 1 o supera
+     *        Mio.Search.MaxAlternatives se usa ese límite
+     */
+    public RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k, ForkJoinPool pool) {
+        if (k < 1 || k > maxAlternatives) {
+            k = maxAlternatives;
+        }
+        return mio.server.util.PathFinder.findAlternativeRoutes(
+            originStopId, 
+            destStopId, 
+            k,
+            adjacencyIndex,
+            landmarkTable,
+            pool
+        );
+    }
+    
+    /**
+     * Aplica la configuración de caminata (propiedades Mio.Walk.*). Debe llamarse
+     * antes de loadData(): el radio y el costo de los transbordos a pie se usan al
+     * construir el índice. Las distancias no pueden ser negativas y el factor no
+     * puede ser menor que 1: un km a pie más barato que uno en línea recta haría
+     * que las cotas de A* y ALT sobrestimen y den rutas que no son las más cortas
+     */
+    public void configureWalking(com.zeroc.Ice.Properties properties) {
+        try {
+            double maxMeters = Double.parseDouble(properties.getPropertyWithDefault("Mio.Walk.MaxMeters", "800"));
+            double costFactor = Double.parseDouble(properties.getPropertyWithDefault("Mio.Walk.CostFactor", "4"));
+            double transferMeters = Double.parseDouble(
+                properties.getPropertyWithDefault("Mio.Walk.TransferMeters", "150"));
+            if (maxMeters >= 0 && costFactor >= 1 && transferMeters >= 0) {
+                maxWalkMeters = maxMeters;
+                walkCostFactor = costFactor;
+                walkTransferMeters = transferMeters;
+                return;
+            }
+        } catch (NumberFormatException e) {
+            // Se usan los valores por defecto
+        }
+        System.err.println("Mio.Walk.* inválido (distancias >= 0, CostFactor >= 1), usando 800 m, factor 4 y "
+            + "transbordos a 150 m");
+        maxWalkMeters = 800.0;
+        walkCostFactor = 4.0;
+        walkTransferMeters = 150.0;
+    }
+    
+    /**
+     * Aplica la configuración de búsqueda (propiedades Mio.Search.*)
+     */
+    public void configureSearch(com.zeroc.Ice.Properties properties) {
+        hopsAlgorithm = SearchAlgorithm.fromName(
+            properties.getProperty("Mio.Search.HopsAlgorithm"), CostMode.HOPS);
+        distanceAlgorithm = SearchAlgorithm.fromName(
+            properties.getProperty("Mio.Search.DistanceAlgorithm"), CostMode.DISTANCE);
+        transferTieBreak = "DISTANCE".equalsIgnoreCase(properties.getProperty("Mio.Search.TransferTieBreak"))
+            ? CostMode.DISTANCE : CostMode.HOPS;
+        try {
+            transferPenalty = Double.parseDouble(
+                properties.getPropertyWithDefault("Mio.Search.TransferPenalty", "0"));
+        } catch (NumberFormatException e) {
+            System.err.println("Mio.Search.TransferPenalty inválido, usando orden lexicográfico");
+            transferPenalty = 0.0;
+        }
+        maxJourneyTransfers = Math.max(0, properties.getPropertyAsIntWithDefault("Mio.Search.MaxTransfers", 5));
+        maxAlternatives = Math.max(1, properties.getPropertyAsIntWithDefault("Mio.Search.MaxAlternatives", 5));
+        stationRouting = properties.getPropertyAsIntWithDefault("Mio.Station.Routing", 0) > 0;
+        try {
+            double clusterMeters = Double.parseDouble(
+                properties.getPropertyWithDefault("Mio.Station.ClusterMeters", "100"));
+            if (clusterMeters != stationClusterMeters) {
+                prepareStations(clusterMeters);
+            }
+        } catch (NumberFormatException e) {
+            System.err.println("Mio.Station.ClusterMeters inválido, se conservan las estaciones actuales");
+        }
+        int hopTableMaxStops = properties.getPropertyAsIntWithDefault("Mio.Search.HopTable.MaxStops", 3000);
+        int clampedMaxStops = Math.max(0, Math.min(hopTableMaxStops, HopTable.MAX_STOPS));
+        if (clampedMaxStops != hopTableMaxStops) {
+            System.err.println("Mio.Search.HopTable.MaxStops=" + hopTableMaxStops + " fuera de rango (0 a "
+                + HopTable.MAX_STOPS + "), usando " + clampedMaxStops);
+            hopTableMaxStops = clampedMaxStops;
+        }
+        if (hopsAlgorithm == SearchAlgorithm.HOP_TABLE && !prepareHopTable(hopTableMaxStops)) {
+            hopsAlgorithm = SearchAlgorithm.BFS;
+        }
+        int treeCacheMegabytes = Math.max(0, properties.getPropertyAsIntWithDefault("Mio.Search.TreeCacheMB", 0));
+        treeCache = treeCacheMegabytes > 0
+            ? new ShortestPathTreeCache(adjacencyIndex, treeCacheMegabytes * 1024L * 1024L) : null;
+        int landmarks = Math.max(0, properties.getPropertyAsIntWithDefault("Mio.Search.Landmarks", 12));
+        if (landmarks > 0) {
+            prepareLandmarks(landmarks);
+        }
+        if (distanceAlgorithm == SearchAlgorithm.CONTRACTION_HIERARCHY) {
+            prepareHierarchy(Paths.get(properties.getPropertyWithDefault("Mio.Search.HierarchyFile", "data/ch-241.bin")));
+        }
+        
+        graphVersion++;
+        
+        System.out.println("Algoritmos de búsqueda: HOPS=" + hopsAlgorithm + ", DISTANCE=" + distanceAlgorithm
+            + ", TRANSFERS=" + (transferPenalty > 0 ? "penalización " + transferPenalty : "lexicográfico")
+            + " + " + transferTieBreak + ", viajes con hasta " + maxJourneyTransfers + " transbordos"
+            + ", hasta " + maxAlternatives + " rutas alternativas");
+        if (treeCache != null) {
+            System.out.println("Caché de árboles de caminos (BFS y Dijkstra): hasta " + treeCache.capacity()
+                + " orígenes en " + treeCacheMegabytes + " MB");
+        }
+    }
+    
+    /**
+     * Construye la tabla de rutas de todos los pares (BFS en paralelo desde cada
+     * origen) si el grafo no supera maxStops paradas
+     * @return false si la tabla no se construyó por el tamaño del grafo
+     */
+    public boolean prepareHopTable(int maxStops) {
+        int numStops = adjacencyIndex.size();
+        if (!HopTable.fits(adjacencyIndex, maxStops)) {
+            System.err.println(String.format("Tabla de rutas desactivada: %d paradas (%.1f MB) superan "
+                + "Mio.Search.HopTable.MaxStops=%d, usando BFS",
+                numStops, HopTable.memoryBytes(numStops) / (1024.0 * 1024.0), maxStops));
+            return false;
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.currentTimeMillis();
+        hopTable = HopTable.build(adjacencyIndex, threads);
+        System.out.println(String.format("Tabla de rutas: %d x %d pares, %.1f MB en %d ms (%d hilos)",
+            numStops, numStops, hopTable.memoryBytes() / (1024.0 * 1024.0),
+            System.currentTimeMillis() - start, threads));
+        return true;
+    }
+    
+    /**
+     * Elige los landmarks en la periferia de la red y calcula sus tablas de
+     * distancias (en paralelo) para las consultas ALT
+     */
+    public void prepareLandmarks(int count) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.currentTimeMillis();
+        landmarkTable = LandmarkTable.build(adjacencyIndex, count, threads);
+        System.out.println("Landmarks ALT: " + landmarkTable.size() + " en "
+            + (System.currentTimeMillis() - start) + " ms (" + threads + " hilos)");
+    }
+    
+    /**
+     * Carga la jerarquía de contracción guardada junto a los datos; si no existe
+     * o corresponde a otro grafo, la preprocesa (en paralelo) y la guarda
+     */
+    public void prepareHierarchy(Path file) {
+        try {
+            contractionHierarchy = ContractionHierarchy.load(file, adjacencyIndex);
+            System.out.println("Jerarquía de contracción cargada desde " + file + ": "
+                + contractionHierarchy.shortcutCount() + " atajos");
+            return;
+        } catch (NoSuchFileException e) {
+            System.out.println("No existe " + file + ", preprocesando la jerarquía de contracción...");
+        } catch (IOException e) {
+            System.out.println(e.getMessage() + ", preprocesando de nuevo...");
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        long start = System.currentTimeMillis();
+        contractionHierarchy = ContractionHierarchy.build(adjacencyIndex, threads);
+        System.out.println("Jerarquía de contracción: " + contractionHierarchy.shortcutCount() + " atajos en "
+            + (System.currentTimeMillis() - start) + " ms (" + threads + " hilos)");
+        try {
+            contractionHierarchy.save(file);
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar la jerarquía en " + file + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Agrupa los andenes con el mismo nombre a clusterMeters o menos en
+     * estaciones y construye el grafo de estaciones
+     */
+    public void prepareStations(double clusterMeters) {
+        long start = System.currentTimeMillis();
+        stationClusterMeters = clusterMeters;
+        stationIndex = StationIndex.build(adjacencyIndex, stopGrid, clusterMeters, walkCostFactor);
+        System.out.println(String.format("Estaciones: %d (de %d paradas, radio %.0f m), %d arcos en %d ms",
+            stationIndex.size(), adjacencyIndex.size(), clusterMeters, stationIndex.getStations().edgeCount(),
+            System.currentTimeMillis() - start));
+    }
+    
+    /**
+     * Versión del grafo: cambia cada vez que se cargan los datos o se aplica la
+     * configuración de búsqueda, para invalidar resultados guardados
+     */
+    public long getGraphVersion() {
+        return graphVersion;
+    }
+    
+    /**
+     * Caché de árboles de caminos por origen, o null si está desactivada
+     */
+    public ShortestPathTreeCache getTreeCache() {
+        return treeCache;
+    }
+    
+    public SearchAlgorithm getHopsAlgorithm() {
+        return hopsAlgorithm;
+    }
+    
+    /**
+     * Define el algoritmo usado en las consultas por número de paradas (BFS, BFS
+     * bidireccional o tabla de rutas, que requiere prepareHopTable)
+     */
+    public void setHopsAlgorithm(SearchAlgorithm hopsAlgorithm) {
+        this.hopsAlgorithm = hopsAlgorithm;
+    }
+    
+    public SearchAlgorithm getDistanceAlgorithm() {
+        return distanceAlgorithm;
+    }
+    
+    /**
+     * Define el algoritmo usado en las consultas por distancia (Dijkstra, A*, ALT, Dijkstra
+     * bidireccional o jerarquía de contracción; ALT requiere prepareLandmarks y la
+     * jerarquía prepareHierarchy)
+     */
+    public void setDistanceAlgorithm(SearchAlgorithm distanceAlgorithm) {
+        this.distanceAlgorithm = distanceAlgorithm;
+    }
+    
     /**
      * Encuentra todas las paradas alcanzables desde una parada de origen
-     * (Delegado a PathFinder)
+     * (leídas del cierre de alcanzabilidad precalculado)
      */
-    public Set<Integer> findReachableStops(int originStopId) {
-        return mio.server.util.PathFinder.findReachableStops(
+    public int[] findReachableStops(int originStopId) {
+        return reachabilityIndex.reachableStops(originStopId);
+    }
+    
+    /**
+     * Verifica en O(1) que haya camino entre dos paradas, antes de buscar
+     * @return RouteResult sin ruta si no lo hay, o null si lo hay o si alguna
+     *         parada no existe
+     */
+    public RouteResult checkReachable(int originStopId, int destStopId) {
+        return mio.server.util.PathFinder.checkReachable(
             originStopId, 
-            stopsMap, 
-            allArcs
+            destStopId, 
+            adjacencyIndex,
+            reachabilityIndex
         );
     }
+    
+    public ReachabilityIndex getReachabilityIndex() {
+        return reachabilityIndex;
+    }
+    
+    /**
+     * Encuentra un viaje entre dos coordenadas: caminata (hasta Mio.Walk.MaxMeters)
+     * a una parada, bus y caminata desde la parada final
+     */
+    public CoordinateRoute findRouteByCoordinates(double originLat, double originLon, double destLat, double destLon) {
+        return mio.server.util.PathFinder.findRouteByCoordinates(
+            originLat, 
+            originLon, 
+            destLat, 
+            destLon,
+            maxWalkMeters,
+            walkCostFactor,
+            adjacencyIndex,
+            stopGrid
+        );
+    }
+    
+    /**
+     * Encuentra las k paradas más cercanas a una coordenada
+     */
+    public NearbyStops findNearestStops(double lat, double lon, int k) {
+        return stopGrid.nearest(lat, lon, k);
+    }
+    
+    /**
+     * Encuentra las paradas a radiusMeters o menos de una coordenada
+     */
+    public NearbyStops findStopsWithin(double lat, double lon, double radiusMeters) {
+        return stopGrid.within(lat, lon, radiusMeters);
+    }
+    
+    public StopGrid getStopGrid() {
+        return stopGrid;
+    }
+    
+    List<Arc> getWalkingArcs() {
+        materializeArcs();
+        return walkingArcs;
+    }
+
+    Map<String, List<Arc>> getArcsByPattern() {
+        materializeArcs();
+        return arcsByPattern;
+    }
+
+    double getWalkTransferMeters() {
+        return walkTransferMeters;
+    }
+
+    double getWalkCostFactor() {
+        return walkCostFactor;
+    }
+
+    double getStationClusterMeters() {
+        return stationClusterMeters;
+    }
+
+    public StationIndex getStationIndex() {
+        return stationIndex;
+    }
 }
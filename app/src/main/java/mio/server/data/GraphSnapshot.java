@@ -0,0 +1,752 @@
+package mio.server.data;
+
+import mioice.*;
+import mio.server.repository.RepositoryFactory;
+
+import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Snapshot binario del grafo construido: paradas, rutas, arcos (en bus y a pie),
+ * las columnas del índice de adyacencia y la agrupación en estaciones
+ *
+ * Formato: un encabezado (MAGIC, VERSION, huella de los CSV de origen, largo y
+ * CRC32C del contenido) seguido del contenido, en little-endian. Cada arreglo
+ * se guarda como su largo y sus valores contiguos, alineados a 8 bytes dentro
+ * del archivo, así que al leerlo el archivo se mapea en memoria, se verifica el
+ * CRC y cada arreglo queda disponible como una vista (IntBuffer, DoubleBuffer)
+ * sin copiarlo. Sobre esas vistas se abre un MappedAdjacencyIndex (el grafo
+ * compartido entre los procesos de una máquina) o se copian a arreglos para un
+ * HeapAdjacencyIndex; en los dos casos sin releer los CSV, agrupar por claves
+ * de texto ni recalcular distancias. Lo que no es parte del índice (patrones,
+ * alcanzabilidad, grilla y grafo de estaciones) se recalcula al cargar.
+ *
+ * El snapshot guarda también la configuración con la que se generó (Mio.Walk.*
+ * y Mio.Station.ClusterMeters): uno generado con otros transbordos a pie no se
+ * usa. Se genera con gradlew buildSnapshot o lo guarda el servidor la primera
+ * vez que arranca desde los CSV.
+ */
+public final class GraphSnapshot {
+
+    private static final int MAGIC = 0x4D494F47; // "MIOG"
+    private static final int VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 4;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    final long sourceChecksum;
+    final double walkTransferMeters;
+    final double walkCostFactor;
+    final double stationClusterMeters;
+    final Stop[] stops;             // índice denso -> parada
+    final int[] mapOrder;           // índices densos en el orden del mapa de paradas
+    final Line[] lines;             // en el orden del mapa de rutas
+    final String[] patternKeys;     // claves línea_variante_orientación, en orden de aparición
+    final MappedAdjacencyIndex index;
+    final int[] stationOf;          // estación de cada andén (índice denso)
+    final long bytes;               // tamaño del archivo
+
+    // Arcos en bus (en el orden de getAllArcs) y a pie, como columnas del archivo
+    private final String[] lineNames;
+    private final IntBuffer transitFrom;
+    private final IntBuffer transitTo;
+    private final IntBuffer transitLines;
+    private final IntBuffer transitNames;   // posición en lineNames, -1 si el nombre es null
+    private final IntBuffer transitOrientations;
+    private final IntBuffer transitSequences;
+    private final DoubleBuffer transitDistances;
+    private final DoubleBuffer transitSpeeds;
+    private final IntBuffer arcPatterns;    // patrón de cada arco en bus (-1 si no tiene)
+    private final IntBuffer walkFrom;
+    private final IntBuffer walkTo;
+    private final DoubleBuffer walkDistances;
+    private final IntBuffer edgeArcs;       // arco del índice -> posición en arcos en bus + a pie
+
+    /**
+     * Lee el contenido desde la posición actual de in (ya verificado el encabezado)
+     */
+    private GraphSnapshot(long sourceChecksum, ByteBuffer in, long bytes) {
+        this.sourceChecksum = sourceChecksum;
+        this.bytes = bytes;
+        this.walkTransferMeters = in.getDouble();
+        this.walkCostFactor = in.getDouble();
+        this.stationClusterMeters = in.getDouble();
+
+        int[] stopIds = readInts(in);
+        int[] planVersions = readInts(in);
+        String[] shortNames = readStrings(in);
+        String[] longNames = readStrings(in);
+        long[] gpsX = readLongs(in);
+        long[] gpsY = readLongs(in);
+        double[] longitudes = readDoubles(in);
+        double[] latitudes = readDoubles(in);
+        this.mapOrder = readInts(in);
+        this.stops = new Stop[stopIds.length];
+        for (int v = 0; v < stops.length; v++) {
+            stops[v] = new Stop(stopIds[v], planVersions[v], shortNames[v], longNames[v], gpsX[v], gpsY[v],
+                longitudes[v], latitudes[v]);
+        }
+
+        int[] lineIds = readInts(in);
+        int[] linePlanVersions = readInts(in);
+        String[] lineShortNames = readStrings(in);
+        String[] descriptions = readStrings(in);
+        String[] activationDates = readStrings(in);
+        this.lines = new Line[lineIds.length];
+        for (int k = 0; k < lines.length; k++) {
+            lines[k] = new Line(lineIds[k], linePlanVersions[k], lineShortNames[k], descriptions[k],
+                activationDates[k]);
+        }
+
+        this.lineNames = readStrings(in);
+        this.transitFrom = intColumn(in);
+        this.transitTo = intColumn(in);
+        this.transitLines = intColumn(in);
+        this.transitNames = intColumn(in);
+        this.transitOrientations = intColumn(in);
+        this.transitSequences = intColumn(in);
+        this.transitDistances = doubleColumn(in);
+        this.transitSpeeds = doubleColumn(in);
+        this.patternKeys = readStrings(in);
+        this.arcPatterns = intColumn(in);
+        this.walkFrom = intColumn(in);
+        this.walkTo = intColumn(in);
+        this.walkDistances = doubleColumn(in);
+        this.edgeArcs = intColumn(in);
+
+        this.index = new MappedAdjacencyIndex(stops, lineNames, in);
+        this.stationOf = readInts(in);
+    }
+
+    /**
+     * Guarda el grafo cargado en graph. El archivo se escribe aparte y se mueve al
+     * final, así que otro proceso que lo lea (o lo tenga mapeado) a la vez nunca
+     * ve uno a medias
+     * @param sourceChecksum huella de los CSV de origen (sourceChecksum)
+     */
+    public static void write(Path file, GraphBuilder graph, long sourceChecksum) throws IOException {
+        AdjacencyIndex index = graph.getAdjacencyIndex();
+        if (index instanceof MappedAdjacencyIndex) {
+            throw new IOException("El grafo se abrió desde un snapshot compartido; se guarda desde los CSV");
+        }
+        int n = index.size();
+        Output out = new Output();
+
+        out.putDouble(graph.getWalkTransferMeters());
+        out.putDouble(graph.getWalkCostFactor());
+        out.putDouble(graph.getStationClusterMeters());
+
+        // Paradas en orden denso, y el orden del mapa para reconstruirlo igual
+        int[] stopIds = new int[n];
+        int[] planVersions = new int[n];
+        String[] shortNames = new String[n];
+        String[] longNames = new String[n];
+        long[] gpsX = new long[n];
+        long[] gpsY = new long[n];
+        double[] longitudes = new double[n];
+        double[] latitudes = new double[n];
+        for (int v = 0; v < n; v++) {
+            Stop stop = index.stopAt(v);
+            stopIds[v] = stop.stopId;
+            planVersions[v] = stop.planVersionId;
+            shortNames[v] = stop.shortName;
+            longNames[v] = stop.longName;
+            gpsX[v] = stop.gpsX;
+            gpsY[v] = stop.gpsY;
+            longitudes[v] = stop.decimalLong;
+            latitudes[v] = stop.decimalLat;
+        }
+        int[] mapOrder = graph.getStopsMap().keySet().stream().mapToInt(index::indexOf).toArray();
+        out.putInts(stopIds);
+        out.putInts(planVersions);
+        out.putStrings(shortNames);
+        out.putStrings(longNames);
+        out.putLongs(gpsX);
+        out.putLongs(gpsY);
+        out.putDoubles(longitudes);
+        out.putDoubles(latitudes);
+        out.putInts(mapOrder);
+
+        // Rutas
+        Collection<Line> lines = graph.getLinesMap().values();
+        out.putInts(lines.stream().mapToInt(line -> line.lineId).toArray());
+        out.putInts(lines.stream().mapToInt(line -> line.planVersionId).toArray());
+        out.putStrings(lines.stream().map(line -> line.shortName).toArray(String[]::new));
+        out.putStrings(lines.stream().map(line -> line.description).toArray(String[]::new));
+        out.putStrings(lines.stream().map(line -> line.activationDate).toArray(String[]::new));
+
+        // Nombres de línea de los arcos (cada arco guarda su posición en esta tabla)
+        List<Arc> transit = graph.getAllArcs();
+        Map<String, Integer> nameIds = new LinkedHashMap<>();
+        for (Arc arc : transit) {
+            if (arc.lineName != null) {
+                nameIds.putIfAbsent(arc.lineName, nameIds.size());
+            }
+        }
+        out.putStrings(nameIds.keySet().toArray(new String[0]));
+
+        // Arcos en bus, con el patrón (línea, variante, orientación) de cada uno
+        Map<Arc, Integer> patternOf = new IdentityHashMap<>();
+        List<String> patternKeys = new ArrayList<>();
+        for (Map.Entry<String, List<Arc>> entry : graph.getArcsByPattern().entrySet()) {
+            for (Arc arc : entry.getValue()) {
+                patternOf.put(arc, patternKeys.size());
+            }
+            patternKeys.add(entry.getKey());
+        }
+        int m = transit.size();
+        int[] from = new int[m];
+        int[] to = new int[m];
+        int[] lineIds = new int[m];
+        int[] names = new int[m];
+        int[] orientations = new int[m];
+        int[] sequences = new int[m];
+        double[] distances = new double[m];
+        double[] speeds = new double[m];
+        int[] arcPatterns = new int[m];
+        for (int k = 0; k < m; k++) {
+            Arc arc = transit.get(k);
+            from[k] = index.indexOf(arc.fromStop.stopId);
+            to[k] = index.indexOf(arc.toStop.stopId);
+            lineIds[k] = arc.lineId;
+            names[k] = arc.lineName != null ? nameIds.get(arc.lineName) : -1;
+            orientations[k] = arc.orientation;
+            sequences[k] = arc.sequenceNum;
+            distances[k] = arc.distance;
+            speeds[k] = arc.avgSpeed;
+            arcPatterns[k] = patternOf.getOrDefault(arc, -1);
+        }
+        out.putInts(from);
+        out.putInts(to);
+        out.putInts(lineIds);
+        out.putInts(names);
+        out.putInts(orientations);
+        out.putInts(sequences);
+        out.putDoubles(distances);
+        out.putDoubles(speeds);
+        out.putStrings(patternKeys.toArray(new String[0]));
+        out.putInts(arcPatterns);
+
+        // Arcos a pie
+        List<Arc> walks = graph.getWalkingArcs();
+        out.putInts(walks.stream().mapToInt(arc -> index.indexOf(arc.fromStop.stopId)).toArray());
+        out.putInts(walks.stream().mapToInt(arc -> index.indexOf(arc.toStop.stopId)).toArray());
+        out.putDoubles(walks.stream().mapToDouble(arc -> arc.distance).toArray());
+
+        // Cada arco del índice apunta a su posición en arcos en bus + a pie
+        Map<Arc, Integer> arcPosition = new IdentityHashMap<>();
+        for (int k = 0; k < m; k++) {
+            arcPosition.put(transit.get(k), k);
+        }
+        for (int k = 0; k < walks.size(); k++) {
+            arcPosition.put(walks.get(k), m + k);
+        }
+        int[] edgeArcs = new int[index.edgeCount()];
+        for (int e = 0; e < edgeArcs.length; e++) {
+            edgeArcs[e] = arcPosition.get(index.arc(e));
+        }
+        out.putInts(edgeArcs);
+
+        writeIndexColumns(out, index, nameIds);
+
+        // Estaciones
+        StationIndex stations = graph.getStationIndex();
+        int[] stationOf = new int[n];
+        for (int v = 0; v < n; v++) {
+            stationOf[v] = stations.stationOf(v);
+        }
+        out.putInts(stationOf);
+
+        ByteBuffer payload = out.finish();
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ORDER);
+        header.putInt(MAGIC).putInt(VERSION).putLong(sourceChecksum).putLong(payload.remaining())
+            .putInt((int) crc.getValue()).flip();
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining() || payload.hasRemaining()) {
+                channel.write(new ByteBuffer[] { header, payload });
+            }
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Columnas de MappedAdjacencyIndex, en el orden en que las lee su constructor
+     */
+    private static void writeIndexColumns(Output out, AdjacencyIndex index, Map<String, Integer> nameIds) {
+        int n = index.size();
+        int edges = index.edgeCount();
+        int states = index.stateCount();
+        int pairs = index.pairCount();
+
+        int[] stopIds = new int[n];
+        int[] offsets = new int[n + 1];
+        int[] inOffsets = new int[n + 1];
+        int[] pairOffsets = new int[n + 1];
+        double[] latitudes = new double[n];
+        double[] longitudes = new double[n];
+        double[] unitX = new double[n];
+        double[] unitY = new double[n];
+        double[] unitZ = new double[n];
+        for (int v = 0; v < n; v++) {
+            stopIds[v] = index.stopIdAt(v);
+            offsets[v + 1] = index.lastEdge(v);
+            inOffsets[v + 1] = index.lastInEdge(v);
+            pairOffsets[v + 1] = index.lastPair(v);
+            latitudes[v] = index.latitudeAt(v);
+            longitudes[v] = index.longitudeAt(v);
+            // Igual que en HeapAdjacencyIndex: posición sobre la esfera unitaria
+            double lat = Math.toRadians(latitudes[v]);
+            double lon = Math.toRadians(longitudes[v]);
+            unitX[v] = Math.cos(lat) * Math.cos(lon);
+            unitY[v] = Math.cos(lat) * Math.sin(lon);
+            unitZ[v] = Math.sin(lat);
+        }
+
+        int[] targets = new int[edges];
+        double[] weights = new double[edges];
+        double[] distances = new double[edges];
+        int[] edgeLines = new int[edges];
+        int[] edgeNames = new int[edges];
+        int[] orientations = new int[edges];
+        int[] sequences = new int[edges];
+        double[] speeds = new double[edges];
+        int[] inSources = new int[edges];
+        int[] inEdges = new int[edges];
+        int[] edgeStates = new int[edges];
+        int[] edgePairs = new int[edges];
+        int[] parallelEdges = new int[edges];
+        for (int e = 0; e < edges; e++) {
+            Arc arc = index.arc(e);
+            targets[e] = index.target(e);
+            weights[e] = index.weight(e);
+            distances[e] = index.distance(e);
+            edgeLines[e] = index.line(e);
+            edgeNames[e] = index.isWalk(e) || arc.lineName == null ? -1 : nameIds.get(arc.lineName);
+            orientations[e] = arc.orientation;
+            sequences[e] = arc.sequenceNum;
+            speeds[e] = arc.avgSpeed;
+            inSources[e] = index.inSource(e);
+            inEdges[e] = index.inEdge(e);
+            edgeStates[e] = index.edgeState(e);
+            edgePairs[e] = index.edgePair(e);
+            parallelEdges[e] = index.parallelEdge(e);
+        }
+
+        int[] stateStops = new int[states];
+        int[] stateLines = new int[states];
+        int[] stateEdgeOffsets = new int[states + 1];
+        for (int state = 0; state < states; state++) {
+            stateStops[state] = index.stateStop(state);
+            stateLines[state] = index.stateLine(state);
+            stateEdgeOffsets[state + 1] = index.lastStateEdge(state);
+        }
+        int[] stateEdges = new int[stateEdgeOffsets[states]];
+        for (int k = 0; k < stateEdges.length; k++) {
+            stateEdges[k] = index.stateEdge(k);
+        }
+
+        int[] pairTargets = new int[pairs];
+        double[] pairWeights = new double[pairs];
+        int[] parallelOffsets = new int[pairs + 1];
+        for (int pair = 0; pair < pairs; pair++) {
+            pairTargets[pair] = index.pairTarget(pair);
+            pairWeights[pair] = index.pairWeight(pair);
+            parallelOffsets[pair + 1] = index.lastParallelEdge(pair);
+        }
+
+        out.putDouble(index.totalWeight());
+        out.putInts(stopIds);
+        out.putInts(offsets);
+        out.putInts(targets);
+        out.putDoubles(weights);
+        out.putDoubles(distances);
+        out.putInts(edgeLines);
+        out.putInts(edgeNames);
+        out.putInts(orientations);
+        out.putInts(sequences);
+        out.putDoubles(speeds);
+        out.putInts(inOffsets);
+        out.putInts(inSources);
+        out.putInts(inEdges);
+        out.putInts(edgeStates);
+        out.putInts(stateStops);
+        out.putInts(stateLines);
+        out.putInts(stateEdgeOffsets);
+        out.putInts(stateEdges);
+        out.putInts(pairOffsets);
+        out.putInts(pairTargets);
+        out.putDoubles(pairWeights);
+        out.putInts(edgePairs);
+        out.putInts(parallelOffsets);
+        out.putInts(parallelEdges);
+        out.putDoubles(latitudes);
+        out.putDoubles(longitudes);
+        out.putDoubles(unitX);
+        out.putDoubles(unitY);
+        out.putDoubles(unitZ);
+    }
+
+    /**
+     * Lee un snapshot guardado con write. Falla si el formato o la versión no
+     * coinciden, si está incompleto o si el CRC no corresponde al contenido. El
+     * archivo queda mapeado (de solo lectura) mientras se use el snapshot o su
+     * índice mapeado
+     */
+    public static GraphSnapshot read(Path file) throws IOException {
+        ByteBuffer in;
+        long size;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            size = channel.size();
+            if (size < HEADER_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("El snapshot " + file + " no tiene un tamaño válido");
+            }
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ORDER);
+        }
+
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Formato de snapshot no reconocido: " + file);
+        }
+        long sourceChecksum = in.getLong();
+        long length = in.getLong();
+        int expectedCrc = in.getInt();
+        if (length != size - HEADER_BYTES) {
+            throw new IOException("El snapshot " + file + " está incompleto");
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(in.slice());
+        if ((int) crc.getValue() != expectedCrc) {
+            throw new IOException("El snapshot " + file + " está dañado (CRC32C no coincide)");
+        }
+
+        try {
+            return new GraphSnapshot(sourceChecksum, in, size);
+        } catch (RuntimeException e) {
+            // Con el CRC correcto solo pasa si el archivo lo escribió otra versión del código
+            throw new IOException("El snapshot " + file + " no se pudo leer: " + e, e);
+        }
+    }
+
+    /**
+     * Arcos en bus, en el orden de getAllArcs (objetos nuevos en cada llamada)
+     */
+    Arc[] transitArcs() {
+        Arc[] arcs = new Arc[transitFrom.limit()];
+        for (int k = 0; k < arcs.length; k++) {
+            int name = transitNames.get(k);
+            arcs[k] = new Arc(transitLines.get(k), name >= 0 ? lineNames[name] : null, transitOrientations.get(k),
+                transitSequences.get(k), stops[transitFrom.get(k)], stops[transitTo.get(k)],
+                transitDistances.get(k), transitSpeeds.get(k));
+        }
+        return arcs;
+    }
+
+    /**
+     * Arcos a pie, en el orden de getWalkingArcs (objetos nuevos en cada llamada)
+     */
+    Arc[] walkArcs() {
+        Arc[] arcs = new Arc[walkFrom.limit()];
+        for (int k = 0; k < arcs.length; k++) {
+            arcs[k] = AdjacencyIndex.walkArc(stops[walkFrom.get(k)], stops[walkTo.get(k)], walkDistances.get(k));
+        }
+        return arcs;
+    }
+
+    int transitArcCount() {
+        return transitFrom.limit();
+    }
+
+    int walkArcCount() {
+        return walkFrom.limit();
+    }
+
+    /**
+     * Patrón (posición en patternKeys) del arco en bus k, o -1
+     */
+    int arcPattern(int k) {
+        return arcPatterns.get(k);
+    }
+
+    /**
+     * Copia el índice a un HeapAdjacencyIndex cuyos arcos son los objetos dados
+     * (los de transitArcs y walkArcs, en su orden), como el que arma build
+     */
+    AdjacencyIndex heapIndex(Arc[] transit, Arc[] walks) {
+        Arc[] arcs = new Arc[index.edgeCount()];
+        for (int e = 0; e < arcs.length; e++) {
+            int k = edgeArcs.get(e);
+            arcs[e] = k < transit.length ? transit[k] : walks[k - transit.length];
+        }
+        return index.toHeap(arcs);
+    }
+
+    /**
+     * Arcos del índice de cada patrón (en el orden de patternKeys), cada grupo en
+     * el orden de sus arcos en bus: los mismos grupos que getArcsByPattern
+     */
+    List<int[]> patternEdges() {
+        int transit = transitArcCount();
+        int[] edgeOf = new int[transit];
+        Arrays.fill(edgeOf, -1);
+        for (int e = 0; e < edgeArcs.limit(); e++) {
+            int k = edgeArcs.get(e);
+            if (k < transit) {
+                edgeOf[k] = e;
+            }
+        }
+
+        int[] counts = new int[patternKeys.length];
+        for (int k = 0; k < transit; k++) {
+            if (edgeOf[k] >= 0 && arcPatterns.get(k) >= 0) {
+                counts[arcPatterns.get(k)]++;
+            }
+        }
+        List<int[]> groups = new ArrayList<>(patternKeys.length);
+        for (int count : counts) {
+            groups.add(new int[count]);
+        }
+        int[] filled = new int[patternKeys.length];
+        for (int k = 0; k < transit; k++) {
+            int pattern = arcPatterns.get(k);
+            if (edgeOf[k] >= 0 && pattern >= 0) {
+                groups.get(pattern)[filled[pattern]++] = edgeOf[k];
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Huella de los CSV de origen (buscados como recurso y luego como archivo):
+     * CRC32C de su contenido en los 32 bits bajos y el total de bytes en los altos
+     */
+    public static long sourceChecksum(String... filePaths) throws IOException {
+        CRC32C crc = new CRC32C();
+        long total = 0;
+        for (String filePath : filePaths) {
+            URL resource = GraphSnapshot.class.getClassLoader().getResource(filePath);
+            byte[] content;
+            if (resource != null) {
+                try (InputStream is = resource.openStream()) {
+                    content = is.readAllBytes();
+                }
+            } else {
+                content = Files.readAllBytes(Paths.get(filePath));
+            }
+            crc.update(content);
+            total += content.length;
+        }
+        return (total << 32) | crc.getValue();
+    }
+
+    /**
+     * Tamaño del archivo leído (bytes)
+     */
+    public long sizeBytes() {
+        return bytes;
+    }
+
+    /**
+     * Vista (sin copia) del siguiente arreglo de enteros de in
+     */
+    static IntBuffer intColumn(ByteBuffer in) {
+        int length = in.getInt();
+        skipPadding(in);
+        IntBuffer column = in.slice(in.position(), Math.multiplyExact(length, Integer.BYTES)).order(ORDER)
+            .asIntBuffer();
+        in.position(in.position() + length * Integer.BYTES);
+        return column;
+    }
+
+    /**
+     * Vista (sin copia) del siguiente arreglo de decimales de in
+     */
+    static DoubleBuffer doubleColumn(ByteBuffer in) {
+        int length = in.getInt();
+        skipPadding(in);
+        DoubleBuffer column = in.slice(in.position(), Math.multiplyExact(length, Double.BYTES)).order(ORDER)
+            .asDoubleBuffer();
+        in.position(in.position() + length * Double.BYTES);
+        return column;
+    }
+
+    private static LongBuffer longColumn(ByteBuffer in) {
+        int length = in.getInt();
+        skipPadding(in);
+        LongBuffer column = in.slice(in.position(), Math.multiplyExact(length, Long.BYTES)).order(ORDER)
+            .asLongBuffer();
+        in.position(in.position() + length * Long.BYTES);
+        return column;
+    }
+
+    private static void skipPadding(ByteBuffer in) {
+        in.position((in.position() + 7) & ~7);
+    }
+
+    private static int[] readInts(ByteBuffer in) {
+        IntBuffer column = intColumn(in);
+        int[] values = new int[column.limit()];
+        column.get(values);
+        return values;
+    }
+
+    private static long[] readLongs(ByteBuffer in) {
+        LongBuffer column = longColumn(in);
+        long[] values = new long[column.limit()];
+        column.get(values);
+        return values;
+    }
+
+    private static double[] readDoubles(ByteBuffer in) {
+        DoubleBuffer column = doubleColumn(in);
+        double[] values = new double[column.limit()];
+        column.get(values);
+        return values;
+    }
+
+    private static String[] readStrings(ByteBuffer in) {
+        int[] lengths = readInts(in);
+        String[] values = new String[lengths.length];
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < values.length; i++) {
+            if (lengths[i] < 0) continue;
+            if (lengths[i] > bytes.length) {
+                bytes = new byte[lengths[i]];
+            }
+            in.get(bytes, 0, lengths[i]);
+            values[i] = new String(bytes, 0, lengths[i], StandardCharsets.UTF_8);
+        }
+        return values;
+    }
+
+    /**
+     * Contenido del snapshot en construcción: un búfer little-endian que crece
+     * al escribir, con cada arreglo alineado a 8 bytes respecto del inicio del
+     * archivo (el contenido empieza después del encabezado)
+     */
+    private static final class Output {
+
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 20).order(ORDER);
+
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                ByteBuffer larger = ByteBuffer.allocate(capacity).order(ORDER);
+                larger.put(buffer.flip());
+                buffer = larger;
+            }
+        }
+
+        void putInt(int value) {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        void putDouble(double value) {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        /**
+         * Largo del arreglo y relleno hasta la siguiente posición múltiplo de 8
+         */
+        private void startColumn(int length, int elementBytes) {
+            putInt(length);
+            int padding = -(HEADER_BYTES + buffer.position()) & 7;
+            ensure(padding + length * elementBytes);
+            buffer.position(buffer.position() + padding);
+        }
+
+        void putInts(int[] values) {
+            startColumn(values.length, Integer.BYTES);
+            buffer.asIntBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Integer.BYTES);
+        }
+
+        void putLongs(long[] values) {
+            startColumn(values.length, Long.BYTES);
+            buffer.asLongBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Long.BYTES);
+        }
+
+        void putDoubles(double[] values) {
+            startColumn(values.length, Double.BYTES);
+            buffer.asDoubleBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Double.BYTES);
+        }
+
+        /**
+         * Largo de cada texto en bytes UTF-8 (-1 si es null) y luego todos los bytes
+         */
+        void putStrings(String[] values) {
+            byte[][] encoded = new byte[values.length][];
+            int[] lengths = new int[values.length];
+            int total = 0;
+            for (int i = 0; i < values.length; i++) {
+                encoded[i] = values[i] == null ? new byte[0] : values[i].getBytes(StandardCharsets.UTF_8);
+                lengths[i] = values[i] == null ? -1 : encoded[i].length;
+                total += encoded[i].length;
+            }
+            putInts(lengths);
+            ensure(total);
+            for (byte[] bytes : encoded) {
+                buffer.put(bytes);
+            }
+        }
+
+        ByteBuffer finish() {
+            return buffer.flip();
+        }
+    }
+
+    /**
+     * Herramienta fuera de línea: carga el grafo desde los CSV con la
+     * configuración indicada (Mio.Walk.* y Mio.Station.ClusterMeters) y guarda su
+     * snapshot
+     * Uso: GraphSnapshot [archivo de salida] [archivo de configuración]
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "data/graph-241.bin");
+        String config = args.length > 1 ? args[1] : "config/config.server";
+        String[] sources = { "data/stops-241.csv", "data/lines-241.csv", "data/linestops-241.csv" };
+
+        com.zeroc.Ice.Properties properties = com.zeroc.Ice.Util.createProperties();
+        properties.load(config);
+
+        long start = System.currentTimeMillis();
+        GraphBuilder graphBuilder = new GraphBuilder(
+            RepositoryFactory.createStopRepository("CSV", sources[0]),
+            RepositoryFactory.createLineRepository("CSV", sources[1]),
+            RepositoryFactory.createLineStopRepository("CSV", sources[2]));
+        graphBuilder.configureWalking(properties);
+        graphBuilder.loadData();
+        double clusterMeters = Double.parseDouble(properties.getPropertyWithDefault("Mio.Station.ClusterMeters", "100"));
+        if (clusterMeters != graphBuilder.getStationClusterMeters()) {
+            graphBuilder.prepareStations(clusterMeters);
+        }
+        long loadMillis = System.currentTimeMillis() - start;
+
+        write(output, graphBuilder, sourceChecksum(sources));
+        System.out.println("Grafo cargado desde los CSV en " + loadMillis + " ms");
+        System.out.println("Snapshot guardado en " + output + " (" + Files.size(output) / 1024 + " KB)");
+    }
+}
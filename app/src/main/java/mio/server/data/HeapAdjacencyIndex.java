@@ -0,0 +1,345 @@
+package mio.server.data;
+
+import mioice.*;
+import mio.server.util.GeoUtils;
+
+import java.util.*;
+
+/**
+ * Índice de adyacencia con todos sus arreglos en el heap del proceso: el que
+ * construyen AdjacencyIndex.build (desde los arcos) y fromArrays (desde los
+ * arreglos CSR de un snapshot). Los estados, los pares y las coordenadas se
+ * derivan en el constructor
+ */
+final class HeapAdjacencyIndex extends AdjacencyIndex {
+
+    private final int[] stopIds;   // índice denso -> stopId (ordenado ascendente)
+    private final Stop[] stops;    // índice denso -> Stop
+    private final int[] offsets;   // n + 1 posiciones
+    private final int[] targets;   // índice denso de la parada destino de cada arco
+    private final double[] weights; // distancia (km) de cada arco
+    private final Arc[] arcs;      // arco original en la misma posición que targets
+    private final int[] inOffsets; // n + 1 posiciones (adyacencia inversa)
+    private final int[] inSources; // índice denso de la parada origen de cada arco entrante
+    private final int[] inEdges;   // posición del arco entrante en los arreglos directos
+    private final int[] edgeLines;   // lineId de cada arco
+    private final int[] edgeStates;  // estado (parada destino, línea) al que lleva cada arco
+    private final int[] stateStops;  // estado -> índice denso de su parada
+    private final int[] stateLines;  // estado -> lineId
+    private final int[] stateEdgeOffsets; // numStates + 1 posiciones
+    private final int[] stateEdges;  // arcos salientes de cada estado que siguen en su misma línea
+    private final int[] pairOffsets;  // n + 1 posiciones (capa colapsada)
+    private final int[] pairTargets;  // índice denso de la parada destino de cada par
+    private final double[] pairWeights; // menor costo entre los arcos paralelos del par
+    private final int[] edgePairs;    // par al que pertenece cada arco
+    private final int[] parallelOffsets; // numPairs + 1 posiciones
+    private final int[] parallelEdges;   // arcos de cada par, en su orden en los arreglos directos
+    private final double totalWeight; // suma de las distancias de todos los arcos
+    private final double[] latitudes;  // índice denso -> latitud decimal
+    private final double[] longitudes; // índice denso -> longitud decimal
+    private final double[] unitX;      // posición de la parada sobre la esfera unitaria
+    private final double[] unitY;      // (para la cota en línea recta de A*)
+    private final double[] unitZ;
+
+    HeapAdjacencyIndex(int[] stopIds, Stop[] stops, int[] offsets, int[] targets, double[] weights, Arc[] arcs,
+            int[] inOffsets, int[] inSources, int[] inEdges) {
+        this.stopIds = stopIds;
+        this.stops = stops;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        this.inEdges = inEdges;
+        this.edgeLines = new int[targets.length];
+        this.edgeStates = new int[targets.length];
+
+        // Numerar los estados (parada, línea): los arcos entrantes de cada parada
+        // son contiguos, así que basta con agrupar sus líneas parada por parada
+        int[] stateStops = new int[targets.length];
+        int[] stateLines = new int[targets.length];
+        int numStates = 0;
+        double total = 0.0;
+        for (int e = 0; e < targets.length; e++) {
+            edgeLines[e] = arcs[e].lineId;
+            total += weights[e];
+        }
+        for (int v = 0; v < stops.length; v++) {
+            int firstState = numStates;
+            for (int r = inOffsets[v]; r < inOffsets[v + 1]; r++) {
+                int e = inEdges[r];
+                int state = -1;
+                for (int k = firstState; k < numStates && state < 0; k++) {
+                    if (stateLines[k] == edgeLines[e]) {
+                        state = k;
+                    }
+                }
+                if (state < 0) {
+                    state = numStates++;
+                    stateStops[state] = v;
+                    stateLines[state] = edgeLines[e];
+                }
+                edgeStates[e] = state;
+            }
+        }
+        this.stateStops = Arrays.copyOf(stateStops, numStates);
+        this.stateLines = Arrays.copyOf(stateLines, numStates);
+
+        // Arcos de continuación de cada estado: los que salen de su parada en su misma línea
+        this.stateEdgeOffsets = new int[numStates + 1];
+        int[] continuation = new int[targets.length];
+        int count = 0;
+        for (int state = 0; state < numStates; state++) {
+            int v = stateStops[state];
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                if (edgeLines[e] == stateLines[state]) {
+                    continuation[count++] = e;
+                }
+            }
+            stateEdgeOffsets[state + 1] = count;
+        }
+        this.stateEdges = Arrays.copyOf(continuation, count);
+
+        // Capa colapsada: un par por cada destino distinto de cada parada. pairOf
+        // guarda el último par creado hacia cada destino, válido si es de esta parada
+        this.pairOffsets = new int[stops.length + 1];
+        this.edgePairs = new int[targets.length];
+        int[] pairTargets = new int[targets.length];
+        double[] pairWeights = new double[targets.length];
+        int[] pairOf = new int[stops.length];
+        int numPairs = 0;
+        for (int v = 0; v < stops.length; v++) {
+            for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                int to = targets[e];
+                int pair = pairOf[to];
+                if (pair < pairOffsets[v] || pair >= numPairs || pairTargets[pair] != to) {
+                    pair = numPairs++;
+                    pairOf[to] = pair;
+                    pairTargets[pair] = to;
+                    pairWeights[pair] = weights[e];
+                } else if (weights[e] < pairWeights[pair]) {
+                    pairWeights[pair] = weights[e];
+                }
+                edgePairs[e] = pair;
+            }
+            pairOffsets[v + 1] = numPairs;
+        }
+        this.pairTargets = Arrays.copyOf(pairTargets, numPairs);
+        this.pairWeights = Arrays.copyOf(pairWeights, numPairs);
+
+        // Arcos paralelos de cada par (CSR), conservando su orden
+        this.parallelOffsets = new int[numPairs + 1];
+        for (int e = 0; e < targets.length; e++) {
+            parallelOffsets[edgePairs[e] + 1]++;
+        }
+        for (int pair = 0; pair < numPairs; pair++) {
+            parallelOffsets[pair + 1] += parallelOffsets[pair];
+        }
+        this.parallelEdges = new int[targets.length];
+        int[] nextParallel = Arrays.copyOf(parallelOffsets, numPairs);
+        for (int e = 0; e < targets.length; e++) {
+            parallelEdges[nextParallel[edgePairs[e]]++] = e;
+        }
+
+        this.totalWeight = total;
+        this.latitudes = new double[stops.length];
+        this.longitudes = new double[stops.length];
+        this.unitX = new double[stops.length];
+        this.unitY = new double[stops.length];
+        this.unitZ = new double[stops.length];
+        for (int v = 0; v < stops.length; v++) {
+            latitudes[v] = stops[v].decimalLat;
+            longitudes[v] = stops[v].decimalLong;
+            double lat = Math.toRadians(latitudes[v]);
+            double lon = Math.toRadians(longitudes[v]);
+            unitX[v] = Math.cos(lat) * Math.cos(lon);
+            unitY[v] = Math.cos(lat) * Math.sin(lon);
+            unitZ[v] = Math.sin(lat);
+        }
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+        this.arcs = arcs;
+    }
+
+    @Override
+    public int size() {
+        return stopIds.length;
+    }
+
+    @Override
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    @Override
+    public int pairCount() {
+        return pairTargets.length;
+    }
+
+    @Override
+    public int indexOf(int stopId) {
+        int index = Arrays.binarySearch(stopIds, stopId);
+        return index >= 0 ? index : -1;
+    }
+
+    @Override
+    public int stopIdAt(int index) {
+        return stopIds[index];
+    }
+
+    @Override
+    public Stop stopAt(int index) {
+        return stops[index];
+    }
+
+    @Override
+    public double latitudeAt(int index) {
+        return latitudes[index];
+    }
+
+    @Override
+    public double longitudeAt(int index) {
+        return longitudes[index];
+    }
+
+    @Override
+    public double straightLineDistance(int u, int v) {
+        double dx = unitX[u] - unitX[v];
+        double dy = unitY[u] - unitY[v];
+        double dz = unitZ[u] - unitZ[v];
+        return GeoUtils.EARTH_RADIUS_KM * Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        return offsets[v];
+    }
+
+    @Override
+    public int lastEdge(int v) {
+        return offsets[v + 1];
+    }
+
+    @Override
+    public int target(int e) {
+        return targets[e];
+    }
+
+    @Override
+    public double weight(int e) {
+        return weights[e];
+    }
+
+    @Override
+    public double distance(int e) {
+        return arcs[e].distance;
+    }
+
+    @Override
+    public Arc arc(int e) {
+        return arcs[e];
+    }
+
+    @Override
+    public int firstPair(int v) {
+        return pairOffsets[v];
+    }
+
+    @Override
+    public int lastPair(int v) {
+        return pairOffsets[v + 1];
+    }
+
+    @Override
+    public int pairTarget(int pair) {
+        return pairTargets[pair];
+    }
+
+    @Override
+    public double pairWeight(int pair) {
+        return pairWeights[pair];
+    }
+
+    @Override
+    public int edgePair(int e) {
+        return edgePairs[e];
+    }
+
+    @Override
+    public int firstParallelEdge(int pair) {
+        return parallelOffsets[pair];
+    }
+
+    @Override
+    public int lastParallelEdge(int pair) {
+        return parallelOffsets[pair + 1];
+    }
+
+    @Override
+    public int parallelEdge(int k) {
+        return parallelEdges[k];
+    }
+
+    @Override
+    public double totalWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public int line(int e) {
+        return edgeLines[e];
+    }
+
+    @Override
+    public int stateCount() {
+        return stateStops.length;
+    }
+
+    @Override
+    public int edgeState(int e) {
+        return edgeStates[e];
+    }
+
+    @Override
+    public int stateStop(int state) {
+        return stateStops[state];
+    }
+
+    @Override
+    public int firstStateEdge(int state) {
+        return stateEdgeOffsets[state];
+    }
+
+    @Override
+    public int lastStateEdge(int state) {
+        return stateEdgeOffsets[state + 1];
+    }
+
+    @Override
+    public int stateEdge(int k) {
+        return stateEdges[k];
+    }
+
+    @Override
+    public int stateLine(int state) {
+        return stateLines[state];
+    }
+
+    @Override
+    public int firstInEdge(int v) {
+        return inOffsets[v];
+    }
+
+    @Override
+    public int lastInEdge(int v) {
+        return inOffsets[v + 1];
+    }
+
+    @Override
+    public int inSource(int r) {
+        return inSources[r];
+    }
+
+    @Override
+    public int inEdge(int r) {
+        return inEdges[r];
+    }
+}
@@ -0,0 +1,351 @@
+package mio.server.data;
+
+import mioice.*;
+import mio.server.util.GeoUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Índice de adyacencia cuyas columnas son vistas de solo lectura sobre un
+ * snapshot mapeado en memoria (GraphSnapshot)
+ *
+ * Las columnas son las mismas de HeapAdjacencyIndex, ya derivadas al escribir
+ * el snapshot, así que abrir el índice no copia ni recalcula nada: las páginas
+ * del archivo las sirve el caché del sistema operativo, una sola vez para todos
+ * los procesos que lo mapean. Los arcos no se guardan como objetos: arc(e) arma
+ * uno nuevo a partir de las columnas de atributos (línea, nombre, orientación,
+ * secuencia, distancia y velocidad) cada vez que se pide, lo que solo ocurre al
+ * reconstruir una ruta. Las paradas sí quedan en el heap (son O(n), no O(arcos)).
+ */
+final class MappedAdjacencyIndex extends AdjacencyIndex {
+
+    private final Stop[] stops;           // índice denso -> Stop
+    private final String[] lineNames;     // nombres de línea de los arcos (edgeNames apunta aquí)
+    private final double totalWeight;
+    private final IntBuffer stopIds;
+    private final IntBuffer offsets;
+    private final IntBuffer targets;
+    private final DoubleBuffer weights;
+    private final DoubleBuffer distances;
+    private final IntBuffer edgeLines;
+    private final IntBuffer edgeNames;    // posición en lineNames, -1 si el nombre es null
+    private final IntBuffer edgeOrientations;
+    private final IntBuffer edgeSequences;
+    private final DoubleBuffer edgeSpeeds;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inSources;
+    private final IntBuffer inEdges;
+    private final IntBuffer edgeStates;
+    private final IntBuffer stateStops;
+    private final IntBuffer stateLines;
+    private final IntBuffer stateEdgeOffsets;
+    private final IntBuffer stateEdges;
+    private final IntBuffer pairOffsets;
+    private final IntBuffer pairTargets;
+    private final DoubleBuffer pairWeights;
+    private final IntBuffer edgePairs;
+    private final IntBuffer parallelOffsets;
+    private final IntBuffer parallelEdges;
+    private final DoubleBuffer latitudes;
+    private final DoubleBuffer longitudes;
+    private final DoubleBuffer unitX;
+    private final DoubleBuffer unitY;
+    private final DoubleBuffer unitZ;
+
+    /**
+     * Abre las columnas desde la posición actual de in, en el orden en que las
+     * escribe GraphSnapshot.writeIndexColumns
+     */
+    MappedAdjacencyIndex(Stop[] stops, String[] lineNames, ByteBuffer in) {
+        this.stops = stops;
+        this.lineNames = lineNames;
+        this.totalWeight = in.getDouble();
+        this.stopIds = GraphSnapshot.intColumn(in);
+        this.offsets = GraphSnapshot.intColumn(in);
+        this.targets = GraphSnapshot.intColumn(in);
+        this.weights = GraphSnapshot.doubleColumn(in);
+        this.distances = GraphSnapshot.doubleColumn(in);
+        this.edgeLines = GraphSnapshot.intColumn(in);
+        this.edgeNames = GraphSnapshot.intColumn(in);
+        this.edgeOrientations = GraphSnapshot.intColumn(in);
+        this.edgeSequences = GraphSnapshot.intColumn(in);
+        this.edgeSpeeds = GraphSnapshot.doubleColumn(in);
+        this.inOffsets = GraphSnapshot.intColumn(in);
+        this.inSources = GraphSnapshot.intColumn(in);
+        this.inEdges = GraphSnapshot.intColumn(in);
+        this.edgeStates = GraphSnapshot.intColumn(in);
+        this.stateStops = GraphSnapshot.intColumn(in);
+        this.stateLines = GraphSnapshot.intColumn(in);
+        this.stateEdgeOffsets = GraphSnapshot.intColumn(in);
+        this.stateEdges = GraphSnapshot.intColumn(in);
+        this.pairOffsets = GraphSnapshot.intColumn(in);
+        this.pairTargets = GraphSnapshot.intColumn(in);
+        this.pairWeights = GraphSnapshot.doubleColumn(in);
+        this.edgePairs = GraphSnapshot.intColumn(in);
+        this.parallelOffsets = GraphSnapshot.intColumn(in);
+        this.parallelEdges = GraphSnapshot.intColumn(in);
+        this.latitudes = GraphSnapshot.doubleColumn(in);
+        this.longitudes = GraphSnapshot.doubleColumn(in);
+        this.unitX = GraphSnapshot.doubleColumn(in);
+        this.unitY = GraphSnapshot.doubleColumn(in);
+        this.unitZ = GraphSnapshot.doubleColumn(in);
+
+        int n = stops.length;
+        int m = targets.limit();
+        if (stopIds.limit() != n || offsets.limit() != n + 1 || inOffsets.limit() != n + 1
+                || pairOffsets.limit() != n + 1 || latitudes.limit() != n || unitZ.limit() != n
+                || offsets.get(n) != m || inOffsets.get(n) != m || edgeSpeeds.limit() != m
+                || parallelEdges.limit() != m || stateEdgeOffsets.limit() != stateStops.limit() + 1
+                || parallelOffsets.limit() != pairTargets.limit() + 1) {
+            throw new IllegalStateException("Las columnas del índice no tienen tamaños consistentes");
+        }
+    }
+
+    /**
+     * Copia los arreglos CSR al heap (HeapAdjacencyIndex deriva de nuevo el resto);
+     * arcs son los arcos en el orden de los arreglos directos
+     */
+    HeapAdjacencyIndex toHeap(Arc[] arcs) {
+        int n = stops.length;
+        int m = targets.limit();
+        int[] stopIdArray = new int[n];
+        int[] offsetArray = new int[n + 1];
+        int[] targetArray = new int[m];
+        double[] weightArray = new double[m];
+        int[] inOffsetArray = new int[n + 1];
+        int[] inSourceArray = new int[m];
+        int[] inEdgeArray = new int[m];
+        stopIds.get(0, stopIdArray);
+        offsets.get(0, offsetArray);
+        targets.get(0, targetArray);
+        weights.get(0, weightArray);
+        inOffsets.get(0, inOffsetArray);
+        inSources.get(0, inSourceArray);
+        inEdges.get(0, inEdgeArray);
+        return new HeapAdjacencyIndex(stopIdArray, stops, offsetArray, targetArray, weightArray, arcs,
+            inOffsetArray, inSourceArray, inEdgeArray);
+    }
+
+    /**
+     * Parada origen del arco en la posición e: la última parada cuyo bloque de
+     * arcos empieza en e o antes
+     */
+    private int source(int e) {
+        int low = 0;
+        int high = stops.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (offsets.get(mid) <= e) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    @Override
+    public int size() {
+        return stops.length;
+    }
+
+    @Override
+    public int edgeCount() {
+        return targets.limit();
+    }
+
+    @Override
+    public int pairCount() {
+        return pairTargets.limit();
+    }
+
+    @Override
+    public int indexOf(int stopId) {
+        int low = 0;
+        int high = stops.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = stopIds.get(mid);
+            if (value < stopId) {
+                low = mid + 1;
+            } else if (value > stopId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public int stopIdAt(int index) {
+        return stopIds.get(index);
+    }
+
+    @Override
+    public Stop stopAt(int index) {
+        return stops[index];
+    }
+
+    @Override
+    public double latitudeAt(int index) {
+        return latitudes.get(index);
+    }
+
+    @Override
+    public double longitudeAt(int index) {
+        return longitudes.get(index);
+    }
+
+    @Override
+    public double straightLineDistance(int u, int v) {
+        double dx = unitX.get(u) - unitX.get(v);
+        double dy = unitY.get(u) - unitY.get(v);
+        double dz = unitZ.get(u) - unitZ.get(v);
+        return GeoUtils.EARTH_RADIUS_KM * Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    @Override
+    public int firstEdge(int v) {
+        return offsets.get(v);
+    }
+
+    @Override
+    public int lastEdge(int v) {
+        return offsets.get(v + 1);
+    }
+
+    @Override
+    public int target(int e) {
+        return targets.get(e);
+    }
+
+    @Override
+    public double weight(int e) {
+        return weights.get(e);
+    }
+
+    @Override
+    public double distance(int e) {
+        return distances.get(e);
+    }
+
+    @Override
+    public Arc arc(int e) {
+        Stop from = stops[source(e)];
+        Stop to = stops[targets.get(e)];
+        if (edgeLines.get(e) == WALK_LINE) {
+            return walkArc(from, to, distances.get(e));
+        }
+        int name = edgeNames.get(e);
+        return new Arc(edgeLines.get(e), name >= 0 ? lineNames[name] : null, edgeOrientations.get(e),
+            edgeSequences.get(e), from, to, distances.get(e), edgeSpeeds.get(e));
+    }
+
+    @Override
+    public int firstPair(int v) {
+        return pairOffsets.get(v);
+    }
+
+    @Override
+    public int lastPair(int v) {
+        return pairOffsets.get(v + 1);
+    }
+
+    @Override
+    public int pairTarget(int pair) {
+        return pairTargets.get(pair);
+    }
+
+    @Override
+    public double pairWeight(int pair) {
+        return pairWeights.get(pair);
+    }
+
+    @Override
+    public int edgePair(int e) {
+        return edgePairs.get(e);
+    }
+
+    @Override
+    public int firstParallelEdge(int pair) {
+        return parallelOffsets.get(pair);
+    }
+
+    @Override
+    public int lastParallelEdge(int pair) {
+        return parallelOffsets.get(pair + 1);
+    }
+
+    @Override
+    public int parallelEdge(int k) {
+        return parallelEdges.get(k);
+    }
+
+    @Override
+    public double totalWeight() {
+        return totalWeight;
+    }
+
+    @Override
+    public int line(int e) {
+        return edgeLines.get(e);
+    }
+
+    @Override
+    public int stateCount() {
+        return stateStops.limit();
+    }
+
+    @Override
+    public int edgeState(int e) {
+        return edgeStates.get(e);
+    }
+
+    @Override
+    public int stateStop(int state) {
+        return stateStops.get(state);
+    }
+
+    @Override
+    public int firstStateEdge(int state) {
+        return stateEdgeOffsets.get(state);
+    }
+
+    @Override
+    public int lastStateEdge(int state) {
+        return stateEdgeOffsets.get(state + 1);
+    }
+
+    @Override
+    public int stateEdge(int k) {
+        return stateEdges.get(k);
+    }
+
+    @Override
+    public int stateLine(int state) {
+        return stateLines.get(state);
+    }
+
+    @Override
+    public int firstInEdge(int v) {
+        return inOffsets.get(v);
+    }
+
+    @Override
+    public int lastInEdge(int v) {
+        return inOffsets.get(v + 1);
+    }
+
+    @Override
+    public int inSource(int r) {
+        return inSources.get(r);
+    }
+
+    @Override
+    public int inEdge(int r) {
+        return inEdges.get(r);
+    }
+}
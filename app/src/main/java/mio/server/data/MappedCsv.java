@@ -0,0 +1,428 @@
+package mio.server.data;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+/**
+ * Lector de CSV sobre archivos mapeados en memoria (FileChannel.map)
+ *
+ * El archivo se divide en bloques de unos CHUNK_BYTES que terminan en un fin de
+ * línea; cada bloque se mapea por separado (no hay límite de 2 GB) y se procesa
+ * en paralelo, y las filas se devuelven en el orden del archivo. Dentro de un
+ * bloque una sola Row se reutiliza para todas las filas: guarda dónde empieza y
+ * termina cada campo, y los enteros, largos y decimales se leen directamente de
+ * los bytes, sin crear Strings. Solo getString crea uno.
+ *
+ * Las comillas agrupan campos con comas y se descartan, y los campos se recortan
+ * como con trim(), igual que el lector anterior por líneas. La primera línea (el
+ * encabezado entre comillas de los *-241.csv) se lee como nombres de columna.
+ * Si el archivo solo existe como recurso dentro de un jar, se copia a memoria y
+ * se procesa igual.
+ */
+public final class MappedCsv {
+
+    public static final int CHUNK_BYTES = 4 * 1024 * 1024;
+
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Path path;          // archivo mapeado (null si está en memoria)
+    private final ByteBuffer bytes;   // contenido del recurso (null si se mapea)
+    private final long size;
+    private final long dataStart;     // primer byte después del encabezado
+    private final String[] header;
+
+    private MappedCsv(Path path, ByteBuffer bytes, long size, boolean hasHeader) throws IOException {
+        this.path = path;
+        this.bytes = bytes;
+        this.size = size;
+        if (hasHeader) {
+            this.dataStart = nextLineStart(0);
+            Row first = new Row(chunk(0, dataStart), 0);
+            first.next();
+            this.header = new String[first.fieldCount()];
+            for (int i = 0; i < header.length; i++) {
+                header[i] = first.getString(i);
+            }
+        } else {
+            this.dataStart = 0;
+            this.header = new String[0];
+        }
+    }
+
+    /**
+     * Abre un CSV con encabezado, buscándolo primero como recurso (como
+     * CSVReader) y luego en el sistema de archivos
+     */
+    public static MappedCsv open(String filePath) throws IOException {
+        return open(filePath, true);
+    }
+
+    /**
+     * Abre un CSV; si hasHeader, la primera línea son los nombres de columna
+     */
+    public static MappedCsv open(String filePath, boolean hasHeader) throws IOException {
+        URL resource = MappedCsv.class.getClassLoader().getResource(filePath);
+        if (resource == null) {
+            return map(Paths.get(filePath), hasHeader);
+        }
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return map(Paths.get(resource.toURI()), hasHeader);
+            } catch (URISyntaxException e) {
+                throw new IOException("Ruta de recurso inválida: " + resource, e);
+            }
+        }
+        try (InputStream is = resource.openStream()) {
+            byte[] content = is.readAllBytes();
+            return new MappedCsv(null, ByteBuffer.wrap(content), content.length, hasHeader);
+        }
+    }
+
+    private static MappedCsv map(Path path, boolean hasHeader) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedCsv(path, null, channel.size(), hasHeader);
+        }
+    }
+
+    /**
+     * Nombres de las columnas del encabezado (sin comillas)
+     */
+    public String[] getHeader() {
+        return header.clone();
+    }
+
+    /**
+     * Posición de la columna con ese nombre (sin distinguir mayúsculas), o -1
+     */
+    public int columnIndex(String name) {
+        for (int i = 0; i < header.length; i++) {
+            if (header[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Convierte cada fila con mapper, en paralelo por bloques. Las filas para las
+     * que mapper retorna null se omiten; el resultado conserva el orden del archivo.
+     * mapper no debe guardar la Row: se reutiliza para la fila siguiente
+     */
+    public <T> List<T> parse(Function<Row, T> mapper) throws IOException {
+        long[] bounds = chunkBounds();
+        List<List<T>> parts = IntStream.range(0, bounds.length - 1).parallel()
+            .mapToObj(c -> parseChunk(bounds[c], bounds[c + 1], mapper))
+            .toList();
+
+        int total = 0;
+        for (List<T> part : parts) {
+            total += part.size();
+        }
+        List<T> result = new ArrayList<>(total);
+        for (List<T> part : parts) {
+            result.addAll(part);
+        }
+        return result;
+    }
+
+    private <T> List<T> parseChunk(long start, long end, Function<Row, T> mapper) {
+        Row row;
+        try {
+            row = new Row(chunk(start, end), start);
+        } catch (IOException e) {
+            throw new IllegalStateException("Error mapeando " + path + " desde el byte " + start, e);
+        }
+        List<T> part = new ArrayList<>();
+        while (row.next()) {
+            T value = mapper.apply(row);
+            if (value != null) {
+                part.add(value);
+            }
+        }
+        return part;
+    }
+
+    /**
+     * Límites de los bloques: cada uno empieza justo después de un fin de línea
+     */
+    private long[] chunkBounds() throws IOException {
+        long[] bounds = new long[(int) ((size - dataStart) / CHUNK_BYTES) + 2];
+        int count = 0;
+        bounds[count++] = dataStart;
+        long position = dataStart;
+        while (position < size) {
+            position = nextLineStart(Math.min(size, position + CHUNK_BYTES) - 1);
+            bounds[count++] = position;
+        }
+        return count < 2 ? new long[] { dataStart, size } : Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Posición siguiente al primer '\n' desde from (o el tamaño del archivo)
+     */
+    private long nextLineStart(long from) throws IOException {
+        if (bytes != null) {
+            for (long p = from; p < size; p++) {
+                if (bytes.get((int) p) == '\n') {
+                    return p + 1;
+                }
+            }
+            return size;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer window = ByteBuffer.allocate(8192);
+            long p = from;
+            while (p < size) {
+                window.clear();
+                int read = channel.read(window, p);
+                if (read <= 0) break;
+                for (int i = 0; i < read; i++) {
+                    if (window.get(i) == '\n') {
+                        return p + i + 1;
+                    }
+                }
+                p += read;
+            }
+            return size;
+        }
+    }
+
+    private ByteBuffer chunk(long start, long end) throws IOException {
+        if (bytes != null) {
+            return bytes.slice((int) start, (int) (end - start));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
+    }
+
+    /**
+     * Fila actual de un bloque: posiciones de sus campos dentro del bloque
+     */
+    public static final class Row {
+
+        private final ByteBuffer buffer;
+        private final long offset;      // posición del bloque en el archivo
+        private int position;           // inicio de la fila siguiente
+        private int lineStart;
+        private int lineEnd;
+        private int count;
+        private int[] fieldStart = new int[16];
+        private int[] fieldEnd = new int[16];
+
+        private Row(ByteBuffer buffer, long offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        /**
+         * Avanza a la fila siguiente y separa sus campos
+         */
+        private boolean next() {
+            int limit = buffer.limit();
+            if (position >= limit) {
+                return false;
+            }
+
+            lineStart = position;
+            count = 0;
+            int start = position;
+            boolean inQuotes = false;
+            int p = position;
+            while (p < limit) {
+                byte b = buffer.get(p);
+                if (b == '\n') break;
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == ',' && !inQuotes) {
+                    addField(start, p);
+                    start = p + 1;
+                }
+                p++;
+            }
+            addField(start, p);
+            lineEnd = p;
+            position = p + 1;
+            return true;
+        }
+
+        private void addField(int start, int end) {
+            if (count == fieldStart.length) {
+                fieldStart = Arrays.copyOf(fieldStart, count * 2);
+                fieldEnd = Arrays.copyOf(fieldEnd, count * 2);
+            }
+            // Recortar espacios (y el '\r' de los finales de línea Windows) y comillas
+            while (start < end && isBlankOrQuote(buffer.get(start))) start++;
+            while (end > start && isBlankOrQuote(buffer.get(end - 1))) end--;
+            fieldStart[count] = start;
+            fieldEnd[count] = end;
+            count++;
+        }
+
+        private static boolean isBlankOrQuote(byte b) {
+            return (b >= 0 && b <= ' ') || b == '"';
+        }
+
+        /**
+         * Número de campos de la fila (una línea vacía tiene uno)
+         */
+        public int fieldCount() {
+            return count;
+        }
+
+        /**
+         * Indica si el campo i está vacío
+         */
+        public boolean isEmpty(int i) {
+            Objects.checkIndex(i, count);
+            return fieldStart[i] == fieldEnd[i];
+        }
+
+        /**
+         * Posición de la fila en el archivo (byte de inicio)
+         */
+        public long filePosition() {
+            return offset + lineStart;
+        }
+
+        public int getInt(int i) {
+            long value = getLong(i);
+            if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+                throw new NumberFormatException("Entero fuera de rango: " + getString(i));
+            }
+            return (int) value;
+        }
+
+        public long getLong(int i) {
+            Objects.checkIndex(i, count);
+            int p = fieldStart[i];
+            int end = fieldEnd[i];
+            boolean negative = p < end && buffer.get(p) == '-';
+            if (p < end && (negative || buffer.get(p) == '+')) p++;
+            if (p == end) {
+                throw new NumberFormatException("Número vacío: \"" + getString(i) + "\"");
+            }
+
+            // Se acumula en negativo para aceptar Long.MIN_VALUE
+            long value = 0;
+            for (; p < end; p++) {
+                int digit = buffer.get(p) - '0';
+                if (digit < 0 || digit > 9 || value < (Long.MIN_VALUE + digit) / 10) {
+                    throw new NumberFormatException("Entero inválido: \"" + getString(i) + "\"");
+                }
+                value = value * 10 - digit;
+            }
+            if (!negative && value == Long.MIN_VALUE) {
+                throw new NumberFormatException("Entero inválido: \"" + getString(i) + "\"");
+            }
+            return negative ? value : -value;
+        }
+
+        /**
+         * Decimal con signo, parte fraccionaria y exponente opcionales. Con hasta
+         * 15 dígitos significativos y exponente decimal de hasta 22 el resultado
+         * es una sola multiplicación o división exacta, igual a Double.parseDouble;
+         * los demás casos (y NaN, Infinity...) se delegan a Double.parseDouble
+         */
+        public double getDouble(int i) {
+            Objects.checkIndex(i, count);
+            int p = fieldStart[i];
+            int end = fieldEnd[i];
+            boolean negative = p < end && buffer.get(p) == '-';
+            if (p < end && (negative || buffer.get(p) == '+')) p++;
+
+            long mantissa = 0;
+            int digits = 0;
+            int scale = 0;
+            boolean any = false;
+            for (; p < end && isDigit(buffer.get(p)); p++) {
+                any = true;
+                if (mantissa != 0 || buffer.get(p) != '0') {
+                    mantissa = mantissa * 10 + (buffer.get(p) - '0');
+                    digits++;
+                }
+            }
+            if (p < end && buffer.get(p) == '.') {
+                for (p++; p < end && isDigit(buffer.get(p)); p++) {
+                    any = true;
+                    if (mantissa != 0 || buffer.get(p) != '0') {
+                        mantissa = mantissa * 10 + (buffer.get(p) - '0');
+                        digits++;
+                    }
+                    scale--;
+                }
+            }
+            if (any && p < end && (buffer.get(p) == 'e' || buffer.get(p) == 'E')) {
+                int q = p + 1;
+                boolean negativeExponent = q < end && buffer.get(q) == '-';
+                if (q < end && (negativeExponent || buffer.get(q) == '+')) q++;
+                int exponent = 0;
+                int start = q;
+                for (; q < end && isDigit(buffer.get(q)) && exponent < 10000; q++) {
+                    exponent = exponent * 10 + (buffer.get(q) - '0');
+                }
+                if (q > start) {
+                    scale += negativeExponent ? -exponent : exponent;
+                    p = q;
+                }
+            }
+
+            if (!any || p != end || digits > 15 || scale < -22 || scale > 22) {
+                return Double.parseDouble(getString(i));
+            }
+            double value = scale < 0 ? mantissa / POWERS_OF_TEN[-scale] : mantissa * POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        /**
+         * Texto del campo i (UTF-8, sin comillas y recortado)
+         */
+        public String getString(int i) {
+            Objects.checkIndex(i, count);
+            int start = fieldStart[i];
+            int length = fieldEnd[i] - start;
+            byte[] text = new byte[length];
+            buffer.get(start, text);
+            int kept = 0;
+            for (byte b : text) {
+                if (b != '"') {
+                    text[kept++] = b;
+                }
+            }
+            return new String(text, 0, kept, StandardCharsets.UTF_8).trim();
+        }
+
+        /**
+         * Texto completo de la fila (para los mensajes de error)
+         */
+        @Override
+        public String toString() {
+            int end = lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+            byte[] text = new byte[end - lineStart];
+            buffer.get(lineStart, text);
+            return new String(text, StandardCharsets.UTF_8);
+        }
+    }
+}
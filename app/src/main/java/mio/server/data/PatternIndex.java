@@ -0,0 +1,305 @@
+package mio.server.data;
+
+import mioice.*;
+
+import java.util.*;
+
+/**
+ * Índice de patrones de parada de la red (una secuencia ordenada de paradas por
+ * línea, variante y orientación), usado por el enrutador por rondas (RAPTOR)
+ *
+ * Las paradas de todos los patrones se guardan en arreglos planos: el patrón p
+ * ocupa las posiciones [patternOffsets[p], patternOffsets[p + 1]) y el arco que
+ * sale de la posición i hacia la siguiente es el arco segmentEdges[i] del
+ * AdjacencyIndex (con su distancia en segmentDistances[i]). Recorrer un patrón
+ * es un barrido secuencial.
+ *
+ * Los patrones quedan agrupados por línea (lineId): los de la línea l son
+ * [lineOffsets[l], lineOffsets[l + 1]), así que las posiciones de una línea
+ * también son contiguas. Para cada parada se guardan las posiciones en las que
+ * aparece, en orden y en formato CSR: [stopOffsets[v], stopOffsets[v + 1]) de
+ * stopPositions. Las paradas usan los mismos índices densos que AdjacencyIndex.
+ */
+public class PatternIndex {
+
+    private final int[] lineIds;            // índice denso de línea -> lineId
+    private final int[] lineOffsets;        // numLines + 1 posiciones (rangos de patrones)
+    private final int[] patternOffsets;     // numPatterns + 1 posiciones (rangos de posiciones)
+    private final int[] patternStops;       // posición -> índice denso de la parada
+    private final int[] positionPatterns;   // posición -> patrón al que pertenece
+    private final int[] patternLines;       // patrón -> línea (índice denso)
+    private final AdjacencyIndex index;
+    private final int[] segmentEdges;       // posición -> arco del índice hacia la posición siguiente (-1 al final)
+    private final double[] segmentDistances; // posición -> distancia (km) hasta la posición siguiente
+    private final int[] sameStopNext;       // posición -> siguiente posición de la misma parada en la línea (cíclico)
+    private final int[] stopOffsets;        // n + 1 posiciones
+    private final int[] stopPositions;      // posiciones en que aparece cada parada
+
+    private PatternIndex(int[] lineIds, int[] lineOffsets, int[] patternOffsets, int[] patternStops,
+            AdjacencyIndex index, int[] segmentEdges) {
+        int numLines = lineIds.length;
+        int numPositions = patternStops.length;
+        int numStops = index.size();
+
+        this.lineIds = lineIds;
+        this.lineOffsets = lineOffsets;
+        this.patternOffsets = patternOffsets;
+        this.patternStops = patternStops;
+        this.index = index;
+        this.segmentEdges = segmentEdges;
+        this.segmentDistances = new double[numPositions];
+        for (int i = 0; i < numPositions; i++) {
+            segmentDistances[i] = segmentEdges[i] >= 0 ? index.distance(segmentEdges[i]) : 0.0;
+        }
+
+        this.positionPatterns = new int[numPositions];
+        this.patternLines = new int[patternOffsets.length - 1];
+        for (int l = 0; l < numLines; l++) {
+            for (int p = lineOffsets[l]; p < lineOffsets[l + 1]; p++) {
+                patternLines[p] = l;
+                for (int i = patternOffsets[p]; i < patternOffsets[p + 1]; i++) {
+                    positionPatterns[i] = p;
+                }
+            }
+        }
+
+        // Posiciones de cada parada, agrupadas por parada (en orden creciente)
+        this.stopOffsets = new int[numStops + 1];
+        for (int i = 0; i < numPositions; i++) {
+            stopOffsets[patternStops[i] + 1]++;
+        }
+        for (int v = 0; v < numStops; v++) {
+            stopOffsets[v + 1] += stopOffsets[v];
+        }
+        this.stopPositions = new int[numPositions];
+        int[] next = Arrays.copyOf(stopOffsets, numStops);
+        for (int i = 0; i < numPositions; i++) {
+            stopPositions[next[patternStops[i]]++] = i;
+        }
+
+        // Enlazar en un ciclo las posiciones de una misma parada dentro de cada línea
+        this.sameStopNext = new int[numPositions];
+        for (int i = 0; i < numPositions; i++) {
+            int v = patternStops[i];
+            int l = patternLines[positionPatterns[i]];
+            int first = -1;
+            int following = -1;
+            for (int k = stopOffsets[v]; k < stopOffsets[v + 1]; k++) {
+                int j = stopPositions[k];
+                if (patternLines[positionPatterns[j]] != l) continue;
+                if (first < 0) first = j;
+                if (j > i) {
+                    following = j;
+                    break;
+                }
+            }
+            sameStopNext[i] = following >= 0 ? following : first;
+        }
+    }
+
+    /**
+     * Construye el índice a partir de los arcos agrupados por línea, variante y
+     * orientación. Un grupo cuyos arcos no encadenan (falta una parada en los
+     * datos) se parte en varios patrones
+     */
+    public static PatternIndex build(AdjacencyIndex index, Collection<List<Arc>> arcsByPattern) {
+        // Posición de cada arco en el índice (por identidad); los que no están se omiten
+        Map<Arc, Integer> edgeOf = new IdentityHashMap<>();
+        for (int e = 0; e < index.edgeCount(); e++) {
+            edgeOf.put(index.arc(e), e);
+        }
+        List<int[]> edgesByPattern = new ArrayList<>(arcsByPattern.size());
+        for (List<Arc> group : arcsByPattern) {
+            edgesByPattern.add(group.stream().map(edgeOf::get).filter(Objects::nonNull)
+                .mapToInt(Integer::intValue).toArray());
+        }
+        return fromEdges(index, edgesByPattern);
+    }
+
+    /**
+     * Igual que build, con cada grupo dado como los arcos del índice que lo forman
+     * (en el orden de los arcos del grupo)
+     */
+    static PatternIndex fromEdges(AdjacencyIndex index, List<int[]> edgesByPattern) {
+        // Agrupar los grupos por línea, en orden de lineId
+        Map<Integer, List<int[]>> byLine = new TreeMap<>();
+        for (int[] group : edgesByPattern) {
+            if (group.length > 0) {
+                byLine.computeIfAbsent(index.line(group[0]), k -> new ArrayList<>()).add(group);
+            }
+        }
+
+        List<Integer> lineIds = new ArrayList<>();
+        List<Integer> lineOffsets = new ArrayList<>();
+        List<Integer> offsets = new ArrayList<>();
+        List<Integer> stops = new ArrayList<>();
+        List<Integer> segments = new ArrayList<>();
+        lineOffsets.add(0);
+        offsets.add(0);
+
+        for (Map.Entry<Integer, List<int[]>> line : byLine.entrySet()) {
+            for (int[] group : line.getValue()) {
+                List<Integer> edges = new ArrayList<>(group.length);
+                for (int e : group) {
+                    edges.add(e);
+                }
+                edges.sort(Comparator.comparingInt(e -> index.arc(e).sequenceNum));
+
+                int previous = -1;
+                for (int e : edges) {
+                    int from = index.indexOf(index.arc(e).fromStop.stopId);
+                    int to = index.target(e);
+
+                    if (previous < 0 || index.target(previous) != from) {
+                        // Empieza un patrón nuevo: cerrar el anterior
+                        if (previous >= 0) {
+                            segments.add(-1);
+                            offsets.add(stops.size());
+                        }
+                        stops.add(from);
+                    }
+                    segments.add(e);
+                    stops.add(to);
+                    previous = e;
+                }
+                if (previous >= 0) {
+                    segments.add(-1);
+                    offsets.add(stops.size());
+                }
+            }
+            int numPatterns = offsets.size() - 1;
+            if (numPatterns > lineOffsets.get(lineOffsets.size() - 1)) {
+                lineIds.add(line.getKey());
+                lineOffsets.add(numPatterns);
+            }
+        }
+
+        return new PatternIndex(
+            lineIds.stream().mapToInt(Integer::intValue).toArray(),
+            lineOffsets.stream().mapToInt(Integer::intValue).toArray(),
+            offsets.stream().mapToInt(Integer::intValue).toArray(),
+            stops.stream().mapToInt(Integer::intValue).toArray(),
+            index,
+            segments.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Número de líneas con al menos un patrón
+     */
+    public int lineCount() {
+        return lineIds.length;
+    }
+
+    /**
+     * lineId de la línea l (índice denso)
+     */
+    public int lineIdAt(int l) {
+        return lineIds[l];
+    }
+
+    /**
+     * Primer patrón de la línea l
+     */
+    public int firstPattern(int l) {
+        return lineOffsets[l];
+    }
+
+    /**
+     * Patrón siguiente al último de la línea l
+     */
+    public int lastPattern(int l) {
+        return lineOffsets[l + 1];
+    }
+
+    /**
+     * Número de patrones
+     */
+    public int patternCount() {
+        return patternOffsets.length - 1;
+    }
+
+    /**
+     * Primera posición del patrón p
+     */
+    public int firstPosition(int p) {
+        return patternOffsets[p];
+    }
+
+    /**
+     * Posición siguiente a la última del patrón p
+     */
+    public int lastPosition(int p) {
+        return patternOffsets[p + 1];
+    }
+
+    /**
+     * Número total de posiciones (paradas de todos los patrones)
+     */
+    public int positionCount() {
+        return patternStops.length;
+    }
+
+    /**
+     * Parada (índice denso) en la posición i
+     */
+    public int stopAt(int i) {
+        return patternStops[i];
+    }
+
+    /**
+     * Arco que une la posición i con la siguiente del mismo patrón
+     */
+    public Arc segment(int i) {
+        return segmentEdges[i] >= 0 ? index.arc(segmentEdges[i]) : null;
+    }
+
+    /**
+     * Distancia en km entre la posición i y la siguiente del mismo patrón
+     */
+    public double segmentDistance(int i) {
+        return segmentDistances[i];
+    }
+
+    /**
+     * Siguiente posición (en orden cíclico) en que la línea de la posición i pasa
+     * por la misma parada; es i si la parada aparece una sola vez en la línea
+     */
+    public int nextSameStop(int i) {
+        return sameStopNext[i];
+    }
+
+    /**
+     * Patrón al que pertenece la posición i
+     */
+    public int patternAt(int i) {
+        return positionPatterns[i];
+    }
+
+    /**
+     * Línea (índice denso) del patrón p
+     */
+    public int lineOf(int p) {
+        return patternLines[p];
+    }
+
+    /**
+     * Inicio del rango de posiciones en que aparece la parada v
+     */
+    public int firstStopPosition(int v) {
+        return stopOffsets[v];
+    }
+
+    /**
+     * Fin (exclusivo) del rango de posiciones en que aparece la parada v
+     */
+    public int lastStopPosition(int v) {
+        return stopOffsets[v + 1];
+    }
+
+    /**
+     * Posición k del rango de una parada
+     */
+    public int stopPosition(int k) {
+        return stopPositions[k];
+    }
+}
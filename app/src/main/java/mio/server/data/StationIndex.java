@@ -0,0 +1,237 @@
+package mio.server.data;
+
+import mioice.*;
+import mio.server.util.StopGrid;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Capa de estaciones sobre las paradas (andenes) del grafo
+ *
+ * Las paradas con el mismo nombre largo (sin distinguir mayúsculas) a
+ * clusterMeters o menos una de otra quedan en la misma estación; los vecinos de
+ * cada parada se buscan en paralelo en la grilla espacial y las uniones se hacen
+ * con union-find, así que la pertenencia es transitiva. Cada estación es un nodo
+ * de un AdjacencyIndex propio cuyo stopId es el menor de sus andenes y cuyas
+ * coordenadas son el centroide de ellos.
+ *
+ * Los arcos entre estaciones son los arcos entre andenes de estaciones distintas
+ * (los internos desaparecen); de los paralelos con la misma línea solo se deja el
+ * más corto. platformArc devuelve, para cada arco de estación, el arco de andenes
+ * que representa (se guarda su posición en el grafo de andenes, no el objeto),
+ * con el que una ruta de estaciones se expande a andenes.
+ */
+public class StationIndex {
+
+    private final AdjacencyIndex platforms;  // grafo de andenes (paradas)
+    private final AdjacencyIndex stations;   // grafo de estaciones
+    private final int[] stationOf;           // índice denso de andén -> índice denso de su estación
+    private final int[] memberOffsets;       // numStations + 1 posiciones
+    private final int[] members;             // andenes de cada estación (índices densos, ascendentes)
+    private final Map<Arc, Integer> platformEdges; // arco de estación -> arco del grafo de andenes (por identidad)
+
+    private StationIndex(AdjacencyIndex platforms, AdjacencyIndex stations, int[] stationOf, int[] memberOffsets,
+            int[] members, Map<Arc, Integer> platformEdges) {
+        this.platforms = platforms;
+        this.stations = stations;
+        this.stationOf = stationOf;
+        this.memberOffsets = memberOffsets;
+        this.members = members;
+        this.platformEdges = platformEdges;
+    }
+
+    /**
+     * Agrupa los andenes en estaciones y construye el grafo de estaciones. Los
+     * arcos a pie entre estaciones pesan walkCostFactor veces su distancia, como
+     * en el grafo de andenes
+     */
+    public static StationIndex build(AdjacencyIndex platforms, StopGrid grid, double clusterMeters,
+            double walkCostFactor) {
+        int n = platforms.size();
+
+        // 1. Vecinos con el mismo nombre (en paralelo) y uniones
+        int[][] sameName = IntStream.range(0, n).parallel()
+            .mapToObj(v -> sameNameNeighbors(platforms, grid, v, clusterMeters))
+            .toArray(int[][]::new);
+        int[] root = new int[n];
+        for (int v = 0; v < n; v++) {
+            root[v] = v;
+        }
+        for (int v = 0; v < n; v++) {
+            for (int w : sameName[v]) {
+                int a = find(root, v);
+                int b = find(root, w);
+                if (a != b) {
+                    root[Math.max(a, b)] = Math.min(a, b); // la raíz es el andén de menor índice
+                }
+            }
+        }
+
+        // 2. Numerar las estaciones en orden de su primer andén (el de menor stopId)
+        int[] stationOf = new int[n];
+        int numStations = 0;
+        for (int v = 0; v < n; v++) {
+            int r = find(root, v);
+            stationOf[v] = r == v ? numStations++ : stationOf[r];
+        }
+        return build(platforms, stationOf, walkCostFactor);
+    }
+
+    /**
+     * Construye el grafo de estaciones a partir de una agrupación ya calculada
+     * (la de stationOf, leída de un snapshot): estaciones numeradas en orden de
+     * su primer andén
+     */
+    public static StationIndex build(AdjacencyIndex platforms, int[] stationOf, double walkCostFactor) {
+        int n = platforms.size();
+        int numStations = 0;
+        int[] memberOffsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            numStations = Math.max(numStations, stationOf[v] + 1);
+            memberOffsets[stationOf[v] + 1]++;
+        }
+        memberOffsets = Arrays.copyOf(memberOffsets, numStations + 1);
+        for (int s = 0; s < numStations; s++) {
+            memberOffsets[s + 1] += memberOffsets[s];
+        }
+        int[] members = new int[n];
+        int[] next = Arrays.copyOf(memberOffsets, numStations);
+        for (int v = 0; v < n; v++) {
+            members[next[stationOf[v]]++] = v;
+        }
+
+        // 3. Una parada por estación: el primer andén, con el centroide de todos
+        Map<Integer, Stop> stationStops = new HashMap<>();
+        Stop[] stationStop = new Stop[numStations];
+        for (int s = 0; s < numStations; s++) {
+            Stop first = platforms.stopAt(members[memberOffsets[s]]);
+            double lat = 0.0;
+            double lon = 0.0;
+            for (int k = memberOffsets[s]; k < memberOffsets[s + 1]; k++) {
+                lat += platforms.latitudeAt(members[k]);
+                lon += platforms.longitudeAt(members[k]);
+            }
+            int size = memberOffsets[s + 1] - memberOffsets[s];
+            stationStop[s] = new Stop(first.stopId, first.planVersionId, first.shortName, first.longName,
+                first.gpsX, first.gpsY, lon / size, lat / size);
+            stationStops.put(first.stopId, stationStop[s]);
+        }
+
+        // 4. Arcos entre estaciones distintas, el más corto por (origen, destino, línea)
+        Map<String, Integer> bestByKey = new HashMap<>();
+        List<Arc> transit = new ArrayList<>();
+        List<Arc> walks = new ArrayList<>();
+        Map<Arc, Integer> platformEdges = new IdentityHashMap<>();
+        for (int v = 0; v < n; v++) {
+            for (int e = platforms.firstEdge(v); e < platforms.lastEdge(v); e++) {
+                int from = stationOf[v];
+                int to = stationOf[platforms.target(e)];
+                if (from == to) continue;
+
+                Arc arc = platforms.arc(e);
+                String key = from + "_" + to + "_" + arc.lineId;
+                List<Arc> list = platforms.isWalk(e) ? walks : transit;
+                Integer previous = bestByKey.get(key);
+                if (previous != null) {
+                    Arc kept = list.get(previous);
+                    if (kept.distance <= arc.distance) continue;
+                    platformEdges.remove(kept);
+                }
+
+                Arc stationArc = new Arc(arc.lineId, arc.lineName, arc.orientation, arc.sequenceNum,
+                    stationStop[from], stationStop[to], arc.distance, arc.avgSpeed);
+                platformEdges.put(stationArc, e);
+                if (previous != null) {
+                    list.set(previous, stationArc);
+                } else {
+                    bestByKey.put(key, list.size());
+                    list.add(stationArc);
+                }
+            }
+        }
+
+        AdjacencyIndex stations = AdjacencyIndex.build(stationStops, transit, walks, walkCostFactor);
+        return new StationIndex(platforms, stations, stationOf, memberOffsets, members, platformEdges);
+    }
+
+    /**
+     * Andenes vecinos de v con su mismo nombre largo
+     */
+    private static int[] sameNameNeighbors(AdjacencyIndex platforms, StopGrid grid, int v, double clusterMeters) {
+        String name = platforms.stopAt(v).longName;
+        int[] nearby = grid.neighbors(v, clusterMeters);
+        int count = 0;
+        for (int w : nearby) {
+            if (name != null && name.trim().equalsIgnoreCase(String.valueOf(platforms.stopAt(w).longName).trim())) {
+                nearby[count++] = w;
+            }
+        }
+        return Arrays.copyOf(nearby, count);
+    }
+
+    private static int find(int[] root, int v) {
+        while (root[v] != v) {
+            root[v] = root[root[v]];
+            v = root[v];
+        }
+        return v;
+    }
+
+    /**
+     * Grafo de estaciones (sus stopId son los del primer andén de cada una)
+     */
+    public AdjacencyIndex getStations() {
+        return stations;
+    }
+
+    /**
+     * Grafo de andenes sobre el que se construyeron las estaciones
+     */
+    public AdjacencyIndex getPlatforms() {
+        return platforms;
+    }
+
+    /**
+     * Número de estaciones
+     */
+    public int size() {
+        return stations.size();
+    }
+
+    /**
+     * Índice denso (en el grafo de estaciones) de la estación del andén v
+     */
+    public int stationOf(int v) {
+        return stationOf[v];
+    }
+
+    /**
+     * Primera posición de los andenes de la estación s
+     */
+    public int firstMember(int s) {
+        return memberOffsets[s];
+    }
+
+    /**
+     * Posición siguiente al último andén de la estación s (exclusiva)
+     */
+    public int lastMember(int s) {
+        return memberOffsets[s + 1];
+    }
+
+    /**
+     * Índice denso (en el grafo de andenes) del andén en la posición k
+     */
+    public int member(int k) {
+        return members[k];
+    }
+
+    /**
+     * Arco de andenes que representa un arco del grafo de estaciones
+     */
+    public Arc platformArc(Arc stationArc) {
+        Integer edge = platformEdges.get(stationArc);
+        return edge != null ? platforms.arc(edge) : null;
+    }
+}
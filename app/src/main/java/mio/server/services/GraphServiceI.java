@@ -2,9 +2,13 @@ package mio.server.services;
 
 import mioice.*;
 import mio.server.data.GraphBuilder;
+import mio.server.util.PathFinder;
+import mio.server.util.SearchAlgorithm;
 import com.zeroc.Ice.Current;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -16,11 +20,48 @@ public class GraphServiceI implements GraphService {
     private GraphBuilder graphBuilder;
     private List<RouteWorkerPrx> workers;
     private AtomicInteger nextWorkerIndex;
+    private RouteCache routeCache; // null si Mio.RouteCache.Capacity=0
+    private static final int MATRIX_CHUNK_CELLS = 1_000_000; // ~16 MB por bloque de computeMatrix
+    
+    private int batchChunkSize = 250; // pares por bloque de findRoutes enviado a un worker
+    private ForkJoinPool batchPool;   // bloques de findRoutes ejecutados localmente
     
     public GraphServiceI(GraphBuilder graphBuilder) {
         this.graphBuilder = graphBuilder;
         this.workers = new ArrayList<>();
         this.nextWorkerIndex = new AtomicInteger(0);
+        this.batchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+    
+    /**
+     * Aplica la configuración de la caché de rutas (propiedades Mio.RouteCache.*)
+     */
+    public void configureCache(com.zeroc.Ice.Properties properties) {
+        int capacity = properties.getPropertyAsIntWithDefault("Mio.RouteCache.Capacity", 10000);
+        int ttlSeconds = Math.max(0, properties.getPropertyAsIntWithDefault("Mio.RouteCache.TTL", 600));
+        if (capacity <= 0) {
+            routeCache = null;
+            System.out.println("MASTER: Caché de rutas desactivada");
+            return;
+        }
+        routeCache = new RouteCache(capacity, ttlSeconds * 1_000_000_000L, graphBuilder.getGraphVersion());
+        System.out.println("MASTER: Caché de rutas de " + routeCache.capacity() + " entradas"
+            + (ttlSeconds > 0 ? ", vencen a los " + ttlSeconds + " s" : ", sin vencimiento"));
+    }
+    
+    /**
+     * Aplica la configuración de los lotes de findRoutes (propiedad Mio.Batch.ChunkSize)
+     */
+    public void configureBatch(com.zeroc.Ice.Properties properties) {
+        batchChunkSize = Math.max(1, properties.getPropertyAsIntWithDefault("Mio.Batch.ChunkSize", 250));
+        System.out.println("MASTER: Lotes de findRoutes en bloques de " + batchChunkSize + " pares");
+    }
+    
+    /**
+     * Resumen de aciertos, fallos y expulsiones de la caché de rutas
+     */
+    public String getCacheStats() {
+        return routeCache == null ? "desactivada" : routeCache.stats();
     }
     
     public void addWorker(RouteWorkerPrx worker) {
@@ -93,7 +134,57 @@ public class GraphServiceI implements GraphService {
     public RouteResult findRoute(int originStopId, int destStopId, Current current) 
             throws StopNotFoundException {
         
-        // System.out.println("\nMASTER: Solicitud de ruta recibida (" + originStopId + " -> " + destStopId + ")");
+        // Compatibilidad: findRoute siempre minimiza el número de paradas (BFS)
+        return findRouteWithMode(originStopId, destStopId, CostMode.HOPS, current);
+    }
+    
+    @Override
+    public RouteResult findRouteWithMode(int originStopId, int destStopId, CostMode mode, Current current) 
+            throws StopNotFoundException {
+        
+        // System.out.println("\nMASTER: Solicitud de ruta recibida (" + originStopId + " -> " + destStopId + ", " + mode + ")");
+        
+        // Pares sin camino se responden aquí (un bit del cierre) sin ocupar un worker
+        RouteResult unreachable = graphBuilder.checkReachable(originStopId, destStopId);
+        if (unreachable != null) {
+            return unreachable;
+        }
+        
+        // Consultas repetidas se responden desde la caché
+        long version = graphBuilder.getGraphVersion();
+        long key = routeCache != null ? cacheKey(originStopId, destStopId, mode, current) : -1;
+        if (key >= 0) {
+            RouteResult cached = routeCache.get(key, version);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        
+        RouteResult result = dispatchRoute(originStopId, destStopId, mode, current);
+        if (key >= 0) {
+            routeCache.put(key, result, version);
+        }
+        return result;
+    }
+    
+    /**
+     * Clave de la caché: índices densos de origen y destino, modo y algoritmo
+     * pedido en el contexto (0 = el configurado), empaquetados en un long
+     * @return -1 si alguna parada no existe (no se guarda)
+     */
+    private long cacheKey(int originStopId, int destStopId, CostMode mode, Current current) {
+        int origin = graphBuilder.getAdjacencyIndex().indexOf(originStopId);
+        int dest = graphBuilder.getAdjacencyIndex().indexOf(destStopId);
+        if (origin < 0 || dest < 0) {
+            return -1;
+        }
+        SearchAlgorithm algorithm = SearchAlgorithm.fromContext(current != null ? current.ctx : null, mode);
+        int algorithmCode = algorithm == null ? 0 : algorithm.ordinal() + 1;
+        return ((long) origin << 40) | ((long) dest << 16) | ((long) mode.value() << 8) | algorithmCode;
+    }
+    
+    private RouteResult dispatchRoute(int originStopId, int destStopId, CostMode mode, Current current) 
+            throws StopNotFoundException {
         
         // Obtener un worker disponible (Round Robin)
         RouteWorkerPrx worker = getNextWorker();
@@ -101,16 +192,18 @@ public class GraphServiceI implements GraphService {
         if (worker == null) {
             // System.err.println("MASTER: No hay workers disponibles. Ejecutando localmente (Fallback)...");
             // Fallback: Ejecutar localmente si no hay workers
-            return executeLocally(originStopId, destStopId);
+            return executeLocally(originStopId, destStopId, mode, current);
         }
         
         try {
             // System.out.println("MASTER: Delegando tarea a Worker...");
-            return worker.findRoute(originStopId, destStopId);
+            // Se reenvía el contexto para conservar el algoritmo elegido por el cliente
+            return worker.findRouteWithMode(originStopId, destStopId, mode,
+                current != null ? current.ctx : null);
         } catch (com.zeroc.Ice.ConnectionRefusedException | com.zeroc.Ice.TimeoutException e) {
             System.err.println("MASTER: Error de conexión con Worker: " + e.getMessage());
             // System.out.println("MASTER: Worker no disponible. Reintentando localmente...");
-            return executeLocally(originStopId, destStopId);
+            return executeLocally(originStopId, destStopId, mode, current);
         } catch (Exception e) {
             System.err.println("MASTER: Error inesperado en Worker: " + e.getMessage());
             e.printStackTrace();
@@ -126,64 +219,334 @@ public class GraphServiceI implements GraphService {
         }
     }
     
-    private RouteResult executeLocally(int originStopId, int destStopId) throws StopNotFoundException {
+    private RouteResult executeLocally(int originStopId, int destStopId, CostMode mode, Current current) 
+            throws StopNotFoundException {
         // Lógica original para fallback
-        if (!graphBuilder.getStopsMap().containsKey(originStopId)) {
-            StopNotFoundException ex = new StopNotFoundException();
-            ex.stopId = originStopId;
-            ex.message = "Parada de origen no encontrada: " + originStopId;
-            throw ex;
+        validateStops(originStopId, destStopId);
+        
+        return graphBuilder.findRoute(originStopId, destStopId, mode,
+            SearchAlgorithm.fromContext(current != null ? current.ctx : null, mode));
+    }
+    
+    @Override
+    public RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers, Current current) 
+            throws StopNotFoundException {
+        
+        RouteResult unreachable = graphBuilder.checkReachable(originStopId, destStopId);
+        if (unreachable != null) {
+            return new RouteResult[] { unreachable };
         }
         
-        if (!graphBuilder.getStopsMap().containsKey(destStopId)) {
-            StopNotFoundException ex = new StopNotFoundException();
-            ex.stopId = destStopId;
-            ex.message = "Parada de destino no encontrada: " + destStopId;
-            throw ex;
+        // Obtener un worker disponible (Round Robin)
+        RouteWorkerPrx worker = getNextWorker();
+        
+        if (worker == null) {
+            return executeJourneysLocally(originStopId, destStopId, maxTransfers);
         }
         
-        Map<String, Object> searchResult = graphBuilder.findShortestRoute(originStopId, destStopId);
+        try {
+            return worker.findJourneys(originStopId, destStopId, maxTransfers);
+        } catch (com.zeroc.Ice.ConnectionRefusedException | com.zeroc.Ice.TimeoutException e) {
+            System.err.println("MASTER: Error de conexión con Worker: " + e.getMessage());
+            return executeJourneysLocally(originStopId, destStopId, maxTransfers);
+        } catch (Exception e) {
+            System.err.println("MASTER: Error inesperado en Worker: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+    }
+    
+    @Override
+    public RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k, Current current) 
+            throws StopNotFoundException {
         
-        RouteResult result = new RouteResult();
-        result.found = (Boolean) searchResult.get("found");
-        result.message = (String) searchResult.get("message");
-        result.totalDistance = (Double) searchResult.get("totalDistance");
-        result.numTransfers = (Integer) searchResult.get("numTransfers");
+        RouteResult unreachable = graphBuilder.checkReachable(originStopId, destStopId);
+        if (unreachable != null) {
+            return new RouteResult[] { unreachable };
+        }
         
-        @SuppressWarnings("unchecked")
-        List<Stop> stops = (List<Stop>) searchResult.get("stops");
-        result.stops = stops.toArray(new Stop[0]);
+        // Obtener un worker disponible (Round Robin)
+        RouteWorkerPrx worker = getNextWorker();
         
-        @SuppressWarnings("unchecked")
-        List<Arc> arcs = (List<Arc>) searchResult.get("arcs");
-        result.arcs = arcs.toArray(new Arc[0]);
+        if (worker == null) {
+            return executeAlternativesLocally(originStopId, destStopId, k);
+        }
         
-        return result;
+        try {
+            return worker.findAlternativeRoutes(originStopId, destStopId, k);
+        } catch (com.zeroc.Ice.ConnectionRefusedException | com.zeroc.Ice.TimeoutException e) {
+            System.err.println("MASTER: Error de conexión con Worker: " + e.getMessage());
+            return executeAlternativesLocally(originStopId, destStopId, k);
+        } catch (Exception e) {
+            System.err.println("MASTER: Error inesperado en Worker: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
     }
     
     @Override
-    public int[] getReachableStops(int originStopId, Current current) 
+    public CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong,
+            Current current) {
+        
+        // Coordenadas inválidas: se responde sin ocupar un worker
+        CoordinateRoute invalid = PathFinder.checkCoordinates(originLat, originLong, destLat, destLong);
+        if (invalid != null) {
+            return invalid;
+        }
+        
+        // Obtener un worker disponible (Round Robin)
+        RouteWorkerPrx worker = getNextWorker();
+        
+        if (worker == null) {
+            return graphBuilder.findRouteByCoordinates(originLat, originLong, destLat, destLong);
+        }
+        
+        try {
+            return worker.findRouteByCoordinates(originLat, originLong, destLat, destLong);
+        } catch (com.zeroc.Ice.ConnectionRefusedException | com.zeroc.Ice.TimeoutException e) {
+            System.err.println("MASTER: Error de conexión con Worker: " + e.getMessage());
+            return graphBuilder.findRouteByCoordinates(originLat, originLong, destLat, destLong);
+        } catch (Exception e) {
+            System.err.println("MASTER: Error inesperado en Worker: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+    }
+    
+    @Override
+    public RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode, Current current) {
+        int count = Math.min(origins.length, dests.length);
+        Map<String, String> ctx = current != null ? current.ctx : null;
+        SearchAlgorithm algorithm = SearchAlgorithm.fromContext(ctx, mode);
+        
+        // Mismo filtro que findRouteWithMode: los pares sin camino y los que están
+        // en la caché se responden aquí, y solo los demás se buscan
+        RouteResult[] results = new RouteResult[count];
+        long version = graphBuilder.getGraphVersion();
+        long[] keys = new long[count];
+        int[] misses = new int[count];
+        int missCount = 0;
+        for (int i = 0; i < count; i++) {
+            results[i] = graphBuilder.checkReachable(origins[i], dests[i]);
+            if (results[i] != null) {
+                continue;
+            }
+            keys[i] = routeCache != null ? cacheKey(origins[i], dests[i], mode, current) : -1;
+            if (keys[i] >= 0) {
+                results[i] = routeCache.get(keys[i], version);
+                if (results[i] != null) {
+                    continue;
+                }
+            }
+            misses[missCount++] = i;
+        }
+        if (missCount == 0) {
+            return results;
+        }
+        
+        int[] missOrigins = new int[missCount];
+        int[] missDests = new int[missCount];
+        for (int k = 0; k < missCount; k++) {
+            missOrigins[k] = origins[misses[k]];
+            missDests[k] = dests[misses[k]];
+        }
+        RouteResult[] routes = searchRoutes(missOrigins, missDests, mode, algorithm, ctx);
+        for (int k = 0; k < missCount; k++) {
+            int i = misses[k];
+            results[i] = routes[k];
+            if (keys[i] >= 0) {
+                routeCache.put(keys[i], routes[k], version);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Busca el lote en los workers (o localmente si no hay) y devuelve las rutas
+     * en el orden de entrada
+     */
+    private RouteResult[] searchRoutes(int[] origins, int[] dests, CostMode mode, SearchAlgorithm algorithm,
+            Map<String, String> ctx) {
+        int count = origins.length;
+        boolean hasWorkers;
+        synchronized(workers) {
+            hasWorkers = !workers.isEmpty();
+        }
+        if (!hasWorkers) {
+            return graphBuilder.findRoutes(origins, dests, mode, algorithm, batchPool);
+        }
+        
+        // Bloques de batchChunkSize pares repartidos en Round Robin; todos se envían
+        // sin esperar y cada uno se copia en su posición del resultado al llegar
+        RouteResult[] results = new RouteResult[count];
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int start = 0; start < count; start += batchChunkSize) {
+            int from = start;
+            int[] chunkOrigins = Arrays.copyOfRange(origins, start, Math.min(count, start + batchChunkSize));
+            int[] chunkDests = Arrays.copyOfRange(dests, start, Math.min(count, start + batchChunkSize));
+            RouteWorkerPrx worker = getNextWorker();
+            
+            CompletableFuture<RouteResult[]> chunk = worker != null
+                ? worker.findRoutesAsync(chunkOrigins, chunkDests, mode, ctx)
+                : CompletableFuture.completedFuture(
+                    graphBuilder.findRoutes(chunkOrigins, chunkDests, mode, algorithm, batchPool));
+            pending.add(chunk
+                .exceptionally(e -> {
+                    System.err.println("MASTER: Error en Worker con un bloque de findRoutes: " + e.getMessage()
+                        + ", calculándolo localmente");
+                    return graphBuilder.findRoutes(chunkOrigins, chunkDests, mode, algorithm, batchPool);
+                })
+                .thenAccept(routes -> System.arraycopy(routes, 0, results, from, routes.length)));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        
+        return results;
+    }
+    
+    @Override
+    public RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode, Current current) {
+        // Se rechaza antes de repartir bloques o reservar la matriz
+        int rows = sources.length;
+        int cols = targets.length;
+        int cells = PathFinder.checkMatrixSize(rows, cols);
+        
+        List<RouteWorkerPrx> available;
+        synchronized(workers) {
+            available = new ArrayList<>(workers);
+        }
+        if (available.isEmpty()) {
+            return graphBuilder.computeMatrix(sources, targets, mode, batchPool);
+        }
+        
+        // Un bloque de filas por worker, sin pasar de MATRIX_CHUNK_CELLS celdas por mensaje
+        int rowsPerChunk = (rows + available.size() - 1) / available.size();
+        rowsPerChunk = Math.max(1, Math.min(rowsPerChunk, MATRIX_CHUNK_CELLS / Math.max(1, cols)));
+        
+        // Con cells <= PathFinder.MAX_MATRIX_CELLS los desplazamientos start * cols caben en int
+        double[] distances = new double[cells];
+        int[] hops = new int[cells];
+        int[] transfers = new int[cells];
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        for (int start = 0; start < rows; start += rowsPerChunk) {
+            int offset = start * cols;
+            int[] chunkSources = Arrays.copyOfRange(sources, start, Math.min(rows, start + rowsPerChunk));
+            RouteWorkerPrx worker = getNextWorker();
+            
+            CompletableFuture<RouteMatrix> chunk = worker != null
+                ? worker.computeMatrixAsync(chunkSources, targets, mode, current != null ? current.ctx : null)
+                : CompletableFuture.completedFuture(graphBuilder.computeMatrix(chunkSources, targets, mode, batchPool));
+            pending.add(chunk
+                .exceptionally(e -> {
+                    System.err.println("MASTER: Error en Worker con un bloque de la matriz: " + e.getMessage()
+                        + ", calculándolo localmente");
+                    return graphBuilder.computeMatrix(chunkSources, targets, mode, batchPool);
+                })
+                .thenAccept(block -> {
+                    System.arraycopy(block.distances, 0, distances, offset, block.distances.length);
+                    System.arraycopy(block.hops, 0, hops, offset, block.hops.length);
+                    System.arraycopy(block.transfers, 0, transfers, offset, block.transfers.length);
+                }));
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        
+        return new RouteMatrix(rows, cols, distances, hops, transfers);
+    }
+    
+    @Override
+    public Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull, Current current) 
             throws StopNotFoundException {
         
-        // Esta operación es ligera, la mantenemos en el Master por ahora
-        // O podríamos delegarla también si quisiéramos
+        // Obtener un worker disponible (Round Robin)
+        RouteWorkerPrx worker = getNextWorker();
         
+        if (worker == null) {
+            return executeIsochroneLocally(originStopId, mode, budget, withHull);
+        }
+        
+        try {
+            return worker.findIsochrone(originStopId, mode, budget, withHull);
+        } catch (com.zeroc.Ice.ConnectionRefusedException | com.zeroc.Ice.TimeoutException e) {
+            System.err.println("MASTER: Error de conexión con Worker: " + e.getMessage());
+            return executeIsochroneLocally(originStopId, mode, budget, withHull);
+        } catch (Exception e) {
+            System.err.println("MASTER: Error inesperado en Worker: " + e.getMessage());
+            e.printStackTrace();
+            throw e;
+        }
+    }
+    
+    private RouteResult[] executeAlternativesLocally(int originStopId, int destStopId, int k) 
+            throws StopNotFoundException {
+        validateStops(originStopId, destStopId);
+        
+        return graphBuilder.findAlternativeRoutes(originStopId, destStopId, k, batchPool);
+    }
+    
+    private Isochrone executeIsochroneLocally(int originStopId, CostMode mode, double budget, boolean withHull) 
+            throws StopNotFoundException {
+        validateOrigin(originStopId);
+        
+        return graphBuilder.findIsochrone(originStopId, mode, budget, withHull);
+    }
+    
+    private RouteResult[] executeJourneysLocally(int originStopId, int destStopId, int maxTransfers) 
+            throws StopNotFoundException {
+        validateStops(originStopId, destStopId);
+        
+        return graphBuilder.findJourneys(originStopId, destStopId, maxTransfers);
+    }
+    
+    /**
+     * Valida que las paradas de origen y destino existen
+     */
+    private void validateStops(int originStopId, int destStopId) throws StopNotFoundException {
+        validateOrigin(originStopId);
+        
+        if (!graphBuilder.getStopsMap().containsKey(destStopId)) {
+            StopNotFoundException ex = new StopNotFoundException();
+            ex.stopId = destStopId;
+            ex.message = "Parada de destino no encontrada: " + destStopId;
+            throw ex;
+        }
+    }
+    
+    /**
+     * Valida que la parada de origen existe
+     */
+    private void validateOrigin(int originStopId) throws StopNotFoundException {
         if (!graphBuilder.getStopsMap().containsKey(originStopId)) {
             StopNotFoundException ex = new StopNotFoundException();
             ex.stopId = originStopId;
             ex.message = "Parada de origen no encontrada: " + originStopId;
             throw ex;
         }
+    }
+    
+    @Override
+    public NearbyStops findNearestStops(double lat, double lon, int k, Current current) {
+        // Consulta al índice espacial en memoria, no hace falta un worker
+        return graphBuilder.findNearestStops(lat, lon, k);
+    }
+    
+    @Override
+    public NearbyStops findStopsWithin(double lat, double lon, double radiusMeters, Current current) {
+        return graphBuilder.findStopsWithin(lat, lon, radiusMeters);
+    }
+    
+    @Override
+    public int[] getReachableStops(int originStopId, Current current) 
+            throws StopNotFoundException {
         
-        Set<Integer> reachableSet = graphBuilder.findReachableStops(originStopId);
+        // Se lee del cierre de alcanzabilidad precalculado, no hace falta un worker
         
-        int[] reachableArray = new int[reachableSet.size()];
-        int i = 0;
-        for (Integer stopId : reachableSet) {
-            reachableArray[i++] = stopId;
+        if (!graphBuilder.getStopsMap().containsKey(originStopId)) {
+            StopNotFoundException ex = new StopNotFoundException();
+            ex.stopId = originStopId;
+            ex.message = "Parada de origen no encontrada: " + originStopId;
+            throw ex;
         }
         
-        return reachableArray;
+        return graphBuilder.findReachableStops(originStopId);
     }
 }
 
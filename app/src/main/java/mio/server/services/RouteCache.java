@@ -0,0 +1,342 @@
+package mio.server.services;
+
+import mioice.RouteResult;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Caché acotada de resultados de rutas del Master (política W-TinyLFU)
+ *
+ * Las entradas nuevas entran a una ventana LRU pequeña (1% de la capacidad).
+ * Cuando salen de la ventana compiten por un lugar en la región principal (LRU)
+ * contra la víctima de esa región: se queda la que tenga más accesos recientes
+ * según un sketch de frecuencias (count-min de 4 bits por contador, que se
+ * reduce a la mitad periódicamente para olvidar la historia vieja). Así una
+ * ráfaga de consultas únicas no desplaza a los pares frecuentes (terminales
+ * como Universidades o Menga).
+ *
+ * Las lecturas no bloquean: el mapa es concurrente y el orden LRU y el sketch
+ * se actualizan solo si el candado está libre (perder algún registro de acceso
+ * bajo contención no afecta la corrección). Las escrituras y expulsiones sí
+ * toman el candado.
+ *
+ * Toda la caché se invalida cuando cambia la versión del grafo; cada entrada
+ * vence además después de ttlNanos (0 = sin vencimiento).
+ */
+final class RouteCache {
+
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final long ttlNanos;
+
+    private final ConcurrentHashMap<Long, Node> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LruList window = new LruList();
+    private final LruList main = new LruList();
+    private final FrequencySketch sketch;
+    private volatile long version;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    RouteCache(int capacity, long ttlNanos, long version) {
+        int total = Math.max(2, capacity);
+        this.windowCapacity = Math.max(1, total / 100);
+        this.mainCapacity = total - windowCapacity;
+        this.ttlNanos = ttlNanos;
+        this.sketch = new FrequencySketch(total);
+        this.version = version;
+    }
+
+    /**
+     * Resultado guardado para la clave, o null si no está, venció o el grafo
+     * cambió de versión
+     */
+    RouteResult get(long key, long graphVersion) {
+        if (graphVersion != version) {
+            invalidateAll(graphVersion);
+        }
+
+        Node node = entries.get(key);
+        if (node == null || (ttlNanos > 0 && System.nanoTime() - node.createdAt > ttlNanos)) {
+            misses.increment();
+            if (lock.tryLock()) {
+                try {
+                    sketch.increment(key);
+                    if (node != null && entries.remove(key, node)) {
+                        (node.inWindow ? window : main).unlink(node);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return null;
+        }
+
+        hits.increment();
+        if (lock.tryLock()) {
+            try {
+                sketch.increment(key);
+                if (node.linked) {
+                    (node.inWindow ? window : main).moveToFront(node);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    /**
+     * Guarda un resultado calculado sobre la versión del grafo indicada (se
+     * descarta si mientras tanto el grafo cambió)
+     */
+    void put(long key, RouteResult value, long graphVersion) {
+        lock.lock();
+        try {
+            if (graphVersion != version) {
+                return;
+            }
+            Node existing = entries.get(key);
+            if (existing != null) {
+                (existing.inWindow ? window : main).unlink(existing);
+            }
+
+            Node node = new Node(key, value, System.nanoTime());
+            entries.put(key, node);
+            node.inWindow = true;
+            window.addFirst(node);
+            sketch.increment(key);
+
+            if (window.size > windowCapacity) {
+                admit(window.removeLast());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Decide si el candidato que sale de la ventana entra a la región principal
+     * (TinyLFU): si está llena, se compara su frecuencia con la de la víctima LRU
+     */
+    private void admit(Node candidate) {
+        candidate.inWindow = false;
+        if (main.size < mainCapacity) {
+            main.addFirst(candidate);
+            return;
+        }
+
+        Node victim = main.last();
+        if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            main.unlink(victim);
+            entries.remove(victim.key, victim);
+            main.addFirst(candidate);
+        } else {
+            entries.remove(candidate.key, candidate);
+        }
+        evictions.increment();
+    }
+
+    private void invalidateAll(long graphVersion) {
+        lock.lock();
+        try {
+            if (graphVersion == version) {
+                return;
+            }
+            entries.clear();
+            window.clear();
+            main.clear();
+            version = graphVersion;
+            System.out.println("MASTER: Caché de rutas invalidada (versión del grafo " + graphVersion + ")");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int capacity() {
+        return windowCapacity + mainCapacity;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Resumen de los contadores para el log
+     */
+    String stats() {
+        long hitCount = hits();
+        long total = hitCount + misses();
+        return String.format("%d/%d entradas, %d aciertos, %d fallos (%.1f%% aciertos), %d expulsiones",
+            size(), capacity(), hitCount, total - hitCount,
+            total == 0 ? 0.0 : 100.0 * hitCount / total, evictions());
+    }
+
+    private static final class Node {
+        final long key;
+        final RouteResult value;
+        final long createdAt;
+        boolean inWindow;
+        boolean linked;
+        Node prev;
+        Node next;
+
+        Node(long key, RouteResult value, long createdAt) {
+            this.key = key;
+            this.value = value;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Lista doblemente enlazada (más reciente al frente); solo se usa con el candado
+     */
+    private static final class LruList {
+        private Node head;
+        private Node tail;
+        int size;
+
+        void addFirst(Node node) {
+            node.prev = null;
+            node.next = head;
+            if (head != null) {
+                head.prev = node;
+            } else {
+                tail = node;
+            }
+            head = node;
+            node.linked = true;
+            size++;
+        }
+
+        void unlink(Node node) {
+            if (!node.linked) {
+                return;
+            }
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.linked = false;
+            size--;
+        }
+
+        void moveToFront(Node node) {
+            if (head != node) {
+                unlink(node);
+                addFirst(node);
+            }
+        }
+
+        Node last() {
+            return tail;
+        }
+
+        Node removeLast() {
+            Node node = tail;
+            unlink(node);
+            return node;
+        }
+
+        void clear() {
+            for (Node node = head; node != null; ) {
+                Node next = node.next;
+                node.prev = null;
+                node.next = null;
+                node.linked = false;
+                node = next;
+            }
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    /**
+     * Sketch count-min con 4 filas de contadores de 4 bits (16 por long); después
+     * de 10 * capacidad incrementos todos los contadores se reducen a la mitad
+     */
+    private static final class FrequencySketch {
+        private static final long[] SEEDS = {
+            0x97cb3127c6a5d1f1L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+
+        private final long[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int capacity) {
+            int size = Integer.highestOneBit(Math.max(16, capacity) - 1) << 1;
+            this.table = new long[size];
+            this.mask = size - 1;
+            this.sampleSize = 10 * capacity;
+        }
+
+        int frequency(long key) {
+            int min = 15;
+            for (int row = 0; row < 4; row++) {
+                long hash = hash(key, row);
+                int counter = (int) ((table[index(hash)] >>> offset(hash)) & 0xF);
+                min = Math.min(min, counter);
+            }
+            return min;
+        }
+
+        void increment(long key) {
+            boolean added = false;
+            for (int row = 0; row < 4; row++) {
+                long hash = hash(key, row);
+                int i = index(hash);
+                int shift = offset(hash);
+                if (((table[i] >>> shift) & 0xF) < 15) {
+                    table[i] += 1L << shift;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & 0x7777777777777777L;
+                }
+                additions /= 2;
+            }
+        }
+
+        private static long hash(long key, int row) {
+            long h = (key + SEEDS[row]) * 0x9e3779b97f4a7c15L;
+            return h ^ (h >>> 32);
+        }
+
+        private int index(long hash) {
+            return (int) hash & mask;
+        }
+
+        private static int offset(long hash) {
+            return (int) (hash >>> 40 & 0xF) << 2;
+        }
+    }
+}
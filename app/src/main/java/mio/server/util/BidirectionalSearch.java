@@ -0,0 +1,235 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+
+/**
+ * Búsquedas bidireccionales: avanzan a la vez desde el origen (arcos salientes)
+ * y desde el destino (arcos entrantes) hasta encontrarse en el medio. En viajes
+ * largos cada mitad explora una "bola" de la mitad del radio, con lo que se
+ * visitan muchas menos paradas que con la búsqueda desde un solo extremo.
+ *
+ * El punto de encuentro se registra como un arco (meetFrom -> meetTo) y el
+ * camino se reconstruye con PathFinder.buildRoute.
+ */
+final class BidirectionalSearch {
+
+    private BidirectionalSearch() {
+    }
+
+    /**
+     * BFS bidireccional (menor número de paradas). Expande niveles completos del
+     * lado con la frontera más pequeña; al terminar el primer nivel en que los
+     * lados se tocan, el mejor encuentro de ese nivel es un camino mínimo.
+     */
+    static RouteResult findShortestRoute(int originStopId, int destStopId, AdjacencyIndex index) {
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = PathFinder.checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return trivial;
+        }
+
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        int[] queue = ws.queue;
+        int[] backwardQueue = ws.backwardQueue;
+        double[] dist = ws.dist;              // niveles desde el origen
+        double[] backwardDist = ws.backwardDist; // niveles hasta el destino
+
+        int head = 0, tail = 0;
+        int backwardHead = 0, backwardTail = 0;
+
+        queue[tail++] = origin;
+        ws.markVisited(origin);
+        ws.parent[origin] = -1;
+        dist[origin] = 0;
+
+        backwardQueue[backwardTail++] = dest;
+        ws.markBackwardVisited(dest);
+        ws.next[dest] = -1;
+        backwardDist[dest] = 0;
+
+        double best = Double.POSITIVE_INFINITY;
+        int meetFrom = -1, meetEdge = -1, meetTo = -1;
+
+        while (head < tail && backwardHead < backwardTail) {
+            if (tail - head <= backwardTail - backwardHead) {
+                // Expandir un nivel completo hacia adelante
+                int levelEnd = tail;
+                while (head < levelEnd) {
+                    int current = queue[head++];
+                    for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                        int nextStop = index.target(e);
+                        if (!ws.isVisited(nextStop)) {
+                            ws.markVisited(nextStop);
+                            ws.parent[nextStop] = current;
+                            ws.parentEdge[nextStop] = e;
+                            dist[nextStop] = dist[current] + 1;
+                            queue[tail++] = nextStop;
+                        }
+                        if (ws.isBackwardVisited(nextStop)) {
+                            double length = dist[current] + 1 + backwardDist[nextStop];
+                            if (length < best) {
+                                best = length;
+                                meetFrom = current;
+                                meetEdge = e;
+                                meetTo = nextStop;
+                            }
+                        }
+                    }
+                }
+            } else {
+                // Expandir un nivel completo hacia atrás (arcos entrantes)
+                int levelEnd = backwardTail;
+                while (backwardHead < levelEnd) {
+                    int current = backwardQueue[backwardHead++];
+                    for (int r = index.firstInEdge(current); r < index.lastInEdge(current); r++) {
+                        int prevStop = index.inSource(r);
+                        int e = index.inEdge(r);
+                        if (!ws.isBackwardVisited(prevStop)) {
+                            ws.markBackwardVisited(prevStop);
+                            ws.next[prevStop] = current;
+                            ws.nextEdge[prevStop] = e;
+                            backwardDist[prevStop] = backwardDist[current] + 1;
+                            backwardQueue[backwardTail++] = prevStop;
+                        }
+                        if (ws.isVisited(prevStop)) {
+                            double length = dist[prevStop] + 1 + backwardDist[current];
+                            if (length < best) {
+                                best = length;
+                                meetFrom = prevStop;
+                                meetEdge = e;
+                                meetTo = current;
+                            }
+                        }
+                    }
+                }
+            }
+
+            if (meetEdge >= 0) {
+                break;
+            }
+        }
+
+        ws.settledCount = head + backwardHead;
+
+        if (meetEdge < 0) {
+            return PathFinder.notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+        }
+
+        return PathFinder.buildRoute(index, ws, origin, dest, meetFrom, meetEdge, meetTo, false);
+    }
+
+    /**
+     * Dijkstra bidireccional (menor distancia). Avanza siempre el lado cuyo
+     * montículo tiene la menor clave y termina cuando la suma de ambas claves
+     * mínimas alcanza la mejor distancia de encuentro conocida.
+     */
+    static RouteResult findShortestRouteByDistance(int originStopId, int destStopId, AdjacencyIndex index) {
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = PathFinder.checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return trivial;
+        }
+
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        IndexedMinHeap heap = ws.heap;
+        IndexedMinHeap backwardHeap = ws.backwardHeap;
+        double[] dist = ws.dist;
+        double[] backwardDist = ws.backwardDist;
+
+        ws.markVisited(origin);
+        ws.parent[origin] = -1;
+        dist[origin] = 0.0;
+        heap.insert(origin, 0.0);
+
+        ws.markBackwardVisited(dest);
+        ws.next[dest] = -1;
+        backwardDist[dest] = 0.0;
+        backwardHeap.insert(dest, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meetFrom = -1, meetEdge = -1, meetTo = -1;
+
+        while (!heap.isEmpty() && !backwardHeap.isEmpty()) {
+            // Ningún camino aún no visto puede mejorar el encuentro actual
+            if (heap.peekKey() + backwardHeap.peekKey() >= best) {
+                break;
+            }
+
+            if (heap.peekKey() <= backwardHeap.peekKey()) {
+                int current = heap.poll();
+                ws.markSettled(current);
+                double base = dist[current];
+
+                for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                    int nextStop = index.target(e);
+                    double candidate = base + index.weight(e);
+
+                    if (!ws.isSettled(nextStop)) {
+                        if (!ws.isVisited(nextStop)) {
+                            ws.markVisited(nextStop);
+                            dist[nextStop] = candidate;
+                            ws.parent[nextStop] = current;
+                            ws.parentEdge[nextStop] = e;
+                            heap.insert(nextStop, candidate);
+                        } else if (candidate < dist[nextStop]) {
+                            dist[nextStop] = candidate;
+                            ws.parent[nextStop] = current;
+                            ws.parentEdge[nextStop] = e;
+                            heap.decreaseKey(nextStop, candidate);
+                        }
+                    }
+
+                    if (ws.isBackwardVisited(nextStop) && candidate + backwardDist[nextStop] < best) {
+                        best = candidate + backwardDist[nextStop];
+                        meetFrom = current;
+                        meetEdge = e;
+                        meetTo = nextStop;
+                    }
+                }
+            } else {
+                int current = backwardHeap.poll();
+                ws.markBackwardSettled(current);
+                double base = backwardDist[current];
+
+                for (int r = index.firstInEdge(current); r < index.lastInEdge(current); r++) {
+                    int prevStop = index.inSource(r);
+                    int e = index.inEdge(r);
+                    double candidate = base + index.weight(e);
+
+                    if (!ws.isBackwardSettled(prevStop)) {
+                        if (!ws.isBackwardVisited(prevStop)) {
+                            ws.markBackwardVisited(prevStop);
+                            backwardDist[prevStop] = candidate;
+                            ws.next[prevStop] = current;
+                            ws.nextEdge[prevStop] = e;
+                            backwardHeap.insert(prevStop, candidate);
+                        } else if (candidate < backwardDist[prevStop]) {
+                            backwardDist[prevStop] = candidate;
+                            ws.next[prevStop] = current;
+                            ws.nextEdge[prevStop] = e;
+                            backwardHeap.decreaseKey(prevStop, candidate);
+                        }
+                    }
+
+                    if (ws.isVisited(prevStop) && dist[prevStop] + candidate < best) {
+                        best = dist[prevStop] + candidate;
+                        meetFrom = prevStop;
+                        meetEdge = e;
+                        meetTo = current;
+                    }
+                }
+            }
+        }
+
+        if (meetEdge < 0) {
+            return PathFinder.notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+        }
+
+        return PathFinder.buildRoute(index, ws, origin, dest, meetFrom, meetEdge, meetTo, true);
+    }
+}
@@ -0,0 +1,297 @@
+package mio.server.util;
+
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.GraphBuilder;
+import mio.server.repository.RepositoryFactory;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.Arrays;
+
+/**
+ * Jerarquía de contracción (Contraction Hierarchies) del grafo, ponderada por
+ * distancia (km)
+ *
+ * Cada parada tiene un rango (el orden en que se contrajo). Las aristas de la
+ * jerarquía son los arcos originales (uno por par de paradas, el más corto) más
+ * los atajos creados al contraer: un atajo u -> w reemplaza al camino u -> v -> w
+ * y guarda sus dos mitades para poder desempacarlo en los arcos reales.
+ *
+ * Para las consultas las aristas se reparten en dos grafos en formato CSR: el
+ * grafo "hacia arriba" de v (aristas v -> w con rango de w mayor) y el grafo
+ * "hacia abajo" de v (aristas u -> v con rango de u mayor, recorridas al revés
+ * desde el destino). Ver HierarchySearch.
+ *
+ * El preprocesamiento (HierarchyContractor) se hace una vez por versión del
+ * plan y se guarda en un archivo junto a los datos; la huella del grafo permite
+ * detectar un archivo que ya no corresponde a los CSV cargados.
+ */
+public final class ContractionHierarchy {
+
+    private static final int MAGIC = 0x4D494F43; // "MIOC"
+    private static final int VERSION = 1;
+
+    private final int[] rank;          // índice denso -> orden de contracción
+    private final int[] edgeTails;     // arista -> parada origen
+    private final int[] edgeHeads;     // arista -> parada destino
+    private final double[] edgeWeights; // arista -> distancia (km)
+    private final int[] edgeFirst;     // arista -> primera mitad del atajo, o -1 si es un arco original
+    private final int[] edgeSecond;    // arista -> segunda mitad del atajo, o posición CSR del arco original
+    private final int[] upOffsets;     // n + 1 posiciones
+    private final int[] upEdges;       // aristas hacia paradas de mayor rango, agrupadas por origen
+    private final int[] downOffsets;   // n + 1 posiciones
+    private final int[] downEdges;     // aristas desde paradas de mayor rango, agrupadas por destino
+    private final int shortcutCount;
+    private final long fingerprint;
+
+    ContractionHierarchy(int[] rank, int[] edgeTails, int[] edgeHeads, double[] edgeWeights,
+            int[] edgeFirst, int[] edgeSecond, long fingerprint) {
+        int n = rank.length;
+        int m = edgeTails.length;
+        this.rank = rank;
+        this.edgeTails = edgeTails;
+        this.edgeHeads = edgeHeads;
+        this.edgeWeights = edgeWeights;
+        this.edgeFirst = edgeFirst;
+        this.edgeSecond = edgeSecond;
+        this.fingerprint = fingerprint;
+
+        int shortcuts = 0;
+        this.upOffsets = new int[n + 1];
+        this.downOffsets = new int[n + 1];
+        for (int s = 0; s < m; s++) {
+            if (edgeFirst[s] >= 0) {
+                shortcuts++;
+            }
+            if (rank[edgeHeads[s]] > rank[edgeTails[s]]) {
+                upOffsets[edgeTails[s] + 1]++;
+            } else {
+                downOffsets[edgeHeads[s] + 1]++;
+            }
+        }
+        this.shortcutCount = shortcuts;
+        for (int v = 0; v < n; v++) {
+            upOffsets[v + 1] += upOffsets[v];
+            downOffsets[v + 1] += downOffsets[v];
+        }
+
+        this.upEdges = new int[upOffsets[n]];
+        this.downEdges = new int[downOffsets[n]];
+        int[] nextUp = Arrays.copyOf(upOffsets, n);
+        int[] nextDown = Arrays.copyOf(downOffsets, n);
+        for (int s = 0; s < m; s++) {
+            if (rank[edgeHeads[s]] > rank[edgeTails[s]]) {
+                upEdges[nextUp[edgeTails[s]]++] = s;
+            } else {
+                downEdges[nextDown[edgeHeads[s]]++] = s;
+            }
+        }
+    }
+
+    /**
+     * Preprocesa la jerarquía del grafo contrayendo en paralelo con el número de
+     * hilos indicado
+     */
+    public static ContractionHierarchy build(AdjacencyIndex index, int threads) {
+        return new HierarchyContractor(index, threads).contract();
+    }
+
+    /**
+     * Carga una jerarquía guardada con save(). Falla si el archivo no corresponde
+     * al grafo del índice (otra versión del plan o de los datos)
+     */
+    public static ContractionHierarchy load(Path file, AdjacencyIndex index) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Formato de jerarquía no reconocido: " + file);
+            }
+            long fingerprint = in.readLong();
+            int n = in.readInt();
+            if (fingerprint != fingerprint(index) || n != index.size()) {
+                throw new IOException("La jerarquía " + file + " no corresponde al grafo cargado");
+            }
+
+            int[] rank = new int[n];
+            for (int v = 0; v < n; v++) {
+                rank[v] = in.readInt();
+            }
+
+            int m = in.readInt();
+            int[] tails = new int[m];
+            int[] heads = new int[m];
+            double[] weights = new double[m];
+            int[] first = new int[m];
+            int[] second = new int[m];
+            for (int s = 0; s < m; s++) {
+                tails[s] = in.readInt();
+                heads[s] = in.readInt();
+                weights[s] = in.readDouble();
+                first[s] = in.readInt();
+                second[s] = in.readInt();
+            }
+            return new ContractionHierarchy(rank, tails, heads, weights, first, second, fingerprint);
+        } catch (EOFException e) {
+            throw new IOException("La jerarquía " + file + " está incompleta", e);
+        }
+    }
+
+    /**
+     * Guarda el orden de contracción y las aristas (arcos y atajos) en un archivo
+     * binario. Se escribe en un temporal del mismo directorio y se renombra al
+     * final, así que otro proceso nunca lee un archivo a medio escribir
+     */
+    public void save(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fingerprint);
+            out.writeInt(rank.length);
+            for (int r : rank) {
+                out.writeInt(r);
+            }
+            out.writeInt(edgeTails.length);
+            for (int s = 0; s < edgeTails.length; s++) {
+                out.writeInt(edgeTails[s]);
+                out.writeInt(edgeHeads[s]);
+                out.writeDouble(edgeWeights[s]);
+                out.writeInt(edgeFirst[s]);
+                out.writeInt(edgeSecond[s]);
+            }
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Huella del grafo: paradas, arcos (destino, línea y distancia) en el orden del índice
+     */
+    static long fingerprint(AdjacencyIndex index) {
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, index.size());
+        hash = mix(hash, index.edgeCount());
+        for (int v = 0; v < index.size(); v++) {
+            hash = mix(hash, index.stopIdAt(v));
+            for (int e = index.firstEdge(v); e < index.lastEdge(v); e++) {
+                hash = mix(hash, index.target(e));
+                hash = mix(hash, index.line(e));
+                hash = mix(hash, Double.doubleToLongBits(index.weight(e)));
+            }
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+
+    /**
+     * Número de paradas
+     */
+    public int size() {
+        return rank.length;
+    }
+
+    /**
+     * Número de aristas (arcos originales y atajos)
+     */
+    public int edgeCount() {
+        return edgeTails.length;
+    }
+
+    /**
+     * Número de atajos agregados por la contracción
+     */
+    public int shortcutCount() {
+        return shortcutCount;
+    }
+
+    int rank(int v) {
+        return rank[v];
+    }
+
+    int tail(int s) {
+        return edgeTails[s];
+    }
+
+    int head(int s) {
+        return edgeHeads[s];
+    }
+
+    double weight(int s) {
+        return edgeWeights[s];
+    }
+
+    /**
+     * Primera mitad del atajo s, o -1 si s es un arco original
+     */
+    int first(int s) {
+        return edgeFirst[s];
+    }
+
+    /**
+     * Segunda mitad del atajo s, o la posición CSR del arco original
+     */
+    int second(int s) {
+        return edgeSecond[s];
+    }
+
+    int firstUpEdge(int v) {
+        return upOffsets[v];
+    }
+
+    int lastUpEdge(int v) {
+        return upOffsets[v + 1];
+    }
+
+    int upEdge(int k) {
+        return upEdges[k];
+    }
+
+    int firstDownEdge(int v) {
+        return downOffsets[v];
+    }
+
+    int lastDownEdge(int v) {
+        return downOffsets[v + 1];
+    }
+
+    int downEdge(int k) {
+        return downEdges[k];
+    }
+
+    /**
+     * Preprocesamiento fuera de línea: carga el grafo desde los CSV y guarda su
+     * jerarquía de contracción
+     * Uso: ContractionHierarchy [archivo de salida] [hilos]
+     */
+    public static void main(String[] args) throws IOException {
+        Path output = Paths.get(args.length > 0 ? args[0] : "data/ch-241.bin");
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+
+        GraphBuilder graphBuilder = new GraphBuilder(
+            RepositoryFactory.createStopRepository("CSV", "data/stops-241.csv"),
+            RepositoryFactory.createLineRepository("CSV", "data/lines-241.csv"),
+            RepositoryFactory.createLineStopRepository("CSV", "data/linestops-241.csv"));
+        graphBuilder.loadData();
+
+        long start = System.nanoTime();
+        ContractionHierarchy hierarchy = build(graphBuilder.getAdjacencyIndex(), threads);
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        hierarchy.save(output);
+
+        System.out.println("Jerarquía de contracción: " + hierarchy.size() + " paradas, "
+            + hierarchy.edgeCount() + " aristas (" + hierarchy.shortcutCount() + " atajos), "
+            + elapsed + " ms con " + threads + " hilos");
+        System.out.println("Guardada en " + output);
+    }
+}
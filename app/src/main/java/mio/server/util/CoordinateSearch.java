@@ -0,0 +1,163 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+
+/**
+ * Viajes de coordenada a coordenada: caminata hasta una parada, bus y caminata
+ * desde la parada final
+ *
+ * Las paradas candidatas de acceso (cerca del origen) y de egreso (cerca del
+ * destino) salen del índice espacial. En vez de una búsqueda por cada par de
+ * candidatas se hace un solo Dijkstra por km con varios orígenes: cada parada de
+ * acceso arranca con el costo de su caminata, y cada parada de egreso que se fija
+ * ofrece un viaje de costo dist + caminata final. La búsqueda termina cuando la
+ * menor distancia pendiente ya no puede mejorar el mejor viaje encontrado.
+ *
+ * Un km a pie cuesta walkFactor km de bus (caminar es más lento), de modo que se
+ * prefieren paradas cercanas aunque el recorrido en bus sea algo más largo.
+ */
+final class CoordinateSearch {
+
+    private CoordinateSearch() {
+    }
+
+    static CoordinateRoute findRoute(double originLat, double originLon, double destLat, double destLon,
+            double maxWalkMeters, double walkFactor, AdjacencyIndex index, StopGrid grid) {
+
+        CoordinateRoute invalid = checkCoordinates(originLat, originLon, destLat, destLon);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        NearbyStops access = candidates(grid, originLat, originLon, maxWalkMeters);
+        NearbyStops egress = candidates(grid, destLat, destLon, maxWalkMeters);
+
+        // Caminar todo el trayecto es la cota inicial (si está dentro del límite de caminata)
+        double directKm = GeoUtils.haversine(originLat, originLon, destLat, destLon);
+        double best = directKm * 1000.0 <= maxWalkMeters ? walkFactor * directKm : Double.MAX_VALUE;
+        int bestStop = -1;
+
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        IndexedMinHeap heap = ws.heap;
+        double[] dist = ws.dist;
+        double[] egressCost = ws.backwardDist;
+
+        // Marca inversa: parada de egreso, con el costo de su caminata hasta el destino
+        for (int i = 0; i < egress.stopIds.length; i++) {
+            int v = index.indexOf(egress.stopIds[i]);
+            ws.markBackwardVisited(v);
+            egressCost[v] = walkFactor * egress.distances[i] / 1000.0;
+        }
+
+        for (int i = 0; i < access.stopIds.length; i++) {
+            int v = index.indexOf(access.stopIds[i]);
+            double cost = walkFactor * access.distances[i] / 1000.0;
+            if (!ws.isVisited(v)) {
+                ws.markVisited(v);
+                dist[v] = cost;
+                ws.parent[v] = -1;
+                heap.insert(v, cost);
+            } else if (cost < dist[v]) {
+                dist[v] = cost;
+                heap.decreaseKey(v, cost);
+            }
+        }
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            if (dist[current] >= best) {
+                break;
+            }
+            ws.markSettled(current);
+
+            // Solo cuenta si se llegó en bus (una parada de acceso no es un viaje)
+            if (ws.isBackwardVisited(current) && ws.parent[current] >= 0
+                    && dist[current] + egressCost[current] < best) {
+                best = dist[current] + egressCost[current];
+                bestStop = current;
+            }
+
+            double base = dist[current];
+            for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                int next = index.target(e);
+                if (ws.isSettled(next)) continue;
+
+                double candidate = base + index.weight(e);
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    dist[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    heap.insert(next, candidate);
+                } else if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    heap.decreaseKey(next, candidate);
+                }
+            }
+        }
+
+        if (bestStop < 0) {
+            if (best == Double.MAX_VALUE) {
+                return new CoordinateRoute(false, walk(originLat, originLon, originLat, originLon),
+                    PathFinder.notFound("Sin paradas conectadas a distancia caminable"),
+                    walk(destLat, destLon, destLat, destLon), 0.0, 0.0,
+                    "No se encontró un viaje entre las coordenadas");
+            }
+            // Caminar directamente es mejor que cualquier combinación con bus
+            return new CoordinateRoute(true, walk(originLat, originLon, destLat, destLon),
+                PathFinder.notFound("Trayecto a pie, sin bus"),
+                walk(destLat, destLon, destLat, destLon), directKm, directKm,
+                String.format("Viaje a pie: %.2f km", directKm));
+        }
+
+        // El camino en bus va de la parada de acceso (padre -1) a la de egreso
+        int accessStop = bestStop;
+        while (ws.parent[accessStop] >= 0) {
+            accessStop = ws.parent[accessStop];
+        }
+        RouteResult transit = PathFinder.buildRoute(index, ws, accessStop, bestStop, true);
+
+        WalkLeg accessLeg = walk(originLat, originLon, index.latitudeAt(accessStop), index.longitudeAt(accessStop));
+        WalkLeg egressLeg = walk(index.latitudeAt(bestStop), index.longitudeAt(bestStop), destLat, destLon);
+        double walkKm = accessLeg.distance + egressLeg.distance;
+        double totalKm = walkKm + transit.totalDistance;
+
+        return new CoordinateRoute(true, accessLeg, transit, egressLeg, totalKm, walkKm,
+            String.format("Viaje encontrado: %.2f km a pie, %d paradas en bus, %.2f km en total, %d transbordos",
+                walkKm, transit.stops.length, totalKm, transit.numTransfers));
+    }
+
+    /**
+     * Valida las coordenadas de la consulta (finitas, latitud en ±90 y longitud
+     * en ±180). Retorna el viaje sin ruta si alguna no lo es, o null en otro caso
+     */
+    static CoordinateRoute checkCoordinates(double originLat, double originLon, double destLat, double destLon) {
+        String which = !isValid(originLat, originLon) ? "de origen" : !isValid(destLat, destLon) ? "de destino" : null;
+        if (which == null) {
+            return null;
+        }
+        String message = String.format("Coordenadas inválidas %s: (%s, %s) -> (%s, %s); la latitud va de -90 a 90"
+            + " y la longitud de -180 a 180", which, originLat, originLon, destLat, destLon);
+        return new CoordinateRoute(false, new WalkLeg(originLat, originLon, originLat, originLon, 0.0),
+            PathFinder.notFound(message), new WalkLeg(destLat, destLon, destLat, destLon, 0.0), 0.0, 0.0, message);
+    }
+
+    private static boolean isValid(double lat, double lon) {
+        return Double.isFinite(lat) && Double.isFinite(lon) && Math.abs(lat) <= 90.0 && Math.abs(lon) <= 180.0;
+    }
+
+    /**
+     * Paradas a distancia caminable del punto; si no hay ninguna, la más cercana
+     */
+    private static NearbyStops candidates(StopGrid grid, double lat, double lon, double maxWalkMeters) {
+        NearbyStops nearby = grid.within(lat, lon, maxWalkMeters);
+        return nearby.stopIds.length > 0 ? nearby : grid.nearest(lat, lon, 1);
+    }
+
+    private static WalkLeg walk(double fromLat, double fromLon, double toLat, double toLon) {
+        return new WalkLeg(fromLat, fromLon, toLat, toLon, GeoUtils.haversine(fromLat, fromLon, toLat, toLon));
+    }
+}
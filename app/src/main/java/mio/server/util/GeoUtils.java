@@ -0,0 +1,25 @@
+package mio.server.util;
+
+/**
+ * Utilidades geográficas sobre coordenadas decimales (grados)
+ */
+public class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371.0; // Radio de la Tierra en km
+
+    /**
+     * Distancia en km entre dos coordenadas usando la fórmula de Haversine
+     */
+    public static double haversine(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
+                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
+                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+}
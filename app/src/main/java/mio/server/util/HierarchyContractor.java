@@ -0,0 +1,387 @@
+package mio.server.util;
+
+import mio.server.data.AdjacencyIndex;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Preprocesamiento de la jerarquía de contracción
+ *
+ * Contraer una parada v la saca del grafo: por cada par de vecinos u -> v -> w
+ * se agrega el atajo u -> w, salvo que una búsqueda local (búsqueda de testigo)
+ * encuentre un camino igual o más corto que no pase por v. El orden lo decide una
+ * prioridad por parada: atajos que agregaría menos aristas que elimina, más los
+ * vecinos ya contraídos y el nivel (para repartir la contracción por el mapa).
+ *
+ * La contracción avanza por lotes en paralelo: en cada ronda se toman las
+ * paradas cuya prioridad es mínima entre sus vecinos (un conjunto independiente),
+ * se calculan sus atajos en varios hilos y se aplican en orden. Las búsquedas de
+ * testigo no pasan por ninguna parada del lote, así que contraerlas juntas es
+ * equivalente a contraerlas una tras otra. El resultado no depende del número
+ * de hilos.
+ */
+final class HierarchyContractor {
+
+    private static final int WITNESS_SETTLE_LIMIT = 500; // paradas por búsqueda de testigo
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private final AdjacencyIndex index;
+    private final int n;
+    private final int threads;
+
+    // Grafo que queda por contraer: aristas salientes y entrantes de cada parada
+    private final int[][] out;
+    private final int[] outCount;
+    private final int[][] in;
+    private final int[] inCount;
+
+    // Aristas de la jerarquía (arcos originales y atajos)
+    private int[] tails = new int[1024];
+    private int[] heads = new int[1024];
+    private double[] weights = new double[1024];
+    private int[] firsts = new int[1024];
+    private int[] seconds = new int[1024];
+    private int edgeCount;
+
+    private final boolean[] contracted;
+    private final boolean[] inBatch;       // parada del lote actual (excluida de los testigos)
+    private final int[] level;
+    private final int[] contractedNeighbors;
+    private final int[] priority;
+    private final int[] rank;
+
+    private final ThreadLocal<Witness> witnesses;
+
+    HierarchyContractor(AdjacencyIndex index, int threads) {
+        this.index = index;
+        this.n = index.size();
+        this.threads = Math.max(1, threads);
+        this.out = new int[n][];
+        this.outCount = new int[n];
+        this.in = new int[n][];
+        this.inCount = new int[n];
+        this.contracted = new boolean[n];
+        this.inBatch = new boolean[n];
+        this.level = new int[n];
+        this.contractedNeighbors = new int[n];
+        this.priority = new int[n];
+        this.rank = new int[n];
+        this.witnesses = ThreadLocal.withInitial(() -> new Witness(n));
+        for (int v = 0; v < n; v++) {
+            out[v] = new int[4];
+            in[v] = new int[4];
+        }
+    }
+
+    ContractionHierarchy contract() {
+        // Un arco por par de paradas: el más corto (el primero si empatan)
+        for (int v = 0; v < n; v++) {
+            for (int e = index.firstEdge(v); e < index.lastEdge(v); e++) {
+                int w = index.target(e);
+                if (w != v) {
+                    addOrImprove(v, w, index.weight(e), -1, e);
+                }
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            parallel(pool, n, v -> priority[v] = computePriority(v));
+
+            int[] remaining = new int[n];
+            for (int v = 0; v < n; v++) {
+                remaining[v] = v;
+            }
+            int remainingCount = n;
+            int nextRank = 0;
+            int[] batch = new int[n];
+            Shortcuts[] shortcuts = new Shortcuts[n];
+            int[] touched = new int[n];
+            boolean[] isTouched = new boolean[n];
+
+            while (remainingCount > 0) {
+                // Lote: paradas con prioridad mínima entre sus vecinos (desempate por índice)
+                int batchSize = 0;
+                for (int i = 0; i < remainingCount; i++) {
+                    int v = remaining[i];
+                    if (isLocalMinimum(v)) {
+                        batch[batchSize++] = v;
+                    }
+                }
+                for (int i = 0; i < batchSize; i++) {
+                    inBatch[batch[i]] = true;
+                }
+
+                final int[] current = batch;
+                parallel(pool, batchSize, i -> {
+                    Shortcuts found = new Shortcuts();
+                    simulate(current[i], found);
+                    shortcuts[i] = found;
+                });
+
+                // Aplicar los atajos y sacar el lote del grafo (en orden, sin hilos)
+                int touchedCount = 0;
+                for (int i = 0; i < batchSize; i++) {
+                    int v = batch[i];
+                    Shortcuts found = shortcuts[i];
+                    for (int k = 0; k < found.count; k++) {
+                        addOrImprove(found.from[k], found.to[k], found.weight[k], found.firstEdge[k], found.secondEdge[k]);
+                    }
+                    shortcuts[i] = null;
+                    contracted[v] = true;
+                    inBatch[v] = false;
+                    rank[v] = nextRank++;
+
+                    for (int k = 0; k < outCount[v]; k++) {
+                        touchedCount = touch(heads[out[v][k]], level[v], touched, touchedCount, isTouched);
+                    }
+                    for (int k = 0; k < inCount[v]; k++) {
+                        touchedCount = touch(tails[in[v][k]], level[v], touched, touchedCount, isTouched);
+                    }
+                }
+
+                // Actualizar las prioridades de los vecinos del lote
+                for (int i = 0; i < touchedCount; i++) {
+                    int u = touched[i];
+                    isTouched[u] = false;
+                    dropContractedEdges(u);
+                }
+                parallel(pool, touchedCount, i -> priority[touched[i]] = computePriority(touched[i]));
+
+                int kept = 0;
+                for (int i = 0; i < remainingCount; i++) {
+                    if (!contracted[remaining[i]]) {
+                        remaining[kept++] = remaining[i];
+                    }
+                }
+                remainingCount = kept;
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return new ContractionHierarchy(rank,
+            Arrays.copyOf(tails, edgeCount), Arrays.copyOf(heads, edgeCount), Arrays.copyOf(weights, edgeCount),
+            Arrays.copyOf(firsts, edgeCount), Arrays.copyOf(seconds, edgeCount),
+            ContractionHierarchy.fingerprint(index));
+    }
+
+    private static void parallel(ForkJoinPool pool, int count, java.util.function.IntConsumer task) {
+        pool.submit(() -> IntStream.range(0, count).parallel().forEach(task)).join();
+    }
+
+    /**
+     * Registra un vecino de una parada recién contraída
+     */
+    private int touch(int u, int contractedLevel, int[] touched, int touchedCount, boolean[] isTouched) {
+        if (contracted[u]) {
+            return touchedCount;
+        }
+        level[u] = Math.max(level[u], contractedLevel + 1);
+        contractedNeighbors[u]++;
+        if (!isTouched[u]) {
+            isTouched[u] = true;
+            touched[touchedCount++] = u;
+        }
+        return touchedCount;
+    }
+
+    private boolean isLocalMinimum(int v) {
+        for (int k = 0; k < outCount[v]; k++) {
+            if (precedes(heads[out[v][k]], v)) return false;
+        }
+        for (int k = 0; k < inCount[v]; k++) {
+            if (precedes(tails[in[v][k]], v)) return false;
+        }
+        return true;
+    }
+
+    private boolean precedes(int u, int v) {
+        return priority[u] < priority[v] || (priority[u] == priority[v] && u < v);
+    }
+
+    private int computePriority(int v) {
+        int shortcuts = simulate(v, null);
+        int edgeDifference = shortcuts - outCount[v] - inCount[v];
+        return 2 * edgeDifference + contractedNeighbors[v] + level[v];
+    }
+
+    /**
+     * Calcula los atajos que requiere contraer v (solo los cuenta si found es null)
+     */
+    private int simulate(int v, Shortcuts found) {
+        double maxOut = 0.0;
+        for (int k = 0; k < outCount[v]; k++) {
+            maxOut = Math.max(maxOut, weights[out[v][k]]);
+        }
+
+        Witness witness = witnesses.get();
+        int count = 0;
+        for (int i = 0; i < inCount[v]; i++) {
+            int inEdge = in[v][i];
+            int u = tails[inEdge];
+            double toV = weights[inEdge];
+            witness.search(u, v, toV + maxOut);
+
+            for (int j = 0; j < outCount[v]; j++) {
+                int outEdge = out[v][j];
+                int w = heads[outEdge];
+                if (w == u) continue;
+                double through = toV + weights[outEdge];
+                if (witness.distance(w) > through) {
+                    count++;
+                    if (found != null) {
+                        found.add(u, w, through, inEdge, outEdge);
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Agrega la arista u -> w, o mejora la existente entre esas paradas si es más larga
+     */
+    private void addOrImprove(int u, int w, double weight, int first, int second) {
+        for (int k = 0; k < outCount[u]; k++) {
+            int s = out[u][k];
+            if (heads[s] == w) {
+                if (weight < weights[s]) {
+                    weights[s] = weight;
+                    firsts[s] = first;
+                    seconds[s] = second;
+                }
+                return;
+            }
+        }
+
+        if (edgeCount == tails.length) {
+            int capacity = edgeCount * 2;
+            tails = Arrays.copyOf(tails, capacity);
+            heads = Arrays.copyOf(heads, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            seconds = Arrays.copyOf(seconds, capacity);
+        }
+        int s = edgeCount++;
+        tails[s] = u;
+        heads[s] = w;
+        weights[s] = weight;
+        firsts[s] = first;
+        seconds[s] = second;
+
+        if (outCount[u] == out[u].length) {
+            out[u] = Arrays.copyOf(out[u], outCount[u] * 2);
+        }
+        out[u][outCount[u]++] = s;
+        if (inCount[w] == in[w].length) {
+            in[w] = Arrays.copyOf(in[w], inCount[w] * 2);
+        }
+        in[w][inCount[w]++] = s;
+    }
+
+    /**
+     * Quita de las listas de u las aristas que llevan a paradas ya contraídas
+     */
+    private void dropContractedEdges(int u) {
+        int kept = 0;
+        for (int k = 0; k < outCount[u]; k++) {
+            int s = out[u][k];
+            if (!contracted[heads[s]]) out[u][kept++] = s;
+        }
+        outCount[u] = kept;
+        kept = 0;
+        for (int k = 0; k < inCount[u]; k++) {
+            int s = in[u][k];
+            if (!contracted[tails[s]]) in[u][kept++] = s;
+        }
+        inCount[u] = kept;
+    }
+
+    /**
+     * Atajos calculados para una parada del lote
+     */
+    private static final class Shortcuts {
+        int count;
+        int[] from = new int[8];
+        int[] to = new int[8];
+        double[] weight = new double[8];
+        int[] firstEdge = new int[8];
+        int[] secondEdge = new int[8];
+
+        void add(int u, int w, double length, int first, int second) {
+            if (count == from.length) {
+                int capacity = count * 2;
+                from = Arrays.copyOf(from, capacity);
+                to = Arrays.copyOf(to, capacity);
+                weight = Arrays.copyOf(weight, capacity);
+                firstEdge = Arrays.copyOf(firstEdge, capacity);
+                secondEdge = Arrays.copyOf(secondEdge, capacity);
+            }
+            from[count] = u;
+            to[count] = w;
+            weight[count] = length;
+            firstEdge[count] = first;
+            secondEdge[count] = second;
+            count++;
+        }
+    }
+
+    /**
+     * Búsqueda de testigo: Dijkstra acotado sobre las paradas que siguen en el
+     * grafo, sin pasar por la parada que se contrae ni por las del lote.
+     * Cada hilo tiene la suya
+     */
+    private final class Witness {
+        private final double[] dist;
+        private final int[] mark;
+        private final IndexedMinHeap heap;
+        private int epoch;
+
+        Witness(int capacity) {
+            this.dist = new double[capacity];
+            this.mark = new int[capacity];
+            this.heap = new IndexedMinHeap(capacity);
+        }
+
+        void search(int source, int avoid, double limit) {
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(mark, 0);
+                epoch = 1;
+            }
+            heap.clear();
+            mark[source] = epoch;
+            dist[source] = 0.0;
+            heap.insert(source, 0.0);
+
+            int settled = 0;
+            while (!heap.isEmpty() && heap.peekKey() <= limit && settled++ < WITNESS_SETTLE_LIMIT) {
+                int current = heap.poll();
+                double base = dist[current];
+                for (int k = 0; k < outCount[current]; k++) {
+                    int s = out[current][k];
+                    int next = heads[s];
+                    if (next == avoid || contracted[next] || inBatch[next]) continue;
+                    double candidate = base + weights[s];
+                    if (mark[next] != epoch) {
+                        mark[next] = epoch;
+                        dist[next] = candidate;
+                        heap.insert(next, candidate);
+                    } else if (candidate < dist[next]) {
+                        dist[next] = candidate;
+                        heap.decreaseKey(next, candidate);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Distancia hallada hasta v en la última búsqueda (infinita si no se alcanzó)
+         */
+        double distance(int v) {
+            return mark[v] == epoch ? dist[v] : INFINITY;
+        }
+    }
+}
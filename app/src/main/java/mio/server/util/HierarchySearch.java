@@ -0,0 +1,193 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+
+/**
+ * Consulta sobre la jerarquía de contracción: un Dijkstra bidireccional en el
+ * que la búsqueda desde el origen solo sube de rango (grafo "hacia arriba") y la
+ * búsqueda desde el destino también sube, recorriendo al revés el grafo "hacia
+ * abajo". Ambas se encuentran en la parada de mayor rango del camino más corto,
+ * así que cada lado explora solo unos cientos de paradas.
+ *
+ * Poda (stall-on-demand): si una parada ya alcanzada de mayor rango ofrece un
+ * camino más corto hasta la parada que se fija, esa parada no se expande.
+ *
+ * Al final cada arista del camino se desempaca (recursivamente, con una pila)
+ * en los arcos reales del índice, de modo que RouteResult.arcs es el mismo
+ * camino que devuelven las demás búsquedas.
+ */
+final class HierarchySearch {
+
+    private HierarchySearch() {
+    }
+
+    static RouteResult findRoute(int originStopId, int destStopId, AdjacencyIndex index, ContractionHierarchy hierarchy) {
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = PathFinder.checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return trivial;
+        }
+
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        IndexedMinHeap heap = ws.heap;
+        IndexedMinHeap backwardHeap = ws.backwardHeap;
+        double[] dist = ws.dist;
+        double[] backwardDist = ws.backwardDist;
+
+        ws.markVisited(origin);
+        dist[origin] = 0.0;
+        ws.parentEdge[origin] = -1;
+        heap.insert(origin, 0.0);
+
+        ws.markBackwardVisited(dest);
+        backwardDist[dest] = 0.0;
+        ws.nextEdge[dest] = -1;
+        backwardHeap.insert(dest, 0.0);
+
+        double best = Double.POSITIVE_INFINITY;
+        int meet = -1;
+
+        while (true) {
+            boolean forward = !heap.isEmpty() && heap.peekKey() < best;
+            boolean backward = !backwardHeap.isEmpty() && backwardHeap.peekKey() < best;
+            if (!forward && !backward) {
+                break;
+            }
+            if (forward && backward) {
+                forward = heap.peekKey() <= backwardHeap.peekKey();
+            }
+
+            if (forward) {
+                int current = heap.poll();
+                ws.markSettled(current);
+                double base = dist[current];
+                if (ws.isBackwardVisited(current) && base + backwardDist[current] < best) {
+                    best = base + backwardDist[current];
+                    meet = current;
+                }
+                if (isStalled(hierarchy, ws, current, base, true)) continue;
+
+                for (int k = hierarchy.firstUpEdge(current); k < hierarchy.lastUpEdge(current); k++) {
+                    int s = hierarchy.upEdge(k);
+                    int next = hierarchy.head(s);
+                    if (ws.isSettled(next)) continue;
+                    double candidate = base + hierarchy.weight(s);
+                    if (!ws.isVisited(next)) {
+                        ws.markVisited(next);
+                        dist[next] = candidate;
+                        ws.parentEdge[next] = s;
+                        heap.insert(next, candidate);
+                    } else if (candidate < dist[next]) {
+                        dist[next] = candidate;
+                        ws.parentEdge[next] = s;
+                        heap.decreaseKey(next, candidate);
+                    }
+                }
+            } else {
+                int current = backwardHeap.poll();
+                ws.markBackwardSettled(current);
+                double base = backwardDist[current];
+                if (ws.isVisited(current) && base + dist[current] < best) {
+                    best = base + dist[current];
+                    meet = current;
+                }
+                if (isStalled(hierarchy, ws, current, base, false)) continue;
+
+                for (int k = hierarchy.firstDownEdge(current); k < hierarchy.lastDownEdge(current); k++) {
+                    int s = hierarchy.downEdge(k);
+                    int previous = hierarchy.tail(s);
+                    if (ws.isBackwardSettled(previous)) continue;
+                    double candidate = base + hierarchy.weight(s);
+                    if (!ws.isBackwardVisited(previous)) {
+                        ws.markBackwardVisited(previous);
+                        backwardDist[previous] = candidate;
+                        ws.nextEdge[previous] = s;
+                        backwardHeap.insert(previous, candidate);
+                    } else if (candidate < backwardDist[previous]) {
+                        backwardDist[previous] = candidate;
+                        ws.nextEdge[previous] = s;
+                        backwardHeap.decreaseKey(previous, candidate);
+                    }
+                }
+            }
+        }
+
+        if (meet < 0) {
+            return PathFinder.notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+        }
+
+        return buildRoute(index, hierarchy, ws, origin, meet);
+    }
+
+    /**
+     * Indica si alguna parada de mayor rango ya alcanzada por el mismo lado llega
+     * a v con menos distancia que la etiqueta actual (entonces v no está en el
+     * camino más corto "hacia arriba" y no hace falta expandirla)
+     */
+    private static boolean isStalled(ContractionHierarchy hierarchy, SearchWorkspace ws, int v, double label,
+            boolean forward) {
+        if (forward) {
+            // Aristas u -> v con u de mayor rango, vistas desde v
+            for (int k = hierarchy.firstDownEdge(v); k < hierarchy.lastDownEdge(v); k++) {
+                int s = hierarchy.downEdge(k);
+                int u = hierarchy.tail(s);
+                if (ws.isVisited(u) && ws.dist[u] + hierarchy.weight(s) < label) {
+                    return true;
+                }
+            }
+        } else {
+            // Aristas v -> u con u de mayor rango
+            for (int k = hierarchy.firstUpEdge(v); k < hierarchy.lastUpEdge(v); k++) {
+                int s = hierarchy.upEdge(k);
+                int u = hierarchy.head(s);
+                if (ws.isBackwardVisited(u) && ws.backwardDist[u] + hierarchy.weight(s) < label) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Desempaca las aristas origen -> meet (padres de la búsqueda directa) y
+     * meet -> destino (sucesores de la inversa) en arcos del índice; la ruta se
+     * arma con PathFinder.buildEdgeRoute (sin ciclos de costo 0 y con los arcos
+     * elegidos como en las demás búsquedas)
+     */
+    private static RouteResult buildRoute(AdjacencyIndex index, ContractionHierarchy hierarchy, SearchWorkspace ws,
+            int origin, int meet) {
+        int[] stack = ws.queue;
+        int[] path = ws.roundQueue; // posiciones CSR de los arcos del camino, en orden
+        int length = 0;
+
+        // Mitad final primero (se apila al revés para desempacarla en orden)
+        int[] backwardEdges = ws.backwardQueue;
+        int count = 0;
+        for (int v = meet; ws.nextEdge[v] >= 0; v = hierarchy.head(ws.nextEdge[v])) {
+            backwardEdges[count++] = ws.nextEdge[v];
+        }
+        int top = 0;
+        for (int k = count - 1; k >= 0; k--) {
+            stack[top++] = backwardEdges[k];
+        }
+        // Mitad inicial: recorrer los padres desde meet ya deja la primera arista arriba
+        for (int v = meet; ws.parentEdge[v] >= 0; v = hierarchy.tail(ws.parentEdge[v])) {
+            stack[top++] = ws.parentEdge[v];
+        }
+
+        while (top > 0) {
+            int s = stack[--top];
+            if (hierarchy.first(s) < 0) {
+                path[length++] = hierarchy.second(s);
+            } else {
+                stack[top++] = hierarchy.second(s);
+                stack[top++] = hierarchy.first(s);
+            }
+        }
+
+        return PathFinder.buildEdgeRoute(index, ws, origin, path, length, true);
+    }
+}
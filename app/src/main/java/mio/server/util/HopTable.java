@@ -0,0 +1,162 @@
+package mio.server.util;
+
+import mio.server.data.AdjacencyIndex;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Tabla de rutas por número de paradas para todos los pares (origen, destino)
+ *
+ * Para cada origen se guarda el árbol completo de su BFS: la posición [o * n + d]
+ * es el arco (posición CSR) con el que el BFS desde o llega a d, o -1 si d no es
+ * alcanzable. Así una consulta HOPS no busca: basta con leer los arcos desde el
+ * destino hacia el origen, y la ruta es exactamente la que daría el BFS.
+ *
+ * Los arcos se guardan como short, así que la tabla ocupa 2 * n^2 bytes (unos
+ * 9 MB con ~2.120 paradas). Se construye en paralelo, un BFS por origen.
+ */
+public final class HopTable {
+
+    /**
+     * Paradas máximas: la tabla (n^2 posiciones) debe caber en un arreglo de Java
+     */
+    public static final int MAX_STOPS = 46340; // 46340^2 <= Integer.MAX_VALUE - 8
+
+    private static final int ORIGINS_PER_TASK = 32;
+
+    private final int n;
+    private final short[] lastEdges;  // [o * n + d] = arco con el que se llega a d desde o, o -1
+                                      // (n <= MAX_STOPS: los índices o * n + d caben en int)
+    private final int[] edgeSources;  // arco (posición CSR) -> índice denso de su parada origen
+
+    private HopTable(int n, short[] lastEdges, int[] edgeSources) {
+        this.n = n;
+        this.lastEdges = lastEdges;
+        this.edgeSources = edgeSources;
+    }
+
+    /**
+     * Indica si la tabla se puede construir para el índice sin superar maxStops
+     * paradas (con posiciones de arco representables como short y n^2 posiciones
+     * que caben en un arreglo)
+     */
+    public static boolean fits(AdjacencyIndex index, int maxStops) {
+        return index.size() <= maxStops && index.edgeCount() <= Short.MAX_VALUE
+            && memoryBytes(index.size()) / 2 <= Integer.MAX_VALUE - 8;
+    }
+
+    /**
+     * Bytes que ocuparía la tabla de un grafo de numStops paradas
+     */
+    public static long memoryBytes(int numStops) {
+        return 2L * numStops * numStops;
+    }
+
+    /**
+     * Llena la tabla con un BFS desde cada origen, repartidos por bloques en el
+     * número de hilos indicado
+     */
+    public static HopTable build(AdjacencyIndex index, int threads) {
+        if (index.edgeCount() > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Demasiados arcos para la tabla de rutas: " + index.edgeCount());
+        }
+        int n = index.size();
+        long cells = (long) n * n;
+        if (cells > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Demasiadas paradas para la tabla de rutas: " + n
+                + " (máximo " + MAX_STOPS + ")");
+        }
+
+        short[] lastEdges = new short[(int) cells];
+        int[] edgeSources = new int[index.edgeCount()];
+        for (int v = 0; v < n; v++) {
+            for (int e = index.firstEdge(v); e < index.lastEdge(v); e++) {
+                edgeSources[e] = v;
+            }
+        }
+
+        // Bloques de ORIGINS_PER_TASK orígenes, cada uno con su propia cola
+        int blocks = (n + ORIGINS_PER_TASK - 1) / ORIGINS_PER_TASK;
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            pool.submit(() -> IntStream.range(0, blocks).parallel().forEach(block ->
+                fillRows(index, lastEdges, block * ORIGINS_PER_TASK, Math.min(n, (block + 1) * ORIGINS_PER_TASK))
+            )).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        return new HopTable(n, lastEdges, edgeSources);
+    }
+
+    /**
+     * BFS desde cada origen de [from, to): llena sus filas de la tabla
+     */
+    private static void fillRows(AdjacencyIndex index, short[] lastEdges, int from, int to) {
+        int n = index.size();
+        int[] queue = new int[n];
+        for (int origin = from; origin < to; origin++) {
+            // Mismo recorrido que PathFinder.findShortestRoute, pero sin detenerse
+            int row = origin * n;
+            Arrays.fill(lastEdges, row, row + n, (short) -1);
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = origin;
+            while (head < tail) {
+                int current = queue[head++];
+                for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                    int next = index.target(e);
+                    if (next != origin && lastEdges[row + next] < 0) {
+                        lastEdges[row + next] = (short) e;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Número de paradas
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Bytes ocupados por la tabla
+     */
+    public long memoryBytes() {
+        return 2L * lastEdges.length;
+    }
+
+    /**
+     * Arco con el que se llega a dest en el BFS desde origin, o -1 si no es alcanzable
+     */
+    int lastEdge(int origin, int dest) {
+        return lastEdges[origin * n + dest];
+    }
+
+    /**
+     * Parada origen (índice denso) del arco en la posición e
+     */
+    int source(int e) {
+        return edgeSources[e];
+    }
+
+    /**
+     * Número de arcos del camino más corto (en paradas) de origin a dest, o -1 si
+     * no hay camino (índices densos)
+     */
+    public int hopDistance(int origin, int dest) {
+        int hops = 0;
+        for (int v = dest; v != origin; v = edgeSources[lastEdges[origin * n + v]]) {
+            if (lastEdges[origin * n + v] < 0) {
+                return -1;
+            }
+            hops++;
+        }
+        return hops;
+    }
+}
@@ -0,0 +1,114 @@
+package mio.server.util;
+
+/**
+ * Montículo binario mínimo indexado sobre arreglos primitivos
+ *
+ * Guarda índices densos de parada con su clave (double) y permite
+ * disminuir la clave de un elemento ya insertado. Las posiciones solo son
+ * válidas para los elementos insertados desde el último clear(), por lo que
+ * limpiar el montículo es O(1).
+ */
+final class IndexedMinHeap {
+
+    private final int[] heap;       // elementos en orden de montículo
+    private final double[] keys;    // clave de cada posición del montículo
+    private final int[] position;   // posición de cada elemento en el montículo
+    private int size;
+
+    IndexedMinHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.keys = new double[capacity];
+        this.position = new int[capacity];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Clave mínima del montículo (no vacío)
+     */
+    double peekKey() {
+        return keys[0];
+    }
+
+    /**
+     * Inserta un elemento que no está en el montículo
+     */
+    void insert(int item, double key) {
+        int i = size++;
+        heap[i] = item;
+        keys[i] = key;
+        position[item] = i;
+        siftUp(i);
+    }
+
+    /**
+     * Disminuye la clave de un elemento presente en el montículo
+     */
+    void decreaseKey(int item, double key) {
+        int i = position[item];
+        keys[i] = key;
+        siftUp(i);
+    }
+
+    /**
+     * Extrae el elemento de menor clave
+     */
+    int poll() {
+        int min = heap[0];
+        size--;
+        if (size > 0) {
+            heap[0] = heap[size];
+            keys[0] = keys[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return min;
+    }
+
+    private void siftUp(int i) {
+        int item = heap[i];
+        double key = keys[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] <= key) break;
+            heap[i] = heap[parent];
+            keys[i] = keys[parent];
+            position[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = item;
+        keys[i] = key;
+        position[item] = i;
+    }
+
+    private void siftDown(int i) {
+        int item = heap[i];
+        double key = keys[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && keys[right] < keys[child]) {
+                child = right;
+            }
+            if (key <= keys[child]) break;
+            heap[i] = heap[child];
+            keys[i] = keys[child];
+            position[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = item;
+        keys[i] = key;
+        position[item] = i;
+    }
+}
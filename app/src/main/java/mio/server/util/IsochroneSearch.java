@@ -0,0 +1,234 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+
+import java.util.Arrays;
+
+/**
+ * Búsquedas de uno a todos acotadas por un presupuesto de costo (isócronas)
+ *
+ * Cada búsqueda fija las paradas en orden de costo no decreciente y no encola
+ * ningún candidato que supere el presupuesto, así que se detiene sola al
+ * agotarlo en vez de recorrer todo lo alcanzable como getReachableStops:
+ *   HOPS      BFS sobre paradas, costo = arcos
+ *   DISTANCE  Dijkstra sobre paradas, costo = km (los tramos a pie pesan
+ *             Mio.Walk.CostFactor veces lo caminado)
+ *   TRANSFERS Dijkstra sobre estados (parada, línea), costo = transbordos
+ *             (abordar en el origen y seguir en la misma línea no cuestan)
+ */
+final class IsochroneSearch {
+
+    private static final double[] NO_COORDINATES = new double[0];
+
+    private IsochroneSearch() {
+    }
+
+    /**
+     * Paradas alcanzables desde origin (índice denso) con costo <= budget,
+     * ordenadas por costo; el polígono convexo solo se calcula si withHull
+     */
+    static Isochrone search(int origin, CostMode mode, double budget, boolean withHull, AdjacencyIndex index) {
+        int[] reached = new int[index.size()];
+        double[] costs = new double[index.size()];
+
+        int count;
+        if (mode == CostMode.TRANSFERS) {
+            count = byTransfers(origin, budget, index, reached, costs);
+        } else if (mode == CostMode.DISTANCE) {
+            count = byDistance(origin, budget, index, reached, costs);
+        } else {
+            count = byHops(origin, budget, index, reached, costs);
+        }
+
+        int[] stopIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            stopIds[i] = index.stopIdAt(reached[i]);
+        }
+
+        Isochrone isochrone = new Isochrone(stopIds, Arrays.copyOf(costs, count), NO_COORDINATES, NO_COORDINATES);
+        if (withHull) {
+            convexHull(reached, count, index, isochrone);
+        }
+        return isochrone;
+    }
+
+    private static int byHops(int origin, double budget, AdjacencyIndex index, int[] reached, double[] costs) {
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        int[] queue = ws.queue;
+        int[] hops = ws.parent; // arcos desde el origen de cada parada encolada
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = origin;
+        ws.markVisited(origin);
+        hops[origin] = 0;
+
+        while (head < tail) {
+            int current = queue[head++];
+            reached[head - 1] = current;
+            costs[head - 1] = hops[current];
+            if (hops[current] + 1 > budget) continue;
+
+            for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                int next = index.target(e);
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    hops[next] = hops[current] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        ws.settledCount = head;
+        return head;
+    }
+
+    private static int byDistance(int origin, double budget, AdjacencyIndex index, int[] reached, double[] costs) {
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        IndexedMinHeap heap = ws.heap;
+        double[] dist = ws.dist;
+        int count = 0;
+
+        ws.markVisited(origin);
+        dist[origin] = 0.0;
+        heap.insert(origin, 0.0);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            ws.markSettled(current);
+            reached[count] = current;
+            costs[count++] = dist[current];
+
+            double base = dist[current];
+            for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                int next = index.target(e);
+                if (ws.isSettled(next)) continue;
+
+                double candidate = base + index.weight(e);
+                if (candidate > budget) continue;
+
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    dist[next] = candidate;
+                    heap.insert(next, candidate);
+                } else if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    heap.decreaseKey(next, candidate);
+                }
+            }
+        }
+        ws.settledCount = count;
+        return count;
+    }
+
+    /**
+     * El primer estado que se fija en cada parada tiene el mínimo de transbordos;
+     * los siguientes solo continúan en su línea (misma poda que TransferAwareSearch)
+     */
+    private static int byTransfers(int origin, double budget, AdjacencyIndex index, int[] reached, double[] costs) {
+        // El estado numStates representa "en el origen, sin haber abordado"
+        int numStates = index.stateCount();
+        int start = numStates;
+        SearchWorkspace ws = SearchWorkspace.acquire(Math.max(index.size(), numStates + 1));
+        IndexedMinHeap heap = ws.heap;
+        double[] cost = ws.dist;
+        int count = 0;
+
+        ws.markVisited(start);
+        cost[start] = 0.0;
+        heap.insert(start, 0.0);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            ws.markSettled(current);
+
+            int stop = current == start ? origin : index.stateStop(current);
+            int line = current == start ? -1 : index.stateLine(current);
+            boolean first = !ws.isBackwardVisited(stop); // marca: parada ya expandida
+            if (first) {
+                ws.markBackwardVisited(stop);
+                reached[count] = stop;
+                costs[count++] = cost[current];
+            }
+            boolean continueOnly = !first && line != AdjacencyIndex.WALK_LINE; // a pie se aborda cualquier línea
+
+            int from = continueOnly ? index.firstStateEdge(current) : index.firstEdge(stop);
+            int to = continueOnly ? index.lastStateEdge(current) : index.lastEdge(stop);
+            double base = cost[current];
+            for (int k = from; k < to; k++) {
+                int e = continueOnly ? index.stateEdge(k) : k;
+                int next = index.edgeState(e);
+                if (ws.isSettled(next)) continue;
+
+                double candidate = line != -1 && index.line(e) != line ? base + 1.0 : base;
+                if (candidate > budget) continue;
+
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    cost[next] = candidate;
+                    heap.insert(next, candidate);
+                } else if (candidate < cost[next]) {
+                    cost[next] = candidate;
+                    heap.decreaseKey(next, candidate);
+                }
+            }
+        }
+        ws.settledCount = count;
+        return count;
+    }
+
+    /**
+     * Polígono convexo (cadena monótona de Andrew) de las paradas alcanzadas, en
+     * sentido antihorario y sin repetir el primer vértice
+     */
+    private static void convexHull(int[] reached, int count, AdjacencyIndex index, Isochrone isochrone) {
+        // Paradas ordenadas por longitud y luego latitud
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = reached[i];
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byLong = Double.compare(index.longitudeAt(a), index.longitudeAt(b));
+            return byLong != 0 ? byLong : Double.compare(index.latitudeAt(a), index.latitudeAt(b));
+        });
+
+        int[] hull = new int[2 * count];
+        int size = 0;
+
+        // Cadena inferior y luego superior: se descarta el último vértice mientras no gire a la izquierda
+        for (int pass = 0; pass < 2; pass++) {
+            int lowerSize = size;
+            for (int k = 0; k < count; k++) {
+                int p = order[pass == 0 ? k : count - 1 - k];
+                while (size >= lowerSize + 2 && cross(index, hull[size - 2], hull[size - 1], p) <= 0) {
+                    size--;
+                }
+                hull[size++] = p;
+            }
+            size--; // el último punto de cada cadena es el primero de la siguiente
+        }
+        if (count == 1) {
+            size = 1;
+        }
+
+        double[] lats = new double[Math.max(0, size)];
+        double[] longs = new double[Math.max(0, size)];
+        for (int i = 0; i < size; i++) {
+            lats[i] = index.latitudeAt(hull[i]);
+            longs[i] = index.longitudeAt(hull[i]);
+        }
+        isochrone.hullLats = lats;
+        isochrone.hullLongs = longs;
+    }
+
+    /**
+     * Producto cruz de (b - a) x (c - a) en el plano (longitud, latitud): positivo
+     * si a -> b -> c gira a la izquierda
+     */
+    private static double cross(AdjacencyIndex index, int a, int b, int c) {
+        double ax = index.longitudeAt(a);
+        double ay = index.latitudeAt(a);
+        return (index.longitudeAt(b) - ax) * (index.latitudeAt(c) - ay)
+            - (index.latitudeAt(b) - ay) * (index.longitudeAt(c) - ax);
+    }
+}
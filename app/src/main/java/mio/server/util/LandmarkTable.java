@@ -0,0 +1,179 @@
+package mio.server.util;
+
+import mio.server.data.AdjacencyIndex;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Tablas de distancias a puntos de referencia (landmarks) para A* con cotas ALT
+ * (A*, Landmarks, Triangle inequality)
+ *
+ * Para cada landmark L se guarda la distancia (km) de L a cada parada y de cada
+ * parada a L. Por la desigualdad triangular, para cualquier parada v y destino t:
+ *   d(v, t) >= d(L, t) - d(L, v)   y   d(v, t) >= d(v, L) - d(t, L)
+ * y el máximo sobre todos los landmarks es una cota inferior consistente, mucho
+ * más ajustada que la distancia en línea recta cuando la red obliga a rodeos.
+ *
+ * Los landmarks se eligen en la periferia de la red: se divide el mapa en
+ * sectores alrededor del centro y en cada sector se toma la parada más lejana.
+ * Las tablas son float[] ordenados por parada (las distancias de una parada a
+ * todos los landmarks quedan contiguas) y se calculan en paralelo, un Dijkstra
+ * por landmark y sentido.
+ */
+public final class LandmarkTable {
+
+    private static final float UNREACHABLE = Float.POSITIVE_INFINITY;
+    // Margen para que el redondeo a float no convierta la cota en una sobreestimación
+    private static final double ROUNDING_SLACK_KM = 1e-4;
+
+    private final int[] landmarks;     // índice denso de cada landmark
+    private final float[] fromLandmark; // [v * k + l] = d(landmark l, v)
+    private final float[] toLandmark;   // [v * k + l] = d(v, landmark l)
+
+    private LandmarkTable(int[] landmarks, float[] fromLandmark, float[] toLandmark) {
+        this.landmarks = landmarks;
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    /**
+     * Elige count landmarks en la periferia y calcula sus tablas con el número de
+     * hilos indicado
+     */
+    public static LandmarkTable build(AdjacencyIndex index, int count, int threads) {
+        int n = index.size();
+        int[] landmarks = selectPeripheral(index, count);
+        int k = landmarks.length;
+        float[] fromLandmark = new float[n * k];
+        float[] toLandmark = new float[n * k];
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            pool.submit(() -> IntStream.range(0, 2 * k).parallel().forEach(task -> {
+                int l = task >> 1;
+                boolean reverse = (task & 1) == 1;
+                double[] dist = shortestDistances(index, landmarks[l], reverse);
+                float[] table = reverse ? toLandmark : fromLandmark;
+                for (int v = 0; v < n; v++) {
+                    table[v * k + l] = dist[v] == Double.POSITIVE_INFINITY ? UNREACHABLE : (float) dist[v];
+                }
+            })).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        return new LandmarkTable(landmarks, fromLandmark, toLandmark);
+    }
+
+    /**
+     * Divide el mapa en count sectores angulares alrededor del centro de las
+     * paradas y toma en cada uno la parada (con arcos de entrada y salida) más
+     * lejana al centro
+     */
+    private static int[] selectPeripheral(AdjacencyIndex index, int count) {
+        int n = index.size();
+        double centerLat = 0.0;
+        double centerLon = 0.0;
+        for (int v = 0; v < n; v++) {
+            centerLat += index.latitudeAt(v);
+            centerLon += index.longitudeAt(v);
+        }
+        centerLat /= n;
+        centerLon /= n;
+        double lonScale = Math.cos(Math.toRadians(centerLat));
+
+        int[] best = new int[count];
+        double[] bestRadius = new double[count];
+        Arrays.fill(best, -1);
+        for (int v = 0; v < n; v++) {
+            if (index.firstEdge(v) == index.lastEdge(v) || index.firstInEdge(v) == index.lastInEdge(v)) {
+                continue; // parada aislada en algún sentido: no da cotas útiles
+            }
+            double y = index.latitudeAt(v) - centerLat;
+            double x = (index.longitudeAt(v) - centerLon) * lonScale;
+            double angle = Math.atan2(y, x) + Math.PI; // [0, 2 pi]
+            int sector = Math.min(count - 1, (int) (angle / (2 * Math.PI) * count));
+            double radius = x * x + y * y;
+            if (best[sector] < 0 || radius > bestRadius[sector]) {
+                best[sector] = v;
+                bestRadius[sector] = radius;
+            }
+        }
+
+        // Sectores sin paradas (no deberían darse en la red real) se descartan
+        return Arrays.stream(best).filter(v -> v >= 0).toArray();
+    }
+
+    /**
+     * Dijkstra completo desde source por los arcos salientes, o por los entrantes
+     * si reverse (distancias hacia source)
+     */
+    private static double[] shortestDistances(AdjacencyIndex index, int source, boolean reverse) {
+        int n = index.size();
+        double[] dist = new double[n];
+        Arrays.fill(dist, Double.POSITIVE_INFINITY);
+        boolean[] settled = new boolean[n];
+        boolean[] queued = new boolean[n];
+        IndexedMinHeap heap = new IndexedMinHeap(n);
+
+        dist[source] = 0.0;
+        queued[source] = true;
+        heap.insert(source, 0.0);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            settled[current] = true;
+            int from = reverse ? index.firstInEdge(current) : index.firstEdge(current);
+            int to = reverse ? index.lastInEdge(current) : index.lastEdge(current);
+            for (int k = from; k < to; k++) {
+                int e = reverse ? index.inEdge(k) : k;
+                int next = reverse ? index.inSource(k) : index.target(e);
+                if (settled[next]) continue;
+                double candidate = dist[current] + index.weight(e);
+                if (!queued[next]) {
+                    queued[next] = true;
+                    dist[next] = candidate;
+                    heap.insert(next, candidate);
+                } else if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    heap.decreaseKey(next, candidate);
+                }
+            }
+        }
+        return dist;
+    }
+
+    /**
+     * Cota inferior (km) de la distancia de v a t según todos los landmarks
+     * (infinita si v no puede llegar a t)
+     */
+    double lowerBound(int v, int t) {
+        int k = landmarks.length;
+        int vBase = v * k;
+        int tBase = t * k;
+        double bound = 0.0;
+        for (int l = 0; l < k; l++) {
+            // Con distancias infinitas la resta da NaN o -inf y la comparación lo descarta
+            double forward = (double) fromLandmark[tBase + l] - fromLandmark[vBase + l];
+            if (forward > bound) bound = forward;
+            double backward = (double) toLandmark[vBase + l] - toLandmark[tBase + l];
+            if (backward > bound) bound = backward;
+        }
+        return bound > ROUNDING_SLACK_KM ? bound - ROUNDING_SLACK_KM : 0.0;
+    }
+
+    /**
+     * Número de landmarks
+     */
+    public int size() {
+        return landmarks.length;
+    }
+
+    /**
+     * Índice denso de la parada del landmark l
+     */
+    public int landmarkAt(int l) {
+        return landmarks[l];
+    }
+}
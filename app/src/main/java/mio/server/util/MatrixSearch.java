@@ -0,0 +1,249 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+
+/**
+ * Búsquedas de uno a muchos para las matrices de costos: una búsqueda completa
+ * desde cada origen (sin destino en el que detenerse) deja la ruta óptima a
+ * todas las paradas, y de ella solo se guardan km, arcos y transbordos. Los km
+ * son los recorridos (los tramos a pie cuentan lo caminado, no su costo):
+ *   HOPS      BFS sobre la capa colapsada, el mismo recorrido que findShortestRoute
+ *   DISTANCE  Dijkstra sobre la capa colapsada, el mismo que findShortestRouteByDistance
+ *   TRANSFERS Dijkstra sobre estados (parada, línea) con costo
+ *             penalización * transbordos + costo base, como TransferAwareSearch
+ *             (entre rutas de igual costo los km pueden ser los de otra ruta
+ *             empatada que la que devuelve findRoute)
+ *
+ * Con HOPS y DISTANCE el árbol solo fija los pares de paradas; los arcos de cada
+ * celda se eligen con PathFinder.chooseArcCandidates sobre la cadena de padres
+ * del destino, como al reconstruir la ruta, así que km y transbordos son los de
+ * findRoute. Con TRANSFERS los estados ya fijan la línea y los tres valores se
+ * propagan por el árbol a medida que se fija cada estado (a partir de los de su
+ * padre, que ya está fijado).
+ */
+final class MatrixSearch {
+
+    static final int NO_ROUTE = -1;
+
+    private MatrixSearch() {
+    }
+
+    /**
+     * Llena la fila del origen (índice denso) para los destinos dados (índices
+     * densos, -1 si no existen) a partir de la posición offset de los arreglos
+     */
+    static void fillRow(int origin, int[] targets, CostMode mode, CostMode tieBreak, double transferPenalty,
+            AdjacencyIndex index, double[] distances, int[] hops, int[] transfers, int offset) {
+
+        if (mode == CostMode.TRANSFERS) {
+            byStates(origin, targets, tieBreak, transferPenalty, index, distances, hops, transfers, offset);
+            return;
+        }
+
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        if (mode == CostMode.DISTANCE) {
+            byDistance(origin, index, ws);
+        } else {
+            byHops(origin, index, ws);
+        }
+
+        boolean byWeight = mode == CostMode.DISTANCE;
+        for (int j = 0; j < targets.length; j++) {
+            int t = targets[j];
+            if (t < 0 || !ws.isVisited(t)) {
+                distances[offset + j] = NO_ROUTE;
+                hops[offset + j] = NO_ROUTE;
+                transfers[offset + j] = NO_ROUTE;
+                continue;
+            }
+
+            int length = 0;
+            for (int v = t; v != origin; v = ws.parent[v]) {
+                length++;
+            }
+            double km = 0.0;
+            int numTransfers = 0;
+            if (length > 0) {
+                int[] pairs = ws.routePath(length);
+                for (int v = t, i = length - 1; i >= 0; v = ws.parent[v], i--) {
+                    pairs[i] = ws.parentEdge[v];
+                }
+                int chosen = PathFinder.chooseArcCandidates(index, ws, pairs, length, byWeight);
+                numTransfers = ws.arcTransfers[chosen];
+                // Se suma desde el destino, como en PathFinder.assembleRoute
+                for (int i = length - 1; i >= 0; i--) {
+                    km += index.distance(ws.arcCandidate[chosen]);
+                    chosen = ws.arcPrevious[chosen];
+                }
+            }
+            distances[offset + j] = km;
+            hops[offset + j] = length;
+            transfers[offset + j] = numTransfers;
+        }
+    }
+
+    /**
+     * BFS completa sobre la capa colapsada (parentEdge guarda el par)
+     */
+    private static void byHops(int origin, AdjacencyIndex index, SearchWorkspace ws) {
+        int[] queue = ws.queue;
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = origin;
+        ws.markVisited(origin);
+        ws.parent[origin] = -1;
+
+        while (head < tail) {
+            int current = queue[head++];
+            for (int p = index.firstPair(current); p < index.lastPair(current); p++) {
+                int next = index.pairTarget(p);
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = p;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        ws.settledCount = head;
+    }
+
+    /**
+     * Dijkstra completo sobre la capa colapsada (parentEdge guarda el par)
+     */
+    private static void byDistance(int origin, AdjacencyIndex index, SearchWorkspace ws) {
+        IndexedMinHeap heap = ws.heap;
+        double[] dist = ws.dist;
+
+        ws.markVisited(origin);
+        dist[origin] = 0.0;
+        ws.parent[origin] = -1;
+        heap.insert(origin, 0.0);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            ws.markSettled(current);
+
+            double base = dist[current];
+            for (int p = index.firstPair(current); p < index.lastPair(current); p++) {
+                int next = index.pairTarget(p);
+                if (ws.isSettled(next)) continue;
+
+                double candidate = base + index.pairWeight(p);
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    dist[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = p;
+                    heap.insert(next, candidate);
+                } else if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = p;
+                    heap.decreaseKey(next, candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * El primer estado que se fija en cada parada es el de menor costo: sus
+     * valores son los de la parada (misma poda que TransferAwareSearch). Usa
+     * ws.next como memoria auxiliar (el primer estado fijado de cada parada)
+     */
+    private static void byStates(int origin, int[] targets, CostMode tieBreak, double transferPenalty,
+            AdjacencyIndex index, double[] distances, int[] hops, int[] transfers, int offset) {
+
+        boolean byDistance = tieBreak == CostMode.DISTANCE;
+        double penalty = transferPenalty;
+        if (penalty <= 0) {
+            penalty = byDistance ? index.totalWeight() + 1.0 : index.stateCount() + 1.0;
+        }
+
+        // El estado numStates representa "en el origen, sin haber abordado"
+        int numStates = index.stateCount();
+        int start = numStates;
+        SearchWorkspace ws = SearchWorkspace.acquire(Math.max(index.size(), numStates + 1));
+        IndexedMinHeap heap = ws.heap;
+        double[] cost = ws.dist;
+        ws.reserveStateCosts(numStates + 1);
+        double[] stateKm = ws.stateKm;
+        int[] stateHops = ws.stateHops;
+        int[] stateTransfers = ws.stateTransfers;
+        int[] firstState = ws.next;
+
+        ws.markVisited(start);
+        cost[start] = 0.0;
+        stateKm[start] = 0.0;
+        stateHops[start] = 0;
+        stateTransfers[start] = 0;
+        ws.parent[start] = -1;
+        heap.insert(start, 0.0);
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            ws.markSettled(current);
+
+            int parent = ws.parent[current];
+            if (parent >= 0) {
+                int e = ws.parentEdge[current];
+                stateKm[current] = stateKm[parent] + index.distance(e);
+                stateHops[current] = stateHops[parent] + 1;
+                stateTransfers[current] = stateTransfers[parent] + (parent != start
+                    && index.stateLine(parent) != AdjacencyIndex.WALK_LINE
+                    && index.line(e) != index.stateLine(parent) ? 1 : 0);
+            }
+
+            int stop = current == start ? origin : index.stateStop(current);
+            int line = current == start ? -1 : index.stateLine(current);
+            boolean first = !ws.isBackwardVisited(stop); // marca: parada ya expandida
+            if (first) {
+                ws.markBackwardVisited(stop);
+                firstState[stop] = current;
+            }
+            boolean continueOnly = !first && line != AdjacencyIndex.WALK_LINE; // a pie se aborda cualquier línea
+
+            int from = continueOnly ? index.firstStateEdge(current) : index.firstEdge(stop);
+            int to = continueOnly ? index.lastStateEdge(current) : index.lastEdge(stop);
+            double base = cost[current];
+            for (int k = from; k < to; k++) {
+                int e = continueOnly ? index.stateEdge(k) : k;
+                int next = index.edgeState(e);
+                if (ws.isSettled(next)) continue;
+
+                double candidate = base + (byDistance ? index.weight(e) : 1.0);
+                if (line != -1 && index.line(e) != line) {
+                    candidate += penalty;
+                }
+
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    cost[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    heap.insert(next, candidate);
+                } else if (candidate < cost[next]) {
+                    cost[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    heap.decreaseKey(next, candidate);
+                }
+            }
+        }
+
+        for (int j = 0; j < targets.length; j++) {
+            int t = targets[j];
+            if (t < 0 || !ws.isBackwardVisited(t)) {
+                distances[offset + j] = NO_ROUTE;
+                hops[offset + j] = NO_ROUTE;
+                transfers[offset + j] = NO_ROUTE;
+            } else {
+                distances[offset + j] = stateKm[firstState[t]];
+                hops[offset + j] = stateHops[firstState[t]];
+                transfers[offset + j] = stateTransfers[firstState[t]];
+            }
+        }
+    }
+}
@@ -1,180 +1,903 @@
 package mio.server.util;
 
 import mioice.*;
-import java.util.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.PatternIndex;
+import mio.server.data.StationIndex;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
- * Utilidad para algoritmos de búsqueda de rutas (BFS)
+ * Utilidad para algoritmos de búsqueda de rutas (BFS, Dijkstra, A* y ALT, sus
+ * variantes bidireccionales y la jerarquía de contracción)
  * Extraída de GraphBuilder para eliminar duplicación de código
+ *
+ * Las búsquedas trabajan sobre índices densos de parada y usan el
+ * SearchWorkspace del hilo actual, por lo que solo se reserva memoria
+ * para el RouteResult final.
  */
 public class PathFinder {
 
+    private static final Stop[] NO_STOPS = new Stop[0];
+    private static final Arc[] NO_ARCS = new Arc[0];
+
     /**
-     * Encuentra la ruta más corta entre dos paradas usando BFS
+     * Celdas máximas de computeMatrix: 16 bytes por celda, así que la respuesta
+     * más grande (~128 MB) cabe en el Ice.MessageSizeMax de la configuración
      */
-    public static Map<String, Object> findShortestRoute(
-            int originStopId, 
-            int destStopId, 
-            Map<Integer, Stop> stopsMap, 
-            List<Arc> allArcs) {
-            
-        Map<String, Object> result = new HashMap<>();
+    public static final int MAX_MATRIX_CELLS = 8_000_000;
 
-        // Validar que las paradas existen
-        if (!stopsMap.containsKey(originStopId)) {
-            result.put("found", false);
-            result.put("message", "Parada de origen no encontrada: " + originStopId);
-            return result;
+    /**
+     * Encuentra la ruta óptima entre dos paradas según el criterio de costo
+     * HOPS: menor número de paradas (BFS), DISTANCE: menor distancia (A*)
+     */
+    public static RouteResult findRoute(
+            int originStopId,
+            int destStopId,
+            CostMode mode,
+            AdjacencyIndex index) {
+
+        return findRoute(originStopId, destStopId, mode, SearchAlgorithm.ASTAR, index);
+    }
+
+    /**
+     * Igual que findRoute, indicando el algoritmo para las consultas por distancia
+     */
+    public static RouteResult findRoute(
+            int originStopId,
+            int destStopId,
+            CostMode mode,
+            SearchAlgorithm algorithm,
+            AdjacencyIndex index) {
+
+        return findRoute(originStopId, destStopId, mode, algorithm, index, null, null, null);
+    }
+
+    /**
+     * Igual que findRoute, con las estructuras precalculadas que usan
+     * CONTRACTION_HIERARCHY (la jerarquía), ALT (las tablas de landmarks) y
+     * HOP_TABLE (la tabla de rutas); si la del algoritmo pedido es null, la
+     * consulta se resuelve con A* (por distancia) o BFS (por paradas)
+     */
+    public static RouteResult findRoute(
+            int originStopId,
+            int destStopId,
+            CostMode mode,
+            SearchAlgorithm algorithm,
+            AdjacencyIndex index,
+            ContractionHierarchy hierarchy,
+            LandmarkTable landmarks,
+            HopTable hopTable) {
+
+        if (algorithm == null || !algorithm.supports(mode)) {
+            algorithm = SearchAlgorithm.defaultFor(mode);
         }
 
-        if (!stopsMap.containsKey(destStopId)) {
-            result.put("found", false);
-            result.put("message", "Parada de destino no encontrada: " + destStopId);
-            return result;
+        switch (algorithm) {
+            case BIDIRECTIONAL_BFS:
+                return BidirectionalSearch.findShortestRoute(originStopId, destStopId, index);
+            case HOP_TABLE:
+                if (hopTable == null) {
+                    return findShortestRoute(originStopId, destStopId, index);
+                }
+                return findShortestRouteFromTable(originStopId, destStopId, index, hopTable);
+            case DIJKSTRA:
+                return findShortestRouteByDistance(originStopId, destStopId, index);
+            case ASTAR:
+                return findShortestRouteAStar(originStopId, destStopId, index);
+            case ALT:
+                return findShortestRouteALT(originStopId, destStopId, index, landmarks);
+            case BIDIRECTIONAL_DIJKSTRA:
+                return BidirectionalSearch.findShortestRouteByDistance(originStopId, destStopId, index);
+            case CONTRACTION_HIERARCHY:
+                if (hierarchy == null) {
+                    return findShortestRouteAStar(originStopId, destStopId, index);
+                }
+                return findShortestRouteWithHierarchy(originStopId, destStopId, index, hierarchy);
+            case LINE_AWARE:
+                return findRouteWithFewestTransfers(originStopId, destStopId, CostMode.HOPS, 0.0, index);
+            default:
+                return findShortestRoute(originStopId, destStopId, index);
         }
+    }
 
-        // Caso especial: origen = destino
-        if (originStopId == destStopId) {
-            result.put("found", true);
-            result.put("stops", new ArrayList<>(Arrays.asList(stopsMap.get(originStopId))));
-            result.put("arcs", new ArrayList<>());
-            result.put("totalDistance", 0.0);
-            result.put("numTransfers", 0);
-            result.put("message", "Origen y destino son la misma parada");
-            return result;
+    /**
+     * Encuentra la ruta con menos transbordos buscando sobre estados (parada, línea)
+     * @param tieBreak costo base: HOPS (arcos) o DISTANCE (km)
+     * @param transferPenalty costo de un transbordo en unidades del costo base;
+     *        si es <= 0 se minimizan primero los transbordos y luego el costo base
+     */
+    public static RouteResult findRouteWithFewestTransfers(
+            int originStopId,
+            int destStopId,
+            CostMode tieBreak,
+            double transferPenalty,
+            AdjacencyIndex index) {
+
+        return TransferAwareSearch.findRoute(originStopId, destStopId, tieBreak, transferPenalty, index);
+    }
+
+    /**
+     * Encuentra los viajes Pareto óptimos en (transbordos, distancia) con el
+     * enrutador por rondas sobre los patrones de parada (RAPTOR)
+     * @param maxTransfers máximo de transbordos considerados
+     * @return los viajes ordenados de menos a más transbordos (cada uno más corto
+     *         que el anterior), o un único RouteResult sin ruta
+     */
+    public static RouteResult[] findJourneys(
+            int originStopId,
+            int destStopId,
+            int maxTransfers,
+            AdjacencyIndex index,
+            PatternIndex patterns) {
+
+        return RaptorSearch.findJourneys(originStopId, destStopId, maxTransfers, index, patterns);
+    }
+
+    /**
+     * Encuentra hasta k rutas alternativas sin ciclos, de menor a mayor distancia
+     * (km), con el algoritmo de Yen; las búsquedas de los desvíos de cada ruta se
+     * reparten entre los hilos del pool
+     * @param landmarks cotas ALT para los A* de los desvíos (null: solo línea recta)
+     * @return las rutas ordenadas por distancia (la primera es la más corta), o un
+     *         único RouteResult sin ruta
+     */
+    public static RouteResult[] findAlternativeRoutes(
+            int originStopId,
+            int destStopId,
+            int k,
+            AdjacencyIndex index,
+            LandmarkTable landmarks,
+            ForkJoinPool pool) {
+
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return new RouteResult[] { trivial };
+        }
+
+        RouteResult[] routes = YenSearch.findAlternatives(origin, dest, Math.max(1, k), index, landmarks, pool);
+        if (routes.length == 0) {
+            return new RouteResult[] {
+                notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId)
+            };
+        }
+        return routes;
+    }
+
+    /**
+     * Encuentra la ruta buscando en el grafo de estaciones (más pequeño) y la
+     * expande a andenes: los cambios de andén dentro de una estación son arcos a pie
+     */
+    public static RouteResult findStationRoute(
+            int originStopId,
+            int destStopId,
+            CostMode mode,
+            CostMode transferTieBreak,
+            double transferPenalty,
+            StationIndex stations) {
+
+        return StationSearch.findRoute(originStopId, destStopId, mode, transferTieBreak, transferPenalty, stations);
+    }
+
+    /**
+     * Encuentra un viaje entre dos coordenadas con caminata de acceso y de egreso:
+     * un solo Dijkstra por km desde todas las paradas a maxWalkMeters o menos del
+     * origen hacia todas las cercanas al destino
+     * @param walkFactor costo de un km a pie en km de bus
+     */
+    public static CoordinateRoute findRouteByCoordinates(
+            double originLat,
+            double originLon,
+            double destLat,
+            double destLon,
+            double maxWalkMeters,
+            double walkFactor,
+            AdjacencyIndex index,
+            StopGrid grid) {
+
+        return CoordinateSearch.findRoute(originLat, originLon, destLat, destLon, maxWalkMeters, walkFactor,
+            index, grid);
+    }
+
+    /**
+     * Valida las coordenadas de un viaje antes de buscarlo (finitas, latitud en
+     * ±90 y longitud en ±180)
+     * @return CoordinateRoute sin ruta si alguna es inválida, o null si todas sirven
+     */
+    public static CoordinateRoute checkCoordinates(double originLat, double originLon, double destLat,
+            double destLon) {
+        return CoordinateSearch.checkCoordinates(originLat, originLon, destLat, destLon);
+    }
+
+    /**
+     * Paradas expandidas por la última búsqueda ejecutada en el hilo actual
+     * (métrica para comparar algoritmos)
+     */
+    public static int lastSettledCount() {
+        return SearchWorkspace.lastSettledCount();
+    }
+
+    /**
+     * Encuentra la ruta más corta (en número de paradas) entre dos paradas usando BFS
+     */
+    public static RouteResult findShortestRoute(
+            int originStopId,
+            int destStopId,
+            AdjacencyIndex index) {
+
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return trivial;
         }
 
         // BFS para encontrar el camino más corto
-        Queue<Integer> queue = new LinkedList<>();
-        Map<Integer, Integer> parent = new HashMap<>(); // Para reconstruir el camino
-        Map<Integer, Arc> arcToParent = new HashMap<>(); // Arco usado para llegar a cada nodo
-        Set<Integer> visited = new HashSet<>();
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        int[] queue = ws.queue;
+        int head = 0;
+        int tail = 0;
 
-        queue.add(originStopId);
-        visited.add(originStopId);
-        parent.put(originStopId, null);
+        queue[tail++] = origin;
+        ws.markVisited(origin);
+        ws.parent[origin] = -1;
 
         boolean found = false;
 
-        // BFS
-        while (!queue.isEmpty() && !found) {
-            int currentStopId = queue.poll();
-
-            // Buscar todos los arcos que salen de esta parada
-            // NOTA: Esto podría optimizarse con un mapa de adyacencia precalculado
-            for (Arc arc : allArcs) {
-                if (arc.fromStop.stopId == currentStopId) {
-                    int nextStopId = arc.toStop.stopId;
-
-                    if (!visited.contains(nextStopId)) {
-                        visited.add(nextStopId);
-                        parent.put(nextStopId, currentStopId);
-                        arcToParent.put(nextStopId, arc);
-                        queue.add(nextStopId);
-
-                        // ¿Llegamos al destino?
-                        if (nextStopId == destStopId) {
-                            found = true;
-                            break;
-                        }
+        while (head < tail && !found) {
+            int current = queue[head++];
+
+            // Un solo paso por destino distinto (capa colapsada); parentEdge guarda el par
+            for (int p = index.firstPair(current); p < index.lastPair(current); p++) {
+                int next = index.pairTarget(p);
+
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = p;
+                    queue[tail++] = next;
+
+                    // ¿Llegamos al destino?
+                    if (next == dest) {
+                        found = true;
+                        break;
                     }
                 }
             }
         }
 
-        // Construir resultado
+        ws.settledCount = head;
+
         if (!found) {
-            result.put("found", false);
-            result.put("message", "No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
-            result.put("stops", new ArrayList<>());
-            result.put("arcs", new ArrayList<>());
-            result.put("totalDistance", 0.0);
-            result.put("numTransfers", 0);
-            return result;
-        }
-
-        // Reconstruir el camino desde destino hasta origen
-        List<Integer> pathStopIds = new ArrayList<>();
-        List<Arc> pathArcs = new ArrayList<>();
-        int current = destStopId;
-
-        while (current != originStopId) {
-            pathStopIds.add(0, current);
-            Arc arc = arcToParent.get(current);
-            if (arc != null) {
-                pathArcs.add(0, arc);
-            }
-            current = parent.get(current);
+            return notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+        }
+
+        return buildPairRoute(index, ws, origin, dest, false);
+    }
+
+    /**
+     * Encuentra la ruta más corta (por paradas o por distancia) reconstruyéndola
+     * desde el árbol de caminos del origen, que se calcula solo la primera vez
+     */
+    public static RouteResult findShortestRouteFromTree(
+            int originStopId,
+            int destStopId,
+            CostMode mode,
+            AdjacencyIndex index,
+            ShortestPathTreeCache trees) {
+
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return trivial;
         }
-        pathStopIds.add(0, originStopId);
 
-        // Convertir IDs a objetos Stop
-        List<Stop> pathStops = new ArrayList<>();
-        for (int stopId : pathStopIds) {
-            pathStops.add(stopsMap.get(stopId));
+        int[] tree = trees.tree(origin, mode);
+        if (tree[dest] < 0) {
+            return notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
         }
 
-        // Calcular distancia total
-        double totalDistance = 0.0;
-        for (Arc arc : pathArcs) {
-            totalDistance += arc.distance;
+        int length = 0;
+        for (int v = dest; v != origin; v = trees.source(tree[v])) {
+            length++;
         }
 
-        // Contar transbordos (cambios de línea)
-        int numTransfers = 0;
-        for (int i = 1; i < pathArcs.size(); i++) {
-            if (pathArcs.get(i).lineId != pathArcs.get(i - 1).lineId) {
-                numTransfers++;
+        // Leer los arcos desde el destino hacia el origen
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        Stop[] stops = new Stop[length + 1];
+        int[] pairs = ws.routePath(length);
+        int v = dest;
+        for (int i = length - 1; i >= 0; i--) {
+            pairs[i] = index.edgePair(tree[v]);
+            stops[i + 1] = index.stopAt(v);
+            v = trees.source(tree[v]);
+        }
+        stops[0] = index.stopAt(origin);
+
+        return assembleRoute(stops, chooseArcs(index, ws, pairs, length, mode == CostMode.DISTANCE));
+    }
+
+    /**
+     * Encuentra la ruta más corta (en número de paradas) leyendo la tabla de rutas
+     * precalculada, sin buscar: la misma ruta que findShortestRoute
+     */
+    public static RouteResult findShortestRouteFromTable(
+            int originStopId,
+            int destStopId,
+            AdjacencyIndex index,
+            HopTable hopTable) {
+
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return trivial;
+        }
+
+        int length = hopTable.hopDistance(origin, dest);
+        if (length < 0) {
+            return notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+        }
+
+        // Leer los arcos desde el destino hacia el origen
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        Stop[] stops = new Stop[length + 1];
+        int[] pairs = ws.routePath(length);
+        int v = dest;
+        for (int i = length - 1; i >= 0; i--) {
+            int e = hopTable.lastEdge(origin, v);
+            pairs[i] = index.edgePair(e);
+            stops[i + 1] = index.stopAt(v);
+            v = hopTable.source(e);
+        }
+        stops[0] = index.stopAt(origin);
+
+        return assembleRoute(stops, chooseArcs(index, ws, pairs, length, false));
+    }
+
+    /**
+     * Encuentra la ruta de menor distancia (km) entre dos paradas usando Dijkstra
+     * con un montículo binario indexado. Termina en cuanto se fija el destino.
+     */
+    public static RouteResult findShortestRouteByDistance(
+            int originStopId,
+            int destStopId,
+            AdjacencyIndex index) {
+
+        return weightedSearch(originStopId, destStopId, index, false, null);
+    }
+
+    /**
+     * Encuentra la ruta de menor distancia (km) entre dos paradas usando A*.
+     * La heurística es la distancia en línea recta al destino: como cada arco mide
+     * la distancia Haversine entre sus paradas, nunca sobreestima el costo restante
+     * y el resultado es el mismo de Dijkstra expandiendo muchas menos paradas.
+     */
+    public static RouteResult findShortestRouteAStar(
+            int originStopId,
+            int destStopId,
+            AdjacencyIndex index) {
+
+        return weightedSearch(originStopId, destStopId, index, true, null);
+    }
+
+    /**
+     * Encuentra la ruta de menor distancia (km) entre dos paradas usando A* con
+     * las cotas de los landmarks (ALT): la heurística de cada parada es la mayor
+     * entre la distancia en línea recta y las cotas por desigualdad triangular
+     * (sin landmarks es el A* normal)
+     */
+    public static RouteResult findShortestRouteALT(
+            int originStopId,
+            int destStopId,
+            AdjacencyIndex index,
+            LandmarkTable landmarks) {
+
+        return weightedSearch(originStopId, destStopId, index, true, landmarks);
+    }
+
+    /**
+     * Encuentra la ruta de menor distancia (km) entre dos paradas sobre la
+     * jerarquía de contracción: la misma distancia que Dijkstra, expandiendo solo
+     * las paradas de rango creciente desde cada extremo. Los atajos se desempacan,
+     * así que la ruta lista los arcos reales
+     */
+    public static RouteResult findShortestRouteWithHierarchy(
+            int originStopId,
+            int destStopId,
+            AdjacencyIndex index,
+            ContractionHierarchy hierarchy) {
+
+        return HierarchySearch.findRoute(originStopId, destStopId, index, hierarchy);
+    }
+
+    /**
+     * Búsqueda ponderada por distancia. Con useHeuristic = false es Dijkstra;
+     * con true, la prioridad de cada parada es dist + estimado al destino (A*),
+     * usando además las cotas de los landmarks si se indican
+     */
+    private static RouteResult weightedSearch(
+            int originStopId,
+            int destStopId,
+            AdjacencyIndex index,
+            boolean useHeuristic,
+            LandmarkTable landmarks) {
+
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return trivial;
+        }
+
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        IndexedMinHeap heap = ws.heap;
+        double[] dist = ws.dist;
+        double[] estimate = ws.estimate;
+
+        ws.markVisited(origin);
+        dist[origin] = 0.0;
+        estimate[origin] = useHeuristic ? lowerBound(index, landmarks, origin, dest) : 0.0;
+        ws.parent[origin] = -1;
+        heap.insert(origin, estimate[origin]);
+
+        boolean found = false;
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            ws.markSettled(current);
+
+            // Salida temprana: la distancia del destino ya es definitiva
+            if (current == dest) {
+                found = true;
+                break;
+            }
+
+            double base = dist[current];
+            for (int p = index.firstPair(current); p < index.lastPair(current); p++) {
+                int next = index.pairTarget(p);
+                if (ws.isSettled(next)) continue;
+
+                double candidate = base + index.pairWeight(p);
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    dist[next] = candidate;
+                    // La heurística se calcula una sola vez por parada descubierta
+                    estimate[next] = useHeuristic ? lowerBound(index, landmarks, next, dest) : 0.0;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = p;
+                    heap.insert(next, candidate + estimate[next]);
+                } else if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = p;
+                    heap.decreaseKey(next, candidate + estimate[next]);
+                }
             }
         }
 
-        result.put("found", true);
-        result.put("stops", pathStops);
-        result.put("arcs", pathArcs);
-        result.put("totalDistance", totalDistance);
-        result.put("numTransfers", numTransfers);
-        result.put("message", String.format("Ruta encontrada: %d paradas, %.2f km, %d transbordos",
-                pathStops.size(), totalDistance, numTransfers));
+        if (!found) {
+            return notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+        }
+
+        return buildPairRoute(index, ws, origin, dest, true);
+    }
 
-        return result;
+    /**
+     * Cota inferior de la distancia de v al destino: línea recta, o la mayor entre
+     * esa y la de los landmarks (el máximo de dos cotas consistentes lo es también)
+     */
+    static double lowerBound(AdjacencyIndex index, LandmarkTable landmarks, int v, int dest) {
+        double straight = index.straightLineDistance(v, dest);
+        return landmarks == null ? straight : Math.max(straight, landmarks.lowerBound(v, dest));
     }
 
     /**
      * Encuentra todas las paradas alcanzables desde una parada de origen
+     * @return IDs de las paradas alcanzables (incluye el origen), vacío si no existe
      */
-    public static Set<Integer> findReachableStops(
-            int originStopId, 
-            Map<Integer, Stop> stopsMap, 
-            List<Arc> allArcs) {
-            
-        Set<Integer> reachable = new HashSet<>();
+    public static int[] findReachableStops(
+            int originStopId,
+            AdjacencyIndex index) {
+
+        int origin = index.indexOf(originStopId);
 
         // Validar que la parada existe
-        if (!stopsMap.containsKey(originStopId)) {
-            return reachable; // Retornar conjunto vacío
+        if (origin < 0) {
+            return new int[0];
         }
 
         // BFS para explorar todas las paradas alcanzables
-        Queue<Integer> queue = new LinkedList<>();
-        queue.add(originStopId);
-        reachable.add(originStopId);
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        int[] queue = ws.queue;
+        int head = 0;
+        int tail = 0;
 
-        while (!queue.isEmpty()) {
-            int currentStopId = queue.poll();
+        queue[tail++] = origin;
+        ws.markVisited(origin);
 
-            // Buscar todos los arcos que salen de esta parada
-            for (Arc arc : allArcs) {
-                if (arc.fromStop.stopId == currentStopId) {
-                    int nextStopId = arc.toStop.stopId;
+        while (head < tail) {
+            int current = queue[head++];
 
-                    if (!reachable.contains(nextStopId)) {
-                        reachable.add(nextStopId);
-                        queue.add(nextStopId);
-                    }
+            for (int p = index.firstPair(current); p < index.lastPair(current); p++) {
+                int next = index.pairTarget(p);
+
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    queue[tail++] = next;
                 }
             }
         }
 
+        // La cola contiene exactamente las paradas visitadas
+        int[] reachable = new int[tail];
+        for (int i = 0; i < tail; i++) {
+            reachable[i] = index.stopIdAt(queue[i]);
+        }
         return reachable;
     }
+
+    /**
+     * Encuentra las paradas alcanzables desde una parada de origen sin superar un
+     * presupuesto de costo (km, arcos o transbordos según mode)
+     * @param withHull si se calcula el polígono convexo de las paradas alcanzadas
+     * @return paradas y costos ordenados por costo, vacío si el origen no existe
+     */
+    public static Isochrone findIsochrone(
+            int originStopId,
+            CostMode mode,
+            double budget,
+            boolean withHull,
+            AdjacencyIndex index) {
+
+        int origin = index.indexOf(originStopId);
+
+        // Validar que la parada existe y que el presupuesto alcanza al menos el origen
+        if (origin < 0 || !(budget >= 0)) {
+            return new Isochrone(new int[0], new double[0], new double[0], new double[0]);
+        }
+
+        return IsochroneSearch.search(origin, mode, budget, withHull, index);
+    }
+
+    /**
+     * Calcula la matriz de costos (km, arcos y transbordos de la ruta óptima según
+     * mode) entre dos conjuntos de paradas, con una búsqueda de uno a muchos por
+     * origen repartidas entre los hilos del pool
+     * @param tieBreak, transferPenalty configuración de CostMode.TRANSFERS
+     */
+    public static RouteMatrix computeMatrix(
+            int[] sourceStopIds,
+            int[] targetStopIds,
+            CostMode mode,
+            CostMode tieBreak,
+            double transferPenalty,
+            AdjacencyIndex index,
+            ForkJoinPool pool) {
+
+        int rows = sourceStopIds.length;
+        int cols = targetStopIds.length;
+        int cells = checkMatrixSize(rows, cols);
+        int[] targets = new int[cols];
+        for (int j = 0; j < cols; j++) {
+            targets[j] = index.indexOf(targetStopIds[j]);
+        }
+
+        // Con cells <= MAX_MATRIX_CELLS los desplazamientos i * cols caben en int
+        double[] distances = new double[cells];
+        int[] hops = new int[cells];
+        int[] transfers = new int[cells];
+        pool.submit(() -> IntStream.range(0, rows).parallel().forEach(i -> {
+            int origin = index.indexOf(sourceStopIds[i]);
+            if (origin < 0) {
+                Arrays.fill(distances, i * cols, (i + 1) * cols, MatrixSearch.NO_ROUTE);
+                Arrays.fill(hops, i * cols, (i + 1) * cols, MatrixSearch.NO_ROUTE);
+                Arrays.fill(transfers, i * cols, (i + 1) * cols, MatrixSearch.NO_ROUTE);
+                return;
+            }
+            MatrixSearch.fillRow(origin, targets, mode, tieBreak, transferPenalty, index,
+                distances, hops, transfers, i * cols);
+        })).join();
+
+        return new RouteMatrix(rows, cols, distances, hops, transfers);
+    }
+
+    /**
+     * Valida el tamaño de una matriz de costos antes de reservarla o repartirla
+     * @return número de celdas (rows * cols)
+     * @throws IllegalArgumentException si supera MAX_MATRIX_CELLS
+     */
+    public static int checkMatrixSize(int rows, int cols) {
+        long cells = (long) rows * cols;
+        if (cells > MAX_MATRIX_CELLS) {
+            throw new IllegalArgumentException(String.format(
+                "La matriz de %d x %d paradas (%d celdas) supera el máximo de %d celdas; divídala en bloques de orígenes",
+                rows, cols, cells, MAX_MATRIX_CELLS));
+        }
+        return (int) cells;
+    }
+
+    /**
+     * Descarta sin buscar un par de paradas sin camino según el cierre de
+     * alcanzabilidad
+     * @return RouteResult sin ruta si no hay camino, o null si lo hay (o si alguna
+     *         parada no existe: eso lo informa la búsqueda)
+     */
+    public static RouteResult checkReachable(
+            int originStopId,
+            int destStopId,
+            AdjacencyIndex index,
+            ReachabilityIndex reachability) {
+
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+        if (origin < 0 || dest < 0 || reachability.reaches(origin, dest)) {
+            return null;
+        }
+        return notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+    }
+
+    /**
+     * Reconstruye el camino desde el destino hasta el origen siguiendo los
+     * padres del espacio de trabajo (parentEdge guarda arcos del índice) y llena
+     * el RouteResult con buildEdgeRoute
+     */
+    static RouteResult buildRoute(AdjacencyIndex index, SearchWorkspace ws, int origin, int dest, boolean byWeight) {
+        // Longitud del camino (número de arcos)
+        int length = 0;
+        for (int v = dest; v != origin; v = ws.parent[v]) {
+            length++;
+        }
+
+        int[] path = ws.routePath(length);
+        for (int v = dest, i = length - 1; i >= 0; v = ws.parent[v], i--) {
+            path[i] = ws.parentEdge[v];
+        }
+
+        return buildEdgeRoute(index, ws, origin, path, length, byWeight);
+    }
+
+    /**
+     * Reconstruye el camino de una búsqueda sobre la capa colapsada, en la que
+     * parentEdge guarda el par (origen, destino) de cada paso. Los arcos concretos
+     * se eligen con chooseArcs; con byWeight solo entre los de menor costo del par
+     */
+    static RouteResult buildPairRoute(AdjacencyIndex index, SearchWorkspace ws, int origin, int dest,
+            boolean byWeight) {
+        int length = 0;
+        for (int v = dest; v != origin; v = ws.parent[v]) {
+            length++;
+        }
+
+        Stop[] stops = new Stop[length + 1];
+        int[] pairs = ws.routePath(length);
+        int v = dest;
+        for (int i = length - 1; i >= 0; i--) {
+            pairs[i] = ws.parentEdge[v];
+            stops[i + 1] = index.stopAt(v);
+            v = ws.parent[v];
+        }
+        stops[0] = index.stopAt(origin);
+
+        return assembleRoute(stops, chooseArcs(index, ws, pairs, length, byWeight));
+    }
+
+    /**
+     * Elige un arco de cada par del camino minimizando los transbordos (el costo
+     * de la ruta no cambia: todos los candidatos de un par cuestan lo mismo). Es
+     * una programación dinámica sobre los candidatos de cada tramo; ante empates
+     * prefiere los primeros arcos de cada lista. Los pares son pairs[0..length);
+     * las tablas de la programación dinámica son las del espacio de trabajo
+     */
+    static Arc[] chooseArcs(AdjacencyIndex index, SearchWorkspace ws, int[] pairs, int length, boolean byWeight) {
+        Arc[] arcs = new Arc[length];
+        if (length == 0) {
+            return arcs;
+        }
+
+        int chosen = chooseArcCandidates(index, ws, pairs, length, byWeight);
+        for (int i = length - 1; i >= 0; i--) {
+            arcs[i] = index.arc(ws.arcCandidate[chosen]);
+            chosen = ws.arcPrevious[chosen];
+        }
+        return arcs;
+    }
+
+    /**
+     * Programación dinámica de chooseArcs (length > 0): deja los candidatos en el
+     * espacio de trabajo y retorna el elegido en el último tramo; los anteriores
+     * se leen hacia atrás con ws.arcPrevious y ws.arcTransfers del elegido son
+     * los transbordos de la ruta
+     */
+    static int chooseArcCandidates(AdjacencyIndex index, SearchWorkspace ws, int[] pairs, int length,
+            boolean byWeight) {
+        // Candidatos de cada tramo, contiguos: [start[i], start[i + 1])
+        int total = 0;
+        for (int i = 0; i < length; i++) {
+            total += index.lastParallelEdge(pairs[i]) - index.firstParallelEdge(pairs[i]);
+        }
+        ws.reserveArcCandidates(length, total);
+        int[] start = ws.arcStart;
+        int[] candidate = ws.arcCandidate;
+        int[] transfers = ws.arcTransfers;
+        int[] previous = ws.arcPrevious;
+        start[0] = 0;
+        for (int i = 0; i < length; i++) {
+            start[i + 1] = start[i] + index.lastParallelEdge(pairs[i]) - index.firstParallelEdge(pairs[i]);
+        }
+        for (int i = 0; i < length; i++) {
+            int pair = pairs[i];
+            int c = start[i];
+            for (int k = index.firstParallelEdge(pair); k < index.lastParallelEdge(pair); k++, c++) {
+                int e = index.parallelEdge(k);
+                // Con byWeight solo sirven los arcos de menor costo (los demás quedan en -1)
+                candidate[c] = byWeight && index.weight(e) != index.pairWeight(pair) ? -1 : e;
+                transfers[c] = 0;
+                if (candidate[c] < 0 || i == 0) continue;
+
+                transfers[c] = Integer.MAX_VALUE;
+                for (int b = start[i - 1]; b < start[i]; b++) {
+                    if (candidate[b] < 0) continue;
+                    int line = index.line(candidate[b]);
+                    int cost = transfers[b] + (line != AdjacencyIndex.WALK_LINE && line != index.line(e) ? 1 : 0);
+                    if (cost < transfers[c]) {
+                        transfers[c] = cost;
+                        previous[c] = b;
+                    }
+                }
+            }
+        }
+
+        int chosen = -1;
+        for (int c = start[length - 1]; c < start[length]; c++) {
+            if (candidate[c] >= 0 && (chosen < 0 || transfers[c] < transfers[chosen])) {
+                chosen = c;
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Reconstruye el camino de una búsqueda bidireccional que se encontró en el
+     * arco meetEdge (meetFrom -> meetTo): la mitad inicial sigue los padres de la
+     * búsqueda directa y la final los sucesores de la búsqueda inversa
+     */
+    static RouteResult buildRoute(AdjacencyIndex index, SearchWorkspace ws, int origin, int dest,
+            int meetFrom, int meetEdge, int meetTo, boolean byWeight) {
+        int forwardLength = 0;
+        for (int v = meetFrom; v != origin; v = ws.parent[v]) {
+            forwardLength++;
+        }
+        int backwardLength = 0;
+        for (int v = meetTo; v != dest; v = ws.next[v]) {
+            backwardLength++;
+        }
+
+        int length = forwardLength + 1 + backwardLength;
+        int[] path = ws.routePath(length);
+        for (int v = meetFrom, i = forwardLength - 1; i >= 0; v = ws.parent[v], i--) {
+            path[i] = ws.parentEdge[v];
+        }
+        path[forwardLength] = meetEdge;
+        for (int v = meetTo, i = forwardLength + 1; v != dest; v = ws.next[v], i++) {
+            path[i] = ws.nextEdge[v];
+        }
+
+        return buildEdgeRoute(index, ws, origin, path, length, byWeight);
+    }
+
+    /**
+     * Arma la ruta de un camino dado como arcos del índice, path[0..length) desde
+     * origin. Primero se recortan los ciclos: las paradas con las mismas
+     * coordenadas se unen con arcos de 0 km (de bus o a pie), así que un camino
+     * mínimo puede pasar dos veces por una parada sin costo extra; se quita el
+     * tramo entre las dos visitas (la distancia no cambia). Después los arcos
+     * concretos se eligen de nuevo con chooseArcs entre los paralelos de cada
+     * par, como en las búsquedas sobre la capa colapsada, así que la ruta no
+     * depende de cuál de ellos recorrió la búsqueda. Usa ws.parent como memoria
+     * auxiliar (la posición de cada parada en el camino, o -1) y path queda
+     * sobrescrito
+     */
+    static RouteResult buildEdgeRoute(AdjacencyIndex index, SearchWorkspace ws, int origin, int[] path, int length,
+            boolean byWeight) {
+        int[] position = ws.parent;
+        position[origin] = -1;
+        for (int k = 0; k < length; k++) {
+            position[index.target(path[k])] = -1;
+        }
+
+        position[origin] = 0;
+        int kept = 0;
+        for (int k = 0; k < length; k++) {
+            int v = index.target(path[k]);
+            if (position[v] >= 0) {
+                // Volver a la primera visita de v, olvidando las paradas intermedias
+                for (int j = position[v]; j < kept; j++) {
+                    position[index.target(path[j])] = -1;
+                }
+                kept = position[v];
+            } else {
+                path[kept++] = path[k];
+                position[v] = kept;
+            }
+        }
+
+        // Los arcos se reemplazan por sus pares en el mismo arreglo
+        Stop[] stops = new Stop[kept + 1];
+        stops[0] = index.stopAt(origin);
+        for (int k = 0; k < kept; k++) {
+            stops[k + 1] = index.stopAt(index.target(path[k]));
+            path[k] = index.edgePair(path[k]);
+        }
+
+        return assembleRoute(stops, chooseArcs(index, ws, path, kept, byWeight));
+    }
+
+    /**
+     * Calcula distancia total y transbordos de un camino y arma el RouteResult
+     */
+    static RouteResult assembleRoute(Stop[] stops, Arc[] arcs) {
+        // Se suma desde el destino, en el mismo orden en que se reconstruye el camino
+        double totalDistance = 0.0;
+        for (int i = arcs.length - 1; i >= 0; i--) {
+            totalDistance += arcs[i].distance;
+        }
+
+        int numTransfers = countTransfers(arcs);
+
+        return new RouteResult(true, stops, arcs, totalDistance, numTransfers,
+                String.format("Ruta encontrada: %d paradas, %.2f km, %d transbordos",
+                        stops.length, totalDistance, numTransfers));
+    }
+
+    /**
+     * Cuenta los transbordos (cambios de línea) a lo largo de un camino: bajarse
+     * a caminar es un transbordo, abordar después de caminar no suma otro
+     */
+    static int countTransfers(Arc[] arcs) {
+        int numTransfers = 0;
+        for (int i = 1; i < arcs.length; i++) {
+            if (arcs[i - 1].lineId != AdjacencyIndex.WALK_LINE && arcs[i].lineId != arcs[i - 1].lineId) {
+                numTransfers++;
+            }
+        }
+        return numTransfers;
+    }
+
+    /**
+     * Valida los extremos de la consulta. Retorna el resultado final cuando no hace
+     * falta buscar (parada inexistente u origen = destino), o null en otro caso
+     */
+    static RouteResult checkEndpoints(int originStopId, int destStopId, int origin, int dest, AdjacencyIndex index) {
+        // Validar que las paradas existen
+        if (origin < 0) {
+            return notFound("Parada de origen no encontrada: " + originStopId);
+        }
+
+        if (dest < 0) {
+            return notFound("Parada de destino no encontrada: " + destStopId);
+        }
+
+        // Caso especial: origen = destino
+        if (origin == dest) {
+            return new RouteResult(true, new Stop[] { index.stopAt(origin) }, NO_ARCS, 0.0, 0,
+                    "Origen y destino son la misma parada");
+        }
+
+        return null;
+    }
+
+    static RouteResult notFound(String message) {
+        return new RouteResult(false, NO_STOPS, NO_ARCS, 0.0, 0, message);
+    }
 }
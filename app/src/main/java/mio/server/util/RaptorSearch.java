@@ -0,0 +1,389 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.PatternIndex;
+
+import java.util.*;
+
+/**
+ * Enrutador por rondas al estilo RAPTOR sobre los patrones de parada de la red
+ *
+ * La ronda k calcula, para cada parada, la menor distancia (km) con la que se
+ * llega usando a lo sumo k líneas (k - 1 transbordos). En cada ronda solo se
+ * recorren las líneas que pasan por alguna parada mejorada en la ronda anterior:
+ * se "aborda" en cualquier parada de la línea con la etiqueta de la ronda
+ * anterior y se avanza por sus patrones sumando las distancias de los tramos.
+ * Cada mejora de la etiqueta del destino en una ronda es un viaje Pareto óptimo
+ * en (transbordos, distancia).
+ *
+ * Como en el resto del sistema, un transbordo es un cambio de lineId: pasar de
+ * una variante u orientación a otra de la misma línea no cuenta. Por eso los
+ * patrones de una línea se recorren juntos, repitiendo el barrido mientras
+ * mejore alguna parada compartida entre patrones (normalmente una o dos veces).
+ *
+ * No hay montículo ni cola de prioridad: cada ronda es un barrido secuencial de
+ * los arreglos planos de PatternIndex.
+ */
+final class RaptorSearch {
+
+    private static final double INFINITY = Double.POSITIVE_INFINITY;
+
+    private RaptorSearch() {
+    }
+
+    static RouteResult[] findJourneys(
+            int originStopId,
+            int destStopId,
+            int maxTransfers,
+            AdjacencyIndex index,
+            PatternIndex patterns) {
+
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = PathFinder.checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return new RouteResult[] { trivial };
+        }
+
+        int n = index.size();
+        int maxRounds = maxTransfers + 1;
+        Workspace ws = Workspace.acquire(maxRounds, n, patterns);
+        double[] label = ws.label;
+        double[] best = ws.best;
+        double[] local = ws.local;
+
+        // Ronda 0: solo el origen tiene etiqueta
+        Arrays.fill(best, INFINITY);
+        Arrays.fill(label, 0, n, INFINITY);
+        label[origin] = 0.0;
+        best[origin] = 0.0;
+        ws.entryCount = 0;
+        ws.mark(origin);
+
+        int rounds = 0;
+        for (int k = 1; k <= maxRounds; k++) {
+            // Patrones que pasan por paradas mejoradas en la ronda anterior, desde la
+            // primera posición marcada, y sus líneas
+            int numLines = 0;
+            int numBoardable = ws.markedCount;
+            for (int m = 0; m < numBoardable; m++) {
+                int v = ws.marked[m];
+                ws.isMarked[v] = false;
+                ws.boardable[v] = true;
+                ws.boardableStops[m] = v;
+                for (int r = patterns.firstStopPosition(v); r < patterns.lastStopPosition(v); r++) {
+                    int position = patterns.stopPosition(r);
+                    int p = patterns.patternAt(position);
+                    if (ws.earliest[p] < 0) {
+                        ws.earliest[p] = position;
+                        ws.latest[p] = position;
+                        int l = patterns.lineOf(p);
+                        if (!ws.lineQueued[l]) {
+                            ws.lineQueued[l] = true;
+                            ws.lineQueue[numLines++] = l;
+                        }
+                    } else if (position < ws.earliest[p]) {
+                        ws.earliest[p] = position;
+                    } else if (position > ws.latest[p]) {
+                        ws.latest[p] = position;
+                    }
+                }
+            }
+            ws.markedCount = 0;
+            if (numLines == 0) {
+                break;
+            }
+
+            int previous = (k - 1) * n;
+            int currentRound = k * n;
+            System.arraycopy(label, previous, label, currentRound, n);
+            Arrays.fill(ws.ride, currentRound, currentRound + n, -1);
+            rounds = k;
+
+            for (int q = 0; q < numLines; q++) {
+                int l = ws.lineQueue[q];
+                ws.lineQueued[l] = false;
+                scanLine(ws, patterns, l, previous, dest);
+
+                // Fijar en la ronda actual las paradas a las que se llegó viajando en la línea
+                for (int t = 0; t < ws.touchedCount; t++) {
+                    int stop = ws.touched[t];
+                    if (local[stop] < best[stop] && local[stop] < best[dest]) {
+                        label[currentRound + stop] = local[stop];
+                        best[stop] = local[stop];
+                        ws.ride[currentRound + stop] = entryFor(ws, patterns, stop);
+                        ws.mark(stop);
+                    }
+                }
+            }
+
+            for (int m = 0; m < numBoardable; m++) {
+                ws.boardable[ws.boardableStops[m]] = false;
+            }
+        }
+        ws.clearMarks();
+
+        List<RouteResult> journeys = new ArrayList<>();
+        for (int k = 1; k <= rounds; k++) {
+            if (ws.ride[k * n + dest] >= 0) {
+                journeys.add(buildJourney(index, patterns, ws, n, origin, dest, k));
+            }
+        }
+
+        if (journeys.isEmpty()) {
+            return new RouteResult[] { PathFinder.notFound("No se encontró ruta entre las paradas " + originStopId
+                    + " y " + destStopId + " con hasta " + maxTransfers + " transbordos") };
+        }
+
+        return journeys.toArray(new RouteResult[0]);
+    }
+
+    /**
+     * Recorre los patrones de la línea l abordando en las paradas marcadas en la
+     * ronda anterior. Deja en ws.touched las paradas alcanzadas viajando en la
+     * línea, con su distancia en ws.local y el tramo de llegada en ws.localPred
+     */
+    private static void scanLine(Workspace ws, PatternIndex patterns, int l, int previous, int dest) {
+        double[] label = ws.label;
+        double[] local = ws.local;
+        int[] localPred = ws.localPred;
+        int stamp = ws.nextLineStamp();
+        ws.touchedCount = 0;
+
+        int stackSize = 0;
+        for (int p = patterns.firstPattern(l); p < patterns.lastPattern(l); p++) {
+            if (ws.earliest[p] >= 0) {
+                ws.patternStack[stackSize++] = p;
+            }
+        }
+
+        while (stackSize > 0) {
+            int p = ws.patternStack[--stackSize];
+            int start = ws.earliest[p];
+            int pending = ws.latest[p]; // última posición mejorada que falta recorrer
+            ws.earliest[p] = -1;
+
+            int end = patterns.lastPosition(p);
+            double carried = INFINITY; // distancia acumulada en el viaje actual
+            for (int i = start; i < end; i++) {
+                int stop = patterns.stopAt(i);
+                if (ws.lineStamp[stop] != stamp) {
+                    // Primera vez que la línea pasa por la parada: solo se aborda si fue marcada
+                    ws.lineStamp[stop] = stamp;
+                    local[stop] = ws.boardable[stop] ? label[previous + stop] : INFINITY;
+                    localPred[stop] = -1;
+                    ws.localEntry[stop] = -1;
+                }
+
+                if (carried < INFINITY) {
+                    double candidate = carried + patterns.segmentDistance(i - 1);
+                    if (candidate < local[stop]) {
+                        if (localPred[stop] < 0) {
+                            ws.touched[ws.touchedCount++] = stop;
+                        }
+                        local[stop] = candidate;
+                        localPred[stop] = i - 1;
+
+                        // La mejora se propaga a los demás patrones de la línea que pasan por la parada
+                        for (int j = patterns.nextSameStop(i); j != i; j = patterns.nextSameStop(j)) {
+                            int other = patterns.patternAt(j);
+                            if (j == patterns.lastPosition(other) - 1) {
+                                continue;
+                            }
+                            if (ws.earliest[other] < 0) {
+                                ws.earliest[other] = j;
+                                ws.latest[other] = j;
+                                ws.patternStack[stackSize++] = other;
+                            } else if (j < ws.earliest[other]) {
+                                ws.earliest[other] = j;
+                            } else if (j > ws.latest[other]) {
+                                ws.latest[other] = j;
+                            }
+                        }
+                    }
+                }
+                // Poda: nada que supere lo ya conocido para el destino sirve
+                carried = local[stop] < ws.best[dest] ? local[stop] : INFINITY;
+
+                // Si el patrón ya salió de esta posición con una distancia igual o menor
+                // (y no quedan posiciones mejoradas por delante), el resto no mejora nada
+                if (i >= pending && ws.positionStamp[i] == stamp && carried >= ws.propagated[i]) {
+                    break;
+                }
+                ws.positionStamp[i] = stamp;
+                ws.propagated[i] = carried;
+            }
+        }
+    }
+
+    /**
+     * Registra (una sola vez por línea recorrida) la cadena de tramos con la que
+     * se llegó a la parada dentro de la línea actual. Retorna el último eslabón
+     */
+    private static int entryFor(Workspace ws, PatternIndex patterns, int stop) {
+        // Subir por los predecesores hasta el abordaje o hasta un eslabón ya registrado
+        int length = 0;
+        int v = stop;
+        while (ws.localPred[v] >= 0 && ws.localEntry[v] < 0) {
+            ws.chain[length++] = v;
+            v = patterns.stopAt(ws.localPred[v]);
+        }
+
+        // Registrar los eslabones desde el más cercano al abordaje
+        int prevEntry = ws.localPred[v] >= 0 ? ws.localEntry[v] : -1;
+        for (int c = length - 1; c >= 0; c--) {
+            int u = ws.chain[c];
+            prevEntry = ws.addEntry(ws.localPred[u], prevEntry);
+            ws.localEntry[u] = prevEntry;
+        }
+        return ws.localEntry[stop];
+    }
+
+    /**
+     * Reconstruye el viaje que llega al destino en la ronda k, recorriendo hacia
+     * atrás los tramos registrados de cada ronda
+     */
+    private static RouteResult buildJourney(AdjacencyIndex index, PatternIndex patterns, Workspace ws,
+            int n, int origin, int dest, int k) {
+        List<Arc> reversed = new ArrayList<>();
+        int stop = dest;
+        for (int r = k; r > 0; r--) {
+            int entry = ws.ride[r * n + stop];
+            if (entry < 0) {
+                continue; // la etiqueta viene de una ronda anterior
+            }
+            int position = -1;
+            for (; entry >= 0; entry = ws.entryPrev[entry]) {
+                position = ws.entryPosition[entry];
+                reversed.add(patterns.segment(position));
+            }
+            stop = patterns.stopAt(position); // parada de abordaje
+        }
+
+        int length = reversed.size();
+        Arc[] arcs = new Arc[length];
+        Stop[] stops = new Stop[length + 1];
+        stops[0] = index.stopAt(origin);
+        for (int i = 0; i < length; i++) {
+            arcs[i] = reversed.get(length - 1 - i);
+            stops[i + 1] = arcs[i].toStop;
+        }
+        return PathFinder.assembleRoute(stops, arcs);
+    }
+
+    /**
+     * Arreglos de la búsqueda por rondas, reutilizados por cada hilo
+     */
+    private static final class Workspace {
+
+        private static final ThreadLocal<Workspace> CURRENT = new ThreadLocal<>();
+
+        final int maxRounds;
+        final int numStops;
+        final int numLines;
+        final int numPatterns;
+        final double[] label;     // (ronda, parada) -> menor distancia con esa cantidad de líneas
+        final int[] ride;         // (ronda, parada) -> último eslabón del viaje de esa ronda, o -1
+        final double[] best;      // parada -> mejor distancia en cualquier ronda
+        final double[] local;     // parada -> distancia dentro de la línea que se está recorriendo
+        final int[] localPred;    // parada -> posición del tramo con que se llegó en la línea, o -1
+        final int[] localEntry;   // parada -> eslabón registrado en la línea actual, o -1
+        final int[] lineStamp;    // parada -> marca de la última línea que la inicializó
+        final int[] positionStamp; // posición -> marca de la última línea que la recorrió
+        final double[] propagated; // posición -> distancia con la que el patrón salió de ella
+        final int[] touched;      // paradas alcanzadas viajando en la línea actual
+        final int[] earliest;     // patrón -> primera posición a recorrer, o -1
+        final int[] latest;       // patrón -> última posición mejorada pendiente de recorrer
+        final int[] patternStack; // patrones pendientes de la línea actual
+        final boolean[] boardable; // parada marcada en la ronda anterior
+        final int[] boardableStops;
+        final int[] chain;        // pila auxiliar para registrar eslabones
+        final int[] lineQueue;    // líneas a recorrer en la ronda actual
+        final boolean[] lineQueued;
+        final int[] marked;       // paradas mejoradas en la ronda actual
+        final boolean[] isMarked;
+        int markedCount;
+        int touchedCount;
+        private int stamp;
+
+        // Eslabones de los viajes: posición del tramo y eslabón anterior (-1 en el abordaje)
+        int[] entryPosition = new int[1024];
+        int[] entryPrev = new int[1024];
+        int entryCount;
+
+        private Workspace(int maxRounds, int numStops, int numLines, int numPatterns, int numPositions) {
+            this.maxRounds = maxRounds;
+            this.numStops = numStops;
+            this.numLines = numLines;
+            this.numPatterns = numPatterns;
+            this.label = new double[(maxRounds + 1) * numStops];
+            this.ride = new int[(maxRounds + 1) * numStops];
+            this.best = new double[numStops];
+            this.local = new double[numStops];
+            this.localPred = new int[numStops];
+            this.localEntry = new int[numStops];
+            this.lineStamp = new int[numStops];
+            this.positionStamp = new int[numPositions];
+            this.propagated = new double[numPositions];
+            this.touched = new int[numStops];
+            this.earliest = new int[numPatterns];
+            this.latest = new int[numPatterns];
+            this.patternStack = new int[numPatterns];
+            this.boardable = new boolean[numStops];
+            this.boardableStops = new int[numStops];
+            Arrays.fill(earliest, -1);
+            this.chain = new int[numStops];
+            this.lineQueue = new int[numLines];
+            this.lineQueued = new boolean[numLines];
+            this.marked = new int[numStops];
+            this.isMarked = new boolean[numStops];
+        }
+
+        static Workspace acquire(int maxRounds, int numStops, PatternIndex patterns) {
+            Workspace workspace = CURRENT.get();
+            if (workspace == null || workspace.maxRounds < maxRounds || workspace.numStops != numStops
+                    || workspace.numLines != patterns.lineCount() || workspace.numPatterns != patterns.patternCount()
+                    || workspace.positionStamp.length != patterns.positionCount()) {
+                workspace = new Workspace(maxRounds, numStops, patterns.lineCount(), patterns.patternCount(),
+                        patterns.positionCount());
+                CURRENT.set(workspace);
+            }
+            return workspace;
+        }
+
+        int nextLineStamp() {
+            if (++stamp == Integer.MAX_VALUE) {
+                Arrays.fill(lineStamp, 0);
+                Arrays.fill(positionStamp, 0);
+                stamp = 1;
+            }
+            return stamp;
+        }
+
+        int addEntry(int position, int prev) {
+            if (entryCount == entryPosition.length) {
+                entryPosition = Arrays.copyOf(entryPosition, entryCount * 2);
+                entryPrev = Arrays.copyOf(entryPrev, entryCount * 2);
+            }
+            entryPosition[entryCount] = position;
+            entryPrev[entryCount] = prev;
+            return entryCount++;
+        }
+
+        void mark(int v) {
+            if (!isMarked[v]) {
+                isMarked[v] = true;
+                marked[markedCount++] = v;
+            }
+        }
+
+        void clearMarks() {
+            for (int m = 0; m < markedCount; m++) {
+                isMarked[marked[m]] = false;
+            }
+            markedCount = 0;
+        }
+    }
+}
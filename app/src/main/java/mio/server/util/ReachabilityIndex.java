@@ -0,0 +1,203 @@
+package mio.server.util;
+
+import mio.server.data.AdjacencyIndex;
+
+import java.util.Arrays;
+
+/**
+ * Cierre de alcanzabilidad del grafo a partir de sus componentes fuertemente
+ * conexas
+ *
+ * Todas las paradas de una componente fuertemente conexa alcanzan exactamente
+ * las mismas paradas, así que basta con calcular el cierre del grafo condensado
+ * (un DAG, una parada por componente). Tarjan entrega las componentes en orden
+ * topológico inverso (primero las que no tienen salida), de modo que el conjunto
+ * alcanzable de cada componente se arma en una sola pasada: sus paradas más la
+ * unión de los conjuntos de las componentes a las que llega.
+ *
+ * Cada conjunto es un bitset sobre los índices densos de las paradas; responder
+ * "qué paradas alcanza o" es leer un bitset y "o llega a d" es probar un bit.
+ */
+public final class ReachabilityIndex {
+
+    private final AdjacencyIndex index;
+    private final int[] component;    // índice denso -> componente fuertemente conexa
+    private final int componentCount;
+    private final int words;          // longs por bitset
+    private final long[] closure;     // [c * words + w] = paradas alcanzables desde la componente c
+
+    private ReachabilityIndex(AdjacencyIndex index, int[] component, int componentCount, long[] closure) {
+        this.index = index;
+        this.component = component;
+        this.componentCount = componentCount;
+        this.words = (index.size() + 63) >>> 6;
+        this.closure = closure;
+    }
+
+    /**
+     * Calcula las componentes fuertemente conexas y el cierre de alcanzabilidad
+     */
+    public static ReachabilityIndex build(AdjacencyIndex index) {
+        int n = index.size();
+        int[] component = new int[n];
+        int componentCount = stronglyConnectedComponents(index, component);
+
+        // Paradas de cada componente agrupadas (CSR), en el orden de Tarjan
+        int[] memberOffsets = new int[componentCount + 1];
+        for (int v = 0; v < n; v++) {
+            memberOffsets[component[v] + 1]++;
+        }
+        for (int c = 0; c < componentCount; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        int[] members = new int[n];
+        int[] next = Arrays.copyOf(memberOffsets, componentCount);
+        for (int v = 0; v < n; v++) {
+            members[next[component[v]]++] = v;
+        }
+
+        // Las componentes sucesoras de c tienen número menor: ya están completas
+        int words = (n + 63) >>> 6;
+        long[] closure = new long[componentCount * words];
+        for (int c = 0; c < componentCount; c++) {
+            int base = c * words;
+            for (int k = memberOffsets[c]; k < memberOffsets[c + 1]; k++) {
+                int v = members[k];
+                closure[base + (v >>> 6)] |= 1L << v;
+                for (int e = index.firstEdge(v); e < index.lastEdge(v); e++) {
+                    int target = component[index.target(e)];
+                    if (target != c) {
+                        int targetBase = target * words;
+                        for (int w = 0; w < words; w++) {
+                            closure[base + w] |= closure[targetBase + w];
+                        }
+                    }
+                }
+            }
+        }
+
+        return new ReachabilityIndex(index, component, componentCount, closure);
+    }
+
+    /**
+     * Tarjan iterativo (sin recursión, la red tiene caminos de miles de paradas)
+     * @return número de componentes; component[v] queda en orden topológico inverso
+     */
+    private static int stronglyConnectedComponents(AdjacencyIndex index, int[] component) {
+        int n = index.size();
+        int[] order = new int[n];     // orden de descubrimiento + 1 (0 = no visitada)
+        int[] low = new int[n];
+        int[] nextEdge = new int[n];  // próximo arco a recorrer de cada parada en la pila de llamadas
+        int[] callStack = new int[n];
+        int[] stack = new int[n];     // paradas aún sin componente
+        boolean[] onStack = new boolean[n];
+        int counter = 0;
+        int stackTop = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < n; root++) {
+            if (order[root] != 0) continue;
+
+            int depth = 0;
+            callStack[depth++] = root;
+            order[root] = low[root] = ++counter;
+            nextEdge[root] = index.firstEdge(root);
+            stack[stackTop++] = root;
+            onStack[root] = true;
+
+            while (depth > 0) {
+                int v = callStack[depth - 1];
+                if (nextEdge[v] < index.lastEdge(v)) {
+                    int w = index.target(nextEdge[v]++);
+                    if (order[w] == 0) {
+                        order[w] = low[w] = ++counter;
+                        nextEdge[w] = index.firstEdge(w);
+                        stack[stackTop++] = w;
+                        onStack[w] = true;
+                        callStack[depth++] = w;
+                    } else if (onStack[w] && order[w] < low[v]) {
+                        low[v] = order[w];
+                    }
+                    continue;
+                }
+
+                // v terminó: cerrar su componente si es raíz y propagar low al padre
+                depth--;
+                if (low[v] == order[v]) {
+                    int w;
+                    do {
+                        w = stack[--stackTop];
+                        onStack[w] = false;
+                        component[w] = componentCount;
+                    } while (w != v);
+                    componentCount++;
+                }
+                if (depth > 0) {
+                    int parent = callStack[depth - 1];
+                    if (low[v] < low[parent]) {
+                        low[parent] = low[v];
+                    }
+                }
+            }
+        }
+        return componentCount;
+    }
+
+    /**
+     * Número de componentes fuertemente conexas
+     */
+    public int componentCount() {
+        return componentCount;
+    }
+
+    /**
+     * Bytes ocupados por los bitsets del cierre
+     */
+    public long memoryBytes() {
+        return 8L * closure.length;
+    }
+
+    /**
+     * Indica si hay camino de origin a dest (índices densos)
+     */
+    boolean reaches(int origin, int dest) {
+        return (closure[component[origin] * words + (dest >>> 6)] & (1L << dest)) != 0;
+    }
+
+    /**
+     * Indica si hay camino entre las paradas (false si alguna no existe)
+     */
+    public boolean isReachable(int originStopId, int destStopId) {
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+        return origin >= 0 && dest >= 0 && reaches(origin, dest);
+    }
+
+    /**
+     * Paradas alcanzables desde una parada de origen, leídas de su bitset
+     * @return IDs de las paradas alcanzables (incluye el origen), vacío si no existe
+     */
+    public int[] reachableStops(int originStopId) {
+        int origin = index.indexOf(originStopId);
+        if (origin < 0) {
+            return new int[0];
+        }
+
+        int base = component[origin] * words;
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(closure[base + w]);
+        }
+
+        int[] reachable = new int[count];
+        int i = 0;
+        for (int w = 0; w < words; w++) {
+            long bits = closure[base + w];
+            while (bits != 0) {
+                reachable[i++] = index.stopIdAt((w << 6) + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        return reachable;
+    }
+}
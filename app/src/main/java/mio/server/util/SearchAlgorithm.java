@@ -0,0 +1,82 @@
+package mio.server.util;
+
+import mioice.CostMode;
+
+import java.util.Map;
+
+/**
+ * Algoritmos de búsqueda disponibles y el criterio de costo que resuelve cada uno
+ */
+public enum SearchAlgorithm {
+    BFS(CostMode.HOPS),                         // Búsqueda en anchura desde el origen
+    BIDIRECTIONAL_BFS(CostMode.HOPS),           // BFS simultáneo desde origen y destino
+    HOP_TABLE(CostMode.HOPS),                   // Lectura de la tabla de rutas de todos los pares (sin búsqueda)
+    DIJKSTRA(CostMode.DISTANCE),                // Expansión uniforme desde el origen
+    ASTAR(CostMode.DISTANCE),                   // Dijkstra guiado por la distancia en línea recta al destino
+    ALT(CostMode.DISTANCE),                     // A* con cotas por desigualdad triangular respecto a landmarks
+    BIDIRECTIONAL_DIJKSTRA(CostMode.DISTANCE),  // Dijkstra simultáneo desde origen y destino
+    CONTRACTION_HIERARCHY(CostMode.DISTANCE),   // Búsqueda bidireccional sobre la jerarquía de contracción precalculada
+    LINE_AWARE(CostMode.TRANSFERS);             // Dijkstra sobre estados (parada, línea) que cuenta transbordos
+
+    /**
+     * Clave del contexto de la petición Ice con la que un cliente elige el
+     * algoritmo de una consulta en particular
+     */
+    public static final String CONTEXT_KEY = "Mio.Search.Algorithm";
+
+    private final CostMode mode;
+
+    SearchAlgorithm(CostMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Indica si el algoritmo encuentra rutas óptimas para el criterio de costo dado
+     */
+    public boolean supports(CostMode costMode) {
+        return mode == costMode;
+    }
+
+    /**
+     * Algoritmo usado por defecto para cada criterio de costo
+     */
+    public static SearchAlgorithm defaultFor(CostMode costMode) {
+        if (costMode == CostMode.TRANSFERS) {
+            return LINE_AWARE;
+        }
+        return costMode == CostMode.DISTANCE ? ASTAR : BFS;
+    }
+
+    /**
+     * Interpreta el nombre de un algoritmo (sin distinguir mayúsculas) para el
+     * criterio de costo dado, retornando el algoritmo por defecto si es nulo,
+     * desconocido o no resuelve ese criterio
+     */
+    public static SearchAlgorithm fromName(String name, CostMode costMode) {
+        SearchAlgorithm defaultValue = defaultFor(costMode);
+        if (name == null || name.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            SearchAlgorithm algorithm = valueOf(name.trim().toUpperCase());
+            if (algorithm.supports(costMode)) {
+                return algorithm;
+            }
+        } catch (IllegalArgumentException e) {
+            // Se informa abajo
+        }
+        System.err.println("Algoritmo de búsqueda no válido para " + costMode + ": " + name + " (usando " + defaultValue + ")");
+        return defaultValue;
+    }
+
+    /**
+     * Algoritmo pedido en el contexto de una petición (CONTEXT_KEY), o null si la
+     * petición no elige ninguno y se debe usar el configurado
+     */
+    public static SearchAlgorithm fromContext(Map<String, String> context, CostMode costMode) {
+        if (context == null || !context.containsKey(CONTEXT_KEY)) {
+            return null;
+        }
+        return fromName(context.get(CONTEXT_KEY), costMode);
+    }
+}
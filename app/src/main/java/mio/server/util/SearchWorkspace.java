@@ -0,0 +1,183 @@
+package mio.server.util;
+
+import java.util.Arrays;
+
+/**
+ * Espacio de trabajo reutilizable para las búsquedas sobre el grafo
+ *
+ * Cada hilo conserva su propia instancia (ThreadLocal), de modo que una consulta
+ * en estado estable no reserva memoria: los arreglos se dimensionan una sola vez
+ * y se "limpian" en O(1) incrementando la época de visita.
+ */
+public class SearchWorkspace {
+
+    private static final ThreadLocal<SearchWorkspace> CURRENT = new ThreadLocal<>();
+
+    final int capacity;
+    final int[] visitMark;   // época en la que se visitó cada parada
+    final int[] parent;      // parada previa en el camino
+    final int[] parentEdge;  // posición CSR del arco usado para llegar
+    final int[] queue;       // cola FIFO respaldada por arreglo
+    final int[] roundQueue;  // cola de la ronda siguiente (búsqueda por transbordos)
+    final int[] settledMark; // época en la que se fijó la distancia definitiva (Dijkstra)
+    final double[] dist;     // distancia tentativa desde el origen (Dijkstra)
+    final double[] estimate; // cota inferior de la distancia restante al destino (A*)
+    final IndexedMinHeap heap;
+
+    // Estado de la búsqueda hacia atrás (desde el destino) de las búsquedas bidireccionales
+    final int[] backwardMark;        // época en la que la búsqueda inversa alcanzó cada parada
+    final int[] backwardSettledMark; // época en la que se fijó la distancia inversa
+    final int[] next;                // parada siguiente en el camino hacia el destino
+    final int[] nextEdge;            // posición CSR del arco usado hacia el destino
+    final int[] backwardQueue;
+    final double[] backwardDist;     // distancia tentativa hasta el destino
+    final IndexedMinHeap backwardHeap;
+
+    // Reconstrucción de rutas (buildEdgeRoute, chooseArcs): crecen a demanda con el
+    // largo de los caminos y se conservan entre consultas
+    private int[] routePath = new int[64];    // arcos o pares del camino, en orden
+    int[] arcStart = new int[65];             // inicio de los candidatos de cada tramo
+    int[] arcCandidate = new int[256];        // arco candidato (-1 si no sirve)
+    int[] arcTransfers = new int[256];        // transbordos mínimos hasta el candidato
+    int[] arcPrevious = new int[256];         // candidato elegido en el tramo anterior
+
+    // Valores acumulados por estado de las filas de la matriz (MatrixSearch con
+    // TRANSFERS): crecen a demanda con el número de estados
+    double[] stateKm = new double[0];
+    int[] stateHops = new int[0];
+    int[] stateTransfers = new int[0];
+
+    private int epoch;
+    int settledCount;        // paradas fijadas en la búsqueda actual
+
+    private SearchWorkspace(int capacity) {
+        this.capacity = capacity;
+        this.visitMark = new int[capacity];
+        this.parent = new int[capacity];
+        this.parentEdge = new int[capacity];
+        this.queue = new int[capacity];
+        this.roundQueue = new int[capacity];
+        this.settledMark = new int[capacity];
+        this.dist = new double[capacity];
+        this.estimate = new double[capacity];
+        this.heap = new IndexedMinHeap(capacity);
+        this.backwardMark = new int[capacity];
+        this.backwardSettledMark = new int[capacity];
+        this.next = new int[capacity];
+        this.nextEdge = new int[capacity];
+        this.backwardQueue = new int[capacity];
+        this.backwardDist = new double[capacity];
+        this.backwardHeap = new IndexedMinHeap(capacity);
+    }
+
+    /**
+     * Obtiene el espacio de trabajo del hilo actual, listo para una nueva búsqueda
+     * sobre un grafo de numStops paradas
+     */
+    public static SearchWorkspace acquire(int numStops) {
+        SearchWorkspace workspace = CURRENT.get();
+        if (workspace == null || workspace.capacity < numStops) {
+            workspace = new SearchWorkspace(numStops);
+            CURRENT.set(workspace);
+        }
+        workspace.reset();
+        return workspace;
+    }
+
+    /**
+     * Arreglo para los arcos (o pares) de un camino de length tramos
+     */
+    int[] routePath(int length) {
+        if (routePath.length < length) {
+            routePath = new int[Math.max(length, 2 * routePath.length)];
+        }
+        return routePath;
+    }
+
+    /**
+     * Asegura espacio en chooseArcs para length tramos con candidates candidatos
+     * en total
+     */
+    void reserveArcCandidates(int length, int candidates) {
+        if (arcStart.length < length + 1) {
+            arcStart = new int[Math.max(length + 1, 2 * arcStart.length)];
+        }
+        if (arcCandidate.length < candidates) {
+            int size = Math.max(candidates, 2 * arcCandidate.length);
+            arcCandidate = new int[size];
+            arcTransfers = new int[size];
+            arcPrevious = new int[size];
+        }
+    }
+
+    /**
+     * Asegura espacio para los valores acumulados de numStates estados
+     */
+    void reserveStateCosts(int numStates) {
+        if (stateKm.length < numStates) {
+            stateKm = new double[numStates];
+            stateHops = new int[numStates];
+            stateTransfers = new int[numStates];
+        }
+    }
+
+    /**
+     * Invalida todas las marcas de visita en O(1)
+     */
+    void reset() {
+        epoch++;
+        if (epoch == Integer.MAX_VALUE) {
+            // Desbordamiento de la época: limpieza completa (ocurre cada ~2^31 búsquedas)
+            Arrays.fill(visitMark, 0);
+            Arrays.fill(settledMark, 0);
+            Arrays.fill(backwardMark, 0);
+            Arrays.fill(backwardSettledMark, 0);
+            epoch = 1;
+        }
+        heap.clear();
+        backwardHeap.clear();
+        settledCount = 0;
+    }
+
+    /**
+     * Paradas fijadas (extraídas del montículo) en la última búsqueda del hilo
+     */
+    public static int lastSettledCount() {
+        SearchWorkspace workspace = CURRENT.get();
+        return workspace != null ? workspace.settledCount : 0;
+    }
+
+    boolean isVisited(int v) {
+        return visitMark[v] == epoch;
+    }
+
+    void markVisited(int v) {
+        visitMark[v] = epoch;
+    }
+
+    boolean isSettled(int v) {
+        return settledMark[v] == epoch;
+    }
+
+    void markSettled(int v) {
+        settledMark[v] = epoch;
+        settledCount++;
+    }
+
+    boolean isBackwardVisited(int v) {
+        return backwardMark[v] == epoch;
+    }
+
+    void markBackwardVisited(int v) {
+        backwardMark[v] = epoch;
+    }
+
+    boolean isBackwardSettled(int v) {
+        return backwardSettledMark[v] == epoch;
+    }
+
+    void markBackwardSettled(int v) {
+        backwardSettledMark[v] = epoch;
+        settledCount++;
+    }
+}
@@ -0,0 +1,195 @@
+package mio.server.util;
+
+import mioice.CostMode;
+import mio.server.data.AdjacencyIndex;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caché de árboles de caminos más cortos por origen
+ *
+ * Un BFS o un Dijkstra desde un origen, si no se detiene en el destino, deja el
+ * camino a todas las paradas. Esta caché guarda ese árbol (el arco con el que se
+ * llega a cada parada) y las consultas siguientes desde el mismo origen se
+ * responden solo reconstruyendo el camino hacia atrás desde el destino.
+ *
+ * Los árboles de BFS (CostMode.HOPS) dan la misma ruta que findShortestRoute y
+ * los de Dijkstra (CostMode.DISTANCE) la misma que findShortestRouteByDistance:
+ * el recorrido es idéntico hasta el punto donde esas búsquedas se detienen.
+ *
+ * Cada árbol ocupa 4 bytes por parada; el número de árboles se limita por
+ * memoria y se expulsa el usado hace más tiempo (LRU).
+ */
+public final class ShortestPathTreeCache {
+
+    private final AdjacencyIndex index;
+    private final int[] edgeSources;   // arco (posición CSR) -> índice denso de su parada origen
+    private final int capacity;        // número máximo de árboles
+    private final Map<Integer, int[]> trees;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maxBytes memoria máxima para los árboles guardados
+     */
+    public ShortestPathTreeCache(AdjacencyIndex index, long maxBytes) {
+        this.index = index;
+        this.capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytes / (4L * index.size())));
+        this.edgeSources = new int[index.edgeCount()];
+        for (int v = 0; v < index.size(); v++) {
+            for (int e = index.firstEdge(v); e < index.lastEdge(v); e++) {
+                edgeSources[e] = v;
+            }
+        }
+        this.trees = new LinkedHashMap<Integer, int[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, int[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Indica si las consultas con ese algoritmo y modo se pueden responder con
+     * árboles: BFS por paradas o Dijkstra por distancia
+     */
+    public static boolean supports(SearchAlgorithm algorithm, CostMode mode) {
+        return (algorithm == SearchAlgorithm.BFS && mode == CostMode.HOPS)
+            || (algorithm == SearchAlgorithm.DIJKSTRA && mode == CostMode.DISTANCE);
+    }
+
+    /**
+     * Árbol de caminos desde origin (índice denso): [v] = arco con el que se llega
+     * a v, o -1 si v es el origen o no es alcanzable. Se calcula si no está guardado
+     */
+    int[] tree(int origin, CostMode mode) {
+        Integer key = (origin << 1) | (mode == CostMode.DISTANCE ? 1 : 0);
+        int[] tree;
+        synchronized (trees) {
+            tree = trees.get(key);
+        }
+        if (tree != null) {
+            hits.increment();
+            return tree;
+        }
+
+        // Se calcula fuera del candado; si dos hilos piden el mismo origen, gana el último
+        misses.increment();
+        tree = mode == CostMode.DISTANCE ? dijkstraTree(origin) : bfsTree(origin);
+        synchronized (trees) {
+            trees.put(key, tree);
+        }
+        return tree;
+    }
+
+    /**
+     * Parada origen (índice denso) del arco en la posición e
+     */
+    int source(int e) {
+        return edgeSources[e];
+    }
+
+    /**
+     * Mismo recorrido que PathFinder.findShortestRoute, sin detenerse en un destino
+     */
+    private int[] bfsTree(int origin) {
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        int[] queue = ws.queue;
+        int head = 0;
+        int tail = 0;
+
+        queue[tail++] = origin;
+        ws.markVisited(origin);
+
+        int[] tree = new int[index.size()];
+        Arrays.fill(tree, -1);
+        while (head < tail) {
+            int current = queue[head++];
+            for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                int next = index.target(e);
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    tree[next] = e;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        ws.settledCount = head;
+        return tree;
+    }
+
+    /**
+     * Mismo recorrido que PathFinder.findShortestRouteByDistance, sin detenerse
+     * en un destino
+     */
+    private int[] dijkstraTree(int origin) {
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        IndexedMinHeap heap = ws.heap;
+        double[] dist = ws.dist;
+
+        ws.markVisited(origin);
+        dist[origin] = 0.0;
+        heap.insert(origin, 0.0);
+
+        int[] tree = new int[index.size()];
+        Arrays.fill(tree, -1);
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            ws.markSettled(current);
+
+            double base = dist[current];
+            for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                int next = index.target(e);
+                if (ws.isSettled(next)) continue;
+
+                double candidate = base + index.weight(e);
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    dist[next] = candidate;
+                    tree[next] = e;
+                    heap.insert(next, candidate);
+                } else if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    tree[next] = e;
+                    heap.decreaseKey(next, candidate);
+                }
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Número máximo de árboles guardados
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        synchronized (trees) {
+            return trees.size();
+        }
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Resumen de los contadores para el log
+     */
+    public String stats() {
+        long hitCount = hits();
+        long total = hitCount + misses();
+        return String.format("%d/%d árboles, %d consultas resueltas sin buscar (%.1f%%)",
+            size(), capacity, hitCount, total == 0 ? 0.0 : 100.0 * hitCount / total);
+    }
+}
@@ -0,0 +1,93 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.StationIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Búsqueda sobre el grafo de estaciones, con la ruta expandida a andenes
+ *
+ * La búsqueda va de la estación del andén de origen a la del andén de destino
+ * con el mismo criterio que en el grafo de andenes (BFS por arcos, Dijkstra
+ * bidireccional por km, estados (estación, línea) por transbordos). A* no sirve
+ * aquí: una estación está en el centroide de sus andenes y la línea recta entre
+ * estaciones puede superar el arco real entre andenes.
+ *
+ * Cambiar de andén dentro de una estación no cuesta nada en la búsqueda; al
+ * expandir la ruta, cada cambio de andén (y los tramos del andén de origen o
+ * hasta el de destino) aparece como un arco a pie, así que la ruta final solo
+ * tiene paradas reales.
+ */
+final class StationSearch {
+
+    private StationSearch() {
+    }
+
+    static RouteResult findRoute(int originStopId, int destStopId, CostMode mode, CostMode tieBreak,
+            double transferPenalty, StationIndex stations) {
+
+        AdjacencyIndex platforms = stations.getPlatforms();
+        AdjacencyIndex graph = stations.getStations();
+        int origin = platforms.indexOf(originStopId);
+        int dest = platforms.indexOf(destStopId);
+
+        RouteResult trivial = PathFinder.checkEndpoints(originStopId, destStopId, origin, dest, platforms);
+        if (trivial != null) {
+            return trivial;
+        }
+
+        int from = stations.stationOf(origin);
+        int to = stations.stationOf(dest);
+        Arc[] stationArcs = new Arc[0];
+        if (from != to) {
+            int fromId = graph.stopIdAt(from);
+            int toId = graph.stopIdAt(to);
+            RouteResult route;
+            if (mode == CostMode.TRANSFERS) {
+                route = TransferAwareSearch.findRoute(fromId, toId, tieBreak, transferPenalty, graph);
+            } else if (mode == CostMode.DISTANCE) {
+                route = PathFinder.findRoute(fromId, toId, CostMode.DISTANCE, SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA,
+                    graph);
+            } else {
+                route = PathFinder.findRoute(fromId, toId, CostMode.HOPS, SearchAlgorithm.BFS, graph);
+            }
+            if (!route.found) {
+                return PathFinder.notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+            }
+            stationArcs = route.arcs;
+        }
+
+        return expand(stationArcs, platforms.stopAt(origin), platforms.stopAt(dest), stations);
+    }
+
+    /**
+     * Reemplaza cada arco de estación por su arco de andenes y une con arcos a
+     * pie los andenes que no coinciden
+     */
+    private static RouteResult expand(Arc[] stationArcs, Stop origin, Stop dest, StationIndex stations) {
+        List<Stop> stops = new ArrayList<>();
+        List<Arc> arcs = new ArrayList<>();
+        Stop current = origin;
+        stops.add(current);
+
+        for (Arc stationArc : stationArcs) {
+            Arc arc = stations.platformArc(stationArc);
+            if (arc.fromStop.stopId != current.stopId) {
+                arcs.add(AdjacencyIndex.walkArc(current, arc.fromStop));
+                stops.add(arc.fromStop);
+            }
+            arcs.add(arc);
+            stops.add(arc.toStop);
+            current = arc.toStop;
+        }
+        if (current.stopId != dest.stopId) {
+            arcs.add(AdjacencyIndex.walkArc(current, dest));
+            stops.add(dest);
+        }
+
+        return PathFinder.assembleRoute(stops.toArray(new Stop[0]), arcs.toArray(new Arc[0]));
+    }
+}
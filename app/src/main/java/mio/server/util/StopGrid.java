@@ -0,0 +1,263 @@
+package mio.server.util;
+
+import mioice.NearbyStops;
+import mio.server.data.AdjacencyIndex;
+
+import java.util.Arrays;
+
+/**
+ * Índice espacial de las paradas: una grilla uniforme en arreglos primitivos
+ *
+ * Las coordenadas se proyectan a metros (equirrectangular alrededor de la
+ * latitud media de la red) y cada parada se guarda en su celda; las paradas de
+ * una celda quedan contiguas (CSR) junto con sus coordenadas proyectadas, así
+ * que una consulta solo recorre unas pocas celdas y compara distancias al
+ * cuadrado, sin trigonometría. A la escala de una ciudad el error de la
+ * proyección frente a Haversine es menor a 0.1%.
+ */
+public final class StopGrid {
+
+    public static final double DEFAULT_CELL_METERS = 250.0;
+
+    private static final double METERS_PER_DEGREE = GeoUtils.EARTH_RADIUS_KM * 1000.0 * Math.PI / 180.0;
+
+    private final AdjacencyIndex index;
+    private final double minLat;
+    private final double minLon;
+    private final double lonScale;   // metros por grado de longitud en la latitud media
+    private final double cellMeters;
+    private final int columns;
+    private final int rows;
+    private final int[] cellStart;   // [celda] = primera posición de sus paradas (CSR)
+    private final int[] entryStop;   // posición -> índice denso de la parada
+    private final double[] entryX;   // posición -> metros al este de minLon
+    private final double[] entryY;   // posición -> metros al norte de minLat
+
+    private StopGrid(AdjacencyIndex index, double minLat, double minLon, double lonScale, double cellMeters,
+            int columns, int rows, int[] cellStart, int[] entryStop, double[] entryX, double[] entryY) {
+        this.index = index;
+        this.minLat = minLat;
+        this.minLon = minLon;
+        this.lonScale = lonScale;
+        this.cellMeters = cellMeters;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellStart = cellStart;
+        this.entryStop = entryStop;
+        this.entryX = entryX;
+        this.entryY = entryY;
+    }
+
+    /**
+     * Ubica cada parada en una celda de cellMeters x cellMeters
+     */
+    public static StopGrid build(AdjacencyIndex index, double cellMeters) {
+        int n = index.size();
+        double minLat = Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE, maxLon = -Double.MAX_VALUE;
+        for (int v = 0; v < n; v++) {
+            minLat = Math.min(minLat, index.latitudeAt(v));
+            maxLat = Math.max(maxLat, index.latitudeAt(v));
+            minLon = Math.min(minLon, index.longitudeAt(v));
+            maxLon = Math.max(maxLon, index.longitudeAt(v));
+        }
+        if (n == 0) {
+            minLat = maxLat = minLon = maxLon = 0.0;
+        }
+
+        double lonScale = METERS_PER_DEGREE * Math.cos(Math.toRadians((minLat + maxLat) / 2));
+        int columns = (int) ((maxLon - minLon) * lonScale / cellMeters) + 1;
+        int rows = (int) ((maxLat - minLat) * METERS_PER_DEGREE / cellMeters) + 1;
+
+        // Conteo por celda y luego ubicación (ordenamiento por conteo)
+        int[] cellOf = new int[n];
+        int[] cellStart = new int[columns * rows + 1];
+        for (int v = 0; v < n; v++) {
+            int cx = Math.min(columns - 1, (int) ((index.longitudeAt(v) - minLon) * lonScale / cellMeters));
+            int cy = Math.min(rows - 1, (int) ((index.latitudeAt(v) - minLat) * METERS_PER_DEGREE / cellMeters));
+            cellOf[v] = cy * columns + cx;
+            cellStart[cellOf[v] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        int[] entryStop = new int[n];
+        double[] entryX = new double[n];
+        double[] entryY = new double[n];
+        int[] next = Arrays.copyOf(cellStart, columns * rows);
+        for (int v = 0; v < n; v++) {
+            int position = next[cellOf[v]]++;
+            entryStop[position] = v;
+            entryX[position] = (index.longitudeAt(v) - minLon) * lonScale;
+            entryY[position] = (index.latitudeAt(v) - minLat) * METERS_PER_DEGREE;
+        }
+
+        return new StopGrid(index, minLat, minLon, lonScale, cellMeters, columns, rows,
+            cellStart, entryStop, entryX, entryY);
+    }
+
+    /**
+     * Las k paradas más cercanas al punto, de la más cercana a la más lejana
+     *
+     * Recorre anillos de celdas alrededor de la celda del punto y se detiene
+     * cuando el anillo siguiente ya no puede tener nada más cerca que la k-ésima
+     */
+    public NearbyStops nearest(double lat, double lon, int k) {
+        k = Math.min(k, entryStop.length);
+        if (k <= 0) {
+            return new NearbyStops(new int[0], new double[0]);
+        }
+
+        double x = (lon - minLon) * lonScale;
+        double y = (lat - minLat) * METERS_PER_DEGREE;
+        // Fuera de la grilla se parte de la celda del borde más cercana (la cota de
+        // los anillos sigue valiendo: el punto está aún más lejos de las demás)
+        int cx = Math.max(0, Math.min(columns - 1, (int) Math.floor(x / cellMeters)));
+        int cy = Math.max(0, Math.min(rows - 1, (int) Math.floor(y / cellMeters)));
+
+        // Mejores k hasta ahora, ordenados por distancia al cuadrado (inserción)
+        double[] best = new double[k];
+        int[] bestEntry = new int[k];
+        int found = 0;
+
+        // Anillos necesarios para cubrir toda la grilla desde la celda del punto
+        int maxRing = Math.max(Math.max(cx, columns - 1 - cx), Math.max(cy, rows - 1 - cy));
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Todo punto del anillo está al menos a (ring - 1) celdas del punto consultado
+            double ringDistance = Math.max(0, ring - 1) * cellMeters;
+            if (found == k && best[k - 1] <= ringDistance * ringDistance) {
+                break;
+            }
+
+            for (int gy = cy - ring; gy <= cy + ring; gy++) {
+                if (gy < 0 || gy >= rows) continue;
+                boolean edgeRow = gy == cy - ring || gy == cy + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int gx = cx - ring; gx <= cx + ring; gx += Math.max(1, step)) {
+                    if (gx < 0 || gx >= columns) continue;
+
+                    int cell = gy * columns + gx;
+                    for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+                        double dx = entryX[p] - x;
+                        double dy = entryY[p] - y;
+                        double d2 = dx * dx + dy * dy;
+                        if (found < k) {
+                            found++;
+                        } else if (d2 >= best[k - 1]) {
+                            continue;
+                        }
+                        int i = found - 1;
+                        while (i > 0 && best[i - 1] > d2) {
+                            best[i] = best[i - 1];
+                            bestEntry[i] = bestEntry[i - 1];
+                            i--;
+                        }
+                        best[i] = d2;
+                        bestEntry[i] = p;
+                    }
+                }
+            }
+        }
+
+        int[] stopIds = new int[found];
+        double[] distances = new double[found];
+        for (int i = 0; i < found; i++) {
+            stopIds[i] = index.stopIdAt(entryStop[bestEntry[i]]);
+            distances[i] = Math.sqrt(best[i]);
+        }
+        return new NearbyStops(stopIds, distances);
+    }
+
+    /**
+     * Paradas a radiusMeters o menos del punto, de la más cercana a la más lejana
+     */
+    public NearbyStops within(double lat, double lon, double radiusMeters) {
+        if (!(radiusMeters >= 0)) {
+            return new NearbyStops(new int[0], new double[0]);
+        }
+
+        double x = (lon - minLon) * lonScale;
+        double y = (lat - minLat) * METERS_PER_DEGREE;
+        double r2 = radiusMeters * radiusMeters;
+
+        int fromX = Math.max(0, (int) Math.floor((x - radiusMeters) / cellMeters));
+        int toX = Math.min(columns - 1, (int) Math.floor((x + radiusMeters) / cellMeters));
+        int fromY = Math.max(0, (int) Math.floor((y - radiusMeters) / cellMeters));
+        int toY = Math.min(rows - 1, (int) Math.floor((y + radiusMeters) / cellMeters));
+
+        // Clave: distancia al cuadrado como float (sus bits conservan el orden) | posición
+        long[] keys = new long[16];
+        int count = 0;
+        for (int gy = fromY; gy <= toY; gy++) {
+            for (int gx = fromX; gx <= toX; gx++) {
+                int cell = gy * columns + gx;
+                for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+                    double dx = entryX[p] - x;
+                    double dy = entryY[p] - y;
+                    double d2 = dx * dx + dy * dy;
+                    if (d2 <= r2) {
+                        if (count == keys.length) {
+                            keys = Arrays.copyOf(keys, count * 2);
+                        }
+                        keys[count++] = ((long) Float.floatToIntBits((float) d2) << 32) | p;
+                    }
+                }
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] stopIds = new int[count];
+        double[] distances = new double[count];
+        for (int i = 0; i < count; i++) {
+            int p = (int) keys[i];
+            double dx = entryX[p] - x;
+            double dy = entryY[p] - y;
+            stopIds[i] = index.stopIdAt(entryStop[p]);
+            distances[i] = Math.sqrt(dx * dx + dy * dy);
+        }
+        return new NearbyStops(stopIds, distances);
+    }
+
+    /**
+     * Paradas (índices densos, en orden ascendente) a radiusMeters o menos de la
+     * parada v, sin incluirla
+     */
+    public int[] neighbors(int v, double radiusMeters) {
+        double x = (index.longitudeAt(v) - minLon) * lonScale;
+        double y = (index.latitudeAt(v) - minLat) * METERS_PER_DEGREE;
+        double r2 = radiusMeters * radiusMeters;
+
+        int fromX = Math.max(0, (int) Math.floor((x - radiusMeters) / cellMeters));
+        int toX = Math.min(columns - 1, (int) Math.floor((x + radiusMeters) / cellMeters));
+        int fromY = Math.max(0, (int) Math.floor((y - radiusMeters) / cellMeters));
+        int toY = Math.min(rows - 1, (int) Math.floor((y + radiusMeters) / cellMeters));
+
+        int[] found = new int[8];
+        int count = 0;
+        for (int gy = fromY; gy <= toY; gy++) {
+            for (int gx = fromX; gx <= toX; gx++) {
+                int cell = gy * columns + gx;
+                for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+                    double dx = entryX[p] - x;
+                    double dy = entryY[p] - y;
+                    if (dx * dx + dy * dy <= r2 && entryStop[p] != v) {
+                        if (count == found.length) {
+                            found = Arrays.copyOf(found, count * 2);
+                        }
+                        found[count++] = entryStop[p];
+                    }
+                }
+            }
+        }
+        Arrays.sort(found, 0, count);
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Número de celdas de la grilla
+     */
+    public int cellCount() {
+        return columns * rows;
+    }
+}
@@ -0,0 +1,251 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+
+/**
+ * Búsqueda que tiene en cuenta las líneas: cada estado es (parada, línea en la
+ * que se llegó), así que cambiar de línea en una parada tiene un costo propio
+ * (la penalización por transbordo) en lugar de contarse después de buscar.
+ *
+ * El costo de un camino es penalización * transbordos + costo base, donde el
+ * costo base es el número de arcos (HOPS) o los km recorridos (DISTANCE). Con
+ * penalización <= 0 se usa una penalización mayor que cualquier costo base
+ * posible, lo que equivale a minimizar primero transbordos y luego el costo base.
+ *
+ * Los estados se indexan con los arreglos primitivos de AdjacencyIndex y el
+ * estado de la búsqueda vive en el SearchWorkspace del hilo (dimensionado por
+ * número de estados), igual que en las demás búsquedas.
+ *
+ * Poda: el primer estado que se fija en una parada es el de menor costo, así que
+ * desde los estados que se fijen después en esa misma parada solo vale la pena
+ * seguir en la misma línea (arcos de continuación del índice); cualquier
+ * transbordo ya lo ofrece el primero con un costo igual o menor. Los estados a
+ * los que se llega caminando no se podan: abordan cualquier línea sin transbordo.
+ *
+ * El caso por defecto (orden lexicográfico con costo base HOPS) no necesita
+ * montículo: se procesa por rondas de transbordos, cada una como un BFS que
+ * mezcla dos colas ya ordenadas (ver fewestTransfersThenHops).
+ */
+final class TransferAwareSearch {
+
+    private TransferAwareSearch() {
+    }
+
+    static RouteResult findRoute(
+            int originStopId,
+            int destStopId,
+            CostMode tieBreak,
+            double transferPenalty,
+            AdjacencyIndex index) {
+
+        int origin = index.indexOf(originStopId);
+        int dest = index.indexOf(destStopId);
+
+        RouteResult trivial = PathFinder.checkEndpoints(originStopId, destStopId, origin, dest, index);
+        if (trivial != null) {
+            return trivial;
+        }
+
+        boolean byDistance = tieBreak == CostMode.DISTANCE;
+        if (!byDistance && transferPenalty <= 0) {
+            return fewestTransfersThenHops(originStopId, destStopId, origin, dest, index);
+        }
+
+        double penalty = transferPenalty;
+        if (penalty <= 0) {
+            // Orden lexicográfico: un transbordo cuesta más que cualquier camino sin ciclos
+            penalty = byDistance ? index.totalWeight() + 1.0 : index.stateCount() + 1.0;
+        }
+
+        // El estado numStates representa "en el origen, sin haber abordado"
+        int numStates = index.stateCount();
+        int start = numStates;
+        SearchWorkspace ws = SearchWorkspace.acquire(Math.max(index.size(), numStates + 1));
+        IndexedMinHeap heap = ws.heap;
+        double[] cost = ws.dist;
+
+        ws.markVisited(start);
+        cost[start] = 0.0;
+        ws.parent[start] = -1;
+        heap.insert(start, 0.0);
+
+        int found = -1;
+        double bound = Double.POSITIVE_INFINITY; // mejor costo conocido hasta el destino
+
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            ws.markSettled(current);
+
+            int stop = current == start ? origin : index.stateStop(current);
+            if (stop == dest) {
+                found = current;
+                break;
+            }
+
+            int line = current == start ? -1 : index.stateLine(current);
+            boolean continueOnly = ws.isBackwardVisited(stop) // marca: parada ya expandida
+                && line != AdjacencyIndex.WALK_LINE;     // a pie se puede abordar cualquier línea
+            ws.markBackwardVisited(stop);
+            int from = continueOnly ? index.firstStateEdge(current) : index.firstEdge(stop);
+            int to = continueOnly ? index.lastStateEdge(current) : index.lastEdge(stop);
+            double base = cost[current];
+            for (int k = from; k < to; k++) {
+                int e = continueOnly ? index.stateEdge(k) : k;
+                int next = index.edgeState(e);
+                if (ws.isSettled(next)) continue;
+
+                double candidate = base + (byDistance ? index.weight(e) : 1.0);
+                if (line != -1 && index.line(e) != line) {
+                    candidate += penalty;
+                }
+                if (candidate >= bound) continue; // no puede mejorar la ruta ya encontrada
+                if (index.stateStop(next) == dest) {
+                    bound = candidate;
+                }
+
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    cost[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    heap.insert(next, candidate);
+                } else if (candidate < cost[next]) {
+                    cost[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    heap.decreaseKey(next, candidate);
+                }
+            }
+        }
+
+        if (found < 0) {
+            return PathFinder.notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+        }
+
+        return buildRoute(index, ws, origin, start, found);
+    }
+
+    /**
+     * Orden lexicográfico (transbordos, arcos) sin montículo. El costo de un
+     * estado es transbordos * P + arcos, con P mayor que cualquier número de
+     * arcos. Dentro de la ronda de k transbordos solo hay arcos de costo 1 (misma
+     * línea), que van a una cola FIFO; los cambios de línea alimentan la cola de
+     * la ronda k + 1. Ambas colas quedan ordenadas por costo, así que tomar
+     * siempre la menor cabeza de las dos equivale a Dijkstra.
+     */
+    private static RouteResult fewestTransfersThenHops(
+            int originStopId,
+            int destStopId,
+            int origin,
+            int dest,
+            AdjacencyIndex index) {
+
+        int numStates = index.stateCount();
+        int start = numStates;
+        double penalty = numStates + 1.0;
+
+        SearchWorkspace ws = SearchWorkspace.acquire(Math.max(index.size(), numStates + 1));
+        double[] cost = ws.dist;
+        int[] fifo = ws.queue;          // estados alcanzados sin cambiar de línea en la ronda actual
+        int[] seeds = ws.backwardQueue; // estados que inician la ronda actual (tras un transbordo)
+        int[] nextSeeds = ws.roundQueue;
+
+        // Ronda 0: el origen "sin línea" puede abordar cualquier arco sin penalización
+        ws.markVisited(start);
+        cost[start] = 0.0;
+        ws.parent[start] = -1;
+        seeds[0] = start;
+        int seedHead = 0, seedTail = 1;
+        int found = -1;
+        double bound = Double.POSITIVE_INFINITY; // mejor costo conocido hasta el destino
+
+        while (seedHead < seedTail && found < 0) {
+            int head = 0, tail = 0;
+            int nextTail = 0;
+
+            while (found < 0 && (seedHead < seedTail || head < tail)) {
+                int current;
+                if (head == tail || (seedHead < seedTail && cost[seeds[seedHead]] <= cost[fifo[head]])) {
+                    current = seeds[seedHead++];
+                } else {
+                    current = fifo[head++];
+                }
+                if (ws.isSettled(current)) continue;
+                ws.markSettled(current);
+
+                int stop = current == start ? origin : index.stateStop(current);
+                if (stop == dest) {
+                    found = current;
+                    break;
+                }
+
+                int line = current == start ? -1 : index.stateLine(current);
+                boolean continueOnly = ws.isBackwardVisited(stop) && line != AdjacencyIndex.WALK_LINE;
+                ws.markBackwardVisited(stop);
+                int from = continueOnly ? index.firstStateEdge(current) : index.firstEdge(stop);
+                int to = continueOnly ? index.lastStateEdge(current) : index.lastEdge(stop);
+                double base = cost[current] + 1.0;
+                for (int k = from; k < to; k++) {
+                    int e = continueOnly ? index.stateEdge(k) : k;
+                    int next = index.edgeState(e);
+                    if (ws.isSettled(next)) continue;
+
+                    boolean transfer = line != -1 && index.line(e) != line;
+                    double candidate = transfer ? base + penalty : base;
+                    if (candidate >= bound) continue; // no puede mejorar la ruta ya encontrada
+                    if (ws.isVisited(next) && cost[next] <= candidate) continue;
+
+                    ws.markVisited(next);
+                    cost[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    if (index.stateStop(next) == dest) {
+                        bound = candidate;
+                    }
+                    if (transfer) {
+                        nextSeeds[nextTail++] = next;
+                    } else {
+                        fifo[tail++] = next;
+                    }
+                }
+            }
+
+            // Pasar a la ronda siguiente: sus semillas pasan a ser la cola actual
+            int[] swap = seeds;
+            seeds = nextSeeds;
+            nextSeeds = swap;
+            seedHead = 0;
+            seedTail = nextTail;
+        }
+
+        if (found < 0) {
+            return PathFinder.notFound("No se encontró ruta entre las paradas " + originStopId + " y " + destStopId);
+        }
+
+        return buildRoute(index, ws, origin, start, found);
+    }
+
+    /**
+     * Reconstruye el camino recorriendo los estados desde el destino
+     */
+    private static RouteResult buildRoute(AdjacencyIndex index, SearchWorkspace ws, int origin, int start, int found) {
+        int length = 0;
+        for (int state = found; state != start; state = ws.parent[state]) {
+            length++;
+        }
+
+        Stop[] stops = new Stop[length + 1];
+        Arc[] arcs = new Arc[length];
+        int state = found;
+        for (int i = length - 1; i >= 0; i--) {
+            int e = ws.parentEdge[state];
+            arcs[i] = index.arc(e);
+            stops[i + 1] = index.stopAt(index.target(e));
+            state = ws.parent[state];
+        }
+        stops[0] = index.stopAt(origin);
+
+        return PathFinder.assembleRoute(stops, arcs);
+    }
+}
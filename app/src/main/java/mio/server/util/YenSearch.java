@@ -0,0 +1,225 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Rutas alternativas: los k caminos sin ciclos más cortos en km (algoritmo de Yen)
+ *
+ * Cada alternativa nueva se obtiene desviándose de la anterior: para cada parada
+ * del camino (parada de desvío) se conserva el tramo previo (raíz) y se busca el
+ * resto sin pasar por las paradas de la raíz ni salir del desvío hacia la parada
+ * siguiente de ninguna alternativa ya elegida con la misma raíz. El mejor de los
+ * candidatos acumulados es la alternativa siguiente.
+ *
+ * Los caminos se comparan como secuencias de paradas (prohibir la parada
+ * siguiente prohíbe todos los arcos paralelos de otras líneas), así que cada
+ * alternativa recorre un trayecto distinto y no solo otra línea por el mismo.
+ *
+ * Mejora de Lawler: un camino solo genera desvíos desde la parada donde él mismo
+ * se desvió, los anteriores ya los generó su camino padre. Las búsquedas de los
+ * desvíos de un camino son independientes y se reparten entre los hilos del pool;
+ * cada una es un A* (línea recta y landmarks) sobre el SearchWorkspace del hilo,
+ * con las paradas de la raíz marcadas como excluidas.
+ */
+final class YenSearch {
+
+    private YenSearch() {
+    }
+
+    static RouteResult[] findAlternatives(int origin, int dest, int k, AdjacencyIndex index,
+            LandmarkTable landmarks, ForkJoinPool pool) {
+
+        List<Path> accepted = new ArrayList<>();
+        PriorityQueue<Path> candidates = new PriorityQueue<>((a, b) -> Double.compare(a.cost, b.cost));
+        Set<Path> seen = new HashSet<>();
+
+        int[] first = spurSearch(origin, dest, new int[0], 0, null, 0, index, landmarks);
+        if (first == null) {
+            return new RouteResult[0];
+        }
+        Path shortest = new Path(origin, first, 0, index);
+        accepted.add(shortest);
+        seen.add(shortest);
+
+        while (accepted.size() < k) {
+            Path previous = accepted.get(accepted.size() - 1);
+            int spurCount = previous.nodes.length - 1 - previous.deviation;
+
+            Path[] spurs = pool.submit(() -> IntStream.range(0, spurCount).parallel()
+                .mapToObj(j -> deviate(previous, previous.deviation + j, accepted, dest, index, landmarks))
+                .toArray(Path[]::new)).join();
+
+            for (Path spur : spurs) {
+                if (spur != null && seen.add(spur)) {
+                    candidates.add(spur);
+                }
+            }
+            if (candidates.isEmpty()) {
+                break;
+            }
+            accepted.add(candidates.poll());
+        }
+
+        RouteResult[] results = new RouteResult[accepted.size()];
+        for (int i = 0; i < results.length; i++) {
+            results[i] = accepted.get(i).toRoute(index);
+        }
+        return results;
+    }
+
+    /**
+     * Candidato que se desvía de previous en la parada nodes[j], o null si no hay
+     * camino que evite las paradas de la raíz y las salidas ya usadas
+     */
+    private static Path deviate(Path previous, int j, List<Path> accepted, int dest, AdjacencyIndex index,
+            LandmarkTable landmarks) {
+        int[] root = previous.nodes;
+
+        // Paradas siguientes de las alternativas que comparten la raíz hasta j
+        int[] bannedNext = new int[accepted.size()];
+        int banned = 0;
+        for (Path path : accepted) {
+            if (path.nodes.length > j + 1 && Arrays.equals(path.nodes, 0, j + 1, root, 0, j + 1)) {
+                bannedNext[banned++] = path.nodes[j + 1];
+            }
+        }
+
+        int[] spur = spurSearch(root[j], dest, bannedNext, banned, root, j, index, landmarks);
+        if (spur == null) {
+            return null;
+        }
+
+        int[] edges = Arrays.copyOf(previous.edges, j + spur.length);
+        System.arraycopy(spur, 0, edges, j, spur.length);
+        return new Path(root[0], edges, j, index);
+    }
+
+    /**
+     * A* de from a dest que no pasa por root[0..rootLength) ni usa arcos de from
+     * hacia bannedNext[0..banned)
+     * @return posiciones CSR de los arcos del camino, o null si no hay camino
+     */
+    private static int[] spurSearch(int from, int dest, int[] bannedNext, int banned, int[] root, int rootLength,
+            AdjacencyIndex index, LandmarkTable landmarks) {
+
+        SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+        IndexedMinHeap heap = ws.heap;
+        double[] dist = ws.dist;
+        double[] estimate = ws.estimate;
+
+        // Marca inversa: parada excluida por pertenecer a la raíz
+        for (int i = 0; i < rootLength; i++) {
+            ws.markBackwardVisited(root[i]);
+        }
+
+        ws.markVisited(from);
+        dist[from] = 0.0;
+        estimate[from] = PathFinder.lowerBound(index, landmarks, from, dest);
+        ws.parent[from] = -1;
+        heap.insert(from, estimate[from]);
+
+        boolean found = false;
+        while (!heap.isEmpty()) {
+            int current = heap.poll();
+            ws.markSettled(current);
+            if (current == dest) {
+                found = true;
+                break;
+            }
+
+            double base = dist[current];
+            for (int e = index.firstEdge(current); e < index.lastEdge(current); e++) {
+                int next = index.target(e);
+                if (ws.isSettled(next) || ws.isBackwardVisited(next)) continue;
+                if (current == from && contains(bannedNext, banned, next)) continue;
+
+                double candidate = base + index.weight(e);
+                if (!ws.isVisited(next)) {
+                    ws.markVisited(next);
+                    dist[next] = candidate;
+                    estimate[next] = PathFinder.lowerBound(index, landmarks, next, dest);
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    heap.insert(next, candidate + estimate[next]);
+                } else if (candidate < dist[next]) {
+                    dist[next] = candidate;
+                    ws.parent[next] = current;
+                    ws.parentEdge[next] = e;
+                    heap.decreaseKey(next, candidate + estimate[next]);
+                }
+            }
+        }
+        if (!found) {
+            return null;
+        }
+
+        int length = 0;
+        for (int v = dest; v != from; v = ws.parent[v]) {
+            length++;
+        }
+        int[] edges = new int[length];
+        for (int v = dest; v != from; v = ws.parent[v]) {
+            edges[--length] = ws.parentEdge[v];
+        }
+        return edges;
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Camino como arcos CSR; la igualdad es por la secuencia de paradas
+     */
+    private static final class Path {
+        final int[] edges;
+        final int[] nodes;
+        final int deviation; // parada en la que se desvió de su camino padre
+        final double cost;
+
+        Path(int origin, int[] edges, int deviation, AdjacencyIndex index) {
+            this.edges = edges;
+            this.deviation = deviation;
+            this.nodes = new int[edges.length + 1];
+            nodes[0] = origin;
+            double total = 0.0;
+            for (int i = 0; i < edges.length; i++) {
+                nodes[i + 1] = index.target(edges[i]);
+                total += index.weight(edges[i]);
+            }
+            this.cost = total;
+        }
+
+        RouteResult toRoute(AdjacencyIndex index) {
+            SearchWorkspace ws = SearchWorkspace.acquire(index.size());
+            int[] path = ws.routePath(edges.length);
+            System.arraycopy(edges, 0, path, 0, edges.length);
+            return PathFinder.buildEdgeRoute(index, ws, nodes[0], path, edges.length, true);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Path && Arrays.equals(nodes, ((Path) other).nodes);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(nodes);
+        }
+    }
+}
@@ -49,13 +49,18 @@ public class MioWorker {
             // Cargar datos (cada worker tiene su propia copia del grafo)
             System.out.println("Cargando grafo en memoria del Worker...");
             GraphBuilder graphBuilder = new GraphBuilder(stopRepo, lineRepo, lineStopRepo);
+            graphBuilder.configureWalking(communicator.getProperties()); // Mio.Walk.* (antes de cargar)
             try {
-                graphBuilder.loadData();
+                graphBuilder.loadData(communicator.getProperties(),
+                    "data/stops-241.csv", "data/lines-241.csv", "data/linestops-241.csv");
             } catch (Exception e) {
                 System.err.println("Error cargando datos en Worker: " + e.getMessage());
                 return;
             }
             
+            // Algoritmos de búsqueda por criterio de costo (propiedades Mio.Search.*)
+            graphBuilder.configureSearch(communicator.getProperties());
+            
             // Crear adaptador
             ObjectAdapter adapter = communicator.createObjectAdapter("WorkerAdapter");
             
@@ -95,6 +100,9 @@ public class MioWorker {
             }
             
             communicator.waitForShutdown();
+            if (graphBuilder.getTreeCache() != null) {
+                System.out.println("Caché de árboles de caminos: " + graphBuilder.getTreeCache().stats());
+            }
             
         } catch (Exception e) {
             System.err.println("Error en Worker: " + e);
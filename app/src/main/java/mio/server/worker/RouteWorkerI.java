@@ -2,35 +2,105 @@ package mio.server.worker;
 
 import mioice.*;
 import mio.server.data.GraphBuilder;
+import mio.server.util.SearchAlgorithm;
 import com.zeroc.Ice.Current;
 
-import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Implementación del Worker que calcula rutas
- * Recibe la tarea del Master y ejecuta el algoritmo BFS
+ * Recibe la tarea del Master y ejecuta el algoritmo de búsqueda
+ * (BFS por número de paradas o Dijkstra por distancia)
  */
 public class RouteWorkerI implements RouteWorker {
     
     private GraphBuilder graphBuilder;
+    private ForkJoinPool batchPool; // Lotes de findRoutes y matrices: un hilo por núcleo
     
     public RouteWorkerI(GraphBuilder graphBuilder) {
         this.graphBuilder = graphBuilder;
+        this.batchPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
     }
     
     @Override
     public RouteResult findRoute(int originStopId, int destStopId, Current current) 
             throws StopNotFoundException {
         
-        // System.out.println("Worker recibiendo tarea: " + originStopId + " -> " + destStopId);
+        // Compatibilidad: findRoute siempre minimiza el número de paradas
+        return findRouteWithMode(originStopId, destStopId, CostMode.HOPS, current);
+    }
+    
+    @Override
+    public RouteResult findRouteWithMode(int originStopId, int destStopId, CostMode mode, Current current) 
+            throws StopNotFoundException {
+        
+        // System.out.println("Worker recibiendo tarea: " + originStopId + " -> " + destStopId + " (" + mode + ")");
+        
+        validateStops(originStopId, destStopId);
+        
+        // El cliente puede elegir el algoritmo de esta consulta en el contexto de la petición
+        SearchAlgorithm algorithm = SearchAlgorithm.fromContext(current != null ? current.ctx : null, mode);
+        
+        // Llamar al algoritmo de búsqueda (Delegado a PathFinder a través del GraphBuilder)
+        return graphBuilder.findRoute(originStopId, destStopId, mode, algorithm);
+    }
+    
+    @Override
+    public RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers, Current current) 
+            throws StopNotFoundException {
+        
+        validateStops(originStopId, destStopId);
+        
+        // Enrutador por rondas sobre los patrones de parada (RAPTOR)
+        return graphBuilder.findJourneys(originStopId, destStopId, maxTransfers);
+    }
+    
+    @Override
+    public RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k, Current current) 
+            throws StopNotFoundException {
         
+        validateStops(originStopId, destStopId);
+        
+        // Algoritmo de Yen: los desvíos de cada ruta se buscan en todos los núcleos
+        return graphBuilder.findAlternativeRoutes(originStopId, destStopId, k, batchPool);
+    }
+    
+    @Override
+    public CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong,
+            Current current) {
+        // Un solo Dijkstra desde todas las paradas de acceso hacia todas las de egreso
+        return graphBuilder.findRouteByCoordinates(originLat, originLong, destLat, destLong);
+    }
+    
+    @Override
+    public RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode, Current current) {
+        // Un bloque del lote del Master: los pares se reparten entre todos los núcleos
+        SearchAlgorithm algorithm = SearchAlgorithm.fromContext(current != null ? current.ctx : null, mode);
+        return graphBuilder.findRoutes(origins, dests, mode, algorithm, batchPool);
+    }
+    
+    @Override
+    public RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode, Current current) {
+        // Un bloque de filas de la matriz del Master: una búsqueda por origen en cada núcleo
+        return graphBuilder.computeMatrix(sources, targets, mode, batchPool);
+    }
+    
+    @Override
+    public Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull, Current current) 
+            throws StopNotFoundException {
+        
+        validateOrigin(originStopId);
+        
+        // Búsqueda de uno a todos que se detiene al agotar el presupuesto
+        return graphBuilder.findIsochrone(originStopId, mode, budget, withHull);
+    }
+    
+    /**
+     * Valida que las paradas de origen y destino existen
+     */
+    private void validateStops(int originStopId, int destStopId) throws StopNotFoundException {
         // Validar que las paradas existen
-        if (!graphBuilder.getStopsMap().containsKey(originStopId)) {
-            StopNotFoundException ex = new StopNotFoundException();
-            ex.stopId = originStopId;
-            ex.message = "Parada de origen no encontrada: " + originStopId;
-            throw ex;
-        }
+        validateOrigin(originStopId);
         
         if (!graphBuilder.getStopsMap().containsKey(destStopId)) {
             StopNotFoundException ex = new StopNotFoundException();
@@ -38,30 +108,17 @@ public class RouteWorkerI implements RouteWorker {
             ex.message = "Parada de destino no encontrada: " + destStopId;
             throw ex;
         }
-        
-        // Llamar al algoritmo de búsqueda (Delegado a PathFinder)
-        Map<String, Object> searchResult = mio.server.util.PathFinder.findShortestRoute(
-            originStopId, 
-            destStopId, 
-            graphBuilder.getStopsMap(), 
-            graphBuilder.getAllArcs()
-        );
-        
-        // Convertir el resultado a la estructura RouteResult de ICE
-        RouteResult result = new RouteResult();
-        result.found = (Boolean) searchResult.get("found");
-        result.message = (String) searchResult.get("message");
-        result.totalDistance = (Double) searchResult.get("totalDistance");
-        result.numTransfers = (Integer) searchResult.get("numTransfers");
-        
-        @SuppressWarnings("unchecked")
-        List<Stop> stops = (List<Stop>) searchResult.get("stops");
-        result.stops = stops.toArray(new Stop[0]);
-        
-        @SuppressWarnings("unchecked")
-        List<Arc> arcs = (List<Arc>) searchResult.get("arcs");
-        result.arcs = arcs.toArray(new Arc[0]);
-        
-        return result;
+    }
+    
+    /**
+     * Valida que la parada de origen existe
+     */
+    private void validateOrigin(int originStopId) throws StopNotFoundException {
+        if (!graphBuilder.getStopsMap().containsKey(originStopId)) {
+            StopNotFoundException ex = new StopNotFoundException();
+            ex.stopId = originStopId;
+            ex.message = "Parada de origen no encontrada: " + originStopId;
+            throw ex;
+        }
     }
 }
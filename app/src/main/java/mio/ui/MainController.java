@@ -10,6 +10,7 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.web.WebEngine;
 import javafx.scene.web.WebView;
+import netscape.javascript.JSObject;
 
 import java.util.*;
 
@@ -23,6 +24,9 @@ public class MainController {
     @FXML private Button findRouteButton;
     @FXML private Button clearButton;
     @FXML private Button statsButton;
+    @FXML private Button isochroneButton;
+    @FXML private TextField budgetField;
+    @FXML private ComboBox<String> budgetModeComboBox;
     @FXML private Label routeInfoLabel;
     @FXML private Label stopsCountLabel;
     @FXML private Label distanceLabel;
@@ -38,6 +42,8 @@ public class MainController {
     private Map<String, Integer> stopNameToId = new HashMap<>();
     private int selectedOriginId = -1;
     private int selectedDestId = -1;
+    private double[] clickedOrigin = null;            // Origen marcado en el mapa (lat, long)
+    private final JavaConnector javaConnector = new JavaConnector(); // Referencia fuerte: el WebView no la retiene
     
     /**
      * Inicializa el controlador
@@ -55,10 +61,17 @@ public class MainController {
         // Esperar a que el mapa cargue
         webEngine.getLoadWorker().stateProperty().addListener((obs, oldState, newState) -> {
             if (newState == Worker.State.SUCCEEDED) {
+                // Exponer el conector para recibir los clics del mapa
+                JSObject window = (JSObject) webEngine.executeScript("window");
+                window.setMember("javaConnector", javaConnector);
                 updateStatus("Mapa cargado correctamente");
             }
         });
         
+        // Unidades del presupuesto de la isócrona
+        budgetModeComboBox.setItems(FXCollections.observableArrayList("km", "paradas", "transbordos"));
+        budgetModeComboBox.getSelectionModel().selectFirst();
+        
         // Inicializar cliente ICE
         initializeClient();
     }
@@ -129,6 +142,7 @@ public class MainController {
             destComboBox.getSelectionModel().clearSelection();
             selectedDestId = -1;
             findRouteButton.setDisable(true);
+            isochroneButton.setDisable(false);
             
             // Filtrar destinos alcanzables
             updateStatus("Calculando paradas alcanzables...");
@@ -244,6 +258,217 @@ public class MainController {
         }).start();
     }
     
+    /**
+     * Muestra en el mapa las paradas alcanzables desde el origen sin superar el
+     * presupuesto indicado
+     */
+    @FXML
+    private void onShowIsochrone() {
+        if (selectedOriginId < 0) {
+            showWarning("Selección Incompleta", "Debe seleccionar una parada de origen");
+            return;
+        }
+        
+        double budget;
+        try {
+            budget = Double.parseDouble(budgetField.getText().trim().replace(',', '.'));
+        } catch (NumberFormatException e) {
+            showWarning("Presupuesto Inválido", "Ingrese un número (km, paradas o transbordos)");
+            return;
+        }
+        
+        String unit = budgetModeComboBox.getSelectionModel().getSelectedItem();
+        CostMode mode = "paradas".equals(unit) ? CostMode.HOPS
+            : "transbordos".equals(unit) ? CostMode.TRANSFERS : CostMode.DISTANCE;
+        int originId = selectedOriginId;
+        
+        updateStatus("Calculando isócrona...");
+        isochroneButton.setDisable(true);
+        
+        new Thread(() -> {
+            try {
+                Isochrone isochrone = client.findIsochrone(originId, mode, budget, true);
+                
+                Platform.runLater(() -> {
+                    routeInfoLabel.setText("Isócrona desde " + getStopName(originId));
+                    stopsCountLabel.setText(String.valueOf(isochrone.stopIds.length));
+                    drawIsochroneOnMap(isochrone, budget, unit);
+                    updateStatus(String.format("%d paradas a %.2f %s o menos", 
+                                               isochrone.stopIds.length, budget, unit));
+                    isochroneButton.setDisable(false);
+                });
+                
+            } catch (StopNotFoundException e) {
+                Platform.runLater(() -> {
+                    showError("Error", e.message);
+                    updateStatus("Error al calcular isócrona");
+                    isochroneButton.setDisable(false);
+                });
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    showError("Error", "Error al comunicarse con el servidor: " + e.getMessage());
+                    updateStatus("Error de comunicación");
+                    isochroneButton.setDisable(false);
+                });
+                e.printStackTrace();
+            }
+        }).start();
+    }
+    
+    /**
+     * Dibuja la isócrona (paradas con su costo y polígono convexo) usando JavaScript
+     */
+    private void drawIsochroneOnMap(Isochrone isochrone, double budget, String unit) {
+        if (webEngine == null) return;
+        
+        try {
+            Map<Integer, Stop> stopsById = new HashMap<>();
+            for (Stop stop : allStops) {
+                stopsById.put(stop.stopId, stop);
+            }
+            
+            // Construir JSON de paradas con su costo
+            StringBuilder stopsJS = new StringBuilder("[");
+            for (int i = 0; i < isochrone.stopIds.length; i++) {
+                Stop stop = stopsById.get(isochrone.stopIds[i]);
+                if (stop == null) continue;
+                if (stopsJS.length() > 1) stopsJS.append(",");
+                stopsJS.append(String.format(Locale.US,
+                    "{stopId:%d, lat:%.6f, lng:%.6f, cost:%.3f, longName:'%s'}",
+                    stop.stopId,
+                    stop.decimalLat,
+                    stop.decimalLong,
+                    isochrone.costs[i],
+                    escapeJS(stop.longName)
+                ));
+            }
+            stopsJS.append("]");
+            
+            // Construir JSON del polígono
+            StringBuilder hullJS = new StringBuilder("[");
+            for (int i = 0; i < isochrone.hullLats.length; i++) {
+                if (i > 0) hullJS.append(",");
+                hullJS.append(String.format(Locale.US, "[%.6f, %.6f]", isochrone.hullLats[i], isochrone.hullLongs[i]));
+            }
+            hullJS.append("]");
+            
+            // Ejecutar JavaScript
+            String js = String.format(Locale.US, "drawIsochrone({stops:%s, hull:%s, budget:%.3f, unit:'%s'});", 
+                                      stopsJS, hullJS, budget, unit);
+            webEngine.executeScript(js);
+            
+        } catch (Exception e) {
+            System.err.println("Error al dibujar la isócrona en el mapa: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Puente llamado desde el mapa (JavaScript) en el hilo de JavaFX: el primer
+     * clic marca el origen y el segundo busca el viaje hasta el punto clicado
+     */
+    public class JavaConnector {
+        public void onMapClick(double lat, double lng) {
+            if (client == null) return;
+            
+            if (clickedOrigin == null) {
+                clickedOrigin = new double[] {lat, lng};
+                try {
+                    webEngine.executeScript("clearMap();");
+                    webEngine.executeScript(String.format(Locale.US, "drawPoint(%.6f, %.6f, 'Origen');", lat, lng));
+                } catch (Exception e) {
+                    System.err.println("Error al marcar el origen: " + e.getMessage());
+                }
+                updateStatus("Origen marcado. Haga clic en el destino");
+                return;
+            }
+            
+            double[] origin = clickedOrigin;
+            clickedOrigin = null;
+            onFindTrip(origin[0], origin[1], lat, lng);
+        }
+    }
+    
+    /**
+     * Busca un viaje entre dos puntos del mapa (caminata, bus y caminata)
+     */
+    private void onFindTrip(double originLat, double originLong, double destLat, double destLong) {
+        updateStatus("Buscando viaje...");
+        
+        new Thread(() -> {
+            try {
+                CoordinateRoute trip = client.findRouteByCoordinates(originLat, originLong, destLat, destLong);
+                
+                Platform.runLater(() -> {
+                    if (trip.found) {
+                        displayTrip(trip, originLat, originLong, destLat, destLong);
+                        updateStatus(trip.message);
+                    } else {
+                        showWarning("Viaje No Encontrado", trip.message);
+                        updateStatus("No se encontró viaje");
+                    }
+                });
+                
+            } catch (Exception e) {
+                Platform.runLater(() -> {
+                    showError("Error", "Error al comunicarse con el servidor: " + e.getMessage());
+                    updateStatus("Error de comunicación");
+                });
+                e.printStackTrace();
+            }
+        }).start();
+    }
+    
+    /**
+     * Muestra un viaje entre coordenadas: tramos a pie y ruta en bus
+     */
+    private void displayTrip(CoordinateRoute trip, double originLat, double originLong, double destLat, double destLong) {
+        RouteResult transit = trip.transit;
+        boolean byBus = transit.stops.length > 0;
+        
+        routeInfoLabel.setText(byBus
+            ? "Punto → " + getStopName(transit.stops[0].stopId) + " → "
+                + getStopName(transit.stops[transit.stops.length - 1].stopId) + " → Punto"
+            : "Viaje a pie");
+        stopsCountLabel.setText(String.valueOf(transit.stops.length));
+        distanceLabel.setText(String.format("%.2f km (%.2f a pie)", trip.totalDistance, trip.walkDistance));
+        transfersLabel.setText(String.valueOf(byBus ? transit.numTransfers : 0));
+        
+        ObservableList<String> legsList = FXCollections.observableArrayList();
+        legsList.add(String.format("A pie hasta %s (%.0f m)",
+                                   byBus ? transit.stops[0].longName : "el destino", trip.access.distance * 1000));
+        for (int i = 0; i < transit.arcs.length; i++) {
+            Arc arc = transit.arcs[i];
+            legsList.add(String.format("[%d] %s → %s (%.3f km) - Ruta %s", 
+                                       i + 1,
+                                       arc.fromStop.longName,
+                                       arc.toStop.longName,
+                                       arc.distance,
+                                       arc.lineName));
+        }
+        if (byBus) {
+            legsList.add(String.format("A pie hasta el destino (%.0f m)", trip.egress.distance * 1000));
+        }
+        arcsListView.setItems(legsList);
+        
+        if (webEngine == null) return;
+        try {
+            String walksJS = String.format(Locale.US,
+                "[{fromLat:%.6f, fromLng:%.6f, toLat:%.6f, toLng:%.6f, distance:%.3f}," 
+                    + "{fromLat:%.6f, fromLng:%.6f, toLat:%.6f, toLng:%.6f, distance:%.3f}]",
+                trip.access.fromLat, trip.access.fromLong, trip.access.toLat, trip.access.toLong, trip.access.distance,
+                trip.egress.fromLat, trip.egress.fromLong, trip.egress.toLat, trip.egress.toLong, trip.egress.distance);
+            String js = String.format(Locale.US,
+                "drawTrip({from:[%.6f, %.6f], to:[%.6f, %.6f], walks:%s, stops:%s, arcs:%s});",
+                originLat, originLong, destLat, destLong, walksJS, stopsToJS(transit.stops), arcsToJS(transit.arcs));
+            webEngine.executeScript(js);
+            
+        } catch (Exception e) {
+            System.err.println("Error al dibujar el viaje en el mapa: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+    
     /**
      * Muestra la ruta encontrada
      */
@@ -293,40 +518,8 @@ public class MainController {
         if (webEngine == null) return;
         
         try {
-            // Construir JSON de paradas
-            StringBuilder stopsJS = new StringBuilder("[");
-            for (int i = 0; i < stops.length; i++) {
-                if (i > 0) stopsJS.append(",");
-                stopsJS.append(String.format(
-                    "{stopId:%d, lat:%.6f, lng:%.6f, shortName:'%s', longName:'%s'}",
-                    stops[i].stopId,
-                    stops[i].decimalLat,
-                    stops[i].decimalLong,
-                    escapeJS(stops[i].shortName),
-                    escapeJS(stops[i].longName)
-                ));
-            }
-            stopsJS.append("]");
-            
-            // Construir JSON de arcos
-            StringBuilder arcsJS = new StringBuilder("[");
-            for (int i = 0; i < arcs.length; i++) {
-                if (i > 0) arcsJS.append(",");
-                arcsJS.append(String.format(
-                    "{fromLat:%.6f, fromLng:%.6f, toLat:%.6f, toLng:%.6f, distance:%.3f, sequence:%d, lineName:'%s'}",
-                    arcs[i].fromStop.decimalLat,
-                    arcs[i].fromStop.decimalLong,
-                    arcs[i].toStop.decimalLat,
-                    arcs[i].toStop.decimalLong,
-                    arcs[i].distance,
-                    i + 1,
-                    escapeJS(arcs[i].lineName)
-                ));
-            }
-            arcsJS.append("]");
-            
             // Ejecutar JavaScript
-            String js = String.format("drawRoute({stops:%s, arcs:%s});", stopsJS, arcsJS);
+            String js = String.format("drawRoute({stops:%s, arcs:%s});", stopsToJS(stops), arcsToJS(arcs));
             webEngine.executeScript(js);
             
         } catch (Exception e) {
@@ -335,6 +528,48 @@ public class MainController {
         }
     }
     
+    /**
+     * Construye el JSON de paradas que espera el mapa
+     */
+    private String stopsToJS(Stop[] stops) {
+        StringBuilder stopsJS = new StringBuilder("[");
+        for (int i = 0; i < stops.length; i++) {
+            if (i > 0) stopsJS.append(",");
+            stopsJS.append(String.format(
+                "{stopId:%d, lat:%.6f, lng:%.6f, shortName:'%s', longName:'%s'}",
+                stops[i].stopId,
+                stops[i].decimalLat,
+                stops[i].decimalLong,
+                escapeJS(stops[i].shortName),
+                escapeJS(stops[i].longName)
+            ));
+        }
+        stopsJS.append("]");
+        return stopsJS.toString();
+    }
+    
+    /**
+     * Construye el JSON de arcos que espera el mapa
+     */
+    private String arcsToJS(Arc[] arcs) {
+        StringBuilder arcsJS = new StringBuilder("[");
+        for (int i = 0; i < arcs.length; i++) {
+            if (i > 0) arcsJS.append(",");
+            arcsJS.append(String.format(
+                "{fromLat:%.6f, fromLng:%.6f, toLat:%.6f, toLng:%.6f, distance:%.3f, sequence:%d, lineName:'%s'}",
+                arcs[i].fromStop.decimalLat,
+                arcs[i].fromStop.decimalLong,
+                arcs[i].toStop.decimalLat,
+                arcs[i].toStop.decimalLong,
+                arcs[i].distance,
+                i + 1,
+                escapeJS(arcs[i].lineName)
+            ));
+        }
+        arcsJS.append("]");
+        return arcsJS.toString();
+    }
+    
     /**
      * Escapa caracteres especiales para JavaScript
      */
@@ -363,7 +598,9 @@ public class MainController {
         destComboBox.setDisable(true);
         selectedOriginId = -1;
         selectedDestId = -1;
+        clickedOrigin = null;
         findRouteButton.setDisable(true);
+        isochroneButton.setDisable(true);
         
         // Limpiar mapa
         if (webEngine != null) {
@@ -0,0 +1,224 @@
+//
+// Copyright (c) ZeroC, Inc. All rights reserved.
+//
+//
+// Ice version 3.7.10
+//
+// <auto-generated>
+//
+// Generated from file `MioGraph.ice'
+//
+// Warning: do not edit this file.
+//
+// </auto-generated>
+//
+
+package mioice;
+
+/**
+ * Viaje de coordenada a coordenada: caminata de acceso, ruta en bus y caminata
+ * de egreso. Si conviene caminar todo el trayecto, transit no tiene paradas y
+ * access va del origen al destino
+ **/
+public class CoordinateRoute implements java.lang.Cloneable,
+                                        java.io.Serializable
+{
+    public boolean found;
+
+    public WalkLeg access;
+
+    public RouteResult transit;
+
+    public WalkLeg egress;
+
+    public double totalDistance;
+
+    public double walkDistance;
+
+    public String message;
+
+    public CoordinateRoute()
+    {
+        this.access = new WalkLeg();
+        this.transit = new RouteResult();
+        this.egress = new WalkLeg();
+        this.message = "";
+    }
+
+    public CoordinateRoute(boolean found, WalkLeg access, RouteResult transit, WalkLeg egress, double totalDistance, double walkDistance, String message)
+    {
+        this.found = found;
+        this.access = access;
+        this.transit = transit;
+        this.egress = egress;
+        this.totalDistance = totalDistance;
+        this.walkDistance = walkDistance;
+        this.message = message;
+    }
+
+    public boolean equals(java.lang.Object rhs)
+    {
+        if(this == rhs)
+        {
+            return true;
+        }
+        CoordinateRoute r = null;
+        if(rhs instanceof CoordinateRoute)
+        {
+            r = (CoordinateRoute)rhs;
+        }
+
+        if(r != null)
+        {
+            if(this.found != r.found)
+            {
+                return false;
+            }
+            if(this.access != r.access)
+            {
+                if(this.access == null || r.access == null || !this.access.equals(r.access))
+                {
+                    return false;
+                }
+            }
+            if(this.transit != r.transit)
+            {
+                if(this.transit == null || r.transit == null || !this.transit.equals(r.transit))
+                {
+                    return false;
+                }
+            }
+            if(this.egress != r.egress)
+            {
+                if(this.egress == null || r.egress == null || !this.egress.equals(r.egress))
+                {
+                    return false;
+                }
+            }
+            if(this.totalDistance != r.totalDistance)
+            {
+                return false;
+            }
+            if(this.walkDistance != r.walkDistance)
+            {
+                return false;
+            }
+            if(this.message != r.message)
+            {
+                if(this.message == null || r.message == null || !this.message.equals(r.message))
+                {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public int hashCode()
+    {
+        int h_ = 5381;
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, "::mioice::CoordinateRoute");
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, found);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, access);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, transit);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, egress);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, totalDistance);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, walkDistance);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, message);
+        return h_;
+    }
+
+    public CoordinateRoute clone()
+    {
+        CoordinateRoute c = null;
+        try
+        {
+            c = (CoordinateRoute)super.clone();
+        }
+        catch(CloneNotSupportedException ex)
+        {
+            assert false; // impossible
+        }
+        return c;
+    }
+
+    public void ice_writeMembers(com.zeroc.Ice.OutputStream ostr)
+    {
+        ostr.writeBool(this.found);
+        WalkLeg.ice_write(ostr, this.access);
+        RouteResult.ice_write(ostr, this.transit);
+        WalkLeg.ice_write(ostr, this.egress);
+        ostr.writeDouble(this.totalDistance);
+        ostr.writeDouble(this.walkDistance);
+        ostr.writeString(this.message);
+    }
+
+    public void ice_readMembers(com.zeroc.Ice.InputStream istr)
+    {
+        this.found = istr.readBool();
+        this.access = WalkLeg.ice_read(istr);
+        this.transit = RouteResult.ice_read(istr);
+        this.egress = WalkLeg.ice_read(istr);
+        this.totalDistance = istr.readDouble();
+        this.walkDistance = istr.readDouble();
+        this.message = istr.readString();
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, CoordinateRoute v)
+    {
+        if(v == null)
+        {
+            _nullMarshalValue.ice_writeMembers(ostr);
+        }
+        else
+        {
+            v.ice_writeMembers(ostr);
+        }
+    }
+
+    static public CoordinateRoute ice_read(com.zeroc.Ice.InputStream istr)
+    {
+        CoordinateRoute v = new CoordinateRoute();
+        v.ice_readMembers(istr);
+        return v;
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, java.util.Optional<CoordinateRoute> v)
+    {
+        if(v != null && v.isPresent())
+        {
+            ice_write(ostr, tag, v.get());
+        }
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, CoordinateRoute v)
+    {
+        if(ostr.writeOptional(tag, com.zeroc.Ice.OptionalFormat.FSize))
+        {
+            int pos = ostr.startSize();
+            ice_write(ostr, v);
+            ostr.endSize(pos);
+        }
+    }
+
+    static public java.util.Optional<CoordinateRoute> ice_read(com.zeroc.Ice.InputStream istr, int tag)
+    {
+        if(istr.readOptional(tag, com.zeroc.Ice.OptionalFormat.FSize))
+        {
+            istr.skip(4);
+            return java.util.Optional.of(CoordinateRoute.ice_read(istr));
+        }
+        else
+        {
+            return java.util.Optional.empty();
+        }
+    }
+
+    private static final CoordinateRoute _nullMarshalValue = new CoordinateRoute();
+
+    /** @hidden */
+    public static final long serialVersionUID = -437391752L;
+}
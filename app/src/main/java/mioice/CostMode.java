@@ -0,0 +1,113 @@
+//
+// Copyright (c) ZeroC, Inc. All rights reserved.
+//
+//
+// Ice version 3.7.10
+//
+// <auto-generated>
+//
+// Generated from file `MioGraph.ice'
+//
+// Warning: do not edit this file.
+//
+// </auto-generated>
+//
+
+package mioice;
+
+/**
+ * Criterio de costo para el cálculo de rutas
+ **/
+public enum CostMode implements java.io.Serializable
+{
+    HOPS(0),
+    DISTANCE(1),
+    TRANSFERS(2);
+
+    public int value()
+    {
+        return _value;
+    }
+
+    public static CostMode valueOf(int v)
+    {
+        switch(v)
+        {
+        case 0:
+            return HOPS;
+        case 1:
+            return DISTANCE;
+        case 2:
+            return TRANSFERS;
+        }
+        return null;
+    }
+
+    private CostMode(int v)
+    {
+        _value = v;
+    }
+
+    public void ice_write(com.zeroc.Ice.OutputStream ostr)
+    {
+        ostr.writeEnum(_value, 2);
+    }
+
+    public static void ice_write(com.zeroc.Ice.OutputStream ostr, CostMode v)
+    {
+        if(v == null)
+        {
+            ostr.writeEnum(mioice.CostMode.HOPS.value(), 2);
+        }
+        else
+        {
+            ostr.writeEnum(v.value(), 2);
+        }
+    }
+
+    public static CostMode ice_read(com.zeroc.Ice.InputStream istr)
+    {
+        int v = istr.readEnum(2);
+        return validate(v);
+    }
+
+    public static void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, java.util.Optional<CostMode> v)
+    {
+        if(v != null && v.isPresent())
+        {
+            ice_write(ostr, tag, v.get());
+        }
+    }
+
+    public static void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, CostMode v)
+    {
+        if(ostr.writeOptional(tag, com.zeroc.Ice.OptionalFormat.Size))
+        {
+            ice_write(ostr, v);
+        }
+    }
+
+    public static java.util.Optional<CostMode> ice_read(com.zeroc.Ice.InputStream istr, int tag)
+    {
+        if(istr.readOptional(tag, com.zeroc.Ice.OptionalFormat.Size))
+        {
+            return java.util.Optional.of(ice_read(istr));
+        }
+        else
+        {
+            return java.util.Optional.empty();
+        }
+    }
+
+    private static CostMode validate(int v)
+    {
+        final CostMode e = valueOf(v);
+        if(e == null)
+        {
+            throw new com.zeroc.Ice.MarshalException("enumerator value " + v + " is out of range");
+        }
+        return e;
+    }
+
+    private final int _value;
+}
@@ -69,6 +69,116 @@ public interface GraphService extends com.zeroc.Ice.Object
     RouteResult findRoute(int originStopId, int destStopId, com.zeroc.Ice.Current current)
         throws StopNotFoundException;
 
+    /**
+     * Encuentra la ruta óptima entre dos paradas según un criterio de costo
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param mode HOPS (menos paradas, igual que findRoute), DISTANCE (menos km) o TRANSFERS (menos transbordos)
+     * @param current The Current object for the invocation.
+     * @return RouteResult con la ruta encontrada o información de error
+     **/
+    RouteResult findRouteWithMode(int originStopId, int destStopId, CostMode mode, com.zeroc.Ice.Current current)
+        throws StopNotFoundException;
+
+    /**
+     * Encuentra los viajes Pareto óptimos entre dos paradas: para cada número de
+     * transbordos, el viaje más corto que mejora a los que usan menos transbordos
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param maxTransfers máximo de transbordos (negativo: el límite del servidor)
+     * @param current The Current object for the invocation.
+     * @return RouteResultList ordenada de menos a más transbordos, o un único RouteResult sin ruta
+     **/
+    RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers, com.zeroc.Ice.Current current)
+        throws StopNotFoundException;
+
+    /**
+     * Encuentra rutas alternativas entre dos paradas: las k rutas sin ciclos más
+     * cortas en km, cada una por un trayecto distinto de paradas
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param k número de rutas (menor que 1 o mayor que el límite del servidor: ese límite)
+     * @param current The Current object for the invocation.
+     * @return RouteResultList de menor a mayor distancia (la primera es la más corta), o un único RouteResult sin ruta
+     **/
+    RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k, com.zeroc.Ice.Current current)
+        throws StopNotFoundException;
+
+    /**
+     * Encuentra las rutas de muchos pares origen-destino en una sola invocación:
+     * el lote se reparte por bloques entre los workers en paralelo. Una parada
+     * inexistente da un RouteResult sin ruta; si las listas difieren, sobran los últimos pares
+     * @param origins IDs de las paradas de origen
+     * @param dests IDs de las paradas de destino (dests[i] corresponde a origins[i])
+     * @param mode criterio de costo de todas las rutas del lote
+     * @param current The Current object for the invocation.
+     * @return RouteResultList en el mismo orden de los pares
+     **/
+    RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode, com.zeroc.Ice.Current current);
+
+    /**
+     * Calcula la matriz de costos entre dos conjuntos de paradas con una búsqueda
+     * de uno a muchos por origen; los orígenes se reparten por bloques entre los
+     * workers en paralelo. Una parada inexistente da -1 en su fila o columna.
+     * Más de 8.000.000 celdas (filas x columnas) se rechazan sin buscar: la
+     * respuesta no cabría en un mensaje; las matrices mayores se piden por bloques
+     * @param sources IDs de las paradas de origen (filas)
+     * @param targets IDs de las paradas de destino (columnas)
+     * @param mode criterio de costo con el que se elige la ruta de cada celda
+     * @param current The Current object for the invocation.
+     * @return RouteMatrix con km, arcos y transbordos de cada par
+     **/
+    RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode, com.zeroc.Ice.Current current);
+
+    /**
+     * Encuentra las paradas alcanzables desde un origen sin superar un presupuesto
+     * (isócrona): a diferencia de getReachableStops, la búsqueda se detiene al
+     * agotar el presupuesto
+     * @param originStopId ID de la parada de origen
+     * @param mode DISTANCE (presupuesto en km), HOPS (en arcos) o TRANSFERS (en transbordos)
+     * @param budget costo máximo de las paradas devueltas
+     * @param withHull si se calcula el polígono convexo de las paradas alcanzadas
+     * @param current The Current object for the invocation.
+     * @return Isochrone con las paradas de menor a mayor costo
+     **/
+    Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull, com.zeroc.Ice.Current current)
+        throws StopNotFoundException;
+
+    /**
+     * Encuentra un viaje entre dos coordenadas: caminata hasta una parada cercana
+     * al origen, ruta en bus y caminata desde una parada cercana al destino. Se
+     * elige la combinación de menor distancia, con la caminata ponderada
+     * @param originLat latitud del origen en grados decimales
+     * @param originLong longitud del origen en grados decimales
+     * @param destLat latitud del destino en grados decimales
+     * @param destLong longitud del destino en grados decimales
+     * @param current The Current object for the invocation.
+     * @return CoordinateRoute con los tramos a pie y la ruta en bus; sin viaje si alguna
+     *         coordenada no es finita o está fuera de ±90 (latitud) o ±180 (longitud)
+     **/
+    CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong, com.zeroc.Ice.Current current);
+
+    /**
+     * Encuentra las k paradas más cercanas a una coordenada (índice espacial en
+     * grilla, sin recorrer todas las paradas)
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param k número de paradas
+     * @param current The Current object for the invocation.
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    NearbyStops findNearestStops(double lat, double lon, int k, com.zeroc.Ice.Current current);
+
+    /**
+     * Encuentra las paradas a una distancia en línea recta menor o igual al radio
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param radiusMeters radio de búsqueda en metros
+     * @param current The Current object for the invocation.
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    NearbyStops findStopsWithin(double lat, double lon, double radiusMeters, com.zeroc.Ice.Current current);
+
     /**
      * Obtiene todas las paradas alcanzables desde una parada de origen
      * @param originStopId ID de la parada de origen
@@ -232,6 +342,243 @@ public interface GraphService extends com.zeroc.Ice.Object
         return inS.setResult(ostr);
     }
 
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+     * @throws com.zeroc.Ice.UserException -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findRouteWithMode(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+        throws com.zeroc.Ice.UserException
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_originStopId;
+        int iceP_destStopId;
+        CostMode iceP_mode;
+        iceP_originStopId = istr.readInt();
+        iceP_destStopId = istr.readInt();
+        iceP_mode = CostMode.ice_read(istr);
+        inS.endReadParams();
+        RouteResult ret = obj.findRouteWithMode(iceP_originStopId, iceP_destStopId, iceP_mode, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteResult.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+     * @throws com.zeroc.Ice.UserException -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findJourneys(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+        throws com.zeroc.Ice.UserException
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_originStopId;
+        int iceP_destStopId;
+        int iceP_maxTransfers;
+        iceP_originStopId = istr.readInt();
+        iceP_destStopId = istr.readInt();
+        iceP_maxTransfers = istr.readInt();
+        inS.endReadParams();
+        RouteResult[] ret = obj.findJourneys(iceP_originStopId, iceP_destStopId, iceP_maxTransfers, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteResultListHelper.write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+     * @throws com.zeroc.Ice.UserException -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findAlternativeRoutes(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+        throws com.zeroc.Ice.UserException
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_originStopId;
+        int iceP_destStopId;
+        int iceP_k;
+        iceP_originStopId = istr.readInt();
+        iceP_destStopId = istr.readInt();
+        iceP_k = istr.readInt();
+        inS.endReadParams();
+        RouteResult[] ret = obj.findAlternativeRoutes(iceP_originStopId, iceP_destStopId, iceP_k, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteResultListHelper.write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findRoutes(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int[] iceP_origins;
+        int[] iceP_dests;
+        CostMode iceP_mode;
+        iceP_origins = istr.readIntSeq();
+        iceP_dests = istr.readIntSeq();
+        iceP_mode = CostMode.ice_read(istr);
+        inS.endReadParams();
+        RouteResult[] ret = obj.findRoutes(iceP_origins, iceP_dests, iceP_mode, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteResultListHelper.write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_computeMatrix(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int[] iceP_sources;
+        int[] iceP_targets;
+        CostMode iceP_mode;
+        iceP_sources = istr.readIntSeq();
+        iceP_targets = istr.readIntSeq();
+        iceP_mode = CostMode.ice_read(istr);
+        inS.endReadParams();
+        RouteMatrix ret = obj.computeMatrix(iceP_sources, iceP_targets, iceP_mode, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteMatrix.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+     * @throws com.zeroc.Ice.UserException -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findIsochrone(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+        throws com.zeroc.Ice.UserException
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_originStopId;
+        CostMode iceP_mode;
+        double iceP_budget;
+        boolean iceP_withHull;
+        iceP_originStopId = istr.readInt();
+        iceP_mode = CostMode.ice_read(istr);
+        iceP_budget = istr.readDouble();
+        iceP_withHull = istr.readBool();
+        inS.endReadParams();
+        Isochrone ret = obj.findIsochrone(iceP_originStopId, iceP_mode, iceP_budget, iceP_withHull, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        Isochrone.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findRouteByCoordinates(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        double iceP_originLat;
+        double iceP_originLong;
+        double iceP_destLat;
+        double iceP_destLong;
+        iceP_originLat = istr.readDouble();
+        iceP_originLong = istr.readDouble();
+        iceP_destLat = istr.readDouble();
+        iceP_destLong = istr.readDouble();
+        inS.endReadParams();
+        CoordinateRoute ret = obj.findRouteByCoordinates(iceP_originLat, iceP_originLong, iceP_destLat, iceP_destLong, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        CoordinateRoute.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findNearestStops(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        double iceP_lat;
+        double iceP_lon;
+        int iceP_k;
+        iceP_lat = istr.readDouble();
+        iceP_lon = istr.readDouble();
+        iceP_k = istr.readInt();
+        inS.endReadParams();
+        NearbyStops ret = obj.findNearestStops(iceP_lat, iceP_lon, iceP_k, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        NearbyStops.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findStopsWithin(GraphService obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        double iceP_lat;
+        double iceP_lon;
+        double iceP_radiusMeters;
+        iceP_lat = istr.readDouble();
+        iceP_lon = istr.readDouble();
+        iceP_radiusMeters = istr.readDouble();
+        inS.endReadParams();
+        NearbyStops ret = obj.findStopsWithin(iceP_lat, iceP_lon, iceP_radiusMeters, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        NearbyStops.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
     /**
      * @hidden
      * @param obj -
@@ -258,7 +605,16 @@ public interface GraphService extends com.zeroc.Ice.Object
     /** @hidden */
     final static String[] _iceOps =
     {
+        "computeMatrix",
+        "findAlternativeRoutes",
+        "findIsochrone",
+        "findJourneys",
+        "findNearestStops",
         "findRoute",
+        "findRouteByCoordinates",
+        "findRouteWithMode",
+        "findRoutes",
+        "findStopsWithin",
         "getAllArcs",
         "getAllStops",
         "getArcsByRouteAndOrientation",
@@ -287,49 +643,85 @@ public interface GraphService extends com.zeroc.Ice.Object
         {
             case 0:
             {
-                return _iceD_findRoute(this, in, current);
+                return _iceD_computeMatrix(this, in, current);
             }
             case 1:
             {
-                return _iceD_getAllArcs(this, in, current);
+                return _iceD_findAlternativeRoutes(this, in, current);
             }
             case 2:
             {
-                return _iceD_getAllStops(this, in, current);
+                return _iceD_findIsochrone(this, in, current);
             }
             case 3:
             {
-                return _iceD_getArcsByRouteAndOrientation(this, in, current);
+                return _iceD_findJourneys(this, in, current);
             }
             case 4:
             {
-                return _iceD_getGraphStatistics(this, in, current);
+                return _iceD_findNearestStops(this, in, current);
             }
             case 5:
             {
-                return _iceD_getReachableStops(this, in, current);
+                return _iceD_findRoute(this, in, current);
             }
             case 6:
             {
-                return com.zeroc.Ice.Object._iceD_ice_id(this, in, current);
+                return _iceD_findRouteByCoordinates(this, in, current);
             }
             case 7:
             {
-                return com.zeroc.Ice.Object._iceD_ice_ids(this, in, current);
+                return _iceD_findRouteWithMode(this, in, current);
             }
             case 8:
             {
-                return com.zeroc.Ice.Object._iceD_ice_isA(this, in, current);
+                return _iceD_findRoutes(this, in, current);
             }
             case 9:
             {
-                return com.zeroc.Ice.Object._iceD_ice_ping(this, in, current);
+                return _iceD_findStopsWithin(this, in, current);
             }
             case 10:
             {
-                return _iceD_printArcsToConsole(this, in, current);
+                return _iceD_getAllArcs(this, in, current);
             }
             case 11:
+            {
+                return _iceD_getAllStops(this, in, current);
+            }
+            case 12:
+            {
+                return _iceD_getArcsByRouteAndOrientation(this, in, current);
+            }
+            case 13:
+            {
+                return _iceD_getGraphStatistics(this, in, current);
+            }
+            case 14:
+            {
+                return _iceD_getReachableStops(this, in, current);
+            }
+            case 15:
+            {
+                return com.zeroc.Ice.Object._iceD_ice_id(this, in, current);
+            }
+            case 16:
+            {
+                return com.zeroc.Ice.Object._iceD_ice_ids(this, in, current);
+            }
+            case 17:
+            {
+                return com.zeroc.Ice.Object._iceD_ice_isA(this, in, current);
+            }
+            case 18:
+            {
+                return com.zeroc.Ice.Object._iceD_ice_ping(this, in, current);
+            }
+            case 19:
+            {
+                return _iceD_printArcsToConsole(this, in, current);
+            }
+            case 20:
             {
                 return _iceD_registerWorker(this, in, current);
             }
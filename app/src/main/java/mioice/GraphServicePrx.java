@@ -432,6 +432,816 @@ public interface GraphServicePrx extends com.zeroc.Ice.ObjectPrx
         StopNotFoundException.class
     };
 
+    /**
+     * Encuentra la ruta óptima entre dos paradas según un criterio de costo
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param mode HOPS (menos paradas, igual que findRoute), DISTANCE (menos km) o TRANSFERS (menos transbordos)
+     * @return RouteResult con la ruta encontrada o información de error
+     **/
+    default RouteResult findRouteWithMode(int originStopId, int destStopId, CostMode mode)
+        throws StopNotFoundException
+    {
+        return findRouteWithMode(originStopId, destStopId, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Encuentra la ruta óptima entre dos paradas según un criterio de costo
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param mode HOPS (menos paradas, igual que findRoute), DISTANCE (menos km) o TRANSFERS (menos transbordos)
+     * @param context The Context map to send with the invocation.
+     * @return RouteResult con la ruta encontrada o información de error
+     **/
+    default RouteResult findRouteWithMode(int originStopId, int destStopId, CostMode mode, java.util.Map<String, String> context)
+        throws StopNotFoundException
+    {
+        try
+        {
+            return _iceI_findRouteWithModeAsync(originStopId, destStopId, mode, context, true).waitForResponseOrUserEx();
+        }
+        catch(StopNotFoundException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
+    }
+
+    /**
+     * Encuentra la ruta óptima entre dos paradas según un criterio de costo
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param mode HOPS (menos paradas, igual que findRoute), DISTANCE (menos km) o TRANSFERS (menos transbordos)
+     * @return RouteResult con la ruta encontrada o información de error
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult> findRouteWithModeAsync(int originStopId, int destStopId, CostMode mode)
+    {
+        return _iceI_findRouteWithModeAsync(originStopId, destStopId, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Encuentra la ruta óptima entre dos paradas según un criterio de costo
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param mode HOPS (menos paradas, igual que findRoute), DISTANCE (menos km) o TRANSFERS (menos transbordos)
+     * @param context The Context map to send with the invocation.
+     * @return RouteResult con la ruta encontrada o información de error
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult> findRouteWithModeAsync(int originStopId, int destStopId, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_findRouteWithModeAsync(originStopId, destStopId, mode, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originStopId -
+     * @param iceP_destStopId -
+     * @param iceP_mode -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteResult> _iceI_findRouteWithModeAsync(int iceP_originStopId, int iceP_destStopId, CostMode iceP_mode, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteResult> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findRouteWithMode", null, sync, _iceE_findRouteWithMode);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_originStopId);
+                     ostr.writeInt(iceP_destStopId);
+                     CostMode.ice_write(ostr, iceP_mode);
+                 }, istr -> {
+                     RouteResult ret;
+                     ret = RouteResult.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /** @hidden */
+    static final Class<?>[] _iceE_findRouteWithMode =
+    {
+        StopNotFoundException.class
+    };
+
+    /**
+     * Encuentra los viajes Pareto óptimos entre dos paradas: para cada número de
+     * transbordos, el viaje más corto que mejora a los que usan menos transbordos
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param maxTransfers máximo de transbordos (negativo: el límite del servidor)
+     * @return RouteResultList ordenada de menos a más transbordos, o un único RouteResult sin ruta
+     **/
+    default RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers)
+        throws StopNotFoundException
+    {
+        return findJourneys(originStopId, destStopId, maxTransfers, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Encuentra los viajes Pareto óptimos entre dos paradas: para cada número de
+     * transbordos, el viaje más corto que mejora a los que usan menos transbordos
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param maxTransfers máximo de transbordos (negativo: el límite del servidor)
+     * @param context The Context map to send with the invocation.
+     * @return RouteResultList ordenada de menos a más transbordos, o un único RouteResult sin ruta
+     **/
+    default RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers, java.util.Map<String, String> context)
+        throws StopNotFoundException
+    {
+        try
+        {
+            return _iceI_findJourneysAsync(originStopId, destStopId, maxTransfers, context, true).waitForResponseOrUserEx();
+        }
+        catch(StopNotFoundException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
+    }
+
+    /**
+     * Encuentra los viajes Pareto óptimos entre dos paradas: para cada número de
+     * transbordos, el viaje más corto que mejora a los que usan menos transbordos
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param maxTransfers máximo de transbordos (negativo: el límite del servidor)
+     * @return RouteResultList ordenada de menos a más transbordos, o un único RouteResult sin ruta
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findJourneysAsync(int originStopId, int destStopId, int maxTransfers)
+    {
+        return _iceI_findJourneysAsync(originStopId, destStopId, maxTransfers, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Encuentra los viajes Pareto óptimos entre dos paradas: para cada número de
+     * transbordos, el viaje más corto que mejora a los que usan menos transbordos
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param maxTransfers máximo de transbordos (negativo: el límite del servidor)
+     * @param context The Context map to send with the invocation.
+     * @return RouteResultList ordenada de menos a más transbordos, o un único RouteResult sin ruta
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findJourneysAsync(int originStopId, int destStopId, int maxTransfers, java.util.Map<String, String> context)
+    {
+        return _iceI_findJourneysAsync(originStopId, destStopId, maxTransfers, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originStopId -
+     * @param iceP_destStopId -
+     * @param iceP_maxTransfers -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> _iceI_findJourneysAsync(int iceP_originStopId, int iceP_destStopId, int iceP_maxTransfers, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findJourneys", null, sync, _iceE_findJourneys);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_originStopId);
+                     ostr.writeInt(iceP_destStopId);
+                     ostr.writeInt(iceP_maxTransfers);
+                 }, istr -> {
+                     RouteResult[] ret;
+                     ret = RouteResultListHelper.read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /** @hidden */
+    static final Class<?>[] _iceE_findJourneys =
+    {
+        StopNotFoundException.class
+    };
+
+    /**
+     * Encuentra rutas alternativas entre dos paradas: las k rutas sin ciclos más
+     * cortas en km, cada una por un trayecto distinto de paradas
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param k número de rutas (menor que 1 o mayor que el límite del servidor: ese límite)
+     * @return RouteResultList de menor a mayor distancia (la primera es la más corta), o un único RouteResult sin ruta
+     **/
+    default RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k)
+        throws StopNotFoundException
+    {
+        return findAlternativeRoutes(originStopId, destStopId, k, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Encuentra rutas alternativas entre dos paradas: las k rutas sin ciclos más
+     * cortas en km, cada una por un trayecto distinto de paradas
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param k número de rutas (menor que 1 o mayor que el límite del servidor: ese límite)
+     * @param context The Context map to send with the invocation.
+     * @return RouteResultList de menor a mayor distancia (la primera es la más corta), o un único RouteResult sin ruta
+     **/
+    default RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k, java.util.Map<String, String> context)
+        throws StopNotFoundException
+    {
+        try
+        {
+            return _iceI_findAlternativeRoutesAsync(originStopId, destStopId, k, context, true).waitForResponseOrUserEx();
+        }
+        catch(StopNotFoundException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
+    }
+
+    /**
+     * Encuentra rutas alternativas entre dos paradas: las k rutas sin ciclos más
+     * cortas en km, cada una por un trayecto distinto de paradas
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param k número de rutas (menor que 1 o mayor que el límite del servidor: ese límite)
+     * @return RouteResultList de menor a mayor distancia (la primera es la más corta), o un único RouteResult sin ruta
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findAlternativeRoutesAsync(int originStopId, int destStopId, int k)
+    {
+        return _iceI_findAlternativeRoutesAsync(originStopId, destStopId, k, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Encuentra rutas alternativas entre dos paradas: las k rutas sin ciclos más
+     * cortas en km, cada una por un trayecto distinto de paradas
+     * @param originStopId ID de la parada de origen
+     * @param destStopId ID de la parada de destino
+     * @param k número de rutas (menor que 1 o mayor que el límite del servidor: ese límite)
+     * @param context The Context map to send with the invocation.
+     * @return RouteResultList de menor a mayor distancia (la primera es la más corta), o un único RouteResult sin ruta
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findAlternativeRoutesAsync(int originStopId, int destStopId, int k, java.util.Map<String, String> context)
+    {
+        return _iceI_findAlternativeRoutesAsync(originStopId, destStopId, k, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originStopId -
+     * @param iceP_destStopId -
+     * @param iceP_k -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> _iceI_findAlternativeRoutesAsync(int iceP_originStopId, int iceP_destStopId, int iceP_k, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findAlternativeRoutes", null, sync, _iceE_findAlternativeRoutes);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_originStopId);
+                     ostr.writeInt(iceP_destStopId);
+                     ostr.writeInt(iceP_k);
+                 }, istr -> {
+                     RouteResult[] ret;
+                     ret = RouteResultListHelper.read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /** @hidden */
+    static final Class<?>[] _iceE_findAlternativeRoutes =
+    {
+        StopNotFoundException.class
+    };
+
+    /**
+     * Encuentra las rutas de muchos pares origen-destino en una sola invocación:
+     * el lote se reparte por bloques entre los workers en paralelo. Una parada
+     * inexistente da un RouteResult sin ruta; si las listas difieren, sobran los últimos pares
+     * @param origins IDs de las paradas de origen
+     * @param dests IDs de las paradas de destino (dests[i] corresponde a origins[i])
+     * @param mode criterio de costo de todas las rutas del lote
+     * @return RouteResultList en el mismo orden de los pares
+     **/
+    default RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode)
+    {
+        return findRoutes(origins, dests, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Encuentra las rutas de muchos pares origen-destino en una sola invocación:
+     * el lote se reparte por bloques entre los workers en paralelo. Una parada
+     * inexistente da un RouteResult sin ruta; si las listas difieren, sobran los últimos pares
+     * @param origins IDs de las paradas de origen
+     * @param dests IDs de las paradas de destino (dests[i] corresponde a origins[i])
+     * @param mode criterio de costo de todas las rutas del lote
+     * @param context The Context map to send with the invocation.
+     * @return RouteResultList en el mismo orden de los pares
+     **/
+    default RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_findRoutesAsync(origins, dests, mode, context, true).waitForResponse();
+    }
+
+    /**
+     * Encuentra las rutas de muchos pares origen-destino en una sola invocación:
+     * el lote se reparte por bloques entre los workers en paralelo. Una parada
+     * inexistente da un RouteResult sin ruta; si las listas difieren, sobran los últimos pares
+     * @param origins IDs de las paradas de origen
+     * @param dests IDs de las paradas de destino (dests[i] corresponde a origins[i])
+     * @param mode criterio de costo de todas las rutas del lote
+     * @return RouteResultList en el mismo orden de los pares
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findRoutesAsync(int[] origins, int[] dests, CostMode mode)
+    {
+        return _iceI_findRoutesAsync(origins, dests, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Encuentra las rutas de muchos pares origen-destino en una sola invocación:
+     * el lote se reparte por bloques entre los workers en paralelo. Una parada
+     * inexistente da un RouteResult sin ruta; si las listas difieren, sobran los últimos pares
+     * @param origins IDs de las paradas de origen
+     * @param dests IDs de las paradas de destino (dests[i] corresponde a origins[i])
+     * @param mode criterio de costo de todas las rutas del lote
+     * @param context The Context map to send with the invocation.
+     * @return RouteResultList en el mismo orden de los pares
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findRoutesAsync(int[] origins, int[] dests, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_findRoutesAsync(origins, dests, mode, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_origins -
+     * @param iceP_dests -
+     * @param iceP_mode -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> _iceI_findRoutesAsync(int[] iceP_origins, int[] iceP_dests, CostMode iceP_mode, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findRoutes", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeIntSeq(iceP_origins);
+                     ostr.writeIntSeq(iceP_dests);
+                     CostMode.ice_write(ostr, iceP_mode);
+                 }, istr -> {
+                     RouteResult[] ret;
+                     ret = RouteResultListHelper.read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /**
+     * Calcula la matriz de costos entre dos conjuntos de paradas con una búsqueda
+     * de uno a muchos por origen; los orígenes se reparten por bloques entre los
+     * workers en paralelo. Una parada inexistente da -1 en su fila o columna.
+     * Más de 8.000.000 celdas (filas x columnas) se rechazan sin buscar: la
+     * respuesta no cabría en un mensaje; las matrices mayores se piden por bloques
+     * @param sources IDs de las paradas de origen (filas)
+     * @param targets IDs de las paradas de destino (columnas)
+     * @param mode criterio de costo con el que se elige la ruta de cada celda
+     * @return RouteMatrix con km, arcos y transbordos de cada par
+     **/
+    default RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode)
+    {
+        return computeMatrix(sources, targets, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Calcula la matriz de costos entre dos conjuntos de paradas con una búsqueda
+     * de uno a muchos por origen; los orígenes se reparten por bloques entre los
+     * workers en paralelo. Una parada inexistente da -1 en su fila o columna.
+     * Más de 8.000.000 celdas (filas x columnas) se rechazan sin buscar: la
+     * respuesta no cabría en un mensaje; las matrices mayores se piden por bloques
+     * @param sources IDs de las paradas de origen (filas)
+     * @param targets IDs de las paradas de destino (columnas)
+     * @param mode criterio de costo con el que se elige la ruta de cada celda
+     * @param context The Context map to send with the invocation.
+     * @return RouteMatrix con km, arcos y transbordos de cada par
+     **/
+    default RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_computeMatrixAsync(sources, targets, mode, context, true).waitForResponse();
+    }
+
+    /**
+     * Calcula la matriz de costos entre dos conjuntos de paradas con una búsqueda
+     * de uno a muchos por origen; los orígenes se reparten por bloques entre los
+     * workers en paralelo. Una parada inexistente da -1 en su fila o columna.
+     * Más de 8.000.000 celdas (filas x columnas) se rechazan sin buscar: la
+     * respuesta no cabría en un mensaje; las matrices mayores se piden por bloques
+     * @param sources IDs de las paradas de origen (filas)
+     * @param targets IDs de las paradas de destino (columnas)
+     * @param mode criterio de costo con el que se elige la ruta de cada celda
+     * @return RouteMatrix con km, arcos y transbordos de cada par
+     **/
+    default java.util.concurrent.CompletableFuture<RouteMatrix> computeMatrixAsync(int[] sources, int[] targets, CostMode mode)
+    {
+        return _iceI_computeMatrixAsync(sources, targets, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Calcula la matriz de costos entre dos conjuntos de paradas con una búsqueda
+     * de uno a muchos por origen; los orígenes se reparten por bloques entre los
+     * workers en paralelo. Una parada inexistente da -1 en su fila o columna.
+     * Más de 8.000.000 celdas (filas x columnas) se rechazan sin buscar: la
+     * respuesta no cabría en un mensaje; las matrices mayores se piden por bloques
+     * @param sources IDs de las paradas de origen (filas)
+     * @param targets IDs de las paradas de destino (columnas)
+     * @param mode criterio de costo con el que se elige la ruta de cada celda
+     * @param context The Context map to send with the invocation.
+     * @return RouteMatrix con km, arcos y transbordos de cada par
+     **/
+    default java.util.concurrent.CompletableFuture<RouteMatrix> computeMatrixAsync(int[] sources, int[] targets, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_computeMatrixAsync(sources, targets, mode, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_sources -
+     * @param iceP_targets -
+     * @param iceP_mode -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteMatrix> _iceI_computeMatrixAsync(int[] iceP_sources, int[] iceP_targets, CostMode iceP_mode, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteMatrix> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "computeMatrix", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeIntSeq(iceP_sources);
+                     ostr.writeIntSeq(iceP_targets);
+                     CostMode.ice_write(ostr, iceP_mode);
+                 }, istr -> {
+                     RouteMatrix ret;
+                     ret = RouteMatrix.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /**
+     * Encuentra las paradas alcanzables desde un origen sin superar un presupuesto
+     * (isócrona): a diferencia de getReachableStops, la búsqueda se detiene al
+     * agotar el presupuesto
+     * @param originStopId ID de la parada de origen
+     * @param mode DISTANCE (presupuesto en km), HOPS (en arcos) o TRANSFERS (en transbordos)
+     * @param budget costo máximo de las paradas devueltas
+     * @param withHull si se calcula el polígono convexo de las paradas alcanzadas
+     * @return Isochrone con las paradas de menor a mayor costo
+     **/
+    default Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull)
+        throws StopNotFoundException
+    {
+        return findIsochrone(originStopId, mode, budget, withHull, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Encuentra las paradas alcanzables desde un origen sin superar un presupuesto
+     * (isócrona): a diferencia de getReachableStops, la búsqueda se detiene al
+     * agotar el presupuesto
+     * @param originStopId ID de la parada de origen
+     * @param mode DISTANCE (presupuesto en km), HOPS (en arcos) o TRANSFERS (en transbordos)
+     * @param budget costo máximo de las paradas devueltas
+     * @param withHull si se calcula el polígono convexo de las paradas alcanzadas
+     * @param context The Context map to send with the invocation.
+     * @return Isochrone con las paradas de menor a mayor costo
+     **/
+    default Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull, java.util.Map<String, String> context)
+        throws StopNotFoundException
+    {
+        try
+        {
+            return _iceI_findIsochroneAsync(originStopId, mode, budget, withHull, context, true).waitForResponseOrUserEx();
+        }
+        catch(StopNotFoundException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
+    }
+
+    /**
+     * Encuentra las paradas alcanzables desde un origen sin superar un presupuesto
+     * (isócrona): a diferencia de getReachableStops, la búsqueda se detiene al
+     * agotar el presupuesto
+     * @param originStopId ID de la parada de origen
+     * @param mode DISTANCE (presupuesto en km), HOPS (en arcos) o TRANSFERS (en transbordos)
+     * @param budget costo máximo de las paradas devueltas
+     * @param withHull si se calcula el polígono convexo de las paradas alcanzadas
+     * @return Isochrone con las paradas de menor a mayor costo
+     **/
+    default java.util.concurrent.CompletableFuture<Isochrone> findIsochroneAsync(int originStopId, CostMode mode, double budget, boolean withHull)
+    {
+        return _iceI_findIsochroneAsync(originStopId, mode, budget, withHull, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Encuentra las paradas alcanzables desde un origen sin superar un presupuesto
+     * (isócrona): a diferencia de getReachableStops, la búsqueda se detiene al
+     * agotar el presupuesto
+     * @param originStopId ID de la parada de origen
+     * @param mode DISTANCE (presupuesto en km), HOPS (en arcos) o TRANSFERS (en transbordos)
+     * @param budget costo máximo de las paradas devueltas
+     * @param withHull si se calcula el polígono convexo de las paradas alcanzadas
+     * @param context The Context map to send with the invocation.
+     * @return Isochrone con las paradas de menor a mayor costo
+     **/
+    default java.util.concurrent.CompletableFuture<Isochrone> findIsochroneAsync(int originStopId, CostMode mode, double budget, boolean withHull, java.util.Map<String, String> context)
+    {
+        return _iceI_findIsochroneAsync(originStopId, mode, budget, withHull, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originStopId -
+     * @param iceP_mode -
+     * @param iceP_budget -
+     * @param iceP_withHull -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<Isochrone> _iceI_findIsochroneAsync(int iceP_originStopId, CostMode iceP_mode, double iceP_budget, boolean iceP_withHull, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<Isochrone> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findIsochrone", null, sync, _iceE_findIsochrone);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_originStopId);
+                     CostMode.ice_write(ostr, iceP_mode);
+                     ostr.writeDouble(iceP_budget);
+                     ostr.writeBool(iceP_withHull);
+                 }, istr -> {
+                     Isochrone ret;
+                     ret = Isochrone.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /** @hidden */
+    static final Class<?>[] _iceE_findIsochrone =
+    {
+        StopNotFoundException.class
+    };
+
+    /**
+     * Encuentra un viaje entre dos coordenadas: caminata hasta una parada cercana
+     * al origen, ruta en bus y caminata desde una parada cercana al destino. Se
+     * elige la combinación de menor distancia, con la caminata ponderada
+     * @param originLat latitud del origen en grados decimales
+     * @param originLong longitud del origen en grados decimales
+     * @param destLat latitud del destino en grados decimales
+     * @param destLong longitud del destino en grados decimales
+     * @return CoordinateRoute con los tramos a pie y la ruta en bus; sin viaje si alguna
+     *         coordenada no es finita o está fuera de ±90 (latitud) o ±180 (longitud)
+     **/
+    default CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong)
+    {
+        return findRouteByCoordinates(originLat, originLong, destLat, destLong, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Encuentra un viaje entre dos coordenadas: caminata hasta una parada cercana
+     * al origen, ruta en bus y caminata desde una parada cercana al destino. Se
+     * elige la combinación de menor distancia, con la caminata ponderada
+     * @param originLat latitud del origen en grados decimales
+     * @param originLong longitud del origen en grados decimales
+     * @param destLat latitud del destino en grados decimales
+     * @param destLong longitud del destino en grados decimales
+     * @param context The Context map to send with the invocation.
+     * @return CoordinateRoute con los tramos a pie y la ruta en bus; sin viaje si alguna
+     *         coordenada no es finita o está fuera de ±90 (latitud) o ±180 (longitud)
+     **/
+    default CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong, java.util.Map<String, String> context)
+    {
+        return _iceI_findRouteByCoordinatesAsync(originLat, originLong, destLat, destLong, context, true).waitForResponse();
+    }
+
+    /**
+     * Encuentra un viaje entre dos coordenadas: caminata hasta una parada cercana
+     * al origen, ruta en bus y caminata desde una parada cercana al destino. Se
+     * elige la combinación de menor distancia, con la caminata ponderada
+     * @param originLat latitud del origen en grados decimales
+     * @param originLong longitud del origen en grados decimales
+     * @param destLat latitud del destino en grados decimales
+     * @param destLong longitud del destino en grados decimales
+     * @return CoordinateRoute con los tramos a pie y la ruta en bus; sin viaje si alguna
+     *         coordenada no es finita o está fuera de ±90 (latitud) o ±180 (longitud)
+     **/
+    default java.util.concurrent.CompletableFuture<CoordinateRoute> findRouteByCoordinatesAsync(double originLat, double originLong, double destLat, double destLong)
+    {
+        return _iceI_findRouteByCoordinatesAsync(originLat, originLong, destLat, destLong, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Encuentra un viaje entre dos coordenadas: caminata hasta una parada cercana
+     * al origen, ruta en bus y caminata desde una parada cercana al destino. Se
+     * elige la combinación de menor distancia, con la caminata ponderada
+     * @param originLat latitud del origen en grados decimales
+     * @param originLong longitud del origen en grados decimales
+     * @param destLat latitud del destino en grados decimales
+     * @param destLong longitud del destino en grados decimales
+     * @param context The Context map to send with the invocation.
+     * @return CoordinateRoute con los tramos a pie y la ruta en bus; sin viaje si alguna
+     *         coordenada no es finita o está fuera de ±90 (latitud) o ±180 (longitud)
+     **/
+    default java.util.concurrent.CompletableFuture<CoordinateRoute> findRouteByCoordinatesAsync(double originLat, double originLong, double destLat, double destLong, java.util.Map<String, String> context)
+    {
+        return _iceI_findRouteByCoordinatesAsync(originLat, originLong, destLat, destLong, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originLat -
+     * @param iceP_originLong -
+     * @param iceP_destLat -
+     * @param iceP_destLong -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<CoordinateRoute> _iceI_findRouteByCoordinatesAsync(double iceP_originLat, double iceP_originLong, double iceP_destLat, double iceP_destLong, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<CoordinateRoute> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findRouteByCoordinates", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeDouble(iceP_originLat);
+                     ostr.writeDouble(iceP_originLong);
+                     ostr.writeDouble(iceP_destLat);
+                     ostr.writeDouble(iceP_destLong);
+                 }, istr -> {
+                     CoordinateRoute ret;
+                     ret = CoordinateRoute.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /**
+     * Encuentra las k paradas más cercanas a una coordenada (índice espacial en
+     * grilla, sin recorrer todas las paradas)
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param k número de paradas
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    default NearbyStops findNearestStops(double lat, double lon, int k)
+    {
+        return findNearestStops(lat, lon, k, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Encuentra las k paradas más cercanas a una coordenada (índice espacial en
+     * grilla, sin recorrer todas las paradas)
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param k número de paradas
+     * @param context The Context map to send with the invocation.
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    default NearbyStops findNearestStops(double lat, double lon, int k, java.util.Map<String, String> context)
+    {
+        return _iceI_findNearestStopsAsync(lat, lon, k, context, true).waitForResponse();
+    }
+
+    /**
+     * Encuentra las k paradas más cercanas a una coordenada (índice espacial en
+     * grilla, sin recorrer todas las paradas)
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param k número de paradas
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    default java.util.concurrent.CompletableFuture<NearbyStops> findNearestStopsAsync(double lat, double lon, int k)
+    {
+        return _iceI_findNearestStopsAsync(lat, lon, k, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Encuentra las k paradas más cercanas a una coordenada (índice espacial en
+     * grilla, sin recorrer todas las paradas)
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param k número de paradas
+     * @param context The Context map to send with the invocation.
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    default java.util.concurrent.CompletableFuture<NearbyStops> findNearestStopsAsync(double lat, double lon, int k, java.util.Map<String, String> context)
+    {
+        return _iceI_findNearestStopsAsync(lat, lon, k, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_lat -
+     * @param iceP_lon -
+     * @param iceP_k -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<NearbyStops> _iceI_findNearestStopsAsync(double iceP_lat, double iceP_lon, int iceP_k, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<NearbyStops> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findNearestStops", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeDouble(iceP_lat);
+                     ostr.writeDouble(iceP_lon);
+                     ostr.writeInt(iceP_k);
+                 }, istr -> {
+                     NearbyStops ret;
+                     ret = NearbyStops.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /**
+     * Encuentra las paradas a una distancia en línea recta menor o igual al radio
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param radiusMeters radio de búsqueda en metros
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    default NearbyStops findStopsWithin(double lat, double lon, double radiusMeters)
+    {
+        return findStopsWithin(lat, lon, radiusMeters, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Encuentra las paradas a una distancia en línea recta menor o igual al radio
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param radiusMeters radio de búsqueda en metros
+     * @param context The Context map to send with the invocation.
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    default NearbyStops findStopsWithin(double lat, double lon, double radiusMeters, java.util.Map<String, String> context)
+    {
+        return _iceI_findStopsWithinAsync(lat, lon, radiusMeters, context, true).waitForResponse();
+    }
+
+    /**
+     * Encuentra las paradas a una distancia en línea recta menor o igual al radio
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param radiusMeters radio de búsqueda en metros
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    default java.util.concurrent.CompletableFuture<NearbyStops> findStopsWithinAsync(double lat, double lon, double radiusMeters)
+    {
+        return _iceI_findStopsWithinAsync(lat, lon, radiusMeters, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Encuentra las paradas a una distancia en línea recta menor o igual al radio
+     * @param lat latitud en grados decimales
+     * @param lon longitud en grados decimales
+     * @param radiusMeters radio de búsqueda en metros
+     * @param context The Context map to send with the invocation.
+     * @return NearbyStops de la más cercana a la más lejana
+     **/
+    default java.util.concurrent.CompletableFuture<NearbyStops> findStopsWithinAsync(double lat, double lon, double radiusMeters, java.util.Map<String, String> context)
+    {
+        return _iceI_findStopsWithinAsync(lat, lon, radiusMeters, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_lat -
+     * @param iceP_lon -
+     * @param iceP_radiusMeters -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<NearbyStops> _iceI_findStopsWithinAsync(double iceP_lat, double iceP_lon, double iceP_radiusMeters, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<NearbyStops> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findStopsWithin", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeDouble(iceP_lat);
+                     ostr.writeDouble(iceP_lon);
+                     ostr.writeDouble(iceP_radiusMeters);
+                 }, istr -> {
+                     NearbyStops ret;
+                     ret = NearbyStops.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
     /**
      * Obtiene todas las paradas alcanzables desde una parada de origen
      * @param originStopId ID de la parada de origen
@@ -0,0 +1,177 @@
+//
+// Copyright (c) ZeroC, Inc. All rights reserved.
+//
+//
+// Ice version 3.7.10
+//
+// <auto-generated>
+//
+// Generated from file `MioGraph.ice'
+//
+// Warning: do not edit this file.
+//
+// </auto-generated>
+//
+
+package mioice;
+
+/**
+ * Paradas alcanzables desde un origen dentro de un presupuesto de costo, en
+ * listas paralelas (stopIds[i] se alcanza con costo costs[i])
+ **/
+public class Isochrone implements java.lang.Cloneable,
+                                  java.io.Serializable
+{
+    public int[] stopIds;
+
+    public double[] costs;
+
+    public double[] hullLats;
+
+    public double[] hullLongs;
+
+    public Isochrone()
+    {
+    }
+
+    public Isochrone(int[] stopIds, double[] costs, double[] hullLats, double[] hullLongs)
+    {
+        this.stopIds = stopIds;
+        this.costs = costs;
+        this.hullLats = hullLats;
+        this.hullLongs = hullLongs;
+    }
+
+    public boolean equals(java.lang.Object rhs)
+    {
+        if(this == rhs)
+        {
+            return true;
+        }
+        Isochrone r = null;
+        if(rhs instanceof Isochrone)
+        {
+            r = (Isochrone)rhs;
+        }
+
+        if(r != null)
+        {
+            if(!java.util.Arrays.equals(this.stopIds, r.stopIds))
+            {
+                return false;
+            }
+            if(!java.util.Arrays.equals(this.costs, r.costs))
+            {
+                return false;
+            }
+            if(!java.util.Arrays.equals(this.hullLats, r.hullLats))
+            {
+                return false;
+            }
+            if(!java.util.Arrays.equals(this.hullLongs, r.hullLongs))
+            {
+                return false;
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public int hashCode()
+    {
+        int h_ = 5381;
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, "::mioice::Isochrone");
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, stopIds);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, costs);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, hullLats);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, hullLongs);
+        return h_;
+    }
+
+    public Isochrone clone()
+    {
+        Isochrone c = null;
+        try
+        {
+            c = (Isochrone)super.clone();
+        }
+        catch(CloneNotSupportedException ex)
+        {
+            assert false; // impossible
+        }
+        return c;
+    }
+
+    public void ice_writeMembers(com.zeroc.Ice.OutputStream ostr)
+    {
+        ostr.writeIntSeq(this.stopIds);
+        ostr.writeDoubleSeq(this.costs);
+        ostr.writeDoubleSeq(this.hullLats);
+        ostr.writeDoubleSeq(this.hullLongs);
+    }
+
+    public void ice_readMembers(com.zeroc.Ice.InputStream istr)
+    {
+        this.stopIds = istr.readIntSeq();
+        this.costs = istr.readDoubleSeq();
+        this.hullLats = istr.readDoubleSeq();
+        this.hullLongs = istr.readDoubleSeq();
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, Isochrone v)
+    {
+        if(v == null)
+        {
+            _nullMarshalValue.ice_writeMembers(ostr);
+        }
+        else
+        {
+            v.ice_writeMembers(ostr);
+        }
+    }
+
+    static public Isochrone ice_read(com.zeroc.Ice.InputStream istr)
+    {
+        Isochrone v = new Isochrone();
+        v.ice_readMembers(istr);
+        return v;
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, java.util.Optional<Isochrone> v)
+    {
+        if(v != null && v.isPresent())
+        {
+            ice_write(ostr, tag, v.get());
+        }
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, Isochrone v)
+    {
+        if(ostr.writeOptional(tag, com.zeroc.Ice.OptionalFormat.FSize))
+        {
+            int pos = ostr.startSize();
+            ice_write(ostr, v);
+            ostr.endSize(pos);
+        }
+    }
+
+    static public java.util.Optional<Isochrone> ice_read(com.zeroc.Ice.InputStream istr, int tag)
+    {
+        if(istr.readOptional(tag, com.zeroc.Ice.OptionalFormat.FSize))
+        {
+            istr.skip(4);
+            return java.util.Optional.of(Isochrone.ice_read(istr));
+        }
+        else
+        {
+            return java.util.Optional.empty();
+        }
+    }
+
+    private static final Isochrone _nullMarshalValue = new Isochrone();
+
+    /** @hidden */
+    public static final long serialVersionUID = -974322366L;
+}
@@ -0,0 +1,157 @@
+//
+// Copyright (c) ZeroC, Inc. All rights reserved.
+//
+//
+// Ice version 3.7.10
+//
+// <auto-generated>
+//
+// Generated from file `MioGraph.ice'
+//
+// Warning: do not edit this file.
+//
+// </auto-generated>
+//
+
+package mioice;
+
+/**
+ * Paradas cercanas a un punto, de la más cercana a la más lejana, en listas
+ * paralelas (stopIds[i] está a distances[i] metros)
+ **/
+public class NearbyStops implements java.lang.Cloneable,
+                                    java.io.Serializable
+{
+    public int[] stopIds;
+
+    public double[] distances;
+
+    public NearbyStops()
+    {
+    }
+
+    public NearbyStops(int[] stopIds, double[] distances)
+    {
+        this.stopIds = stopIds;
+        this.distances = distances;
+    }
+
+    public boolean equals(java.lang.Object rhs)
+    {
+        if(this == rhs)
+        {
+            return true;
+        }
+        NearbyStops r = null;
+        if(rhs instanceof NearbyStops)
+        {
+            r = (NearbyStops)rhs;
+        }
+
+        if(r != null)
+        {
+            if(!java.util.Arrays.equals(this.stopIds, r.stopIds))
+            {
+                return false;
+            }
+            if(!java.util.Arrays.equals(this.distances, r.distances))
+            {
+                return false;
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public int hashCode()
+    {
+        int h_ = 5381;
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, "::mioice::NearbyStops");
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, stopIds);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, distances);
+        return h_;
+    }
+
+    public NearbyStops clone()
+    {
+        NearbyStops c = null;
+        try
+        {
+            c = (NearbyStops)super.clone();
+        }
+        catch(CloneNotSupportedException ex)
+        {
+            assert false; // impossible
+        }
+        return c;
+    }
+
+    public void ice_writeMembers(com.zeroc.Ice.OutputStream ostr)
+    {
+        ostr.writeIntSeq(this.stopIds);
+        ostr.writeDoubleSeq(this.distances);
+    }
+
+    public void ice_readMembers(com.zeroc.Ice.InputStream istr)
+    {
+        this.stopIds = istr.readIntSeq();
+        this.distances = istr.readDoubleSeq();
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, NearbyStops v)
+    {
+        if(v == null)
+        {
+            _nullMarshalValue.ice_writeMembers(ostr);
+        }
+        else
+        {
+            v.ice_writeMembers(ostr);
+        }
+    }
+
+    static public NearbyStops ice_read(com.zeroc.Ice.InputStream istr)
+    {
+        NearbyStops v = new NearbyStops();
+        v.ice_readMembers(istr);
+        return v;
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, java.util.Optional<NearbyStops> v)
+    {
+        if(v != null && v.isPresent())
+        {
+            ice_write(ostr, tag, v.get());
+        }
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, NearbyStops v)
+    {
+        if(ostr.writeOptional(tag, com.zeroc.Ice.OptionalFormat.FSize))
+        {
+            int pos = ostr.startSize();
+            ice_write(ostr, v);
+            ostr.endSize(pos);
+        }
+    }
+
+    static public java.util.Optional<NearbyStops> ice_read(com.zeroc.Ice.InputStream istr, int tag)
+    {
+        if(istr.readOptional(tag, com.zeroc.Ice.OptionalFormat.FSize))
+        {
+            istr.skip(4);
+            return java.util.Optional.of(NearbyStops.ice_read(istr));
+        }
+        else
+        {
+            return java.util.Optional.empty();
+        }
+    }
+
+    private static final NearbyStops _nullMarshalValue = new NearbyStops();
+
+    /** @hidden */
+    public static final long serialVersionUID = 1674162053L;
+}
@@ -0,0 +1,187 @@
+//
+// Copyright (c) ZeroC, Inc. All rights reserved.
+//
+//
+// Ice version 3.7.10
+//
+// <auto-generated>
+//
+// Generated from file `MioGraph.ice'
+//
+// Warning: do not edit this file.
+//
+// </auto-generated>
+//
+
+package mioice;
+
+/**
+ * Matriz de costos entre paradas: la celda [i * numTargets + j] describe la
+ * ruta óptima de sources[i] a targets[j] (-1 en las tres listas si no hay ruta)
+ **/
+public class RouteMatrix implements java.lang.Cloneable,
+                                    java.io.Serializable
+{
+    public int numSources;
+
+    public int numTargets;
+
+    public double[] distances;
+
+    public int[] hops;
+
+    public int[] transfers;
+
+    public RouteMatrix()
+    {
+    }
+
+    public RouteMatrix(int numSources, int numTargets, double[] distances, int[] hops, int[] transfers)
+    {
+        this.numSources = numSources;
+        this.numTargets = numTargets;
+        this.distances = distances;
+        this.hops = hops;
+        this.transfers = transfers;
+    }
+
+    public boolean equals(java.lang.Object rhs)
+    {
+        if(this == rhs)
+        {
+            return true;
+        }
+        RouteMatrix r = null;
+        if(rhs instanceof RouteMatrix)
+        {
+            r = (RouteMatrix)rhs;
+        }
+
+        if(r != null)
+        {
+            if(this.numSources != r.numSources)
+            {
+                return false;
+            }
+            if(this.numTargets != r.numTargets)
+            {
+                return false;
+            }
+            if(!java.util.Arrays.equals(this.distances, r.distances))
+            {
+                return false;
+            }
+            if(!java.util.Arrays.equals(this.hops, r.hops))
+            {
+                return false;
+            }
+            if(!java.util.Arrays.equals(this.transfers, r.transfers))
+            {
+                return false;
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public int hashCode()
+    {
+        int h_ = 5381;
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, "::mioice::RouteMatrix");
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, numSources);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, numTargets);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, distances);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, hops);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, transfers);
+        return h_;
+    }
+
+    public RouteMatrix clone()
+    {
+        RouteMatrix c = null;
+        try
+        {
+            c = (RouteMatrix)super.clone();
+        }
+        catch(CloneNotSupportedException ex)
+        {
+            assert false; // impossible
+        }
+        return c;
+    }
+
+    public void ice_writeMembers(com.zeroc.Ice.OutputStream ostr)
+    {
+        ostr.writeInt(this.numSources);
+        ostr.writeInt(this.numTargets);
+        ostr.writeDoubleSeq(this.distances);
+        ostr.writeIntSeq(this.hops);
+        ostr.writeIntSeq(this.transfers);
+    }
+
+    public void ice_readMembers(com.zeroc.Ice.InputStream istr)
+    {
+        this.numSources = istr.readInt();
+        this.numTargets = istr.readInt();
+        this.distances = istr.readDoubleSeq();
+        this.hops = istr.readIntSeq();
+        this.transfers = istr.readIntSeq();
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, RouteMatrix v)
+    {
+        if(v == null)
+        {
+            _nullMarshalValue.ice_writeMembers(ostr);
+        }
+        else
+        {
+            v.ice_writeMembers(ostr);
+        }
+    }
+
+    static public RouteMatrix ice_read(com.zeroc.Ice.InputStream istr)
+    {
+        RouteMatrix v = new RouteMatrix();
+        v.ice_readMembers(istr);
+        return v;
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, java.util.Optional<RouteMatrix> v)
+    {
+        if(v != null && v.isPresent())
+        {
+            ice_write(ostr, tag, v.get());
+        }
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, RouteMatrix v)
+    {
+        if(ostr.writeOptional(tag, com.zeroc.Ice.OptionalFormat.FSize))
+        {
+            int pos = ostr.startSize();
+            ice_write(ostr, v);
+            ostr.endSize(pos);
+        }
+    }
+
+    static public java.util.Optional<RouteMatrix> ice_read(com.zeroc.Ice.InputStream istr, int tag)
+    {
+        if(istr.readOptional(tag, com.zeroc.Ice.OptionalFormat.FSize))
+        {
+            istr.skip(4);
+            return java.util.Optional.of(RouteMatrix.ice_read(istr));
+        }
+        else
+        {
+            return java.util.Optional.empty();
+        }
+    }
+
+    private static final RouteMatrix _nullMarshalValue = new RouteMatrix();
+
+    /** @hidden */
+    public static final long serialVersionUID = -2126881754L;
+}
@@ -27,6 +27,54 @@ public interface RouteWorker extends com.zeroc.Ice.Object
     RouteResult findRoute(int originStopId, int destStopId, com.zeroc.Ice.Current current)
         throws StopNotFoundException;
 
+    /**
+     * Calcula la ruta óptima según el criterio de costo indicado
+     * @param current The Current object for the invocation.
+     **/
+    RouteResult findRouteWithMode(int originStopId, int destStopId, CostMode mode, com.zeroc.Ice.Current current)
+        throws StopNotFoundException;
+
+    /**
+     * Calcula los viajes Pareto óptimos (transbordos, distancia) por rondas
+     * @param current The Current object for the invocation.
+     **/
+    RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers, com.zeroc.Ice.Current current)
+        throws StopNotFoundException;
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las rutas de un lote de pares origen-destino
+     * @param current The Current object for the invocation.
+     **/
+    RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode, com.zeroc.Ice.Current current);
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las filas de una matriz de costos,
+     * una búsqueda de uno a muchos por origen
+     * @param current The Current object for the invocation.
+     **/
+    RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode, com.zeroc.Ice.Current current);
+
+    /**
+     * Calcula las paradas alcanzables dentro de un presupuesto de costo
+     * @param current The Current object for the invocation.
+     **/
+    Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull, com.zeroc.Ice.Current current)
+        throws StopNotFoundException;
+
+    /**
+     * Calcula las k rutas sin ciclos más cortas en km (Yen, desvíos en paralelo)
+     * @param current The Current object for the invocation.
+     **/
+    RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k, com.zeroc.Ice.Current current)
+        throws StopNotFoundException;
+
+    /**
+     * Calcula un viaje entre dos coordenadas (una sola búsqueda desde todas las
+     * paradas de acceso hacia todas las de egreso)
+     * @param current The Current object for the invocation.
+     **/
+    CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong, com.zeroc.Ice.Current current);
+
     /** @hidden */
     static final String[] _iceIds =
     {
@@ -76,10 +124,204 @@ public interface RouteWorker extends com.zeroc.Ice.Object
         return inS.setResult(ostr);
     }
 
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+     * @throws com.zeroc.Ice.UserException -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findRouteWithMode(RouteWorker obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+        throws com.zeroc.Ice.UserException
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_originStopId;
+        int iceP_destStopId;
+        CostMode iceP_mode;
+        iceP_originStopId = istr.readInt();
+        iceP_destStopId = istr.readInt();
+        iceP_mode = CostMode.ice_read(istr);
+        inS.endReadParams();
+        RouteResult ret = obj.findRouteWithMode(iceP_originStopId, iceP_destStopId, iceP_mode, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteResult.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+     * @throws com.zeroc.Ice.UserException -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findJourneys(RouteWorker obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+        throws com.zeroc.Ice.UserException
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_originStopId;
+        int iceP_destStopId;
+        int iceP_maxTransfers;
+        iceP_originStopId = istr.readInt();
+        iceP_destStopId = istr.readInt();
+        iceP_maxTransfers = istr.readInt();
+        inS.endReadParams();
+        RouteResult[] ret = obj.findJourneys(iceP_originStopId, iceP_destStopId, iceP_maxTransfers, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteResultListHelper.write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findRoutes(RouteWorker obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int[] iceP_origins;
+        int[] iceP_dests;
+        CostMode iceP_mode;
+        iceP_origins = istr.readIntSeq();
+        iceP_dests = istr.readIntSeq();
+        iceP_mode = CostMode.ice_read(istr);
+        inS.endReadParams();
+        RouteResult[] ret = obj.findRoutes(iceP_origins, iceP_dests, iceP_mode, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteResultListHelper.write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_computeMatrix(RouteWorker obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int[] iceP_sources;
+        int[] iceP_targets;
+        CostMode iceP_mode;
+        iceP_sources = istr.readIntSeq();
+        iceP_targets = istr.readIntSeq();
+        iceP_mode = CostMode.ice_read(istr);
+        inS.endReadParams();
+        RouteMatrix ret = obj.computeMatrix(iceP_sources, iceP_targets, iceP_mode, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteMatrix.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+     * @throws com.zeroc.Ice.UserException -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findIsochrone(RouteWorker obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+        throws com.zeroc.Ice.UserException
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_originStopId;
+        CostMode iceP_mode;
+        double iceP_budget;
+        boolean iceP_withHull;
+        iceP_originStopId = istr.readInt();
+        iceP_mode = CostMode.ice_read(istr);
+        iceP_budget = istr.readDouble();
+        iceP_withHull = istr.readBool();
+        inS.endReadParams();
+        Isochrone ret = obj.findIsochrone(iceP_originStopId, iceP_mode, iceP_budget, iceP_withHull, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        Isochrone.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+     * @throws com.zeroc.Ice.UserException -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findAlternativeRoutes(RouteWorker obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+        throws com.zeroc.Ice.UserException
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        int iceP_originStopId;
+        int iceP_destStopId;
+        int iceP_k;
+        iceP_originStopId = istr.readInt();
+        iceP_destStopId = istr.readInt();
+        iceP_k = istr.readInt();
+        inS.endReadParams();
+        RouteResult[] ret = obj.findAlternativeRoutes(iceP_originStopId, iceP_destStopId, iceP_k, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        RouteResultListHelper.write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
+    /**
+     * @hidden
+     * @param obj -
+     * @param inS -
+     * @param current -
+     * @return -
+    **/
+    static java.util.concurrent.CompletionStage<com.zeroc.Ice.OutputStream> _iceD_findRouteByCoordinates(RouteWorker obj, final com.zeroc.IceInternal.Incoming inS, com.zeroc.Ice.Current current)
+    {
+        com.zeroc.Ice.Object._iceCheckMode(null, current.mode);
+        com.zeroc.Ice.InputStream istr = inS.startReadParams();
+        double iceP_originLat;
+        double iceP_originLong;
+        double iceP_destLat;
+        double iceP_destLong;
+        iceP_originLat = istr.readDouble();
+        iceP_originLong = istr.readDouble();
+        iceP_destLat = istr.readDouble();
+        iceP_destLong = istr.readDouble();
+        inS.endReadParams();
+        CoordinateRoute ret = obj.findRouteByCoordinates(iceP_originLat, iceP_originLong, iceP_destLat, iceP_destLong, current);
+        com.zeroc.Ice.OutputStream ostr = inS.startWriteParams();
+        CoordinateRoute.ice_write(ostr, ret);
+        inS.endWriteParams(ostr);
+        return inS.setResult(ostr);
+    }
+
     /** @hidden */
     final static String[] _iceOps =
     {
+        "computeMatrix",
+        "findAlternativeRoutes",
+        "findIsochrone",
+        "findJourneys",
         "findRoute",
+        "findRouteByCoordinates",
+        "findRouteWithMode",
+        "findRoutes",
         "ice_id",
         "ice_ids",
         "ice_isA",
@@ -101,21 +343,49 @@ public interface RouteWorker extends com.zeroc.Ice.Object
         {
             case 0:
             {
-                return _iceD_findRoute(this, in, current);
+                return _iceD_computeMatrix(this, in, current);
             }
             case 1:
             {
-                return com.zeroc.Ice.Object._iceD_ice_id(this, in, current);
+                return _iceD_findAlternativeRoutes(this, in, current);
             }
             case 2:
             {
-                return com.zeroc.Ice.Object._iceD_ice_ids(this, in, current);
+                return _iceD_findIsochrone(this, in, current);
             }
             case 3:
             {
-                return com.zeroc.Ice.Object._iceD_ice_isA(this, in, current);
+                return _iceD_findJourneys(this, in, current);
             }
             case 4:
+            {
+                return _iceD_findRoute(this, in, current);
+            }
+            case 5:
+            {
+                return _iceD_findRouteByCoordinates(this, in, current);
+            }
+            case 6:
+            {
+                return _iceD_findRouteWithMode(this, in, current);
+            }
+            case 7:
+            {
+                return _iceD_findRoutes(this, in, current);
+            }
+            case 8:
+            {
+                return com.zeroc.Ice.Object._iceD_ice_id(this, in, current);
+            }
+            case 9:
+            {
+                return com.zeroc.Ice.Object._iceD_ice_ids(this, in, current);
+            }
+            case 10:
+            {
+                return com.zeroc.Ice.Object._iceD_ice_isA(this, in, current);
+            }
+            case 11:
             {
                 return com.zeroc.Ice.Object._iceD_ice_ping(this, in, current);
             }
@@ -97,6 +97,514 @@ public interface RouteWorkerPrx extends com.zeroc.Ice.ObjectPrx
         StopNotFoundException.class
     };
 
+    /**
+     * Calcula la ruta óptima según el criterio de costo indicado
+     **/
+    default RouteResult findRouteWithMode(int originStopId, int destStopId, CostMode mode)
+        throws StopNotFoundException
+    {
+        return findRouteWithMode(originStopId, destStopId, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Calcula la ruta óptima según el criterio de costo indicado
+     * @param context The Context map to send with the invocation.
+     **/
+    default RouteResult findRouteWithMode(int originStopId, int destStopId, CostMode mode, java.util.Map<String, String> context)
+        throws StopNotFoundException
+    {
+        try
+        {
+            return _iceI_findRouteWithModeAsync(originStopId, destStopId, mode, context, true).waitForResponseOrUserEx();
+        }
+        catch(StopNotFoundException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
+    }
+
+    /**
+     * Calcula la ruta óptima según el criterio de costo indicado
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult> findRouteWithModeAsync(int originStopId, int destStopId, CostMode mode)
+    {
+        return _iceI_findRouteWithModeAsync(originStopId, destStopId, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Calcula la ruta óptima según el criterio de costo indicado
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult> findRouteWithModeAsync(int originStopId, int destStopId, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_findRouteWithModeAsync(originStopId, destStopId, mode, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originStopId -
+     * @param iceP_destStopId -
+     * @param iceP_mode -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteResult> _iceI_findRouteWithModeAsync(int iceP_originStopId, int iceP_destStopId, CostMode iceP_mode, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteResult> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findRouteWithMode", null, sync, _iceE_findRouteWithMode);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_originStopId);
+                     ostr.writeInt(iceP_destStopId);
+                     CostMode.ice_write(ostr, iceP_mode);
+                 }, istr -> {
+                     RouteResult ret;
+                     ret = RouteResult.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /** @hidden */
+    static final Class<?>[] _iceE_findRouteWithMode =
+    {
+        StopNotFoundException.class
+    };
+
+    /**
+     * Calcula los viajes Pareto óptimos (transbordos, distancia) por rondas
+     **/
+    default RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers)
+        throws StopNotFoundException
+    {
+        return findJourneys(originStopId, destStopId, maxTransfers, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Calcula los viajes Pareto óptimos (transbordos, distancia) por rondas
+     * @param context The Context map to send with the invocation.
+     **/
+    default RouteResult[] findJourneys(int originStopId, int destStopId, int maxTransfers, java.util.Map<String, String> context)
+        throws StopNotFoundException
+    {
+        try
+        {
+            return _iceI_findJourneysAsync(originStopId, destStopId, maxTransfers, context, true).waitForResponseOrUserEx();
+        }
+        catch(StopNotFoundException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
+    }
+
+    /**
+     * Calcula los viajes Pareto óptimos (transbordos, distancia) por rondas
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findJourneysAsync(int originStopId, int destStopId, int maxTransfers)
+    {
+        return _iceI_findJourneysAsync(originStopId, destStopId, maxTransfers, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Calcula los viajes Pareto óptimos (transbordos, distancia) por rondas
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findJourneysAsync(int originStopId, int destStopId, int maxTransfers, java.util.Map<String, String> context)
+    {
+        return _iceI_findJourneysAsync(originStopId, destStopId, maxTransfers, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originStopId -
+     * @param iceP_destStopId -
+     * @param iceP_maxTransfers -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> _iceI_findJourneysAsync(int iceP_originStopId, int iceP_destStopId, int iceP_maxTransfers, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findJourneys", null, sync, _iceE_findJourneys);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_originStopId);
+                     ostr.writeInt(iceP_destStopId);
+                     ostr.writeInt(iceP_maxTransfers);
+                 }, istr -> {
+                     RouteResult[] ret;
+                     ret = RouteResultListHelper.read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /** @hidden */
+    static final Class<?>[] _iceE_findJourneys =
+    {
+        StopNotFoundException.class
+    };
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las rutas de un lote de pares origen-destino
+     **/
+    default RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode)
+    {
+        return findRoutes(origins, dests, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las rutas de un lote de pares origen-destino
+     * @param context The Context map to send with the invocation.
+     **/
+    default RouteResult[] findRoutes(int[] origins, int[] dests, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_findRoutesAsync(origins, dests, mode, context, true).waitForResponse();
+    }
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las rutas de un lote de pares origen-destino
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findRoutesAsync(int[] origins, int[] dests, CostMode mode)
+    {
+        return _iceI_findRoutesAsync(origins, dests, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las rutas de un lote de pares origen-destino
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findRoutesAsync(int[] origins, int[] dests, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_findRoutesAsync(origins, dests, mode, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_origins -
+     * @param iceP_dests -
+     * @param iceP_mode -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> _iceI_findRoutesAsync(int[] iceP_origins, int[] iceP_dests, CostMode iceP_mode, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findRoutes", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeIntSeq(iceP_origins);
+                     ostr.writeIntSeq(iceP_dests);
+                     CostMode.ice_write(ostr, iceP_mode);
+                 }, istr -> {
+                     RouteResult[] ret;
+                     ret = RouteResultListHelper.read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las filas de una matriz de costos,
+     * una búsqueda de uno a muchos por origen
+     **/
+    default RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode)
+    {
+        return computeMatrix(sources, targets, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las filas de una matriz de costos,
+     * una búsqueda de uno a muchos por origen
+     * @param context The Context map to send with the invocation.
+     **/
+    default RouteMatrix computeMatrix(int[] sources, int[] targets, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_computeMatrixAsync(sources, targets, mode, context, true).waitForResponse();
+    }
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las filas de una matriz de costos,
+     * una búsqueda de uno a muchos por origen
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteMatrix> computeMatrixAsync(int[] sources, int[] targets, CostMode mode)
+    {
+        return _iceI_computeMatrixAsync(sources, targets, mode, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Calcula en paralelo (todos los núcleos) las filas de una matriz de costos,
+     * una búsqueda de uno a muchos por origen
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteMatrix> computeMatrixAsync(int[] sources, int[] targets, CostMode mode, java.util.Map<String, String> context)
+    {
+        return _iceI_computeMatrixAsync(sources, targets, mode, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_sources -
+     * @param iceP_targets -
+     * @param iceP_mode -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteMatrix> _iceI_computeMatrixAsync(int[] iceP_sources, int[] iceP_targets, CostMode iceP_mode, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteMatrix> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "computeMatrix", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeIntSeq(iceP_sources);
+                     ostr.writeIntSeq(iceP_targets);
+                     CostMode.ice_write(ostr, iceP_mode);
+                 }, istr -> {
+                     RouteMatrix ret;
+                     ret = RouteMatrix.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /**
+     * Calcula las paradas alcanzables dentro de un presupuesto de costo
+     **/
+    default Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull)
+        throws StopNotFoundException
+    {
+        return findIsochrone(originStopId, mode, budget, withHull, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Calcula las paradas alcanzables dentro de un presupuesto de costo
+     * @param context The Context map to send with the invocation.
+     **/
+    default Isochrone findIsochrone(int originStopId, CostMode mode, double budget, boolean withHull, java.util.Map<String, String> context)
+        throws StopNotFoundException
+    {
+        try
+        {
+            return _iceI_findIsochroneAsync(originStopId, mode, budget, withHull, context, true).waitForResponseOrUserEx();
+        }
+        catch(StopNotFoundException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
+    }
+
+    /**
+     * Calcula las paradas alcanzables dentro de un presupuesto de costo
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<Isochrone> findIsochroneAsync(int originStopId, CostMode mode, double budget, boolean withHull)
+    {
+        return _iceI_findIsochroneAsync(originStopId, mode, budget, withHull, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Calcula las paradas alcanzables dentro de un presupuesto de costo
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<Isochrone> findIsochroneAsync(int originStopId, CostMode mode, double budget, boolean withHull, java.util.Map<String, String> context)
+    {
+        return _iceI_findIsochroneAsync(originStopId, mode, budget, withHull, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originStopId -
+     * @param iceP_mode -
+     * @param iceP_budget -
+     * @param iceP_withHull -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<Isochrone> _iceI_findIsochroneAsync(int iceP_originStopId, CostMode iceP_mode, double iceP_budget, boolean iceP_withHull, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<Isochrone> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findIsochrone", null, sync, _iceE_findIsochrone);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_originStopId);
+                     CostMode.ice_write(ostr, iceP_mode);
+                     ostr.writeDouble(iceP_budget);
+                     ostr.writeBool(iceP_withHull);
+                 }, istr -> {
+                     Isochrone ret;
+                     ret = Isochrone.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /** @hidden */
+    static final Class<?>[] _iceE_findIsochrone =
+    {
+        StopNotFoundException.class
+    };
+
+    /**
+     * Calcula las k rutas sin ciclos más cortas en km (Yen, desvíos en paralelo)
+     **/
+    default RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k)
+        throws StopNotFoundException
+    {
+        return findAlternativeRoutes(originStopId, destStopId, k, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Calcula las k rutas sin ciclos más cortas en km (Yen, desvíos en paralelo)
+     * @param context The Context map to send with the invocation.
+     **/
+    default RouteResult[] findAlternativeRoutes(int originStopId, int destStopId, int k, java.util.Map<String, String> context)
+        throws StopNotFoundException
+    {
+        try
+        {
+            return _iceI_findAlternativeRoutesAsync(originStopId, destStopId, k, context, true).waitForResponseOrUserEx();
+        }
+        catch(StopNotFoundException ex)
+        {
+            throw ex;
+        }
+        catch(com.zeroc.Ice.UserException ex)
+        {
+            throw new com.zeroc.Ice.UnknownUserException(ex.ice_id(), ex);
+        }
+    }
+
+    /**
+     * Calcula las k rutas sin ciclos más cortas en km (Yen, desvíos en paralelo)
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findAlternativeRoutesAsync(int originStopId, int destStopId, int k)
+    {
+        return _iceI_findAlternativeRoutesAsync(originStopId, destStopId, k, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Calcula las k rutas sin ciclos más cortas en km (Yen, desvíos en paralelo)
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<RouteResult[]> findAlternativeRoutesAsync(int originStopId, int destStopId, int k, java.util.Map<String, String> context)
+    {
+        return _iceI_findAlternativeRoutesAsync(originStopId, destStopId, k, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originStopId -
+     * @param iceP_destStopId -
+     * @param iceP_k -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> _iceI_findAlternativeRoutesAsync(int iceP_originStopId, int iceP_destStopId, int iceP_k, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<RouteResult[]> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findAlternativeRoutes", null, sync, _iceE_findAlternativeRoutes);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeInt(iceP_originStopId);
+                     ostr.writeInt(iceP_destStopId);
+                     ostr.writeInt(iceP_k);
+                 }, istr -> {
+                     RouteResult[] ret;
+                     ret = RouteResultListHelper.read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
+    /** @hidden */
+    static final Class<?>[] _iceE_findAlternativeRoutes =
+    {
+        StopNotFoundException.class
+    };
+
+    /**
+     * Calcula un viaje entre dos coordenadas (una sola búsqueda desde todas las
+     * paradas de acceso hacia todas las de egreso)
+     **/
+    default CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong)
+    {
+        return findRouteByCoordinates(originLat, originLong, destLat, destLong, com.zeroc.Ice.ObjectPrx.noExplicitContext);
+    }
+
+    /**
+     * Calcula un viaje entre dos coordenadas (una sola búsqueda desde todas las
+     * paradas de acceso hacia todas las de egreso)
+     * @param context The Context map to send with the invocation.
+     **/
+    default CoordinateRoute findRouteByCoordinates(double originLat, double originLong, double destLat, double destLong, java.util.Map<String, String> context)
+    {
+        return _iceI_findRouteByCoordinatesAsync(originLat, originLong, destLat, destLong, context, true).waitForResponse();
+    }
+
+    /**
+     * Calcula un viaje entre dos coordenadas (una sola búsqueda desde todas las
+     * paradas de acceso hacia todas las de egreso)
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<CoordinateRoute> findRouteByCoordinatesAsync(double originLat, double originLong, double destLat, double destLong)
+    {
+        return _iceI_findRouteByCoordinatesAsync(originLat, originLong, destLat, destLong, com.zeroc.Ice.ObjectPrx.noExplicitContext, false);
+    }
+
+    /**
+     * Calcula un viaje entre dos coordenadas (una sola búsqueda desde todas las
+     * paradas de acceso hacia todas las de egreso)
+     * @param context The Context map to send with the invocation.
+     * @return A future that will be completed with the result.
+     **/
+    default java.util.concurrent.CompletableFuture<CoordinateRoute> findRouteByCoordinatesAsync(double originLat, double originLong, double destLat, double destLong, java.util.Map<String, String> context)
+    {
+        return _iceI_findRouteByCoordinatesAsync(originLat, originLong, destLat, destLong, context, false);
+    }
+
+    /**
+     * @hidden
+     * @param iceP_originLat -
+     * @param iceP_originLong -
+     * @param iceP_destLat -
+     * @param iceP_destLong -
+     * @param context -
+     * @param sync -
+     * @return -
+     **/
+    default com.zeroc.IceInternal.OutgoingAsync<CoordinateRoute> _iceI_findRouteByCoordinatesAsync(double iceP_originLat, double iceP_originLong, double iceP_destLat, double iceP_destLong, java.util.Map<String, String> context, boolean sync)
+    {
+        com.zeroc.IceInternal.OutgoingAsync<CoordinateRoute> f = new com.zeroc.IceInternal.OutgoingAsync<>(this, "findRouteByCoordinates", null, sync, null);
+        f.invoke(true, context, null, ostr -> {
+                     ostr.writeDouble(iceP_originLat);
+                     ostr.writeDouble(iceP_originLong);
+                     ostr.writeDouble(iceP_destLat);
+                     ostr.writeDouble(iceP_destLong);
+                 }, istr -> {
+                     CoordinateRoute ret;
+                     ret = CoordinateRoute.ice_read(istr);
+                     return ret;
+                 });
+        return f;
+    }
+
     /**
      * Contacts the remote server to verify that the object implements this type.
      * Raises a local exception if a communication error occurs.
@@ -0,0 +1,185 @@
+//
+// Copyright (c) ZeroC, Inc. All rights reserved.
+//
+//
+// Ice version 3.7.10
+//
+// <auto-generated>
+//
+// Generated from file `MioGraph.ice'
+//
+// Warning: do not edit this file.
+//
+// </auto-generated>
+//
+
+package mioice;
+
+/**
+ * Tramo a pie entre dos coordenadas (en línea recta)
+ **/
+public class WalkLeg implements java.lang.Cloneable,
+                                java.io.Serializable
+{
+    public double fromLat;
+
+    public double fromLong;
+
+    public double toLat;
+
+    public double toLong;
+
+    public double distance;
+
+    public WalkLeg()
+    {
+    }
+
+    public WalkLeg(double fromLat, double fromLong, double toLat, double toLong, double distance)
+    {
+        this.fromLat = fromLat;
+        this.fromLong = fromLong;
+        this.toLat = toLat;
+        this.toLong = toLong;
+        this.distance = distance;
+    }
+
+    public boolean equals(java.lang.Object rhs)
+    {
+        if(this == rhs)
+        {
+            return true;
+        }
+        WalkLeg r = null;
+        if(rhs instanceof WalkLeg)
+        {
+            r = (WalkLeg)rhs;
+        }
+
+        if(r != null)
+        {
+            if(this.fromLat != r.fromLat)
+            {
+                return false;
+            }
+            if(this.fromLong != r.fromLong)
+            {
+                return false;
+            }
+            if(this.toLat != r.toLat)
+            {
+                return false;
+            }
+            if(this.toLong != r.toLong)
+            {
+                return false;
+            }
+            if(this.distance != r.distance)
+            {
+                return false;
+            }
+
+            return true;
+        }
+
+        return false;
+    }
+
+    public int hashCode()
+    {
+        int h_ = 5381;
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, "::mioice::WalkLeg");
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, fromLat);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, fromLong);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, toLat);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, toLong);
+        h_ = com.zeroc.IceInternal.HashUtil.hashAdd(h_, distance);
+        return h_;
+    }
+
+    public WalkLeg clone()
+    {
+        WalkLeg c = null;
+        try
+        {
+            c = (WalkLeg)super.clone();
+        }
+        catch(CloneNotSupportedException ex)
+        {
+            assert false; // impossible
+        }
+        return c;
+    }
+
+    public void ice_writeMembers(com.zeroc.Ice.OutputStream ostr)
+    {
+        ostr.writeDouble(this.fromLat);
+        ostr.writeDouble(this.fromLong);
+        ostr.writeDouble(this.toLat);
+        ostr.writeDouble(this.toLong);
+        ostr.writeDouble(this.distance);
+    }
+
+    public void ice_readMembers(com.zeroc.Ice.InputStream istr)
+    {
+        this.fromLat = istr.readDouble();
+        this.fromLong = istr.readDouble();
+        this.toLat = istr.readDouble();
+        this.toLong = istr.readDouble();
+        this.distance = istr.readDouble();
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, WalkLeg v)
+    {
+        if(v == null)
+        {
+            _nullMarshalValue.ice_writeMembers(ostr);
+        }
+        else
+        {
+            v.ice_writeMembers(ostr);
+        }
+    }
+
+    static public WalkLeg ice_read(com.zeroc.Ice.InputStream istr)
+    {
+        WalkLeg v = new WalkLeg();
+        v.ice_readMembers(istr);
+        return v;
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, java.util.Optional<WalkLeg> v)
+    {
+        if(v != null && v.isPresent())
+        {
+            ice_write(ostr, tag, v.get());
+        }
+    }
+
+    static public void ice_write(com.zeroc.Ice.OutputStream ostr, int tag, WalkLeg v)
+    {
+        if(ostr.writeOptional(tag, com.zeroc.Ice.OptionalFormat.VSize))
+        {
+            ostr.writeSize(40);
+            ice_write(ostr, v);
+        }
+    }
+
+    static public java.util.Optional<WalkLeg> ice_read(com.zeroc.Ice.InputStream istr, int tag)
+    {
+        if(istr.readOptional(tag, com.zeroc.Ice.OptionalFormat.VSize))
+        {
+            istr.skipSize();
+            return java.util.Optional.of(WalkLeg.ice_read(istr));
+        }
+        else
+        {
+            return java.util.Optional.empty();
+        }
+    }
+
+    private static final WalkLeg _nullMarshalValue = new WalkLeg();
+
+    /** @hidden */
+    public static final long serialVersionUID = 827367449L;
+}
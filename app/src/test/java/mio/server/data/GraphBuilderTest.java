@@ -0,0 +1,40 @@
+package mio.server.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphBuilderTest {
+
+    @Test void walkingSettingsWithinRangeAreApplied() {
+        GraphBuilder graph = configured("Mio.Walk.CostFactor", "1", "Mio.Walk.TransferMeters", "0");
+        assertEquals(1.0, graph.getWalkCostFactor());
+        assertEquals(0.0, graph.getWalkTransferMeters());
+    }
+
+    @Test void walkingSettingsOutOfRangeFallBackToTheDefaults() {
+        String[][] invalid = {
+            {"Mio.Walk.CostFactor", "0.5"},
+            {"Mio.Walk.CostFactor", "NaN"},
+            {"Mio.Walk.CostFactor", "abc"},
+            {"Mio.Walk.TransferMeters", "-10"},
+            {"Mio.Walk.MaxMeters", "-1"},
+        };
+        for (String[] setting : invalid) {
+            GraphBuilder graph = configured("Mio.Walk.TransferMeters", "90", setting[0], setting[1]);
+            String message = setting[0] + "=" + setting[1];
+            assertEquals(4.0, graph.getWalkCostFactor(), message);
+            assertEquals(150.0, graph.getWalkTransferMeters(), message);
+        }
+    }
+
+    private static GraphBuilder configured(String... keyValues) {
+        com.zeroc.Ice.Properties properties = com.zeroc.Ice.Util.createProperties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        GraphBuilder graph = new GraphBuilder();
+        graph.configureWalking(properties);
+        return graph;
+    }
+}
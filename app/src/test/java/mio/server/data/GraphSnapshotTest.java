@@ -0,0 +1,125 @@
+package mio.server.data;
+
+import mioice.*;
+import mio.server.repository.RepositoryFactory;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphSnapshotTest {
+
+    private static final String[] SOURCES = { "data/stops-241.csv", "data/lines-241.csv", "data/linestops-241.csv" };
+
+    private static GraphBuilder csvGraph;
+    private static long checksum;
+
+    @TempDir
+    Path dir;
+
+    @BeforeAll
+    static void loadFromCsv() throws IOException {
+        csvGraph = new GraphBuilder(
+            RepositoryFactory.createStopRepository("CSV", SOURCES[0]),
+            RepositoryFactory.createLineRepository("CSV", SOURCES[1]),
+            RepositoryFactory.createLineStopRepository("CSV", SOURCES[2]));
+        csvGraph.loadData();
+        checksum = GraphSnapshot.sourceChecksum(SOURCES);
+    }
+
+    @Test void roundTripKeepsTheGraphAndItsRoutes() throws IOException {
+        Path file = dir.resolve("graph.bin");
+        csvGraph.saveSnapshot(file, checksum);
+
+        for (boolean shared : new boolean[] { false, true }) {
+            GraphBuilder loaded = new GraphBuilder();
+            assertTrue(loaded.loadSnapshot(file, checksum, shared));
+
+            assertEquals(csvGraph.getStopsMap().keySet(), loaded.getStopsMap().keySet());
+            assertEquals(csvGraph.getLinesMap().keySet(), loaded.getLinesMap().keySet());
+            assertEquals(csvGraph.getAllArcs().size(), loaded.getAllArcs().size());
+            assertEquals(csvGraph.getArcsByLineAndOrientation().keySet(),
+                loaded.getArcsByLineAndOrientation().keySet());
+            AdjacencyIndex expected = csvGraph.getAdjacencyIndex();
+            AdjacencyIndex actual = loaded.getAdjacencyIndex();
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.edgeCount(), actual.edgeCount());
+            assertEquals(expected.totalWeight(), actual.totalWeight(), 1e-6);
+
+            int[] ids = csvGraph.getStopsMap().keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            Random random = new Random(24);
+            for (int i = 0; i < 200; i++) {
+                int origin = ids[random.nextInt(ids.length)];
+                int dest = ids[random.nextInt(ids.length)];
+                for (CostMode mode : new CostMode[] { CostMode.HOPS, CostMode.DISTANCE }) {
+                    RouteResult before = csvGraph.findRoute(origin, dest, mode);
+                    RouteResult after = loaded.findRoute(origin, dest, mode);
+                    String query = (shared ? "compartido " : "") + mode + " " + origin + " -> " + dest;
+                    assertEquals(before.found, after.found, query);
+                    assertEquals(before.totalDistance, after.totalDistance, 1e-9, query);
+                    assertEquals(stopIds(before), stopIds(after), query);
+                    assertEquals(before.numTransfers, after.numTransfers, query);
+                }
+            }
+        }
+    }
+
+    @Test void corruptedContentFailsTheCrc() throws IOException {
+        Path file = dir.resolve("graph.bin");
+        csvGraph.saveSnapshot(file, checksum);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x10;
+        Files.write(file, bytes);
+
+        IOException error = assertThrows(IOException.class, () -> GraphSnapshot.read(file));
+        assertTrue(error.getMessage().contains("CRC32C"), error.getMessage());
+        assertFalse(new GraphBuilder().loadSnapshot(file, checksum));
+    }
+
+    @Test void truncatedOrForeignFilesAreRejected() throws IOException {
+        Path file = dir.resolve("graph.bin");
+        csvGraph.saveSnapshot(file, checksum);
+        byte[] bytes = Files.readAllBytes(file);
+
+        Path truncated = dir.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 8));
+        assertThrows(IOException.class, () -> GraphSnapshot.read(truncated));
+
+        Path header = dir.resolve("header.bin");
+        Files.write(header, Arrays.copyOf(bytes, 10));
+        assertThrows(IOException.class, () -> GraphSnapshot.read(header));
+
+        Path garbage = dir.resolve("garbage.bin");
+        Files.write(garbage, new byte[4096]);
+        assertThrows(IOException.class, () -> GraphSnapshot.read(garbage));
+
+        assertFalse(new GraphBuilder().loadSnapshot(truncated, checksum));
+        assertFalse(new GraphBuilder().loadSnapshot(dir.resolve("missing.bin"), checksum));
+    }
+
+    @Test void snapshotOfOtherSourcesOrWalkSettingsIsNotUsed() throws IOException {
+        Path file = dir.resolve("graph.bin");
+        csvGraph.saveSnapshot(file, checksum);
+
+        assertFalse(new GraphBuilder().loadSnapshot(file, checksum + 1));
+        assertTrue(new GraphBuilder().loadSnapshot(file, 0));
+
+        com.zeroc.Ice.Properties properties = com.zeroc.Ice.Util.createProperties();
+        properties.setProperty("Mio.Walk.TransferMeters", "90");
+        GraphBuilder otherWalks = new GraphBuilder();
+        otherWalks.configureWalking(properties);
+        assertFalse(otherWalks.loadSnapshot(file, checksum));
+    }
+
+    private static String stopIds(RouteResult route) {
+        return Arrays.toString(Arrays.stream(route.stops).mapToInt(stop -> stop.stopId).toArray());
+    }
+}
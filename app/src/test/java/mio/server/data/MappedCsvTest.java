@@ -0,0 +1,109 @@
+package mio.server.data;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedCsvTest {
+
+    @TempDir
+    Path dir;
+
+    @Test void rowsAcrossSeveralChunksComeBackOnceAndInOrder() throws IOException {
+        // Filas de 16 bytes: los límites de bloque caen justo sobre un fin de línea
+        int rows = 3 * MappedCsv.CHUNK_BYTES / 16 + 100;
+        StringBuilder text = new StringBuilder("\"id\",\"value\"\n");
+        for (int i = 0; i < rows; i++) {
+            text.append(String.format("%06d,%08d\n", i % 1000000, i));
+        }
+        MappedCsv csv = MappedCsv.open(write("fixed.csv", text.toString()).toString());
+
+        List<Integer> values = csv.parse(row -> row.getInt(1));
+        assertEquals(rows, values.size());
+        for (int i = 0; i < rows; i++) {
+            assertEquals(i, (int) values.get(i));
+        }
+    }
+
+    @Test void variableLengthRowsAndMissingFinalNewline() throws IOException {
+        StringBuilder text = new StringBuilder("id,name\n");
+        int rows = 0;
+        while (text.length() < 2 * MappedCsv.CHUNK_BYTES + 12345) {
+            text.append(rows).append(",\"nombre-").append("x".repeat(rows % 97)).append("\"\n");
+            rows++;
+        }
+        text.append(rows).append(",ultimo");
+        rows++;
+        MappedCsv csv = MappedCsv.open(write("variable.csv", text.toString()).toString());
+
+        List<String> names = csv.parse(row -> row.getInt(0) + ":" + row.getString(1));
+        assertEquals(rows, names.size());
+        for (int i = 0; i < rows - 1; i++) {
+            assertEquals(i + ":nombre-" + "x".repeat(i % 97), names.get(i));
+        }
+        assertEquals((rows - 1) + ":ultimo", names.get(rows - 1));
+    }
+
+    @Test void quotedFieldsKeepTheirCommasAndLoseTheirQuotes() throws IOException {
+        String text = "\"STOPID\",\"LONGNAME\",\"DECIMALLAT\"\r\n"
+            + "1,\"Calle 5, Carrera 10\", 3.45 \r\n"
+            + "2 ,  \"Estación Ñ\"  ,\"-76.5\"\r\n"
+            + "\r\n";
+        MappedCsv csv = MappedCsv.open(write("quoted.csv", text).toString());
+
+        assertArrayEquals(new String[] {"STOPID", "LONGNAME", "DECIMALLAT"}, csv.getHeader());
+        assertEquals(1, csv.columnIndex("longname"));
+        assertEquals(-1, csv.columnIndex("otra"));
+
+        List<String> rows = csv.parse(row -> row.fieldCount() == 1 && row.isEmpty(0)
+            ? "vacía"
+            : row.getInt(0) + "|" + row.getString(1) + "|" + row.getDouble(2) + "|" + row.fieldCount());
+        assertEquals(List.of("1|Calle 5, Carrera 10|3.45|3", "2|Estación Ñ|-76.5|3", "vacía"), rows);
+    }
+
+    @Test void numbersMatchTheJdkParsers() throws IOException {
+        String[] doubles = {"0", "-0.0", "3.4512", "-76.5321", "1e5", "2.5E-3", "+7", ".5", "5.",
+            "123456789012345678", "0.000000000000000000000000001", "1e-30", "4e22", "9007199254740993",
+            "1.7976931348623157E308", "NaN", "-Infinity", "00012.50"};
+        StringBuilder text = new StringBuilder();
+        for (String value : doubles) {
+            text.append(value).append('\n');
+        }
+        List<Double> parsed = MappedCsv.open(write("doubles.csv", text.toString()).toString(), false)
+            .parse(row -> row.getDouble(0));
+        for (int i = 0; i < doubles.length; i++) {
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(doubles[i])),
+                Double.doubleToLongBits(parsed.get(i)), doubles[i]);
+        }
+
+        String[] longs = {"0", "-1", "+42", "9223372036854775807", "-9223372036854775808"};
+        List<Long> parsedLongs = MappedCsv.open(write("longs.csv", String.join("\n", longs)).toString(), false)
+            .parse(row -> row.getLong(0));
+        for (int i = 0; i < longs.length; i++) {
+            assertEquals(Long.parseLong(longs[i]), (long) parsedLongs.get(i), longs[i]);
+        }
+    }
+
+    @Test void invalidNumbersAreRejected() throws IOException {
+        String[] invalid = {"9223372036854775808", "-9223372036854775809", "", "-", "12a", "1.5"};
+        for (String value : invalid) {
+            MappedCsv csv = MappedCsv.open(write("invalid.csv", value + ",x\n").toString(), false);
+            assertThrows(NumberFormatException.class, () -> csv.parse(row -> row.getLong(0)), value);
+        }
+        MappedCsv tooBig = MappedCsv.open(write("int.csv", "2147483648\n").toString(), false);
+        assertThrows(NumberFormatException.class, () -> tooBig.parse(row -> row.getInt(0)));
+        MappedCsv text = MappedCsv.open(write("double.csv", "abc\n").toString(), false);
+        assertThrows(NumberFormatException.class, () -> text.parse(row -> row.getDouble(0)));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        return Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,100 @@
+package mio.server.data;
+
+import mioice.*;
+import mio.server.util.GeoUtils;
+
+import java.util.*;
+
+/**
+ * Red de prueba pequeña y determinista para comparar los motores de búsqueda
+ *
+ * Las paradas forman una cuadrícula de estaciones a ~300 m; cada estación tiene
+ * dos andenes con las mismas coordenadas (como en la red real), unidos por arcos
+ * a pie de 0 km. Las líneas recorren filas y columnas con desvíos aleatorios y
+ * algunas pasan de un andén al otro de la misma estación (arco de bus de 0 km),
+ * así que hay ciclos de costo 0 y muchos arcos paralelos entre el mismo par.
+ * La parada DEAD_END solo tiene un arco de llegada (pares sin camino).
+ */
+public final class SampleNetwork {
+
+    public static final int DEAD_END = 700000; // parada a la que se llega pero de la que no se sale
+
+    public final Map<Integer, Stop> stops = new LinkedHashMap<>();
+    public final List<Arc> transitArcs = new ArrayList<>();
+    public final List<Arc> walkArcs = new ArrayList<>();
+    public final AdjacencyIndex index;
+
+    private SampleNetwork(long seed, int rows, int cols, int lines) {
+        Random random = new Random(seed);
+        Stop[][] platforms = new Stop[rows * cols][2];
+        for (int s = 0; s < rows * cols; s++) {
+            double lat = 3.40 + (s / cols) * 0.0027 + random.nextDouble() * 0.0005;
+            double lon = -76.55 + (s % cols) * 0.0027 + random.nextDouble() * 0.0005;
+            for (int p = 0; p < 2; p++) {
+                int stopId = 500000 + p * 100000 + s;
+                Stop stop = new Stop(stopId, 241, "S" + stopId, "Estacion " + s, 0L, 0L, lon, lat);
+                platforms[s][p] = stop;
+                stops.put(stopId, stop);
+            }
+            walkArcs.add(AdjacencyIndex.walkArc(platforms[s][0], platforms[s][1]));
+            walkArcs.add(AdjacencyIndex.walkArc(platforms[s][1], platforms[s][0]));
+        }
+
+        for (int line = 1; line <= lines; line++) {
+            for (int orientation = 0; orientation < 2; orientation++) {
+                int station = random.nextInt(rows * cols);
+                int platform = random.nextInt(2);
+                Stop from = platforms[station][platform];
+                for (int sequence = 1; sequence <= rows + cols; sequence++) {
+                    Stop to;
+                    if (random.nextInt(6) == 0) {
+                        // Cambio de andén en la misma estación: arco de 0 km
+                        platform = 1 - platform;
+                        to = platforms[station][platform];
+                    } else {
+                        int row = station / cols;
+                        int col = station % cols;
+                        switch (random.nextInt(4)) {
+                            case 0: row = Math.min(rows - 1, row + 1); break;
+                            case 1: row = Math.max(0, row - 1); break;
+                            case 2: col = Math.min(cols - 1, col + 1); break;
+                            default: col = Math.max(0, col - 1); break;
+                        }
+                        station = row * cols + col;
+                        to = platforms[station][platform];
+                    }
+                    if (to != from) {
+                        transitArcs.add(arc(line, orientation, sequence, from, to));
+                        from = to;
+                    }
+                }
+            }
+        }
+        // Terminal de un solo sentido: se llega desde la estación 0 pero no se sale
+        Stop terminal = new Stop(DEAD_END, 241, "S" + DEAD_END, "Terminal", 0L, 0L, -76.56, 3.39);
+        stops.put(DEAD_END, terminal);
+        transitArcs.add(arc(lines + 1, 0, 1, platforms[0][0], terminal));
+
+        this.index = AdjacencyIndex.build(stops, transitArcs, walkArcs, 1.0);
+    }
+
+    /**
+     * Red de rows x cols estaciones (2 andenes cada una) con lines líneas de ida
+     * y vuelta generadas con la semilla dada
+     */
+    public static SampleNetwork generate(long seed, int rows, int cols, int lines) {
+        return new SampleNetwork(seed, rows, cols, lines);
+    }
+
+    private static Arc arc(int line, int orientation, int sequence, Stop from, Stop to) {
+        double distance = GeoUtils.haversine(from.decimalLat, from.decimalLong, to.decimalLat, to.decimalLong);
+        return new Arc(line, "L" + line, orientation, sequence, from, to, distance, 20.0);
+    }
+
+    /**
+     * stopId de todas las paradas, en orden ascendente
+     */
+    public int[] stopIds() {
+        return stops.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+}
@@ -0,0 +1,70 @@
+package mio.server.services;
+
+import mioice.*;
+import mio.server.data.GraphBuilder;
+import mio.server.repository.RepositoryFactory;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphServiceITest {
+
+    private static GraphBuilder graph;
+    private static int[] ids;
+
+    @BeforeAll
+    static void loadGraph() {
+        graph = new GraphBuilder(
+            RepositoryFactory.createStopRepository("CSV", "data/stops-241.csv"),
+            RepositoryFactory.createLineRepository("CSV", "data/lines-241.csv"),
+            RepositoryFactory.createLineStopRepository("CSV", "data/linestops-241.csv"));
+        graph.loadData();
+        ids = graph.getStopsMap().keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    @Test void batchAnswersLikeSingleQueriesAndSharesTheirCache() throws StopNotFoundException {
+        GraphServiceI service = new GraphServiceI(graph);
+        service.configureCache(com.zeroc.Ice.Util.createProperties());
+
+        int count = 300;
+        int[] origins = new int[count];
+        int[] dests = new int[count];
+        Random random = new Random(14);
+        int unreachable = -1;
+        for (int i = 0; i < count - 1; i++) {
+            origins[i] = ids[random.nextInt(ids.length)];
+            dests[i] = ids[random.nextInt(ids.length)];
+            if (unreachable < 0 && graph.checkReachable(origins[i], dests[i]) != null) {
+                unreachable = i;
+            }
+        }
+        origins[count - 1] = 1; // parada que no existe
+        dests[count - 1] = ids[0];
+        assertTrue(unreachable >= 0);
+
+        RouteResult[] first = service.findRoutes(origins, dests, CostMode.DISTANCE, null);
+        assertEquals(count, first.length);
+        for (int i = 0; i < count; i++) {
+            RouteResult expected = graph.findRoute(origins[i], dests[i], CostMode.DISTANCE);
+            String query = origins[i] + " -> " + dests[i];
+            assertEquals(expected.found, first[i].found, query);
+            assertEquals(expected.totalDistance, first[i].totalDistance, 1e-9, query);
+        }
+        assertEquals(graph.checkReachable(origins[unreachable], dests[unreachable]).message,
+            first[unreachable].message);
+        assertFalse(first[count - 1].found);
+
+        // Los pares buscados quedaron en la caché que usan las consultas individuales
+        RouteResult[] second = service.findRoutes(origins, dests, CostMode.DISTANCE, null);
+        for (int i = 0; i < count - 1; i++) {
+            if (graph.checkReachable(origins[i], dests[i]) == null) {
+                assertSame(first[i], second[i], origins[i] + " -> " + dests[i]);
+                assertSame(first[i], service.findRouteWithMode(origins[i], dests[i], CostMode.DISTANCE, null));
+            }
+        }
+    }
+}
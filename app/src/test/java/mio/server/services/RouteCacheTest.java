@@ -0,0 +1,95 @@
+package mio.server.services;
+
+import mioice.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteCacheTest {
+
+    private static RouteResult result(long key) {
+        return new RouteResult(true, new Stop[0], new Arc[0], key, 0, "ruta " + key);
+    }
+
+    @Test void returnsStoredResultsAndCountsHitsAndMisses() {
+        RouteCache cache = new RouteCache(100, 0, 1);
+        assertNull(cache.get(7, 1));
+        RouteResult stored = result(7);
+        cache.put(7, stored, 1);
+
+        assertSame(stored, cache.get(7, 1));
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+        assertEquals(1, cache.size());
+    }
+
+    @Test void neverGrowsBeyondCapacity() {
+        RouteCache cache = new RouteCache(50, 0, 1);
+        for (long key = 0; key < 1000; key++) {
+            cache.put(key, result(key), 1);
+            assertTrue(cache.size() <= cache.capacity());
+        }
+        assertEquals(50, cache.capacity());
+        assertTrue(cache.evictions() > 0);
+    }
+
+    @Test void burstOfOneOffQueriesDoesNotEvictFrequentPairs() {
+        RouteCache cache = new RouteCache(100, 0, 1);
+        int hot = 60;
+        for (int round = 0; round < 5; round++) {
+            for (long key = 0; key < hot; key++) {
+                if (cache.get(key, 1) == null) {
+                    cache.put(key, result(key), 1);
+                }
+            }
+        }
+        // Ráfaga de consultas únicas mientras los pares frecuentes se siguen pidiendo
+        for (long key = 1000; key < 3000; key++) {
+            assertNull(cache.get(key, 1));
+            cache.put(key, result(key), 1);
+            assertNotNull(cache.get(key % hot, 1), "par frecuente " + key % hot + " expulsado");
+        }
+    }
+
+    @Test void frequentlyMissedKeyIsAdmitted() {
+        RouteCache cache = new RouteCache(100, 0, 1);
+        for (long key = 0; key < 200; key++) {
+            cache.put(key, result(key), 1);
+        }
+        long popular = 5000;
+        for (int i = 0; i < 6; i++) {
+            assertNull(cache.get(popular, 1));
+        }
+        cache.put(popular, result(popular), 1);
+        // Sale de la ventana al entrar otra clave y gana contra la víctima de la región principal
+        cache.put(6000, result(6000), 1);
+
+        assertNotNull(cache.get(popular, 1));
+    }
+
+    @Test void entriesExpireAfterTtl() throws InterruptedException {
+        RouteCache cache = new RouteCache(100, 1_000_000L, 1); // 1 ms
+        cache.put(1, result(1), 1);
+        Thread.sleep(20);
+
+        assertNull(cache.get(1, 1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test void newGraphVersionInvalidatesEverything() {
+        RouteCache cache = new RouteCache(100, 0, 1);
+        for (long key = 0; key < 10; key++) {
+            cache.put(key, result(key), 1);
+        }
+
+        assertNull(cache.get(3, 2));
+        assertEquals(0, cache.size());
+
+        // Un resultado calculado sobre la versión anterior ya no se guarda
+        cache.put(4, result(4), 1);
+        assertNull(cache.get(4, 2));
+        cache.put(4, result(4), 2);
+        assertNotNull(cache.get(4, 2));
+    }
+}
@@ -0,0 +1,77 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.SampleNetwork;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BidirectionalSearchTest {
+
+    private static final SampleNetwork NETWORK = SampleNetwork.generate(5, 6, 7, 10);
+    private static final AdjacencyIndex INDEX = NETWORK.index;
+
+    @Test void bfsFindsAsFewStopsAsTheForwardSearch() {
+        int[] ids = NETWORK.stopIds();
+        for (int origin : ids) {
+            for (int dest : ids) {
+                RouteResult expected = PathFinder.findShortestRoute(origin, dest, INDEX);
+                RouteResult actual = BidirectionalSearch.findShortestRoute(origin, dest, INDEX);
+                String query = origin + " -> " + dest;
+                assertEquals(expected.found, actual.found, query);
+                assertEquals(expected.stops.length, actual.stops.length, query);
+                assertConnected(actual, origin, dest);
+            }
+        }
+    }
+
+    @Test void dijkstraFindsTheSameDistanceAsTheForwardSearch() {
+        int[] ids = NETWORK.stopIds();
+        for (int origin : ids) {
+            for (int dest : ids) {
+                RouteResult expected = PathFinder.findShortestRouteByDistance(origin, dest, INDEX);
+                RouteResult actual = BidirectionalSearch.findShortestRouteByDistance(origin, dest, INDEX);
+                String query = origin + " -> " + dest;
+                assertEquals(expected.found, actual.found, query);
+                assertEquals(expected.totalDistance, actual.totalDistance, 1e-9, query);
+                assertConnected(actual, origin, dest);
+            }
+        }
+    }
+
+    @Test void unreachableAndUnknownStops() {
+        int station = NETWORK.stopIds()[0];
+        assertFalse(BidirectionalSearch.findShortestRoute(SampleNetwork.DEAD_END, station, INDEX).found);
+        assertFalse(BidirectionalSearch.findShortestRouteByDistance(SampleNetwork.DEAD_END, station, INDEX).found);
+        assertTrue(BidirectionalSearch.findShortestRoute(station, SampleNetwork.DEAD_END, INDEX).found);
+        assertFalse(BidirectionalSearch.findShortestRoute(1, station, INDEX).found);
+        assertFalse(BidirectionalSearch.findShortestRouteByDistance(station, 1, INDEX).found);
+
+        RouteResult same = BidirectionalSearch.findShortestRouteByDistance(station, station, INDEX);
+        assertTrue(same.found);
+        assertEquals(1, same.stops.length);
+        assertEquals(0, same.arcs.length);
+    }
+
+    /**
+     * La ruta va de origin a dest y cada arco une dos paradas consecutivas
+     */
+    static void assertConnected(RouteResult route, int origin, int dest) {
+        if (!route.found) {
+            return;
+        }
+        String query = origin + " -> " + dest;
+        assertEquals(origin, route.stops[0].stopId, query);
+        assertEquals(dest, route.stops[route.stops.length - 1].stopId, query);
+        assertEquals(route.stops.length, route.arcs.length + 1, query);
+        double total = 0.0;
+        for (int i = 0; i < route.arcs.length; i++) {
+            assertEquals(route.stops[i].stopId, route.arcs[i].fromStop.stopId, query);
+            assertEquals(route.stops[i + 1].stopId, route.arcs[i].toStop.stopId, query);
+            total += route.arcs[i].distance;
+        }
+        assertEquals(total, route.totalDistance, 1e-9, query);
+    }
+}
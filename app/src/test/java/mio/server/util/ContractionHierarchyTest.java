@@ -0,0 +1,78 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.SampleNetwork;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionHierarchyTest {
+
+    private static final SampleNetwork NETWORK = SampleNetwork.generate(13, 5, 5, 8);
+
+    @TempDir
+    Path dir;
+
+    @Test void parallelContractionKeepsShortestDistances() {
+        ContractionHierarchy hierarchy = ContractionHierarchy.build(NETWORK.index, 3);
+        assertTrue(hierarchy.shortcutCount() > 0);
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                RouteResult expected = PathFinder.findShortestRouteByDistance(origin, dest, NETWORK.index);
+                RouteResult actual = PathFinder.findShortestRouteWithHierarchy(origin, dest, NETWORK.index, hierarchy);
+                assertEquals(expected.found, actual.found, origin + " -> " + dest);
+                assertEquals(expected.totalDistance, actual.totalDistance, 1e-9, origin + " -> " + dest);
+            }
+        }
+    }
+
+    @Test void savedHierarchyAnswersTheSameRoutes() throws IOException {
+        ContractionHierarchy built = ContractionHierarchy.build(NETWORK.index, 1);
+        Path file = dir.resolve("ch.bin");
+        Files.write(file, new byte[16]);
+        built.save(file);
+        ContractionHierarchy loaded = ContractionHierarchy.load(file, NETWORK.index);
+        // El temporal se renombra sobre el archivo anterior: no queda nada más en el directorio
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(1L, files.count());
+        }
+
+        assertEquals(built.shortcutCount(), loaded.shortcutCount());
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                RouteResult expected = PathFinder.findShortestRouteWithHierarchy(origin, dest, NETWORK.index, built);
+                RouteResult actual = PathFinder.findShortestRouteWithHierarchy(origin, dest, NETWORK.index, loaded);
+                assertEquals(stopIds(expected), stopIds(actual), origin + " -> " + dest);
+            }
+        }
+    }
+
+    @Test void loadRejectsOtherGraphsAndTruncatedFiles() throws IOException {
+        Path file = dir.resolve("ch.bin");
+        ContractionHierarchy.build(NETWORK.index, 1).save(file);
+
+        SampleNetwork other = SampleNetwork.generate(14, 5, 5, 8);
+        assertThrows(IOException.class, () -> ContractionHierarchy.load(file, other.index));
+
+        Path truncated = dir.resolve("short.bin");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IOException.class, () -> ContractionHierarchy.load(truncated, NETWORK.index));
+
+        Path garbage = dir.resolve("garbage.bin");
+        Files.write(garbage, new byte[64]);
+        assertThrows(IOException.class, () -> ContractionHierarchy.load(garbage, NETWORK.index));
+    }
+
+    private static String stopIds(RouteResult route) {
+        return Arrays.toString(Arrays.stream(route.stops).mapToInt(stop -> stop.stopId).toArray());
+    }
+}
@@ -0,0 +1,78 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.SampleNetwork;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoordinateSearchTest {
+
+    private static final SampleNetwork NETWORK = SampleNetwork.generate(19, 5, 6, 12);
+    private static final AdjacencyIndex INDEX = NETWORK.index;
+    private static final StopGrid GRID = StopGrid.build(INDEX, StopGrid.DEFAULT_CELL_METERS);
+
+    @Test void tripBetweenStationsRidesTheShortestBusRoute() {
+        // Los dos andenes de una estación comparten coordenadas: caminata de 0 km
+        int stations = 5 * 6;
+        int trips = 0;
+        for (int s = 0; s < stations; s++) {
+            for (int t = 0; t < stations; t++) {
+                Stop origin = NETWORK.stops.get(500000 + s);
+                Stop dest = NETWORK.stops.get(500000 + t);
+                CoordinateRoute route = CoordinateSearch.findRoute(origin.decimalLat, origin.decimalLong,
+                    dest.decimalLat, dest.decimalLong, 100.0, 4.0, INDEX, GRID);
+                RouteResult expected = PathFinder.findShortestRouteByDistance(origin.stopId, dest.stopId, INDEX);
+                String query = s + " -> " + t;
+                if (s == t || !expected.found) {
+                    assertFalse(route.transit.found, query);
+                    continue;
+                }
+                assertTrue(route.found, query);
+                assertTrue(route.transit.found, query);
+                assertEquals(expected.totalDistance, route.transit.totalDistance, 1e-9, query);
+                assertEquals(0.0, route.walkDistance, 1e-9, query);
+                assertEquals(route.transit.totalDistance, route.totalDistance, 1e-9, query);
+                trips++;
+            }
+        }
+        assertTrue(trips > 0);
+    }
+
+    @Test void shortTripIsWalkedWithoutBus() {
+        Stop stop = NETWORK.stops.get(500000);
+        double destLat = stop.decimalLat + 0.0004; // ~45 m al norte
+        CoordinateRoute route = CoordinateSearch.findRoute(stop.decimalLat, stop.decimalLong,
+            destLat, stop.decimalLong, 800.0, 4.0, INDEX, GRID);
+
+        double directKm = GeoUtils.haversine(stop.decimalLat, stop.decimalLong, destLat, stop.decimalLong);
+        assertTrue(route.found);
+        assertFalse(route.transit.found);
+        assertEquals(directKm, route.totalDistance, 1e-12);
+        assertEquals(directKm, route.walkDistance, 1e-12);
+    }
+
+    @Test void invalidCoordinatesAreRejectedBeforeSearching() {
+        Stop stop = NETWORK.stops.get(500000);
+        double lat = stop.decimalLat;
+        double lon = stop.decimalLong;
+        double[][] invalid = {
+            {Double.NaN, lon, lat, lon},
+            {lat, Double.POSITIVE_INFINITY, lat, lon},
+            {lat, lon, 90.5, lon},
+            {lat, lon, lat, -180.5},
+            {-91.0, lon, lat, lon},
+        };
+        for (double[] c : invalid) {
+            CoordinateRoute route = CoordinateSearch.findRoute(c[0], c[1], c[2], c[3], 800.0, 4.0, INDEX, GRID);
+            String query = c[0] + ", " + c[1] + " -> " + c[2] + ", " + c[3];
+            assertFalse(route.found, query);
+            assertFalse(route.transit.found, query);
+            assertTrue(route.message.startsWith("Coordenadas inválidas"), route.message);
+            assertEquals(route.message, PathFinder.checkCoordinates(c[0], c[1], c[2], c[3]).message, query);
+        }
+        assertNull(PathFinder.checkCoordinates(90.0, 180.0, -90.0, -180.0));
+    }
+}
@@ -0,0 +1,62 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.SampleNetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HierarchySearchTest {
+
+    private static final SampleNetwork NETWORK = SampleNetwork.generate(7, 6, 6, 10);
+    private static final ContractionHierarchy HIERARCHY = ContractionHierarchy.build(NETWORK.index, 1);
+
+    @Test void sameDistanceAsDijkstraForEveryPair() {
+        AdjacencyIndex index = NETWORK.index;
+        int[] ids = NETWORK.stopIds();
+        for (int origin : ids) {
+            for (int dest : ids) {
+                RouteResult expected = PathFinder.findShortestRouteByDistance(origin, dest, index);
+                RouteResult actual = PathFinder.findShortestRouteWithHierarchy(origin, dest, index, HIERARCHY);
+                String query = origin + " -> " + dest;
+                assertEquals(expected.found, actual.found, query);
+                assertEquals(expected.totalDistance, actual.totalDistance, 1e-9, query);
+            }
+        }
+    }
+
+    @Test void routesAreSimpleConnectedPaths() {
+        AdjacencyIndex index = NETWORK.index;
+        int[] ids = NETWORK.stopIds();
+        for (int origin : ids) {
+            for (int dest : ids) {
+                RouteResult route = PathFinder.findShortestRouteWithHierarchy(origin, dest, index, HIERARCHY);
+                if (!route.found) continue;
+
+                String query = origin + " -> " + dest;
+                assertEquals(origin, route.stops[0].stopId, query);
+                assertEquals(dest, route.stops[route.stops.length - 1].stopId, query);
+                assertEquals(route.stops.length, route.arcs.length + 1, query);
+                Set<Integer> seen = new HashSet<>();
+                for (Stop stop : route.stops) {
+                    assertTrue(seen.add(stop.stopId), "parada repetida " + stop.stopId + " en " + query);
+                }
+                for (int i = 0; i < route.arcs.length; i++) {
+                    assertEquals(route.stops[i].stopId, route.arcs[i].fromStop.stopId, query);
+                    assertEquals(route.stops[i + 1].stopId, route.arcs[i].toStop.stopId, query);
+                }
+            }
+        }
+    }
+
+    @Test void unknownStopsAreNotFound() {
+        int stop = NETWORK.stopIds()[0];
+        assertFalse(PathFinder.findShortestRouteWithHierarchy(1, stop, NETWORK.index, HIERARCHY).found);
+        assertFalse(PathFinder.findShortestRouteWithHierarchy(stop, 1, NETWORK.index, HIERARCHY).found);
+    }
+}
@@ -0,0 +1,140 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.SampleNetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathFinderTest {
+
+    private static final SampleNetwork NETWORK = SampleNetwork.generate(11, 5, 6, 12);
+    private static final AdjacencyIndex INDEX = NETWORK.index;
+    private static final ContractionHierarchy HIERARCHY = ContractionHierarchy.build(INDEX, 1);
+    private static final LandmarkTable LANDMARKS = LandmarkTable.build(INDEX, 4, 1);
+    private static final HopTable HOP_TABLE = HopTable.build(INDEX, 1);
+
+    @Test void distanceEnginesChooseTheSameArcsAsDijkstra() {
+        SearchAlgorithm[] engines = {SearchAlgorithm.ASTAR, SearchAlgorithm.ALT,
+            SearchAlgorithm.BIDIRECTIONAL_DIJKSTRA, SearchAlgorithm.CONTRACTION_HIERARCHY};
+        compareWith(SearchAlgorithm.DIJKSTRA, CostMode.DISTANCE, engines);
+    }
+
+    @Test void hopEnginesChooseTheSameArcsAsBfs() {
+        SearchAlgorithm[] engines = {SearchAlgorithm.BIDIRECTIONAL_BFS, SearchAlgorithm.HOP_TABLE};
+        compareWith(SearchAlgorithm.BFS, CostMode.HOPS, engines);
+    }
+
+    @Test void hopTableLimitIsTheLargestArrayThatFits() {
+        assertTrue(HopTable.memoryBytes(HopTable.MAX_STOPS) / 2 <= Integer.MAX_VALUE - 8);
+        assertTrue(HopTable.memoryBytes(HopTable.MAX_STOPS + 1) / 2 > Integer.MAX_VALUE - 8);
+        assertTrue(HopTable.fits(INDEX, INDEX.size()));
+        assertFalse(HopTable.fits(INDEX, INDEX.size() - 1));
+    }
+
+    @Test void treeCacheMatchesTheSearch() {
+        ShortestPathTreeCache trees = new ShortestPathTreeCache(INDEX, 1 << 20);
+        int[] ids = NETWORK.stopIds();
+        for (int origin : ids) {
+            for (int dest : ids) {
+                assertSameRoute(PathFinder.findShortestRoute(origin, dest, INDEX),
+                    PathFinder.findShortestRouteFromTree(origin, dest, CostMode.HOPS, INDEX, trees), origin, dest);
+                assertSameRoute(PathFinder.findShortestRouteByDistance(origin, dest, INDEX),
+                    PathFinder.findShortestRouteFromTree(origin, dest, CostMode.DISTANCE, INDEX, trees), origin, dest);
+            }
+        }
+    }
+
+    @Test void matrixCellsDescribeTheRouteOfFindRoute() {
+        int[] ids = NETWORK.stopIds();
+        int[] targets = Arrays.copyOf(ids, ids.length + 1);
+        targets[ids.length] = 1; // parada que no existe
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        for (CostMode mode : new CostMode[] { CostMode.HOPS, CostMode.DISTANCE }) {
+            RouteMatrix matrix = PathFinder.computeMatrix(ids, targets, mode, CostMode.DISTANCE, 0, INDEX, pool);
+            SearchAlgorithm reference = mode == CostMode.HOPS ? SearchAlgorithm.BFS : SearchAlgorithm.DIJKSTRA;
+            for (int i = 0; i < ids.length; i++) {
+                for (int j = 0; j < ids.length; j++) {
+                    RouteResult expected = route(ids[i], ids[j], mode, reference);
+                    int cell = i * targets.length + j;
+                    String query = mode + " " + ids[i] + " -> " + ids[j];
+                    if (!expected.found) {
+                        assertEquals(-1, matrix.hops[cell], query);
+                        continue;
+                    }
+                    assertEquals(expected.totalDistance, matrix.distances[cell], 1e-9, query);
+                    assertEquals(expected.stops.length - 1, matrix.hops[cell], query);
+                    assertEquals(expected.numTransfers, matrix.transfers[cell], query);
+                }
+                assertEquals(-1, matrix.hops[i * targets.length + ids.length]);
+            }
+        }
+    }
+
+    @Test void oversizedMatrixIsRejectedBeforeSearching() {
+        int[] sources = new int[PathFinder.MAX_MATRIX_CELLS / 1000 + 1];
+        int[] targets = new int[1000];
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+            PathFinder.computeMatrix(sources, targets, CostMode.HOPS, CostMode.DISTANCE, 0, INDEX,
+                ForkJoinPool.commonPool()));
+        assertTrue(error.getMessage().contains(String.valueOf(PathFinder.MAX_MATRIX_CELLS)), error.getMessage());
+
+        // rows * cols desborda int: se calcula en long
+        assertThrows(IllegalArgumentException.class, () -> PathFinder.checkMatrixSize(70_000, 70_000));
+        assertEquals(PathFinder.MAX_MATRIX_CELLS, PathFinder.checkMatrixSize(8_000, 1_000));
+    }
+
+    /**
+     * Misma existencia y costo que la referencia para todos los pares; cuando la
+     * secuencia de paradas coincide, los arcos elegidos (y los transbordos) también
+     */
+    private static void compareWith(SearchAlgorithm reference, CostMode mode, SearchAlgorithm[] engines) {
+        int[] ids = NETWORK.stopIds();
+        int sameStops = 0;
+        for (int origin : ids) {
+            for (int dest : ids) {
+                RouteResult expected = route(origin, dest, mode, reference);
+                for (SearchAlgorithm engine : engines) {
+                    RouteResult actual = route(origin, dest, mode, engine);
+                    String query = engine + " " + origin + " -> " + dest;
+                    assertEquals(expected.found, actual.found, query);
+                    if (mode == CostMode.DISTANCE) {
+                        assertEquals(expected.totalDistance, actual.totalDistance, 1e-9, query);
+                    } else {
+                        assertEquals(expected.stops.length, actual.stops.length, query);
+                    }
+                    if (stopIds(expected).equals(stopIds(actual))) {
+                        assertSameRoute(expected, actual, origin, dest);
+                        sameStops++;
+                    }
+                }
+            }
+        }
+        assertTrue(sameStops > 0);
+    }
+
+    private static RouteResult route(int origin, int dest, CostMode mode, SearchAlgorithm algorithm) {
+        return PathFinder.findRoute(origin, dest, mode, algorithm, INDEX, HIERARCHY, LANDMARKS, HOP_TABLE);
+    }
+
+    private static void assertSameRoute(RouteResult expected, RouteResult actual, int origin, int dest) {
+        String query = origin + " -> " + dest;
+        assertEquals(stopIds(expected), stopIds(actual), query);
+        assertEquals(expected.arcs.length, actual.arcs.length, query);
+        for (int i = 0; i < expected.arcs.length; i++) {
+            assertEquals(expected.arcs[i].lineId, actual.arcs[i].lineId, query);
+            assertEquals(expected.arcs[i].orientation, actual.arcs[i].orientation, query);
+            assertEquals(expected.arcs[i].sequenceNum, actual.arcs[i].sequenceNum, query);
+        }
+        assertEquals(expected.numTransfers, actual.numTransfers, query);
+    }
+
+    private static String stopIds(RouteResult route) {
+        return Arrays.toString(Arrays.stream(route.stops).mapToInt(stop -> stop.stopId).toArray());
+    }
+}
@@ -0,0 +1,101 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.PatternIndex;
+import mio.server.data.SampleNetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RaptorSearchTest {
+
+    private static final int MAX_TRANSFERS = 12;
+    private static final SampleNetwork NETWORK = SampleNetwork.generate(3, 5, 5, 8);
+    // RAPTOR solo recorre líneas: se compara contra las búsquedas sin transbordos a pie
+    private static final AdjacencyIndex TRANSIT = AdjacencyIndex.build(NETWORK.stops, NETWORK.transitArcs);
+    private static final PatternIndex PATTERNS = patterns();
+
+    private static PatternIndex patterns() {
+        Map<String, List<Arc>> byPattern = new LinkedHashMap<>();
+        for (Arc arc : NETWORK.transitArcs) {
+            byPattern.computeIfAbsent(arc.lineId + "_" + arc.orientation, key -> new ArrayList<>()).add(arc);
+        }
+        return PatternIndex.build(TRANSIT, byPattern.values());
+    }
+
+    @Test void journeysAreParetoOrdered() {
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                RouteResult[] journeys = PathFinder.findJourneys(origin, dest, MAX_TRANSFERS, TRANSIT, PATTERNS);
+                assertTrue(journeys.length > 0);
+                for (int i = 0; i < journeys.length; i++) {
+                    String query = origin + " -> " + dest + " #" + i;
+                    if (!journeys[i].found) {
+                        assertEquals(1, journeys.length, query);
+                        continue;
+                    }
+                    BidirectionalSearchTest.assertConnected(journeys[i], origin, dest);
+                    assertEquals(PathFinder.countTransfers(journeys[i].arcs), journeys[i].numTransfers, query);
+                    assertTrue(journeys[i].numTransfers <= MAX_TRANSFERS, query);
+                    if (i > 0) {
+                        assertTrue(journeys[i].numTransfers > journeys[i - 1].numTransfers, query);
+                        assertTrue(journeys[i].totalDistance < journeys[i - 1].totalDistance, query);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test void lastJourneyIsTheShortestRoute() {
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                RouteResult[] journeys = PathFinder.findJourneys(origin, dest, MAX_TRANSFERS, TRANSIT, PATTERNS);
+                RouteResult shortest = PathFinder.findShortestRouteByDistance(origin, dest, TRANSIT);
+                String query = origin + " -> " + dest;
+                RouteResult last = journeys[journeys.length - 1];
+                assertEquals(shortest.found, last.found, query);
+                if (shortest.found && shortest.numTransfers <= MAX_TRANSFERS) {
+                    assertEquals(shortest.totalDistance, last.totalDistance, 1e-9, query);
+                }
+            }
+        }
+    }
+
+    @Test void firstJourneyHasTheFewestTransfers() {
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                if (origin == dest) continue;
+                RouteResult first = PathFinder.findJourneys(origin, dest, MAX_TRANSFERS, TRANSIT, PATTERNS)[0];
+                RouteResult fewest = PathFinder.findRouteWithFewestTransfers(origin, dest, CostMode.DISTANCE, 0.0,
+                    TRANSIT);
+                String query = origin + " -> " + dest;
+                assertEquals(fewest.found, first.found, query);
+                if (fewest.found) {
+                    assertEquals(fewest.numTransfers, first.numTransfers, query);
+                    assertEquals(fewest.totalDistance, first.totalDistance, 1e-9, query);
+                }
+            }
+        }
+    }
+
+    @Test void transferLimitCutsLongerJourneys() {
+        int[] ids = NETWORK.stopIds();
+        for (int origin : ids) {
+            for (int dest : ids) {
+                RouteResult[] all = PathFinder.findJourneys(origin, dest, MAX_TRANSFERS, TRANSIT, PATTERNS);
+                RouteResult[] direct = PathFinder.findJourneys(origin, dest, 0, TRANSIT, PATTERNS);
+                String query = origin + " -> " + dest;
+                if (all[0].found && all[0].numTransfers == 0) {
+                    assertEquals(all[0].totalDistance, direct[0].totalDistance, 1e-9, query);
+                    assertEquals(1, direct.length, query);
+                } else {
+                    assertFalse(direct[0].found, query);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.SampleNetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StopGridTest {
+
+    // Las distancias de la grilla son de la proyección: a esta escala difieren de
+    // Haversine en menos de 0.1%, así que se comparan con esa tolerancia
+    private static final double TOLERANCE = 1e-3;
+
+    private static final SampleNetwork NETWORK = SampleNetwork.generate(18, 8, 9, 6);
+    private static final AdjacencyIndex INDEX = NETWORK.index;
+    private static final StopGrid GRID = StopGrid.build(INDEX, 200.0);
+
+    @Test void nearestReturnsTheClosestStopsInOrder() {
+        Random random = new Random(18);
+        for (int q = 0; q < 200; q++) {
+            // Incluye puntos fuera de la grilla (hasta ~1 km más allá del borde)
+            double lat = 3.39 + random.nextDouble() * 0.04;
+            double lon = -76.56 + random.nextDouble() * 0.045;
+            int k = 1 + random.nextInt(12);
+            NearbyStops nearby = GRID.nearest(lat, lon, k);
+
+            double[] expected = sortedHaversineMeters(lat, lon);
+            assertEquals(k, nearby.stopIds.length);
+            for (int i = 0; i < k; i++) {
+                String query = lat + ", " + lon + " k=" + k + " #" + i;
+                assertEquals(expected[i], nearby.distances[i], expected[i] * TOLERANCE + 1e-6, query);
+                assertEquals(haversineMeters(lat, lon, nearby.stopIds[i]), nearby.distances[i],
+                    nearby.distances[i] * TOLERANCE + 1e-6, query);
+                if (i > 0) {
+                    assertTrue(nearby.distances[i - 1] <= nearby.distances[i], query);
+                }
+            }
+        }
+        assertEquals(INDEX.size(), GRID.nearest(3.40, -76.55, INDEX.size() + 5).stopIds.length);
+        assertEquals(0, GRID.nearest(3.40, -76.55, 0).stopIds.length);
+    }
+
+    @Test void withinReturnsEveryStopInsideTheRadius() {
+        Random random = new Random(81);
+        for (int q = 0; q < 200; q++) {
+            double lat = 3.40 + random.nextDouble() * 0.022;
+            double lon = -76.55 + random.nextDouble() * 0.025;
+            double radius = 50.0 + random.nextDouble() * 900.0;
+            NearbyStops nearby = GRID.within(lat, lon, radius);
+
+            boolean[] returned = new boolean[INDEX.size()];
+            for (int i = 0; i < nearby.stopIds.length; i++) {
+                returned[INDEX.indexOf(nearby.stopIds[i])] = true;
+                assertTrue(nearby.distances[i] <= radius);
+                if (i > 0) {
+                    assertTrue(nearby.distances[i - 1] <= nearby.distances[i]);
+                }
+            }
+            for (int v = 0; v < INDEX.size(); v++) {
+                double meters = haversineMeters(lat, lon, INDEX.stopIdAt(v));
+                // Lejos del borde del radio la proyección decide lo mismo que Haversine
+                if (meters < radius * (1 - TOLERANCE)) {
+                    assertTrue(returned[v], "falta " + INDEX.stopIdAt(v) + " a " + meters + " m");
+                } else if (meters > radius * (1 + TOLERANCE)) {
+                    assertFalse(returned[v], "sobra " + INDEX.stopIdAt(v) + " a " + meters + " m");
+                }
+            }
+        }
+        assertEquals(0, GRID.within(3.40, -76.55, -1.0).stopIds.length);
+        assertEquals(0, GRID.within(3.40, -76.55, Double.NaN).stopIds.length);
+    }
+
+    @Test void neighborsMatchWithinWithoutTheStopItself() {
+        for (int stop = 0; stop < INDEX.size(); stop++) {
+            int v = stop;
+            int[] neighbors = GRID.neighbors(v, 350.0);
+            NearbyStops nearby = GRID.within(INDEX.latitudeAt(v), INDEX.longitudeAt(v), 350.0);
+
+            int[] expected = Arrays.stream(nearby.stopIds).map(INDEX::indexOf).filter(u -> u != v).sorted().toArray();
+            assertArrayEquals(expected, neighbors, "parada " + INDEX.stopIdAt(v));
+        }
+    }
+
+    private static double[] sortedHaversineMeters(double lat, double lon) {
+        double[] meters = new double[INDEX.size()];
+        for (int v = 0; v < INDEX.size(); v++) {
+            meters[v] = haversineMeters(lat, lon, INDEX.stopIdAt(v));
+        }
+        Arrays.sort(meters);
+        return meters;
+    }
+
+    private static double haversineMeters(double lat, double lon, int stopId) {
+        Stop stop = NETWORK.stops.get(stopId);
+        return GeoUtils.haversine(lat, lon, stop.decimalLat, stop.decimalLong) * 1000.0;
+    }
+}
@@ -0,0 +1,125 @@
+package mio.server.util;
+
+import mioice.*;
+import mio.server.data.AdjacencyIndex;
+import mio.server.data.SampleNetwork;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class YenSearchTest {
+
+    private static final int K = 6;
+    private static final SampleNetwork NETWORK = SampleNetwork.generate(17, 2, 3, 5);
+    private static final AdjacencyIndex INDEX = NETWORK.index;
+    private static final ForkJoinPool POOL = ForkJoinPool.commonPool();
+
+    @Test void firstAlternativeIsTheShortestRoute() {
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                RouteResult[] routes = PathFinder.findAlternativeRoutes(origin, dest, K, INDEX, null, POOL);
+                RouteResult shortest = PathFinder.findShortestRouteByDistance(origin, dest, INDEX);
+                String query = origin + " -> " + dest;
+                assertEquals(shortest.found, routes[0].found, query);
+                if (shortest.found) {
+                    assertEquals(shortest.totalDistance, routes[0].totalDistance, 1e-9, query);
+                }
+            }
+        }
+    }
+
+    @Test void alternativesAreDistinctSimplePathsInOrder() {
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                if (origin == dest) continue;
+                RouteResult[] routes = PathFinder.findAlternativeRoutes(origin, dest, K, INDEX, null, POOL);
+                assertTrue(routes.length <= K);
+                Set<List<Integer>> sequences = new HashSet<>();
+                for (int i = 0; i < routes.length; i++) {
+                    String query = origin + " -> " + dest + " #" + i;
+                    if (!routes[i].found) {
+                        assertEquals(1, routes.length, query);
+                        continue;
+                    }
+                    BidirectionalSearchTest.assertConnected(routes[i], origin, dest);
+                    assertEquals(PathFinder.countTransfers(routes[i].arcs), routes[i].numTransfers, query);
+                    List<Integer> sequence = stopIds(routes[i]);
+                    assertEquals(sequence.size(), new HashSet<>(sequence).size(), query + " repite paradas");
+                    assertTrue(sequences.add(sequence), query + " repetida");
+                    if (i > 0) {
+                        assertTrue(routes[i].totalDistance >= routes[i - 1].totalDistance - 1e-9, query);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test void matchesTheEnumerationOfAllSimplePaths() {
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                if (origin == dest) continue;
+                List<Double> costs = new ArrayList<>();
+                int from = INDEX.indexOf(origin);
+                enumerate(from, INDEX.indexOf(dest), new boolean[INDEX.size()], 0.0, costs);
+                Collections.sort(costs);
+
+                RouteResult[] routes = PathFinder.findAlternativeRoutes(origin, dest, K, INDEX, null, POOL);
+                String query = origin + " -> " + dest;
+                if (costs.isEmpty()) {
+                    assertFalse(routes[0].found, query);
+                    continue;
+                }
+                assertEquals(Math.min(K, costs.size()), routes.length, query);
+                for (int i = 0; i < routes.length; i++) {
+                    assertEquals(costs.get(i), routes[i].totalDistance, 1e-9, query + " #" + i);
+                }
+            }
+        }
+    }
+
+    @Test void landmarksDoNotChangeTheAlternatives() {
+        LandmarkTable landmarks = LandmarkTable.build(INDEX, 3, 1);
+        for (int origin : NETWORK.stopIds()) {
+            for (int dest : NETWORK.stopIds()) {
+                RouteResult[] plain = PathFinder.findAlternativeRoutes(origin, dest, K, INDEX, null, POOL);
+                RouteResult[] guided = PathFinder.findAlternativeRoutes(origin, dest, K, INDEX, landmarks, POOL);
+                String query = origin + " -> " + dest;
+                assertEquals(plain.length, guided.length, query);
+                for (int i = 0; i < plain.length; i++) {
+                    assertEquals(plain[i].totalDistance, guided[i].totalDistance, 1e-9, query + " #" + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Costo de todos los caminos sin paradas repetidas de v a dest (el arco más
+     * corto de cada par de paradas)
+     */
+    private static void enumerate(int v, int dest, boolean[] onPath, double cost, List<Double> costs) {
+        if (v == dest) {
+            costs.add(cost);
+            return;
+        }
+        onPath[v] = true;
+        for (int pair = INDEX.firstPair(v); pair < INDEX.lastPair(v); pair++) {
+            int next = INDEX.pairTarget(pair);
+            if (!onPath[next]) {
+                enumerate(next, dest, onPath, cost + INDEX.pairWeight(pair), costs);
+            }
+        }
+        onPath[v] = false;
+    }
+
+    private static List<Integer> stopIds(RouteResult route) {
+        List<Integer> ids = new ArrayList<>();
+        for (Stop stop : route.stops) {
+            ids.add(stop.stopId);
+        }
+        return ids;
+    }
+}